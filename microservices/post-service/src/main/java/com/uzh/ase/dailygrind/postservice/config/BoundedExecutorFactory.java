@@ -0,0 +1,50 @@
+package com.uzh.ase.dailygrind.postservice.config;
+
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Factory for the fixed-size thread pools with a bounded queue that run the background work of the service.
+ * <p>
+ * The queue is bounded so that a burst of work cannot exhaust the memory of the service. What happens when the
+ * queue is full depends on the work: tasks that must not be dropped run on the calling thread, which slows down
+ * producers, while tasks that can be skipped are rejected.
+ */
+final class BoundedExecutorFactory {
+
+    private BoundedExecutorFactory() {
+    }
+
+    /**
+     * Creates an executor that runs tasks on the calling thread when its queue is full.
+     *
+     * @param threadNamePrefix the prefix of the names of the pool threads
+     * @param threads          the number of pool threads
+     * @param queueCapacity    the maximum number of queued tasks
+     * @return the configured {@link ThreadPoolTaskExecutor}
+     */
+    static ThreadPoolTaskExecutor callerRuns(String threadNamePrefix, int threads, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = rejecting(threadNamePrefix, threads, queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+
+    /**
+     * Creates an executor that rejects tasks with a {@link org.springframework.core.task.TaskRejectedException}
+     * when its queue is full.
+     *
+     * @param threadNamePrefix the prefix of the names of the pool threads
+     * @param threads          the number of pool threads
+     * @param queueCapacity    the maximum number of queued tasks
+     * @return the configured {@link ThreadPoolTaskExecutor}
+     */
+    static ThreadPoolTaskExecutor rejecting(String threadNamePrefix, int threads, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        return executor;
+    }
+}
@@ -164,4 +164,88 @@ public class DynamoDBConfig {
     public DynamoDbTable<FriendEntity> friendTable(DynamoDbEnhancedClient dynamoDbEnhancedClient) {
         return dynamoDbEnhancedClient.table(TABLE_NAME, TableSchema.fromBean(FriendEntity.class));
     }
+
+    /**
+     * Creates and configures a DynamoDbTable for the UserLikeEntity.
+     * <p>
+     * This bean provides a table for interacting with the DynamoDB table that stores UserLikeEntity objects. It uses the
+     * {@link TableSchema} to map the {@link UserLikeEntity} class to the corresponding DynamoDB table.
+     *
+     * @param dynamoDbEnhancedClient the enhanced DynamoDb client
+     * @return the configured {@link DynamoDbTable} for UserLikeEntity
+     */
+    @Bean
+    public DynamoDbTable<UserLikeEntity> userLikeTable(DynamoDbEnhancedClient dynamoDbEnhancedClient) {
+        return dynamoDbEnhancedClient.table(TABLE_NAME, TableSchema.fromBean(UserLikeEntity.class));
+    }
+
+    /**
+     * Creates and configures a DynamoDbTable for the PostPinEntity.
+     * <p>
+     * This bean provides a table for interacting with the DynamoDB table that stores PostPinEntity objects. It uses the
+     * {@link TableSchema} to map the {@link PostPinEntity} class to the corresponding DynamoDB table.
+     *
+     * @param dynamoDbEnhancedClient the enhanced DynamoDb client
+     * @return the configured {@link DynamoDbTable} for PostPinEntity
+     */
+    @Bean
+    public DynamoDbTable<PostPinEntity> postPinTable(DynamoDbEnhancedClient dynamoDbEnhancedClient) {
+        return dynamoDbEnhancedClient.table(TABLE_NAME, TableSchema.fromBean(PostPinEntity.class));
+    }
+
+    /**
+     * Creates and configures a DynamoDbTable for the UserCommentEntity.
+     * <p>
+     * This bean provides a table for interacting with the DynamoDB table that stores UserCommentEntity objects. It uses the
+     * {@link TableSchema} to map the {@link UserCommentEntity} class to the corresponding DynamoDB table.
+     *
+     * @param dynamoDbEnhancedClient the enhanced DynamoDb client
+     * @return the configured {@link DynamoDbTable} for UserCommentEntity
+     */
+    @Bean
+    public DynamoDbTable<UserCommentEntity> userCommentTable(DynamoDbEnhancedClient dynamoDbEnhancedClient) {
+        return dynamoDbEnhancedClient.table(TABLE_NAME, TableSchema.fromBean(UserCommentEntity.class));
+    }
+
+    /**
+     * Creates and configures a DynamoDbTable for the TimelineInboxEntity.
+     * <p>
+     * This bean provides a table for interacting with the DynamoDB table that stores TimelineInboxEntity objects. It uses the
+     * {@link TableSchema} to map the {@link TimelineInboxEntity} class to the corresponding DynamoDB table.
+     *
+     * @param dynamoDbEnhancedClient the enhanced DynamoDb client
+     * @return the configured {@link DynamoDbTable} for TimelineInboxEntity
+     */
+    @Bean
+    public DynamoDbTable<TimelineInboxEntity> timelineInboxTable(DynamoDbEnhancedClient dynamoDbEnhancedClient) {
+        return dynamoDbEnhancedClient.table(TABLE_NAME, TableSchema.fromBean(TimelineInboxEntity.class));
+    }
+
+    /**
+     * Creates and configures a DynamoDbTable for the TimelineTombstoneEntity.
+     * <p>
+     * This bean provides a table for interacting with the DynamoDB table that stores TimelineTombstoneEntity objects. It uses the
+     * {@link TableSchema} to map the {@link TimelineTombstoneEntity} class to the corresponding DynamoDB table.
+     *
+     * @param dynamoDbEnhancedClient the enhanced DynamoDb client
+     * @return the configured {@link DynamoDbTable} for TimelineTombstoneEntity
+     */
+    @Bean
+    public DynamoDbTable<TimelineTombstoneEntity> timelineTombstoneTable(DynamoDbEnhancedClient dynamoDbEnhancedClient) {
+        return dynamoDbEnhancedClient.table(TABLE_NAME, TableSchema.fromBean(TimelineTombstoneEntity.class));
+    }
+
+    /**
+     * Creates and configures a DynamoDbTable for the DailyBucketEntity.
+     * <p>
+     * This bean provides a table for interacting with the DynamoDB table that stores DailyBucketEntity objects. It uses the
+     * {@link TableSchema} to map the {@link DailyBucketEntity} class to the corresponding DynamoDB table.
+     *
+     * @param dynamoDbEnhancedClient the enhanced DynamoDb client
+     * @return the configured {@link DynamoDbTable} for DailyBucketEntity
+     */
+    @Bean
+    public DynamoDbTable<DailyBucketEntity> dailyBucketTable(DynamoDbEnhancedClient dynamoDbEnhancedClient) {
+        return dynamoDbEnhancedClient.table(TABLE_NAME, TableSchema.fromBean(DailyBucketEntity.class));
+    }
 }
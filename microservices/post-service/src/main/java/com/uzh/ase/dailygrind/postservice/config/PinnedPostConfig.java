@@ -0,0 +1,34 @@
+package com.uzh.ase.dailygrind.postservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuration class for pinned posts.
+ * <p>
+ * Sets up the executor that updates the snapshots stored on pinned posts in the background, so that changing a
+ * post does not wait for the pins of other users.
+ */
+@Configuration
+public class PinnedPostConfig {
+
+    @Value("${post.pinned-posts.sync.threads:2}")
+    private int syncThreads;
+
+    @Value("${post.pinned-posts.sync.queue-capacity:1000}")
+    private int syncQueueCapacity;
+
+    /**
+     * Creates the executor used to update the snapshots of pinned posts.
+     * <p>
+     * Snapshot updates must not be dropped, so they run on the calling thread when the queue is full.
+     *
+     * @return the configured {@link ThreadPoolTaskExecutor}
+     */
+    @Bean
+    public ThreadPoolTaskExecutor pinnedPostSyncExecutor() {
+        return BoundedExecutorFactory.callerRuns("pinned-post-sync-", syncThreads, syncQueueCapacity);
+    }
+}
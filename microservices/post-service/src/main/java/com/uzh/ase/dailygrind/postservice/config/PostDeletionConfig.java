@@ -0,0 +1,35 @@
+package com.uzh.ase.dailygrind.postservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuration class for the deletion of posts.
+ * <p>
+ * Sets up the executor that deletes the likes, comments and pins of deleted posts in the background, so that
+ * deleting a post does not wait for its dependent items.
+ */
+@Configuration
+public class PostDeletionConfig {
+
+    @Value("${post.deletion.threads:2}")
+    private int deletionThreads;
+
+    @Value("${post.deletion.queue-capacity:1000}")
+    private int deletionQueueCapacity;
+
+    /**
+     * Creates the executor used to delete the dependent items of deleted posts.
+     * <p>
+     * When the queue is full, the caller runs the queries itself, so a burst of deleted posts slows down deleting
+     * instead of leaving their likes and comments behind.
+     *
+     * @return the configured {@link ThreadPoolTaskExecutor}
+     */
+    @Bean
+    public ThreadPoolTaskExecutor postDeletionExecutor() {
+        return BoundedExecutorFactory.callerRuns("post-deletion-", deletionThreads, deletionQueueCapacity);
+    }
+}
@@ -0,0 +1,107 @@
+package com.uzh.ase.dailygrind.postservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuration class for the timeline.
+ * <p>
+ * Sets up the executor that delivers posts to the timeline inboxes of friends in the background, so that creating
+ * a post or a friendship does not wait for the fan-out, the executor that rebuilds stale cached timelines and the
+ * executor that runs the per-friend lookups of a timeline in parallel. Also sets up the executor that sends the
+ * events of the timeline streams and enables the scheduled heartbeats of these streams.
+ */
+@Configuration
+@EnableScheduling
+public class TimelineConfig {
+
+    @Value("${post.timeline.fan-out-on-write.threads:4}")
+    private int fanOutThreads;
+
+    @Value("${post.timeline.fan-out-on-write.queue-capacity:1000}")
+    private int fanOutQueueCapacity;
+
+    @Value("${post.timeline.cache.refresh-threads:4}")
+    private int refreshThreads;
+
+    @Value("${post.timeline.stream.threads:4}")
+    private int streamThreads;
+
+    @Value("${post.timeline.stream.max-connections:20000}")
+    private int streamMaxConnections;
+
+    @Value("${post.parallel-lookup.threads:64}")
+    private int parallelLookupThreads;
+
+    /**
+     * Creates the executor used to fan out posts to timeline inboxes.
+     * <p>
+     * Inbox updates must not be dropped, so they run on the calling thread when the queue is full.
+     *
+     * @return the configured {@link ThreadPoolTaskExecutor}
+     */
+    @Bean
+    public ThreadPoolTaskExecutor timelineFanOutExecutor() {
+        return BoundedExecutorFactory.callerRuns("timeline-fan-out-", fanOutThreads, fanOutQueueCapacity);
+    }
+
+    /**
+     * Creates the executor used to rebuild stale cached timelines in the background.
+     * <p>
+     * The queue is bounded. When it is full, the rebuild is rejected and the stale timeline is served until a
+     * later request schedules the rebuild again.
+     *
+     * @return the configured {@link ThreadPoolTaskExecutor}
+     */
+    @Bean
+    public ThreadPoolTaskExecutor timelineRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(refreshThreads);
+        executor.setMaxPoolSize(refreshThreads);
+        executor.setQueueCapacity(refreshThreads * 100);
+        executor.setThreadNamePrefix("timeline-refresh-");
+        return executor;
+    }
+
+    /**
+     * Creates the executor used to send queued events to the timeline stream connections.
+     * <p>
+     * At most one task per connection is queued at a time, so a queue as large as the maximum number of
+     * connections never rejects a task.
+     *
+     * @return the configured {@link ThreadPoolTaskExecutor}
+     */
+    @Bean
+    public ThreadPoolTaskExecutor timelineStreamExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(streamThreads);
+        executor.setMaxPoolSize(streamThreads);
+        executor.setQueueCapacity(streamMaxConnections);
+        executor.setThreadNamePrefix("timeline-stream-");
+        return executor;
+    }
+
+    /**
+     * Creates the executor used for parallel lookups, e.g. of the daily posts of all friends.
+     * <p>
+     * Virtual threads are used where the runtime supports them, since the lookups mostly wait for DynamoDB.
+     * Otherwise a bounded pool of platform threads is used. Lookups that do not fit into its queue are rejected
+     * and reported as incomplete by the caller.
+     *
+     * @return the configured {@link AsyncTaskExecutor}
+     */
+    @Bean
+    public AsyncTaskExecutor parallelLookupTaskExecutor() {
+        if (Runtime.version().feature() >= 21) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("parallel-lookup-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+        return BoundedExecutorFactory.rejecting("parallel-lookup-", parallelLookupThreads, parallelLookupThreads * 4);
+    }
+}
@@ -1,5 +1,7 @@
 package com.uzh.ase.dailygrind.postservice.config;
 
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.CursorPage;
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.PartialResult;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -49,6 +51,7 @@ public class WebConfig implements WebMvcConfigurer {
         log.info("Allowed CORS methods: {}", String.join(", ", allowedMethods));
 
         registry.addMapping("/**").allowedOrigins(allowedOrigins);
-        registry.addMapping("/**").allowedMethods(allowedMethods);
+        registry.addMapping("/**").allowedMethods(allowedMethods)
+            .exposedHeaders(CursorPage.NEXT_CURSOR_HEADER, PartialResult.INCOMPLETE_HEADER);
     }
 }
@@ -2,6 +2,7 @@ package com.uzh.ase.dailygrind.postservice.post.controller;
 
 import com.uzh.ase.dailygrind.postservice.post.controller.dto.CommentDto;
 import com.uzh.ase.dailygrind.postservice.post.controller.dto.CommentEntryDto;
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.CursorPage;
 import com.uzh.ase.dailygrind.postservice.post.service.CommentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -27,16 +28,32 @@ public class CommentController {
     private final CommentService commentService;
 
     /**
-     * Retrieves all comments for a given post.
+     * Retrieves the comments for a given post, ordered by creation time.
+     * <p>
+     * Without {@code limit} and {@code cursor}, all comments are returned. Otherwise a single page is returned
+     * and the cursor of the next page is sent in the {@value CursorPage#NEXT_CURSOR_HEADER} header.
      *
      * @param postId the ID of the post to retrieve comments for
+     * @param limit  the maximum number of comments to return (optional)
+     * @param cursor the cursor of the page to retrieve (optional)
      * @return a list of {@link CommentEntryDto} objects containing comment data for the specified post
      */
     @Operation(summary = "Get all comments for a post")
     @ApiResponse(responseCode = "200", description = "Successfully retrieved comments")
     @GetMapping("/{postId}/comments")
-    public ResponseEntity<List<CommentEntryDto>> getComments(@PathVariable String postId) {
-        return ResponseEntity.ok(commentService.getComments(postId));
+    public ResponseEntity<List<CommentEntryDto>> getComments(@PathVariable String postId,
+                                                             @RequestParam(required = false) Integer limit,
+                                                             @RequestParam(required = false) String cursor) {
+        if (limit == null && cursor == null) {
+            return ResponseEntity.ok(commentService.getComments(postId));
+        }
+
+        CursorPage<CommentEntryDto> page = commentService.getComments(postId, limit, cursor);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(CursorPage.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
     }
 
     /**
@@ -1,11 +1,16 @@
 package com.uzh.ase.dailygrind.postservice.post.controller;
 
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.CursorPage;
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.PartialResult;
 import com.uzh.ase.dailygrind.postservice.post.controller.dto.PostDto;
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.UserDto;
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.VersionedResult;
 import com.uzh.ase.dailygrind.postservice.post.service.PostService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -56,32 +61,75 @@ public class PostController {
 
     /**
      * Retrieves all posts created by the currently authenticated user.
+     * <p>
+     * Without {@code limit} and {@code cursor}, all posts are returned. Otherwise a single page is returned, newest
+     * first, and the cursor of the next page is sent in the {@value CursorPage#NEXT_CURSOR_HEADER} header. With
+     * {@code summary}, the posts are returned without their content.
      *
+     * @param limit the maximum number of posts to return (optional)
+     * @param cursor the cursor of the page to retrieve (optional)
+     * @param summary whether the posts should be returned without their content (optional)
      * @param principal the current authenticated user
      * @return a list of posts created by the user
      */
     @Operation(summary = "Get all posts by the authenticated user")
     @ApiResponse(responseCode = "200", description = "Successfully retrieved posts")
     @GetMapping("/users/me/posts")
-    public ResponseEntity<List<PostDto>> getMyPosts(Principal principal) {
-        return ResponseEntity.ok(postService.getPostsForUser(principal.getName()));
+    public ResponseEntity<List<PostDto>> getMyPosts(@RequestParam(required = false) Integer limit,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "false") boolean summary,
+                                                    Principal principal) {
+        return toPageResponse(postService.getPostsForUser(principal.getName(), limit, cursor, summary));
     }
 
     /**
      * Retrieves all posts created by a specific user.
+     * <p>
+     * Without {@code limit} and {@code cursor}, all posts are returned. Otherwise a single page is returned, newest
+     * first, and the cursor of the next page is sent in the {@value CursorPage#NEXT_CURSOR_HEADER} header. With
+     * {@code summary}, the posts are returned without their content.
      *
      * @param userId the ID of the user whose posts are to be retrieved
+     * @param limit the maximum number of posts to return (optional)
+     * @param cursor the cursor of the page to retrieve (optional)
+     * @param summary whether the posts should be returned without their content (optional)
      * @return a list of posts created by the specified user
      */
     @Operation(summary = "Get all posts by a specific user")
     @ApiResponse(responseCode = "200", description = "Successfully retrieved user's posts")
     @GetMapping("/users/{userId}/posts")
-    public ResponseEntity<List<PostDto>> getUserPosts(@PathVariable String userId) {
-        return ResponseEntity.ok(postService.getPostsForUser(userId));
+    public ResponseEntity<List<PostDto>> getUserPosts(@PathVariable String userId,
+                                                      @RequestParam(required = false) Integer limit,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "false") boolean summary) {
+        return toPageResponse(postService.getPostsForUser(userId, limit, cursor, summary));
+    }
+
+    /**
+     * Retrieves the posts the currently authenticated user has liked.
+     * <p>
+     * Without {@code limit} and {@code cursor}, all liked posts are returned. Otherwise a single page is returned
+     * and the cursor of the next page is sent in the {@value CursorPage#NEXT_CURSOR_HEADER} header.
+     *
+     * @param limit the maximum number of posts to return (optional)
+     * @param cursor the cursor of the page to retrieve (optional)
+     * @param principal the current authenticated user
+     * @return a list of posts the user has liked
+     */
+    @Operation(summary = "Get all posts the authenticated user has liked")
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved liked posts")
+    @GetMapping("/users/me/liked-posts")
+    public ResponseEntity<List<PostDto>> getMyLikedPosts(@RequestParam(required = false) Integer limit,
+                                                         @RequestParam(required = false) String cursor,
+                                                         Principal principal) {
+        return toPageResponse(postService.getLikedPosts(principal.getName(), limit, cursor));
     }
 
     /**
      * Retrieves a post by its ID.
+     * <p>
+     * The version of the post is returned in the {@code ETag} header, to be sent in the {@code If-Match} header of
+     * an update.
      *
      * @param postId the ID of the post to retrieve
      * @param principal the current authenticated user
@@ -91,7 +139,44 @@ public class PostController {
     @ApiResponse(responseCode = "200", description = "Successfully retrieved post")
     @GetMapping("/{postId}")
     public ResponseEntity<PostDto> getPost(@PathVariable String postId, Principal principal) {
-        return ResponseEntity.ok(postService.getPostById(postId, principal.getName()));
+        return toVersionedResponse(postService.getPostById(postId, principal.getName()));
+    }
+
+    /**
+     * Retrieves several posts by their IDs, e.g. all posts visible on a screen, with a single request.
+     * <p>
+     * The posts are returned in the requested order; unknown IDs are skipped. If some posts could not be looked up,
+     * the {@value PartialResult#INCOMPLETE_HEADER} header is set.
+     *
+     * @param ids the comma-separated IDs of the posts to retrieve
+     * @param principal the current authenticated user
+     * @return the posts with the given IDs
+     */
+    @Operation(summary = "Get several posts by ID")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved posts"),
+        @ApiResponse(responseCode = "400", description = "No or too many post IDs")
+    })
+    @GetMapping
+    public ResponseEntity<List<PostDto>> getPosts(@RequestParam List<String> ids, Principal principal) {
+        return toPartialResponse(postService.getPostsByIds(ids, principal.getName()));
+    }
+
+    /**
+     * Retrieves several posts by their IDs given in the request body, for lists of IDs too long for a URL.
+     *
+     * @param ids the IDs of the posts to retrieve
+     * @param principal the current authenticated user
+     * @return the posts with the given IDs
+     */
+    @Operation(summary = "Get several posts by ID given in the request body")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved posts"),
+        @ApiResponse(responseCode = "400", description = "No or too many post IDs")
+    })
+    @PostMapping("/batch-get")
+    public ResponseEntity<List<PostDto>> getPostsFromBody(@RequestBody List<String> ids, Principal principal) {
+        return toPartialResponse(postService.getPostsByIds(ids, principal.getName()));
     }
 
     /**
@@ -113,10 +198,14 @@ public class PostController {
     }
 
     /**
-     * Updates a post by its ID.
+     * Updates the title and content of a post by its ID.
+     * <p>
+     * If the {@code If-Match} header contains the version of the post, as returned in the {@code ETag} header, the
+     * post is only updated if it has not been edited since. The new version is returned in the {@code ETag} header.
      *
      * @param postId the ID of the post to update
      * @param postDto the new post data
+     * @param ifMatch the expected version of the post, optional
      * @param principal the current authenticated user
      * @return the updated post
      * @throws ResponseStatusException if the post ID in the URL does not match the one in the body
@@ -124,12 +213,15 @@ public class PostController {
     @Operation(summary = "Update a post by ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Post updated successfully"),
-        @ApiResponse(responseCode = "400", description = "Post ID mismatch between URL and body")
+        @ApiResponse(responseCode = "400", description = "Post ID mismatch between URL and body, or post not found"),
+        @ApiResponse(responseCode = "412", description = "Post has been edited since the version in If-Match")
     })
     @PutMapping("/{postId}")
-    public ResponseEntity<PostDto> updatePost(@PathVariable String postId, @RequestBody PostDto postDto, Principal principal) {
+    public ResponseEntity<PostDto> updatePost(@PathVariable String postId, @RequestBody PostDto postDto,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                              Principal principal) {
         if (!postId.equals(postDto.postId())) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Post ID mismatch");
-        return ResponseEntity.ok(postService.updatePost(postId, principal.getName(), postDto));
+        return toVersionedResponse(postService.updatePost(postId, principal.getName(), postDto, parseVersion(ifMatch)));
     }
 
     /**
@@ -147,6 +239,19 @@ public class PostController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Retrieves the users who liked a post.
+     *
+     * @param postId the ID of the post
+     * @return a list of users who liked the post
+     */
+    @Operation(summary = "Get the users who liked a post")
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved users who liked the post")
+    @GetMapping("/{postId}/likes")
+    public ResponseEntity<List<UserDto>> getLikers(@PathVariable String postId) {
+        return ResponseEntity.ok(postService.getLikers(postId));
+    }
+
     /**
      * Likes a post.
      *
@@ -176,4 +281,39 @@ public class PostController {
         postService.unlikePost(postId, principal.getName());
         return ResponseEntity.noContent().build();
     }
+
+    private static ResponseEntity<List<PostDto>> toPageResponse(CursorPage<PostDto> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(CursorPage.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
+    }
+
+    private static ResponseEntity<List<PostDto>> toPartialResponse(PartialResult<PostDto> result) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!result.complete()) {
+            response.header(PartialResult.INCOMPLETE_HEADER, "true");
+        }
+        return response.body(result.items());
+    }
+
+    private static ResponseEntity<PostDto> toVersionedResponse(VersionedResult<PostDto> result) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (result.item() != null) {
+            response.eTag(String.valueOf(result.version()));
+        }
+        return response.body(result.item());
+    }
+
+    private static Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.equals("*")) return null;
+        String version = ifMatch.trim();
+        if (version.startsWith("W/")) version = version.substring(2);
+        try {
+            return Long.parseLong(version.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid If-Match header");
+        }
+    }
 }
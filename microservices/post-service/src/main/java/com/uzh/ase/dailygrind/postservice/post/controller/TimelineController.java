@@ -1,14 +1,22 @@
 package com.uzh.ase.dailygrind.postservice.post.controller;
 
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.CursorPage;
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.PartialResult;
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.TimelineChangesDto;
 import com.uzh.ase.dailygrind.postservice.post.controller.dto.TimelineEntryDto;
 import com.uzh.ase.dailygrind.postservice.post.service.TimelineService;
+import com.uzh.ase.dailygrind.postservice.post.service.TimelineStreamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.security.Principal;
 import java.util.List;
@@ -25,18 +33,112 @@ import java.util.List;
 public class TimelineController {
 
     private final TimelineService timelineService;
+    private final TimelineStreamService timelineStreamService;
 
     /**
      * Retrieves the timeline posts for the currently authenticated user.
+     * <p>
+     * Without a limit and cursor, the whole timeline is returned. Otherwise a single page is returned and the cursor
+     * of the next page is set in the {@value CursorPage#NEXT_CURSOR_HEADER} header. If not all posts could be
+     * retrieved in time, the posts found so far are returned and the {@value PartialResult#INCOMPLETE_HEADER}
+     * header is set.
      *
+     * @param limit the maximum number of timeline entries to return (optional)
+     * @param cursor the cursor of the page to retrieve (optional)
      * @param principal the current authenticated user
      * @return a list of timeline entries for the authenticated user
      */
     @Operation(summary = "Get timeline posts for the authenticated user")
     @ApiResponse(responseCode = "200", description = "Successfully retrieved timeline")
     @GetMapping("/users/me/timeline")
-    public ResponseEntity<List<TimelineEntryDto>> getMyTimeline(Principal principal) {
-        return ResponseEntity.ok(timelineService.getTimelineEntries(principal.getName()));
+    public ResponseEntity<List<TimelineEntryDto>> getMyTimeline(@RequestParam(required = false) Integer limit,
+                                                                @RequestParam(required = false) String cursor,
+                                                                Principal principal) {
+        if (limit == null && cursor == null) {
+            PartialResult<TimelineEntryDto> timeline = timelineService.getTimelineEntries(principal.getName());
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (!timeline.complete()) {
+                response.header(PartialResult.INCOMPLETE_HEADER, "true");
+            }
+            return response.body(timeline.items());
+        }
+
+        return toPageResponse(timelineService.getTimelinePage(principal.getName(), limit, cursor));
+    }
+
+    /**
+     * Retrieves the posts of the friends of the currently authenticated user from the last days, newest first.
+     * <p>
+     * The cursor of the next page is set in the {@value CursorPage#NEXT_CURSOR_HEADER} header. If not all posts
+     * could be retrieved in time, the posts found so far are returned and the
+     * {@value PartialResult#INCOMPLETE_HEADER} header is set.
+     *
+     * @param limit the maximum number of entries to return (optional)
+     * @param cursor the cursor of the page to retrieve (optional)
+     * @param principal the current authenticated user
+     * @return a page of the posts of the friends of the authenticated user
+     */
+    @Operation(summary = "Get the posts of the last days from the friends of the authenticated user")
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved timeline history")
+    @GetMapping("/users/me/timeline/history")
+    public ResponseEntity<List<TimelineEntryDto>> getMyTimelineHistory(@RequestParam(required = false) Integer limit,
+                                                                       @RequestParam(required = false) String cursor,
+                                                                       Principal principal) {
+        return toPageResponse(timelineService.getHistoryPage(principal.getName(), limit, cursor));
+    }
+
+    /**
+     * Retrieves the changes of the timeline of the currently authenticated user since the last sync.
+     * <p>
+     * The first sync is done without a token and returns the whole timeline. The returned token is passed to the
+     * next sync, which only returns the entries that changed and the posts that were removed since. If not all
+     * posts could be retrieved in time, the {@value PartialResult#INCOMPLETE_HEADER} header is set.
+     *
+     * @param since the token returned by the previous sync (optional)
+     * @param principal the current authenticated user
+     * @return the changes of the timeline of the authenticated user
+     */
+    @Operation(summary = "Get the changes of the timeline of the authenticated user since the last sync")
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved timeline changes")
+    @GetMapping("/users/me/timeline/changes")
+    public ResponseEntity<TimelineChangesDto> getMyTimelineChanges(@RequestParam(required = false) String since,
+                                                                   Principal principal) {
+        TimelineChangesDto changes = timelineService.getTimelineChanges(principal.getName(), since);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!changes.complete()) {
+            response.header(PartialResult.INCOMPLETE_HEADER, "true");
+        }
+        return response.body(changes);
+    }
+
+    /**
+     * Opens a stream of Server-Sent Events with the live changes of the timeline of the currently authenticated user.
+     * <p>
+     * The stream sends a {@value TimelineStreamService#POST_EVENT} event for every new daily post of a friend and a
+     * {@value TimelineStreamService#COUNTER_EVENT} event for every change of a like or comment count. A client that
+     * does not read the events fast enough is disconnected and should sync its timeline after reconnecting.
+     *
+     * @param principal the current authenticated user
+     * @return the emitter of the stream
+     */
+    @Operation(summary = "Stream the live changes of the timeline of the authenticated user")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully opened timeline stream"),
+        @ApiResponse(responseCode = "503", description = "Too many open streams on this instance")
+    })
+    @GetMapping(value = "/users/me/timeline/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMyTimeline(Principal principal) {
+        return timelineStreamService.subscribe(principal.getName());
     }
 
+    private static ResponseEntity<List<TimelineEntryDto>> toPageResponse(CursorPage<TimelineEntryDto> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(CursorPage.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        if (!page.complete()) {
+            response.header(PartialResult.INCOMPLETE_HEADER, "true");
+        }
+        return response.body(page.items());
+    }
 }
@@ -0,0 +1,63 @@
+package com.uzh.ase.dailygrind.postservice.post.controller;
+
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.TimelineEntryDto;
+import com.uzh.ase.dailygrind.postservice.post.service.TrendingService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * Controller responsible for handling trending-related operations.
+ * <p>
+ * This controller allows users to retrieve the posts that currently receive the most likes and comments.
+ * It interacts with the {@link TrendingService} to fetch the trending posts.
+ */
+@RestController
+@RequestMapping("${api.base-path}")
+@RequiredArgsConstructor
+public class TrendingController {
+
+    private final TrendingService trendingService;
+
+    /**
+     * Retrieves the trending posts of all users, highest score first.
+     *
+     * @param limit the maximum number of posts to return (default 20, at most 100)
+     * @param principal the current authenticated user
+     * @return a list of the trending posts together with their authors
+     */
+    @Operation(summary = "Get the trending posts")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved trending posts"),
+        @ApiResponse(responseCode = "400", description = "Invalid limit")
+    })
+    @GetMapping("/trending")
+    public List<TimelineEntryDto> getTrendingPosts(@RequestParam(defaultValue = "20") int limit, Principal principal) {
+        return trendingService.getTrendingPosts(principal.getName(), limit, false);
+    }
+
+    /**
+     * Retrieves the trending posts of the friends of the currently authenticated user, highest score first.
+     *
+     * @param limit the maximum number of posts to return (default 20, at most 100)
+     * @param principal the current authenticated user
+     * @return a list of the trending posts of the friends together with their authors
+     */
+    @Operation(summary = "Get the trending posts of the friends of the authenticated user")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved trending posts of friends"),
+        @ApiResponse(responseCode = "400", description = "Invalid limit")
+    })
+    @GetMapping("/trending/friends")
+    public List<TimelineEntryDto> getTrendingFriendPosts(@RequestParam(defaultValue = "20") int limit, Principal principal) {
+        return trendingService.getTrendingPosts(principal.getName(), limit, true);
+    }
+}
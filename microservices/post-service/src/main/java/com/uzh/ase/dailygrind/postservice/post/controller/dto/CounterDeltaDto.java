@@ -0,0 +1,25 @@
+package com.uzh.ase.dailygrind.postservice.post.controller.dto;
+
+/**
+ * Data Transfer Object (DTO) representing a change of the like or comment count of a post.
+ * <p>
+ * This record is sent as a {@code counter} event on the timeline stream. The client adds the deltas to the counts
+ * of the post it already shows.
+ */
+public record CounterDeltaDto(
+    /**
+     * The ID of the post whose counts changed.
+     */
+    String postId,
+
+    /**
+     * The change of the like count.
+     */
+    long likeCountDelta,
+
+    /**
+     * The change of the comment count.
+     */
+    long commentCountDelta
+) {
+}
@@ -0,0 +1,45 @@
+package com.uzh.ase.dailygrind.postservice.post.controller.dto;
+
+import java.util.List;
+
+/**
+ * A single page of a cursor-paginated result.
+ * <p>
+ * The items are returned as the response body, the cursor of the next page is returned in the
+ * {@value #NEXT_CURSOR_HEADER} response header. If the page is incomplete, the
+ * {@value PartialResult#INCOMPLETE_HEADER} response header is set as for a {@link PartialResult}.
+ *
+ * @param <T> the type of the items
+ */
+public record CursorPage<T>(
+    /**
+     * The items of this page.
+     */
+    List<T> items,
+
+    /**
+     * The cursor of the next page, or null if this is the last page.
+     */
+    String nextCursor,
+
+    /**
+     * Whether all items of this page could be retrieved.
+     */
+    boolean complete
+) {
+
+    /**
+     * Creates a complete page.
+     *
+     * @param items      the items of this page
+     * @param nextCursor the cursor of the next page, or null if this is the last page
+     */
+    public CursorPage(List<T> items, String nextCursor) {
+        this(items, nextCursor, true);
+    }
+
+    /**
+     * Name of the response header that contains the cursor of the next page.
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+}
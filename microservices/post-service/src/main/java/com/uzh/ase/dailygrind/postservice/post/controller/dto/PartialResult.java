@@ -0,0 +1,29 @@
+package com.uzh.ase.dailygrind.postservice.post.controller.dto;
+
+import java.util.List;
+
+/**
+ * A result that may be incomplete because not all parts of it could be retrieved in time.
+ * <p>
+ * The items are returned as the response body. If the result is incomplete, the {@value #INCOMPLETE_HEADER}
+ * response header is set to {@code true}.
+ *
+ * @param <T> the type of the items
+ */
+public record PartialResult<T>(
+    /**
+     * The items that could be retrieved.
+     */
+    List<T> items,
+
+    /**
+     * Whether all items could be retrieved.
+     */
+    boolean complete
+) {
+
+    /**
+     * Name of the response header that flags an incomplete result.
+     */
+    public static final String INCOMPLETE_HEADER = "X-Incomplete-Result";
+}
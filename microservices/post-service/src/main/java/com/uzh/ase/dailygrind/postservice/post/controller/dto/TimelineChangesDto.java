@@ -0,0 +1,42 @@
+package com.uzh.ase.dailygrind.postservice.post.controller.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) representing the changes of a timeline since the last sync of a client.
+ * <p>
+ * The client applies the changes to the timeline it already has: it removes the entries of the removed posts and
+ * adds or replaces the changed entries. If {@code reset} is set, the client has to replace its whole timeline
+ * with the returned entries instead. The next sync passes {@code nextToken} as the {@code since} parameter.
+ */
+public record TimelineChangesDto(
+    /**
+     * The entries whose post, counters or author changed, or all entries if the timeline is reset.
+     */
+    List<TimelineEntryDto> entries,
+
+    /**
+     * The IDs of the posts that have been removed from the timeline.
+     */
+    List<String> removedPostIds,
+
+    /**
+     * Whether the client has to replace its whole timeline with the returned entries.
+     */
+    boolean reset,
+
+    /**
+     * The token to pass to the next sync.
+     */
+    String nextToken,
+
+    /**
+     * Whether all changes could be retrieved. Returned in the {@value PartialResult#INCOMPLETE_HEADER} header
+     * instead of the body.
+     */
+    @JsonIgnore
+    boolean complete
+) {
+}
@@ -0,0 +1,22 @@
+package com.uzh.ase.dailygrind.postservice.post.controller.dto;
+
+/**
+ * An item together with its version, used for optimistic concurrency control of edits.
+ * <p>
+ * The item is returned as the response body, the version is returned as the {@code ETag} response header. Clients
+ * send it back in the {@code If-Match} request header to only update the item if it has not been edited since.
+ *
+ * @param <T> the type of the item
+ */
+public record VersionedResult<T>(
+    /**
+     * The item, or null if it does not exist.
+     */
+    T item,
+
+    /**
+     * The version of the item.
+     */
+    long version
+) {
+}
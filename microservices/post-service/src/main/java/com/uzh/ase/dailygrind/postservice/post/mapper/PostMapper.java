@@ -2,6 +2,7 @@ package com.uzh.ase.dailygrind.postservice.post.mapper;
 
 import com.uzh.ase.dailygrind.postservice.post.controller.dto.PostDto;
 import com.uzh.ase.dailygrind.postservice.post.repository.entity.LikeEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.PinnedPostEntity;
 import com.uzh.ase.dailygrind.postservice.post.repository.entity.PostEntity;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -29,6 +30,8 @@ public interface PostMapper {
     @Mapping(target = "postTimestamp", source = "postDto.timestamp")
     @Mapping(target = "likeCount", expression = "java(postDto.likeCount() == null ? 0 : postDto.likeCount())")
     @Mapping(target = "commentCount", expression = "java(postDto.commentCount() == null ? 0 : postDto.commentCount())")
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
     PostEntity toPostEntity(String userId, PostDto postDto);
 
     /**
@@ -61,4 +64,21 @@ public interface PostMapper {
     @Mapping(target = "isLiked", source = "isLiked")
     @Mapping(target = "isPinned", source = "isPinned")
     PostDto toPostDto(PostEntity postEntity, boolean isLiked, boolean isPinned);
+
+    /**
+     * Maps the snapshot stored on a {@link PinnedPostEntity} to a {@link PostDto} without content.
+     *
+     * @param pinnedPostEntity the {@link PinnedPostEntity} to map
+     * @param isLiked whether the post is liked by the authenticated user
+     * @return the mapped {@link PostDto}
+     */
+    @Mapping(target = "postId", expression = "java(pinnedPostEntity.getId())")
+    @Mapping(target = "title", source = "pinnedPostEntity.title")
+    @Mapping(target = "content", ignore = true)
+    @Mapping(target = "timestamp", source = "pinnedPostEntity.createdAt")
+    @Mapping(target = "likeCount", source = "pinnedPostEntity.likeCount")
+    @Mapping(target = "commentCount", source = "pinnedPostEntity.commentCount")
+    @Mapping(target = "isLiked", source = "isLiked")
+    @Mapping(target = "isPinned", constant = "true")
+    PostDto toPostDto(PinnedPostEntity pinnedPostEntity, boolean isLiked);
 }
@@ -30,6 +30,7 @@ public interface UserMapper {
     @Mapping(target = "firstName", source = "userDataEvent.firstName")
     @Mapping(target = "lastName", source = "userDataEvent.lastName")
     @Mapping(target = "profilePictureUrl", source = "userDataEvent.profilePictureUrl")
+    @Mapping(target = "updatedAt", ignore = true)
     UserEntity toUserEntity(UserDataEvent userDataEvent);
 
     /**
@@ -40,6 +41,8 @@ public interface UserMapper {
      */
     @Mapping(target = "pk", expression = "java(FriendEntity.generatePK(friendshipEvent.userAId()))")
     @Mapping(target = "sk", expression = "java(FriendEntity.generateSK(friendshipEvent.userBId()))")
+    @Mapping(target = "fanOutOnRead", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
     FriendEntity toFriendEntity(FriendshipEvent friendshipEvent);
 
     /**
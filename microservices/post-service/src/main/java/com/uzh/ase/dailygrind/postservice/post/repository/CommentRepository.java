@@ -1,13 +1,36 @@
 package com.uzh.ase.dailygrind.postservice.post.repository;
 
 import com.uzh.ase.dailygrind.postservice.post.repository.entity.CommentEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.PostEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.UserCommentEntity;
+import com.uzh.ase.dailygrind.postservice.post.util.BatchWriteHelper;
+import com.uzh.ase.dailygrind.postservice.post.util.TransactionHelper;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Repository;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.IgnoreNullsMode;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.UpdateItemEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.Delete;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 
 /**
  * Repository for managing comment entities in DynamoDB.
@@ -16,84 +39,296 @@ import java.util.List;
  * such as saving, deleting, and querying comments.
  */
 @Repository
+@Slf4j
 @RequiredArgsConstructor
 public class CommentRepository {
 
+    private final DynamoDbClient dynamoDbClient;
+
     private final DynamoDbTable<CommentEntity> commentTable;
 
+    private final DynamoDbTable<UserCommentEntity> userCommentTable;
+
+    private final BatchWriteHelper batchWriteHelper;
+
+    private final PostRepository postRepository;
+
     /**
      * Saves a comment entity to DynamoDB.
      * <p>
-     * This method stores a new comment or updates an existing one.
+     * This method stores a new comment or updates an existing one. The comment is also added to the comments of
+     * the user, see {@link UserCommentEntity}.
      *
      * @param commentEntity the comment entity to save
      */
     public void saveComment(CommentEntity commentEntity) {
         commentTable.putItem(commentEntity);
+        userCommentTable.putItem(toUserComment(commentEntity));
+    }
+
+    /**
+     * Adds a comment to a post.
+     * <p>
+     * This method stores the comment, adds it to the comments of the user, see {@link UserCommentEntity}, and
+     * atomically increments the comment count of the post, all in a single transaction.
+     *
+     * @param commentEntity the comment entity to add
+     * @param postOwnerId   the ID of the user who owns the commented post
+     * @throws NoSuchElementException if the post does not exist
+     */
+    public void addComment(CommentEntity commentEntity, String postOwnerId) {
+        String postId = commentEntity.getPostId();
+        TransactWriteItemsRequest request = TransactWriteItemsRequest.builder()
+            .transactItems(
+                TransactWriteItem.builder().put(Put.builder()
+                    .tableName(commentTable.tableName())
+                    .item(commentTable.tableSchema().itemToMap(commentEntity, true))
+                    .build()).build(),
+                TransactWriteItem.builder().put(Put.builder()
+                    .tableName(userCommentTable.tableName())
+                    .item(userCommentTable.tableSchema().itemToMap(toUserComment(commentEntity), true))
+                    .build()).build(),
+                TransactWriteItem.builder()
+                    .update(TransactionHelper.counterUpdate(commentTable.tableName(), postKey(postOwnerId, postId),
+                        PostEntity.COMMENT_COUNT, 1, PostEntity.UPDATED_AT))
+                    .build())
+            .build();
+
+        try {
+            dynamoDbClient.transactWriteItems(request);
+        } catch (TransactionCanceledException e) {
+            if (TransactionHelper.isConditionalCheckFailed(e, 2)) {
+                throw new NoSuchElementException("Post with id " + postId + " does not exist");
+            }
+            throw e;
+        }
     }
 
     /**
      * Deletes a specific comment from DynamoDB.
      * <p>
-     * This method deletes the comment identified by the given post ID, comment ID, and user ID.
+     * This method deletes the comment identified by the given post ID, comment ID, and user ID, removes it from
+     * the comments of the user, and atomically decrements the comment count of the post, all in a single
+     * transaction. If the comment does not exist, nothing is changed.
      *
-     * @param postId    the post ID to which the comment belongs
-     * @param commentId the ID of the comment to delete
-     * @param userId    the user ID who created the comment
+     * @param postId      the post ID to which the comment belongs
+     * @param commentId   the ID of the comment to delete
+     * @param userId      the user ID who created the comment
+     * @param postOwnerId the ID of the user who owns the commented post
+     * @return true if the comment was deleted, false if it did not exist
      */
-    public void deleteComment(String postId, String commentId, String userId) {
+    public boolean deleteComment(String postId, String commentId, String userId, String postOwnerId) {
         CommentEntity commentEntity = CommentEntity.builder()
             .pk(CommentEntity.generatePK(userId, postId))
             .sk(CommentEntity.generateSK(commentId))
             .build();
-        commentTable.deleteItem(commentEntity);
+        TransactWriteItemsRequest request = TransactWriteItemsRequest.builder()
+            .transactItems(
+                TransactWriteItem.builder().delete(Delete.builder()
+                    .tableName(commentTable.tableName())
+                    .key(Map.of(
+                        "PK", AttributeValue.fromS(commentEntity.getPk()),
+                        "SK", AttributeValue.fromS(commentEntity.getSk())))
+                    .conditionExpression("attribute_exists(PK)")
+                    .build()).build(),
+                TransactWriteItem.builder().delete(Delete.builder()
+                    .tableName(userCommentTable.tableName())
+                    .key(userCommentTable.tableSchema().itemToMap(new UserCommentEntity(userId, postId, commentId), true))
+                    .build()).build(),
+                TransactWriteItem.builder()
+                    .update(TransactionHelper.counterUpdate(commentTable.tableName(), postKey(postOwnerId, postId),
+                        PostEntity.COMMENT_COUNT, -1, PostEntity.UPDATED_AT))
+                    .build())
+            .build();
+
+        try {
+            dynamoDbClient.transactWriteItems(request);
+            return true;
+        } catch (TransactionCanceledException e) {
+            if (TransactionHelper.isConditionalCheckFailed(e, 0)) {
+                log.debug("Comment {} of user {} does not exist", commentId, userId);
+                return false;
+            }
+            if (TransactionHelper.isConditionalCheckFailed(e, 2)) {
+                // The post is gone, the comment is removed without touching the counter
+                commentTable.deleteItem(commentEntity);
+                userCommentTable.deleteItem(new UserCommentEntity(userId, postId, commentId));
+                return true;
+            }
+            throw e;
+        }
     }
 
     /**
      * Retrieves all comments for a given post from DynamoDB.
      * <p>
-     * This method scans the comment table and filters comments by post ID.
+     * This method queries the {@value CommentEntity#COMMENT_POST_INDEX} global secondary index, so the comments
+     * are returned ordered by creation time, oldest first.
      *
      * @param postId the ID of the post for which to retrieve comments
      * @return a list of comments for the specified post
      */
     public List<CommentEntity> findAllCommentsForPost(String postId) {
-        return commentTable.scan().items().stream()
-            .filter(item -> item.getPk().endsWith(postId + "#COMMENT"))
+        QueryEnhancedRequest queryRequest = QueryEnhancedRequest.builder()
+            .queryConditional(QueryConditional.keyEqualTo(Key.builder().partitionValue(postId).build()))
+            .build();
+
+        return commentTable.index(CommentEntity.COMMENT_POST_INDEX).query(queryRequest).stream()
+            .flatMap(page -> page.items().stream())
             .toList();
     }
 
     /**
-     * Deletes all comments associated with a given post and user.
+     * Retrieves a single page of comments for a given post from DynamoDB.
      * <p>
-     * This method queries for all comments related to the specified post ID and user ID, and deletes them.
+     * This method runs one query against the {@value CommentEntity#COMMENT_POST_INDEX} global secondary index.
+     * The comments are ordered by creation time, oldest first. The last evaluated key of the returned page is
+     * the exclusive start key of the next page.
      *
-     * @param postId the ID of the post to delete comments from
-     * @param userId the ID of the user who made the comments
+     * @param postId            the ID of the post for which to retrieve comments
+     * @param limit             the maximum number of comments to return
+     * @param exclusiveStartKey the last evaluated key of the previous page, or null for the first page
+     * @return a page of comments for the specified post
      */
-    public void deleteAllCommentsForPost(String postId, String userId) {
-        QueryConditional queryConditional = QueryConditional
-            .keyEqualTo(Key.builder()
-                .partitionValue(CommentEntity.generatePK(userId, postId))
-                .build());
+    public Page<CommentEntity> findCommentsForPost(String postId, int limit, Map<String, AttributeValue> exclusiveStartKey) {
+        QueryEnhancedRequest queryRequest = QueryEnhancedRequest.builder()
+            .queryConditional(QueryConditional.keyEqualTo(Key.builder().partitionValue(postId).build()))
+            .exclusiveStartKey(exclusiveStartKey)
+            .limit(limit)
+            .build();
+
+        return commentTable.index(CommentEntity.COMMENT_POST_INDEX).query(queryRequest).stream()
+            .findFirst()
+            .orElse(Page.builder(CommentEntity.class).items(List.of()).build());
+    }
+
+    /**
+     * Writes the index attributes for all comments that were created before the
+     * {@value CommentEntity#COMMENT_POST_INDEX} index existed, so that they become visible in the index.
+     * <p>
+     * Only the index attributes are written, the content of the comment remains untouched. The method is
+     * idempotent and can safely be re-run.
+     *
+     * @return the number of comments that were backfilled
+     */
+    public int backfillCommentPostIndex() {
+        ScanEnhancedRequest scanRequest = ScanEnhancedRequest.builder()
+            .filterExpression(Expression.builder()
+                .expression("attribute_not_exists(commentPostId) AND begins_with(SK, :skPrefix)")
+                .expressionValues(Map.of(":skPrefix", AttributeValue.fromS(CommentEntity.SK_PREFIX + "#")))
+                .build())
+            .build();
+
+        int backfilled = 0;
+        for (CommentEntity comment : commentTable.scan(scanRequest).items()) {
+            try {
+                // The timestamp is written unchanged, it is needed to derive the index sort key
+                commentTable.updateItem(UpdateItemEnhancedRequest.builder(CommentEntity.class)
+                    .item(CommentEntity.builder()
+                        .pk(comment.getPk())
+                        .sk(comment.getSk())
+                        .commentTimestamp(comment.getCommentTimestamp())
+                        .build())
+                    .ignoreNullsMode(IgnoreNullsMode.SCALAR_ONLY)
+                    .conditionExpression(Expression.builder().expression("attribute_exists(PK)").build())
+                    .build());
+                backfilled++;
+            } catch (ConditionalCheckFailedException e) {
+                log.debug("Comment {} was deleted during the backfill, skipping it", comment.getCommentId());
+            }
+        }
+        return backfilled;
+    }
 
-        List<CommentEntity> comments = commentTable.query(queryConditional).items().stream().toList();
-        for (CommentEntity comment : comments) {
-            commentTable.deleteItem(comment);
+    /**
+     * Retrieves the keys of all comments of a given post, by all users.
+     * <p>
+     * The comments are found with the {@value CommentEntity#COMMENT_POST_INDEX} global secondary index, since the
+     * partition key of a comment contains the ID of its author. For every comment, the key of the comment and the key
+     * of the entry in the comments of its author, see {@link UserCommentEntity}, are returned, so both can be deleted
+     * together.
+     *
+     * @param postId the ID of the post
+     * @return the keys of the comment entries of the post
+     */
+    public List<Key> findCommentKeysForPost(String postId) {
+        List<Key> keys = new ArrayList<>();
+        for (CommentEntity comment : findAllCommentsForPost(postId)) {
+            UserCommentEntity userComment = toUserComment(comment);
+            keys.add(Key.builder()
+                .partitionValue(comment.getPk())
+                .sortValue(comment.getSk())
+                .build());
+            keys.add(Key.builder()
+                .partitionValue(userComment.getPk())
+                .sortValue(userComment.getSk())
+                .build());
         }
+        return keys;
     }
 
     /**
      * Deletes all comments made by a specific user from DynamoDB.
      * <p>
-     * This method scans the comment table and deletes all comments where the user is the creator.
+     * This method reads the comments of the user with a single query, see {@link UserCommentEntity}, removes
+     * the comments with batch writes and then decrements the comment count of each commented post.
      *
      * @param userId the ID of the user whose comments should be deleted
      */
     public void deleteAllCommentsForUser(String userId) {
-        commentTable.scan().items().stream()
-            .filter(item -> item.getPk().startsWith("USER#" + userId))
-            .forEach(commentTable::deleteItem);
+        QueryConditional queryConditional = QueryConditional
+            .keyEqualTo(Key.builder()
+                .partitionValue(UserCommentEntity.generatePK(userId))
+                .build());
+
+        List<Key> keys = new ArrayList<>();
+        Map<String, Long> commentCountsByPostId = new HashMap<>();
+        for (UserCommentEntity userComment : userCommentTable.query(queryConditional).items()) {
+            commentCountsByPostId.merge(userComment.getPostId(), 1L, Long::sum);
+            keys.add(Key.builder()
+                .partitionValue(CommentEntity.generatePK(userId, userComment.getPostId()))
+                .sortValue(CommentEntity.generateSK(userComment.getCommentId()))
+                .build());
+            keys.add(Key.builder()
+                .partitionValue(userComment.getPk())
+                .sortValue(userComment.getSk())
+                .build());
+        }
+        batchWriteHelper.deleteItems(userCommentTable, keys);
+        log.info("Deleted {} comments of user {}", keys.size() / 2, userId);
+
+        commentCountsByPostId.forEach((postId, count) -> {
+            PostEntity commentedPost = postRepository.findPostById(postId);
+            if (commentedPost == null) return;
+            postRepository.updateCounter(commentedPost.getUserId(), postId, PostEntity.COMMENT_COUNT, -count);
+        });
+    }
+
+    /**
+     * Writes the comments of a user, see {@link UserCommentEntity}, for all comments that were created before these
+     * items existed.
+     * <p>
+     * The method is idempotent and can safely be re-run.
+     *
+     * @return the number of comments that were backfilled
+     */
+    public int backfillUserComments() {
+        ScanEnhancedRequest scanRequest = ScanEnhancedRequest.builder()
+            .filterExpression(Expression.builder()
+                .expression("begins_with(PK, :pkPrefix) AND begins_with(SK, :skPrefix)")
+                .expressionValues(Map.of(
+                    ":pkPrefix", AttributeValue.fromS(CommentEntity.PK_PREFIX + "#"),
+                    ":skPrefix", AttributeValue.fromS(CommentEntity.SK_PREFIX + "#")))
+                .build())
+            .build();
+
+        int backfilled = 0;
+        for (CommentEntity comment : commentTable.scan(scanRequest).items()) {
+            if (!comment.getPk().endsWith("#" + CommentEntity.SK_PREFIX)) continue;
+            userCommentTable.putItem(toUserComment(comment));
+            backfilled++;
+        }
+        return backfilled;
     }
 
     public CommentEntity findCommentById(String commentId) {
@@ -103,4 +338,14 @@ public class CommentRepository {
             .findFirst()
             .orElse(null);
     }
+
+    private UserCommentEntity toUserComment(CommentEntity commentEntity) {
+        return new UserCommentEntity(commentEntity.getUserId(), commentEntity.getPostId(), commentEntity.getCommentId());
+    }
+
+    private static Map<String, AttributeValue> postKey(String postOwnerId, String postId) {
+        return Map.of(
+            "PK", AttributeValue.fromS(PostEntity.generatePK(postOwnerId)),
+            "SK", AttributeValue.fromS(PostEntity.generateSK(postId)));
+    }
 }
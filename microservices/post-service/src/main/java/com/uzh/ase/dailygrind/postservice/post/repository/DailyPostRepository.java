@@ -1,23 +1,59 @@
 package com.uzh.ase.dailygrind.postservice.post.repository;
 
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.DailyBucketEntity;
 import com.uzh.ase.dailygrind.postservice.post.repository.entity.DailyPostEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.PostEntity;
+import com.uzh.ase.dailygrind.postservice.post.util.TimeToLiveHelper;
+import com.uzh.ase.dailygrind.postservice.post.util.TransactionHelper;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.ConditionCheck;
+import software.amazon.awssdk.enhanced.dynamodb.model.DeleteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.TransactPutItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.TransactWriteItemsEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Repository for managing daily post entities in DynamoDB.
  * <p>
  * This class provides methods for performing CRUD operations on daily post data in the DynamoDB table,
- * such as saving, deleting, and querying daily posts for a specific user.
+ * such as saving, deleting, and querying daily posts for a specific user. Every daily post is also written to the
+ * bucket of the day it was created, see {@link DailyBucketEntity}, so all daily posts of a day can be read with
+ * {@code post.daily-bucket.shards} queries instead of one query per user.
  */
 @Repository
+@Slf4j
 @RequiredArgsConstructor
 public class DailyPostRepository {
 
+    private final DynamoDbEnhancedClient dynamoDbEnhancedClient;
+
     private final DynamoDbTable<DailyPostEntity> dailyPostTable;
 
+    private final DynamoDbTable<PostEntity> postTable;
+
+    private final DynamoDbTable<DailyBucketEntity> dailyBucketTable;
+
+    @Value("${post.daily-bucket.shards:8}")
+    private int shards;
+
     /**
      * Saves a daily post entity to DynamoDB.
      * <p>
@@ -29,27 +65,137 @@ public class DailyPostRepository {
         dailyPostTable.putItem(dailyPost);
     }
 
+    /**
+     * Creates a post together with the daily post entry of its user in a single transaction.
+     * <p>
+     * Besides the post and the daily post, the transaction writes the daily lock of the user with an
+     * {@code attribute_not_exists} condition. If the user already has a daily post, the condition fails and
+     * nothing is written, so the uniqueness check does not need an additional round trip. A lock whose TTL has
+     * passed, but which has not been removed by DynamoDB yet, does not block the new daily post. The entry of the
+     * post in the bucket of the current day is written in the same transaction.
+     *
+     * @param postEntity the post to create
+     * @param dailyPost  the daily post entry pointing to the post
+     * @return true if the post was created, false if the user already has a daily post
+     */
+    public boolean createDailyPost(PostEntity postEntity, DailyPostEntity dailyPost) {
+        Expression lockCondition = Expression.builder()
+            .expression("attribute_not_exists(PK) OR #ttl < :now")
+            .expressionNames(Map.of("#ttl", "ttl"))
+            .expressionValues(Map.of(":now", AttributeValue.fromN(String.valueOf(Instant.now().getEpochSecond()))))
+            .build();
+
+        TransactWriteItemsEnhancedRequest request = TransactWriteItemsEnhancedRequest.builder()
+            .addPutItem(dailyPostTable, TransactPutItemEnhancedRequest.builder(DailyPostEntity.class)
+                .item(DailyPostEntity.lockFor(dailyPost.getUserId()))
+                .conditionExpression(lockCondition)
+                .build())
+            .addPutItem(dailyPostTable, dailyPost)
+            .addPutItem(postTable, postEntity)
+            .addPutItem(dailyBucketTable, new DailyBucketEntity(LocalDate.now(ZoneOffset.UTC), shards,
+                dailyPost.getUserId(), postEntity.getPostId(), postEntity.getPostTimestamp()))
+            .build();
+
+        try {
+            dynamoDbEnhancedClient.transactWriteItems(request);
+            return true;
+        } catch (TransactionCanceledException e) {
+            if (TransactionHelper.isConditionalCheckFailed(e, 0)) {
+                log.debug("Daily lock for user {} already exists", dailyPost.getUserId());
+                return false;
+            }
+            throw e;
+        }
+    }
+
     /**
      * Retrieves the post ID for a specific user.
      * <p>
-     * This method scans the DynamoDB table and filters daily posts by the user's partition key (PK).
+     * This method queries the daily post partition of the user. The lock item in the same partition is
+     * excluded by only reading sort keys that start with the post prefix.
      * It returns the first post ID associated with the user, or null if no post is found.
      *
      * @param userId the ID of the user to retrieve the daily post for
      * @return the post ID for the user, or null if not found
      */
     public String findDailyPostForUser(String userId) {
-        return dailyPostTable.scan().items().stream()
-            .filter(item -> item.getPk().equals(DailyPostEntity.generatePK(userId)))
+        QueryEnhancedRequest queryRequest = QueryEnhancedRequest.builder()
+            .queryConditional(QueryConditional.sortBeginsWith(Key.builder()
+                .partitionValue(DailyPostEntity.generatePK(userId))
+                .sortValue(DailyPostEntity.SK_PREFIX + "#")
+                .build()))
+            .limit(1)
+            .build();
+
+        return dailyPostTable.query(queryRequest).stream()
+            .flatMap(page -> page.items().stream())
             .map(DailyPostEntity::getPostId)
             .findFirst()
             .orElse(null);
     }
 
+    /**
+     * Writes the daily lock for all daily posts that were created before the lock existed, so that their users
+     * cannot create a second daily post.
+     * <p>
+     * The lock expires together with the daily post. It is only written if the user has no live lock yet and the
+     * daily post still exists, so locks of newer daily posts are kept and deleted daily posts are not locked again.
+     * The method is idempotent and can safely be re-run.
+     *
+     * @return the number of locks that were backfilled
+     */
+    public int backfillDailyLocks() {
+        long now = Instant.now().getEpochSecond();
+        ScanEnhancedRequest scanRequest = ScanEnhancedRequest.builder()
+            .filterExpression(Expression.builder()
+                .expression("begins_with(SK, :skPrefix) AND #ttl > :now")
+                .expressionNames(Map.of("#ttl", "ttl"))
+                .expressionValues(Map.of(
+                    ":skPrefix", AttributeValue.fromS(DailyPostEntity.SK_PREFIX + "#"),
+                    ":now", AttributeValue.fromN(String.valueOf(now))))
+                .build())
+            .build();
+
+        int backfilled = 0;
+        for (DailyPostEntity dailyPost : dailyPostTable.scan(scanRequest).items()) {
+            // Posts share the SK prefix, only the daily post entries are locked
+            if (!dailyPost.getPk().endsWith("#" + DailyPostEntity.PK_SUFFIX)) continue;
+
+            DailyPostEntity lock = DailyPostEntity.lockFor(dailyPost.getUserId());
+            lock.setTtl(dailyPost.getTtl());
+            TransactWriteItemsEnhancedRequest request = TransactWriteItemsEnhancedRequest.builder()
+                .addPutItem(dailyPostTable, TransactPutItemEnhancedRequest.builder(DailyPostEntity.class)
+                    .item(lock)
+                    .conditionExpression(Expression.builder()
+                        .expression("attribute_not_exists(PK) OR #ttl < :now")
+                        .expressionNames(Map.of("#ttl", "ttl"))
+                        .expressionValues(Map.of(":now", AttributeValue.fromN(String.valueOf(now))))
+                        .build())
+                    .build())
+                .addConditionCheck(dailyPostTable, ConditionCheck.builder()
+                    .key(Key.builder().partitionValue(dailyPost.getPk()).sortValue(dailyPost.getSk()).build())
+                    .conditionExpression(Expression.builder().expression("attribute_exists(PK)").build())
+                    .build())
+                .build();
+            try {
+                dynamoDbEnhancedClient.transactWriteItems(request);
+                backfilled++;
+            } catch (TransactionCanceledException e) {
+                if (!TransactionHelper.isConditionalCheckFailed(e, 0) && !TransactionHelper.isConditionalCheckFailed(e, 1)) {
+                    throw e;
+                }
+                log.debug("User {} is already locked or the daily post was deleted, skipping it", dailyPost.getUserId());
+            }
+        }
+        return backfilled;
+    }
+
     /**
      * Deletes a specific daily post from DynamoDB.
      * <p>
-     * This method deletes the daily post identified by the given post ID and user ID.
+     * This method deletes the daily post identified by the given post ID and user ID. If the post was the
+     * daily post of the user, the daily lock is removed as well so that the user can post again, and the post is
+     * removed from its daily bucket.
      *
      * @param postId the ID of the post to delete
      * @param userId the ID of the user who owns the post
@@ -59,6 +205,67 @@ public class DailyPostRepository {
             .partitionValue(DailyPostEntity.generatePK(userId))
             .sortValue(DailyPostEntity.generateSK(postId))
             .build();
-        dailyPostTable.deleteItem(key);
+        DailyPostEntity deleted = dailyPostTable.deleteItem(key);
+
+        if (deleted != null) {
+            dailyPostTable.deleteItem(Key.builder()
+                .partitionValue(DailyPostEntity.generatePK(userId))
+                .sortValue(DailyPostEntity.LOCK_SK)
+                .build());
+            TimeToLiveHelper.getLivePostDates().forEach(date -> deleteFromBucket(date, userId, postId));
+        }
+    }
+
+    /**
+     * Returns the number of shards the daily posts of a day are spread over.
+     *
+     * @return the number of shards
+     */
+    public int getShards() {
+        return shards;
+    }
+
+    /**
+     * Retrieves the daily posts in one shard of the bucket of a day.
+     * <p>
+     * Entries whose TTL has passed, but which have not been removed by DynamoDB yet, are skipped.
+     *
+     * @param date  the day the posts were created on
+     * @param shard the shard, between 0 (inclusive) and {@link #getShards()} (exclusive)
+     * @return the entries of the daily posts in the shard
+     */
+    public List<DailyBucketEntity> findDailyPostsInBucket(LocalDate date, int shard) {
+        QueryEnhancedRequest queryRequest = QueryEnhancedRequest.builder()
+            .queryConditional(QueryConditional.keyEqualTo(Key.builder()
+                .partitionValue(DailyBucketEntity.generatePK(date, shard))
+                .build()))
+            .filterExpression(Expression.builder()
+                .expression("#ttl > :now")
+                .expressionNames(Map.of("#ttl", "ttl"))
+                .expressionValues(Map.of(":now", AttributeValue.fromN(String.valueOf(Instant.now().getEpochSecond()))))
+                .build())
+            .build();
+
+        return dailyBucketTable.query(queryRequest).items().stream().toList();
+    }
+
+    private void deleteFromBucket(LocalDate date, String userId, String postId) {
+        // The post is only removed if the bucket still points to it
+        Expression condition = Expression.builder()
+            .expression("#postId = :postId")
+            .expressionNames(Map.of("#postId", DailyBucketEntity.BUCKET_POST_ID))
+            .expressionValues(Map.of(":postId", AttributeValue.fromS(postId)))
+            .build();
+        try {
+            dailyBucketTable.deleteItem(DeleteItemEnhancedRequest.builder()
+                .key(Key.builder()
+                    .partitionValue(DailyBucketEntity.generatePK(date, DailyBucketEntity.shardOf(userId, shards)))
+                    .sortValue(DailyBucketEntity.generateSK(userId))
+                    .build())
+                .conditionExpression(condition)
+                .build());
+        } catch (ConditionalCheckFailedException e) {
+            log.debug("Post {} is not in the bucket of {}", postId, date);
+        }
     }
 }
@@ -0,0 +1,282 @@
+package com.uzh.ase.dailygrind.postservice.post.repository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process replica of the friend entries, used by {@link UserRepository} to look up the friends of a user without
+ * querying DynamoDB.
+ * <p>
+ * User IDs are interned to ints, and the friends of a user are kept in a sorted {@code int[]}, so a friend entry
+ * takes 4 bytes plus the amortized per-user overhead (the user ID, its map entry and the array header, measured at
+ * about 156 bytes for UUID user IDs). A million friend entries among 100,000 users, i.e. ten friends per user,
+ * therefore take about 20 MB, 4 MB of them for the entries. The size is exported as the {@code friend_graph_*}
+ * metrics.
+ * <p>
+ * The graph is only maintained if {@code post.friend-graph.enabled} is {@code true}. It is loaded from the friend
+ * entries on startup and kept up to date by the friendship events consumed by this service; until it is loaded,
+ * friends are queried from DynamoDB. Friendships that are removed while the graph is loaded are not resurrected by
+ * the load. Since every instance only consumes part of the events, the graph is only accurate with a single
+ * consumer or when every instance receives all friendship events.
+ */
+@Component
+@Slf4j
+public class FriendGraph {
+
+    private static final String METRIC_PREFIX = "friend_graph.";
+    private static final int[] NO_FRIENDS = new int[0];
+    // Heap usage of an interned user with a UUID as ID: the ID string, its map entry, its slots in the arrays and the
+    // header of its friend array, measured on a 64-bit JVM with compressed oops
+    private static final int BYTES_PER_USER = 156;
+
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> ids = new HashMap<>();
+    private String[] userIds = new String[1024];
+    private int[][] friends = new int[1024][];
+    private int users;
+    private long edges;
+    private volatile boolean loaded;
+    // Friendships removed during the load, as pairs of interned IDs, which the load must not add again
+    private Set<Long> removedDuringLoad;
+
+    public FriendGraph(MeterRegistry meterRegistry,
+                       @Value("${post.friend-graph.enabled:false}") boolean enabled) {
+        this.enabled = enabled;
+        Gauge.builder(METRIC_PREFIX + "users", this, FriendGraph::userCount)
+            .description("Users in the in-memory friend graph")
+            .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + "edges", this, FriendGraph::edgeCount)
+            .description("Friend entries in the in-memory friend graph")
+            .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + "memory", this, FriendGraph::estimatedBytes)
+            .description("Estimated heap usage of the in-memory friend graph")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Indicates whether the graph is maintained.
+     *
+     * @return true if the graph is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Indicates whether the graph has been loaded and can answer friend lookups.
+     *
+     * @return true if the graph is loaded
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Returns the IDs of the friends of a user.
+     *
+     * @param userId the ID of the user
+     * @return the IDs of the friends, empty if the user has none
+     * @throws IllegalStateException if the graph is not loaded
+     */
+    public List<String> getFriendIds(String userId) {
+        if (!loaded) throw new IllegalStateException("Friend graph is not loaded");
+        lock.readLock().lock();
+        try {
+            Integer id = ids.get(userId);
+            if (id == null) return List.of();
+            int[] friendIds = friends[id];
+            List<String> result = new ArrayList<>(friendIds.length);
+            for (int friendId : friendIds) {
+                result.add(userIds[friendId]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether a user has another user as friend.
+     *
+     * @param userId   the ID of the user
+     * @param friendId the ID of the potential friend
+     * @return true if the friend entry exists
+     * @throws IllegalStateException if the graph is not loaded
+     */
+    public boolean isFriend(String userId, String friendId) {
+        if (!loaded) throw new IllegalStateException("Friend graph is not loaded");
+        lock.readLock().lock();
+        try {
+            Integer id = ids.get(userId);
+            Integer otherId = ids.get(friendId);
+            return id != null && otherId != null && Arrays.binarySearch(friends[id], otherId) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a friend entry, i.e. one direction of a friendship.
+     *
+     * @param userId   the ID of the user owning the entry
+     * @param friendId the ID of the friend
+     */
+    public void addFriend(String userId, String friendId) {
+        if (!enabled) return;
+        lock.writeLock().lock();
+        try {
+            int id = intern(userId);
+            int otherId = intern(friendId);
+            if (removedDuringLoad != null) removedDuringLoad.remove(pair(id, otherId));
+            insert(id, otherId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a friend entry, i.e. one direction of a friendship.
+     *
+     * @param userId   the ID of the user owning the entry
+     * @param friendId the ID of the friend
+     */
+    public void removeFriend(String userId, String friendId) {
+        if (!enabled) return;
+        lock.writeLock().lock();
+        try {
+            if (removedDuringLoad != null) {
+                // The load may not have reached the entry yet, so it is remembered even for unknown users
+                removedDuringLoad.add(pair(intern(userId), intern(friendId)));
+            }
+            Integer id = ids.get(userId);
+            Integer otherId = ids.get(friendId);
+            if (id == null || otherId == null) return;
+            int[] current = friends[id];
+            int index = Arrays.binarySearch(current, otherId);
+            if (index < 0) return;
+            int[] updated = new int[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, index);
+            System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+            friends[id] = updated;
+            edges--;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Starts loading the graph. Friend entries changed by events until {@link #finishLoad()} take precedence over
+     * the entries passed to {@link #loadFriend(String, String)}.
+     */
+    public void startLoad() {
+        lock.writeLock().lock();
+        try {
+            removedDuringLoad = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a friend entry read by the load, unless it has been removed since the load started.
+     *
+     * @param userId   the ID of the user owning the entry
+     * @param friendId the ID of the friend
+     */
+    public void loadFriend(String userId, String friendId) {
+        lock.writeLock().lock();
+        try {
+            int id = intern(userId);
+            int otherId = intern(friendId);
+            if (removedDuringLoad == null || !removedDuringLoad.contains(pair(id, otherId))) {
+                insert(id, otherId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finishes loading the graph, after which it answers friend lookups.
+     */
+    public void finishLoad() {
+        lock.writeLock().lock();
+        try {
+            removedDuringLoad = null;
+            loaded = true;
+            log.info("Loaded friend graph with {} users and {} friend entries, about {} KB",
+                users, edges, (long) estimatedBytes() / 1024);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Aborts loading the graph, which keeps friend lookups on DynamoDB.
+     */
+    public void abortLoad() {
+        lock.writeLock().lock();
+        try {
+            removedDuringLoad = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int intern(String userId) {
+        Integer id = ids.get(userId);
+        if (id != null) return id;
+        if (users == userIds.length) {
+            userIds = Arrays.copyOf(userIds, users * 2);
+            friends = Arrays.copyOf(friends, users * 2);
+        }
+        userIds[users] = userId;
+        friends[users] = NO_FRIENDS;
+        ids.put(userId, users);
+        return users++;
+    }
+
+    private void insert(int id, int otherId) {
+        int[] current = friends[id];
+        int index = Arrays.binarySearch(current, otherId);
+        if (index >= 0) return;
+        int insertAt = -index - 1;
+        int[] updated = new int[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, insertAt);
+        updated[insertAt] = otherId;
+        System.arraycopy(current, insertAt, updated, insertAt + 1, current.length - insertAt);
+        friends[id] = updated;
+        edges++;
+    }
+
+    private static long pair(int id, int otherId) {
+        return ((long) id << 32) | (otherId & 0xFFFFFFFFL);
+    }
+
+    private double userCount() {
+        return users;
+    }
+
+    private double edgeCount() {
+        return edges;
+    }
+
+    private double estimatedBytes() {
+        return (double) users * BYTES_PER_USER + (double) edges * Integer.BYTES;
+    }
+}
@@ -1,35 +1,85 @@
 package com.uzh.ase.dailygrind.postservice.post.repository;
 
 import com.uzh.ase.dailygrind.postservice.post.repository.entity.PinnedPostEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.PostEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.PostPinEntity;
+import com.uzh.ase.dailygrind.postservice.post.util.BatchWriteHelper;
+import com.uzh.ase.dailygrind.postservice.post.util.TransactionHelper;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Repository;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.UpdateItemEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.Delete;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Repository for managing pinned post entities in DynamoDB.
  * <p>
  * This class provides methods for performing CRUD operations on pinned post data in the DynamoDB table,
- * such as saving, deleting, and querying pinned posts for a specific user.
+ * such as saving, deleting, and querying pinned posts for a specific user. Every pinned post is written together
+ * with its inverted {@link PostPinEntity}, so the pins of a post can be found when its snapshots have to be updated.
  */
+@Slf4j
 @Repository
 @RequiredArgsConstructor
 public class PinnedPostRepository {
 
+    private static final List<String> KEY_ATTRIBUTES = List.of("PK", "SK");
+
     private final DynamoDbTable<PinnedPostEntity> pinnedPostTable;
+    private final DynamoDbTable<PostPinEntity> postPinTable;
+    private final DynamoDbClient dynamoDbClient;
+    private final BatchWriteHelper batchWriteHelper;
 
     /**
      * Saves a pinned post entity to DynamoDB.
      * <p>
-     * This method stores a new pinned post or updates an existing one.
+     * This method stores a new pinned post or updates an existing one, together with its inverted entry, in a
+     * single transaction.
      *
      * @param pinnedPost the pinned post entity to save
      */
     public void savePinnedPost(PinnedPostEntity pinnedPost) {
-        pinnedPostTable.putItem(pinnedPost);
+        PostPinEntity postPin = new PostPinEntity(pinnedPost.getId(), pinnedPost.getUserId());
+        dynamoDbClient.transactWriteItems(TransactWriteItemsRequest.builder()
+            .transactItems(
+                TransactWriteItem.builder().put(Put.builder()
+                    .tableName(pinnedPostTable.tableName())
+                    .item(pinnedPostTable.tableSchema().itemToMap(pinnedPost, true))
+                    .build()).build(),
+                TransactWriteItem.builder().put(Put.builder()
+                    .tableName(postPinTable.tableName())
+                    .item(postPinTable.tableSchema().itemToMap(postPin, true))
+                    .build()).build())
+            .build());
+    }
+
+    /**
+     * Retrieves the pinned posts of a specific user, including their snapshots, with a single query.
+     *
+     * @param userId the ID of the user to retrieve the pinned posts for
+     * @return the pinned post entities of the user
+     */
+    public List<PinnedPostEntity> findPinnedPostsForUser(String userId) {
+        QueryConditional queryConditional = QueryConditional.keyEqualTo(
+            Key.builder().partitionValue(PinnedPostEntity.generatePK(userId)).build()
+        );
+
+        return pinnedPostTable.query(queryConditional).items().stream().toList();
     }
 
     /**
@@ -42,25 +92,187 @@ public class PinnedPostRepository {
      * @return a list of pinned post IDs for the user
      */
     public List<String> findPinnedPostIdsForUser(String userId) {
+        return findPinnedPostsForUser(userId).stream()
+            .map(PinnedPostEntity::getId)
+            .toList();
+    }
+
+    /**
+     * Retrieves the IDs of all users who pinned a specific post.
+     *
+     * @param postId the ID of the post
+     * @return the IDs of the users who pinned the post
+     */
+    public List<String> findUserIdsWhoPinnedPost(String postId) {
         QueryConditional queryConditional = QueryConditional.keyEqualTo(
-            Key.builder().partitionValue(PinnedPostEntity.generatePK(userId)).build()
+            Key.builder().partitionValue(PostPinEntity.generatePK(postId)).build()
         );
 
-        return pinnedPostTable.query(queryConditional)
-            .items()
-            .stream()
-            .map(PinnedPostEntity::getId)
+        return postPinTable.query(queryConditional).items().stream()
+            .map(PostPinEntity::getUserId)
             .toList();
     }
 
+    /**
+     * Retrieves the keys of all pins of a specific post, i.e. of the pinned posts and their inverted entries.
+     *
+     * @param postId the ID of the post
+     * @return the keys of the pin entries of the post
+     */
+    public List<Key> findPinKeysForPost(String postId) {
+        List<Key> keys = new ArrayList<>();
+        for (String userId : findUserIdsWhoPinnedPost(postId)) {
+            keys.add(Key.builder()
+                .partitionValue(PinnedPostEntity.generatePK(userId))
+                .sortValue(PinnedPostEntity.generateSK(postId))
+                .build());
+            keys.add(Key.builder()
+                .partitionValue(PostPinEntity.generatePK(postId))
+                .sortValue(PostPinEntity.generateSK(userId))
+                .build());
+        }
+        return keys;
+    }
+
+    /**
+     * Replaces the snapshot of a post stored on the pinned post of a user.
+     * <p>
+     * The update is conditioned on the pinned post existing, so a post that has been unpinned in the meantime is
+     * not pinned again, and on the stored snapshot being older than the post, so a sync that read the post before
+     * a later one does not overwrite the newer snapshot.
+     *
+     * @param userId the ID of the user who pinned the post
+     * @param post   the current state of the post
+     * @return false if the post is no longer pinned by the user or the stored snapshot is not older
+     */
+    public boolean updateSnapshot(String userId, PostEntity post) {
+        PinnedPostEntity pinnedPost = new PinnedPostEntity(userId, post);
+        try {
+            pinnedPostTable.updateItem(UpdateItemEnhancedRequest.builder(PinnedPostEntity.class)
+                .item(pinnedPost)
+                .conditionExpression(snapshotCondition(pinnedPost))
+                .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            log.debug("Post {} is no longer pinned by user {} or its snapshot is up to date", post.getPostId(), userId);
+            return false;
+        }
+    }
+
+    /**
+     * Writes the first snapshot of a pinned post that was pinned before snapshots were introduced, together with
+     * its missing inverted entry, in a single transaction.
+     * <p>
+     * Like {@link #updateSnapshot(String, PostEntity)}, the write is conditioned on the pinned post still existing
+     * and not having a newer snapshot.
+     *
+     * @param pinnedPost the pinned post entity including the snapshot
+     * @return false if the post is no longer pinned by the user or the stored snapshot is not older
+     */
+    public boolean backfillSnapshot(PinnedPostEntity pinnedPost) {
+        Expression condition = snapshotCondition(pinnedPost);
+        PostPinEntity postPin = new PostPinEntity(pinnedPost.getId(), pinnedPost.getUserId());
+        try {
+            dynamoDbClient.transactWriteItems(TransactWriteItemsRequest.builder()
+                .transactItems(
+                    TransactWriteItem.builder().put(Put.builder()
+                        .tableName(pinnedPostTable.tableName())
+                        .item(pinnedPostTable.tableSchema().itemToMap(pinnedPost, true))
+                        .conditionExpression(condition.expression())
+                        .expressionAttributeNames(condition.expressionNames())
+                        .expressionAttributeValues(condition.expressionValues())
+                        .build()).build(),
+                    TransactWriteItem.builder().put(Put.builder()
+                        .tableName(postPinTable.tableName())
+                        .item(postPinTable.tableSchema().itemToMap(postPin, true))
+                        .build()).build())
+                .build());
+            return true;
+        } catch (TransactionCanceledException e) {
+            if (TransactionHelper.isConditionalCheckFailed(e, 0)) {
+                log.debug("Post {} is no longer pinned by user {} or its snapshot is up to date", pinnedPost.getId(),
+                    pinnedPost.getUserId());
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    private static Expression snapshotCondition(PinnedPostEntity pinnedPost) {
+        return Expression.builder()
+            .expression("attribute_exists(PK) AND (attribute_not_exists(#snapshotAt) OR #snapshotAt < :snapshotAt)")
+            .expressionNames(Map.of("#snapshotAt", PinnedPostEntity.SNAPSHOT_AT))
+            .expressionValues(Map.of(":snapshotAt", AttributeValue.fromN(String.valueOf(pinnedPost.getSnapshotAt()))))
+            .build();
+    }
+
     /**
      * Deletes a specific pinned post from DynamoDB.
      * <p>
-     * This method deletes the pinned post entity from the DynamoDB table.
+     * This method deletes the pinned post entity and its inverted entry in a single transaction.
      *
      * @param pinnedPost the pinned post entity to delete
      */
-    public void deleteDailyPostById(PinnedPostEntity pinnedPost) {
-        pinnedPostTable.deleteItem(pinnedPost);
+    public void deletePinnedPost(PinnedPostEntity pinnedPost) {
+        PostPinEntity postPin = new PostPinEntity(pinnedPost.getId(), pinnedPost.getUserId());
+        dynamoDbClient.transactWriteItems(TransactWriteItemsRequest.builder()
+            .transactItems(
+                TransactWriteItem.builder().delete(Delete.builder()
+                    .tableName(pinnedPostTable.tableName())
+                    .key(pinnedPostTable.tableSchema().itemToMap(pinnedPost, KEY_ATTRIBUTES))
+                    .build()).build(),
+                TransactWriteItem.builder().delete(Delete.builder()
+                    .tableName(postPinTable.tableName())
+                    .key(postPinTable.tableSchema().itemToMap(postPin, KEY_ATTRIBUTES))
+                    .build()).build())
+            .build());
+    }
+
+    /**
+     * Deletes all pinned posts of a specific user together with their inverted entries.
+     *
+     * @param userId the ID of the user whose pinned posts should be deleted
+     */
+    public void deleteAllPinnedPosts(String userId) {
+        List<String> postIds = findPinnedPostIdsForUser(userId);
+        if (postIds.isEmpty()) return;
+
+        batchWriteHelper.deleteItems(pinnedPostTable, postIds.stream()
+            .map(postId -> Key.builder()
+                .partitionValue(PinnedPostEntity.generatePK(userId))
+                .sortValue(PinnedPostEntity.generateSK(postId))
+                .build())
+            .toList());
+        batchWriteHelper.deleteItems(postPinTable, postIds.stream()
+            .map(postId -> Key.builder()
+                .partitionValue(PostPinEntity.generatePK(postId))
+                .sortValue(PostPinEntity.generateSK(userId))
+                .build())
+            .toList());
+    }
+
+    /**
+     * Deletes the pins of a post by all users, e.g. because the post has been deleted.
+     *
+     * @param postId the ID of the post
+     * @return the IDs of the users who had pinned the post
+     */
+    public List<String> deletePinsForPost(String postId) {
+        List<String> userIds = findUserIdsWhoPinnedPost(postId);
+        if (userIds.isEmpty()) return userIds;
+
+        batchWriteHelper.deleteItems(pinnedPostTable, userIds.stream()
+            .map(userId -> Key.builder()
+                .partitionValue(PinnedPostEntity.generatePK(userId))
+                .sortValue(PinnedPostEntity.generateSK(postId))
+                .build())
+            .toList());
+        batchWriteHelper.deleteItems(postPinTable, userIds.stream()
+            .map(userId -> Key.builder()
+                .partitionValue(PostPinEntity.generatePK(postId))
+                .sortValue(PostPinEntity.generateSK(userId))
+                .build())
+            .toList());
+        return userIds;
     }
 }
@@ -2,13 +2,52 @@ package com.uzh.ase.dailygrind.postservice.post.repository;
 
 import com.uzh.ase.dailygrind.postservice.post.repository.entity.LikeEntity;
 import com.uzh.ase.dailygrind.postservice.post.repository.entity.PostEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.UserLikeEntity;
+import com.uzh.ase.dailygrind.postservice.post.util.BatchGetHelper;
+import com.uzh.ase.dailygrind.postservice.post.util.BatchWriteHelper;
+import com.uzh.ase.dailygrind.postservice.post.util.TransactionHelper;
+import com.uzh.ase.dailygrind.postservice.post.util.Ulid;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.GetItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.IgnoreNullsMode;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.UpdateItemEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionCheck;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.Delete;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.Select;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Repository for managing post and like entities in DynamoDB.
@@ -17,13 +56,29 @@ import java.util.List;
  * such as saving, deleting, querying posts and likes, and updating like counts.
  */
 @Repository
+@Slf4j
 @RequiredArgsConstructor
 public class PostRepository {
 
+    private final DynamoDbClient dynamoDbClient;
+
     private final DynamoDbTable<PostEntity> postTable;
 
     private final DynamoDbTable<LikeEntity> likeTable;
 
+    private final DynamoDbTable<UserLikeEntity> userLikeTable;
+
+    private final BatchWriteHelper batchWriteHelper;
+
+    private final BatchGetHelper batchGetHelper;
+
+    /**
+     * Whether a post that is not found in the post ID index is looked up with a full table scan.
+     * Only meant to be enabled while the index is being backfilled for posts created before it existed.
+     */
+    @Value("${post.post-id-index.scan-fallback:false}")
+    private boolean scanFallback;
+
     /**
      * Saves a post entity to DynamoDB.
      * <p>
@@ -52,20 +107,222 @@ public class PostRepository {
         return postTable.query(queryConditional).items().stream().toList();
     }
 
+    /**
+     * Retrieves all posts for a specific user, optionally without their content.
+     * <p>
+     * In summary mode, only the {@link PostEntity#SUMMARY_ATTRIBUTES} are read with a projection expression, which
+     * reduces the size of the response.
+     *
+     * @param userId  the ID of the user to retrieve the posts for
+     * @param summary whether only the summary attributes should be read
+     * @return a list of post entities for the user
+     */
+    public List<PostEntity> findAllPostsForUser(String userId, boolean summary) {
+        if (!summary) return findAllPostsForUser(userId);
+
+        QueryEnhancedRequest queryRequest = QueryEnhancedRequest.builder()
+            .queryConditional(QueryConditional.keyEqualTo(Key.builder()
+                .partitionValue(PostEntity.generatePK(userId))
+                .build()))
+            .attributesToProject(PostEntity.SUMMARY_ATTRIBUTES)
+            .build();
+
+        return postTable.query(queryRequest).items().stream().toList();
+    }
+
+    /**
+     * Retrieves a single page of the posts of a specific user created in a time range, newest first.
+     * <p>
+     * This method queries the {@value PostEntity#POST_OWNER_INDEX} global secondary index in descending order. The
+     * last evaluated key of the returned page is the exclusive start key of the next page.
+     *
+     * @param userId            the ID of the user whose posts should be retrieved
+     * @param from              the earliest creation time in milliseconds (inclusive)
+     * @param to                the latest creation time in milliseconds (inclusive)
+     * @param limit             the maximum number of posts to return
+     * @param summary           whether only the {@link PostEntity#SUMMARY_ATTRIBUTES} should be read
+     * @param exclusiveStartKey the last evaluated key of the previous page, or null for the first page
+     * @return a page of posts of the user
+     */
+    public Page<PostEntity> findPostsOfUserBetween(String userId, long from, long to, int limit, boolean summary,
+                                                   Map<String, AttributeValue> exclusiveStartKey) {
+        QueryEnhancedRequest queryRequest = QueryEnhancedRequest.builder()
+            .queryConditional(QueryConditional.sortBetween(
+                Key.builder().partitionValue(PostEntity.generatePK(userId)).sortValue(String.valueOf(from)).build(),
+                Key.builder().partitionValue(PostEntity.generatePK(userId)).sortValue(String.valueOf(to)).build()))
+            .scanIndexForward(false)
+            .exclusiveStartKey(exclusiveStartKey)
+            .limit(limit)
+            .attributesToProject(summary ? PostEntity.SUMMARY_ATTRIBUTES : null)
+            .build();
+
+        return postTable.index(PostEntity.POST_OWNER_INDEX).query(queryRequest).stream()
+            .findFirst()
+            .orElse(Page.builder(PostEntity.class).items(List.of()).build());
+    }
+
+    /**
+     * Retrieves a post entity by its owner and ID.
+     *
+     * @param userId the ID of the user who created the post
+     * @param postId the ID of the post
+     * @return the post entity if found, otherwise null
+     */
+    public PostEntity findPost(String userId, String postId) {
+        return findPost(userId, postId, false);
+    }
+
+    /**
+     * Retrieves a post entity by its owner and ID, optionally with a strongly consistent read.
+     * <p>
+     * A consistent read returns all changes that have been written before the read, e.g. to copy the latest state
+     * of a post after it has changed.
+     *
+     * @param userId         the ID of the user who created the post
+     * @param postId         the ID of the post
+     * @param consistentRead whether the read should be strongly consistent
+     * @return the post entity if found, otherwise null
+     */
+    public PostEntity findPost(String userId, String postId, boolean consistentRead) {
+        return postTable.getItem(GetItemEnhancedRequest.builder()
+            .key(Key.builder()
+                .partitionValue(PostEntity.generatePK(userId))
+                .sortValue(PostEntity.generateSK(postId))
+                .build())
+            .consistentRead(consistentRead)
+            .build());
+    }
+
+    /**
+     * Retrieves a single page of the posts of a specific user created in a time range, newest first.
+     * <p>
+     * Post IDs are ULIDs, see {@link Ulid}, so the sort keys of the partition are ordered by creation time and the
+     * time range maps to a key range of the table itself. Posts created before ULIDs were introduced have random
+     * IDs and are skipped, even if their sort key falls into the range. A page can therefore contain fewer than
+     * {@code limit} posts although further pages follow.
+     *
+     * @param userId            the ID of the user whose posts should be retrieved
+     * @param from              the earliest creation time in milliseconds (inclusive)
+     * @param to                the latest creation time in milliseconds (inclusive)
+     * @param limit             the maximum number of posts to read
+     * @param summary           whether only the {@link PostEntity#SUMMARY_ATTRIBUTES} should be read
+     * @param exclusiveStartKey the last evaluated key of the previous page, or null for the first page
+     * @return a page of posts of the user
+     */
+    public Page<PostEntity> findPostsOfUserByIdRange(String userId, long from, long to, int limit, boolean summary,
+                                                     Map<String, AttributeValue> exclusiveStartKey) {
+        String pk = PostEntity.generatePK(userId);
+        QueryEnhancedRequest queryRequest = QueryEnhancedRequest.builder()
+            .queryConditional(QueryConditional.sortBetween(
+                Key.builder().partitionValue(pk).sortValue(PostEntity.generateSK(Ulid.lowerBound(from))).build(),
+                Key.builder().partitionValue(pk).sortValue(PostEntity.generateSK(Ulid.upperBound(to))).build()))
+            .scanIndexForward(false)
+            .exclusiveStartKey(exclusiveStartKey)
+            .limit(limit)
+            .attributesToProject(summary ? PostEntity.SUMMARY_ATTRIBUTES : null)
+            .build();
+
+        Page<PostEntity> page = postTable.query(queryRequest).stream()
+            .findFirst()
+            .orElse(Page.builder(PostEntity.class).items(List.of()).build());
+        List<PostEntity> posts = page.items().stream()
+            .filter(post -> Ulid.isValid(post.getPostId()))
+            .toList();
+        return Page.builder(PostEntity.class).items(posts).lastEvaluatedKey(page.lastEvaluatedKey()).build();
+    }
+
     /**
      * Retrieves a post entity by its ID.
      * <p>
-     * This method scans the DynamoDB table and filters for the post with the provided post ID.
+     * This method queries the {@value PostEntity#POST_ID_INDEX} global secondary index, so the owner of the post
+     * does not need to be known. Items of other entities that were written with a {@code postId} attribute are
+     * skipped. If the scan fallback is enabled, posts missing from the index are looked up with a table scan instead.
+     * Where the owner of the post is known, {@link #findPost(String, String)} should be used instead.
      *
      * @param postId the ID of the post to retrieve
      * @return the post entity if found, otherwise null
      */
     public PostEntity findPostById(String postId) {
-        return postTable.scan().items().stream()
-            .filter(item -> item.getPk().endsWith(PostEntity.POSTFIX))
-            .filter(item -> item.getSk().equals(PostEntity.POSTFIX + "#" + postId))
+        if (postId == null || postId.isEmpty()) return null;
+
+        QueryEnhancedRequest queryRequest = QueryEnhancedRequest.builder()
+            .queryConditional(QueryConditional.keyEqualTo(Key.builder().partitionValue(postId).build()))
+            .build();
+
+        PostEntity postEntity = postTable.index(PostEntity.POST_ID_INDEX).query(queryRequest).stream()
+            .flatMap(page -> page.items().stream())
+            .filter(PostRepository::isPostItem)
             .findFirst()
             .orElse(null);
+
+        if (postEntity == null && scanFallback) {
+            log.warn("Post with ID {} not found in index {}, falling back to a table scan", postId, PostEntity.POST_ID_INDEX);
+            return postTable.scan().items().stream()
+                .filter(PostRepository::isPostItem)
+                .filter(item -> item.getSk().equals(PostEntity.generateSK(postId)))
+                .findFirst()
+                .orElse(null);
+        }
+        return postEntity;
+    }
+
+    private static boolean isPostItem(PostEntity item) {
+        return item.getPk().startsWith(PostEntity.PREFIX + "#") && item.getPk().endsWith("#" + PostEntity.POSTFIX);
+    }
+
+    /**
+     * Retrieves several posts whose owners are known.
+     * <p>
+     * The posts are read by their primary key with BatchGetItem, so the lookup costs one request per 100 posts.
+     *
+     * @param postIdsByUserId the IDs of the posts by the ID of their owner
+     * @return the posts that exist, in no particular order
+     */
+    public List<PostEntity> findPosts(Map<String, String> postIdsByUserId) {
+        List<Key> keys = postIdsByUserId.entrySet().stream()
+            .map(entry -> Key.builder()
+                .partitionValue(PostEntity.generatePK(entry.getKey()))
+                .sortValue(PostEntity.generateSK(entry.getValue()))
+                .build())
+            .toList();
+
+        return batchGetHelper.getItems(postTable, keys);
+    }
+
+    /**
+     * Writes the post ID attribute for all posts that were created before the {@value PostEntity#POST_ID_INDEX}
+     * index existed, so that they become visible in the index.
+     * <p>
+     * Only the post ID attribute is written, all other attributes of the post remain untouched. The method is
+     * idempotent and can safely be re-run.
+     *
+     * @return the number of posts that were backfilled
+     */
+    public int backfillPostIdIndex() {
+        ScanEnhancedRequest scanRequest = ScanEnhancedRequest.builder()
+            .filterExpression(Expression.builder()
+                .expression("attribute_not_exists(postId) AND begins_with(SK, :skPrefix)")
+                .expressionValues(Map.of(":skPrefix", AttributeValue.fromS(PostEntity.POSTFIX + "#")))
+                .build())
+            .build();
+
+        int backfilled = 0;
+        for (PostEntity post : postTable.scan(scanRequest).items()) {
+            // Daily and pinned posts share the SK prefix, only the post items themselves are indexed
+            if (!post.getPk().endsWith("#" + PostEntity.POSTFIX)) continue;
+
+            try {
+                postTable.updateItem(UpdateItemEnhancedRequest.builder(PostEntity.class)
+                    .item(PostEntity.builder().pk(post.getPk()).sk(post.getSk()).build())
+                    .ignoreNullsMode(IgnoreNullsMode.SCALAR_ONLY)
+                    .conditionExpression(Expression.builder().expression("attribute_exists(PK)").build())
+                    .build());
+                backfilled++;
+            } catch (ConditionalCheckFailedException e) {
+                log.debug("Post {} was deleted during the backfill, skipping it", post.getPostId());
+            }
+        }
+        return backfilled;
     }
 
     /**
@@ -75,60 +332,329 @@ public class PostRepository {
      *
      * @param postId the ID of the post to delete
      * @param userId the ID of the user who owns the post
+     * @return the deleted post, or null if the user has no post with this ID
      */
-    public void deletePostById(String postId, String userId) {
+    public PostEntity deletePostById(String postId, String userId) {
         String pk = PostEntity.generatePK(userId);
         String sk = PostEntity.generateSK(postId);
-        postTable.deleteItem(PostEntity.builder().pk(pk).sk(sk).build());
+        return postTable.deleteItem(PostEntity.builder().pk(pk).sk(sk).build());
+    }
+
+    /**
+     * Likes a specific post and updates its like count in the same transaction.
+     *
+     * @param likeEntity  the like entity to add
+     * @param postOwnerId the ID of the user who owns the liked post
+     * @return true if the post was liked, false if the user had already liked it
+     * @throws NoSuchElementException if the post does not exist
+     * @see #likePost(LikeEntity, String, boolean)
+     */
+    public boolean likePost(LikeEntity likeEntity, String postOwnerId) {
+        return likePost(likeEntity, postOwnerId, true);
     }
 
     /**
      * Likes a specific post.
      * <p>
-     * This method adds a like entry to the likes table and increments the like count of the corresponding post.
+     * This method adds a like entry to the likes table, adds the like to the likes of the user, see
+     * {@link UserLikeEntity}, and atomically increments the like count of the post, all in a single transaction.
+     * The like entry is only written if the user has not liked the post yet, so duplicate likes are not counted.
+     * If the like count is updated separately, e.g. aggregated for many likes, the transaction only checks that the
+     * post exists.
      *
-     * @param likeEntity the like entity to add
+     * @param likeEntity  the like entity to add
+     * @param postOwnerId the ID of the user who owns the liked post
+     * @param countLike   whether the like count of the post is incremented in the transaction
+     * @return true if the post was liked, false if the user had already liked it
+     * @throws NoSuchElementException if the post does not exist
      */
-    public void likePost(LikeEntity likeEntity) {
-        likeTable.putItem(likeEntity);
+    public boolean likePost(LikeEntity likeEntity, String postOwnerId, boolean countLike) {
+        String postId = likeEntity.getPostId();
+        TransactWriteItemsRequest request = TransactWriteItemsRequest.builder()
+            .transactItems(
+                TransactWriteItem.builder().put(Put.builder()
+                    .tableName(likeTable.tableName())
+                    .item(likeTable.tableSchema().itemToMap(likeEntity, true))
+                    .conditionExpression("attribute_not_exists(PK)")
+                    .build()).build(),
+                TransactWriteItem.builder().put(Put.builder()
+                    .tableName(userLikeTable.tableName())
+                    .item(userLikeTable.tableSchema().itemToMap(new UserLikeEntity(likeEntity.getUserId(), postId, postOwnerId), true))
+                    .build()).build(),
+                likeCountItem(postOwnerId, postId, countLike ? 1 : 0))
+            .build();
+
+        try {
+            dynamoDbClient.transactWriteItems(request);
+            return true;
+        } catch (TransactionCanceledException e) {
+            if (TransactionHelper.isConditionalCheckFailed(e, 2)) {
+                throw new NoSuchElementException("Post with id " + postId + " does not exist");
+            }
+            if (TransactionHelper.isConditionalCheckFailed(e, 0)) {
+                log.debug("User {} already liked post {}", likeEntity.getUserId(), postId);
+                return false;
+            }
+            throw e;
+        }
+    }
 
-        PostEntity postToLike = findPostById(likeEntity.getPostId());
-        postToLike.setLikeCount(postToLike.getLikeCount() + 1);
-        postTable.putItem(postToLike);
+    /**
+     * Unlikes a specific post and updates its like count in the same transaction.
+     *
+     * @param likeEntity  the like entity to remove
+     * @param postOwnerId the ID of the user who owns the liked post
+     * @return true if the post was unliked, false if the user had not liked it
+     * @throws NoSuchElementException if the post does not exist
+     * @see #unlikePost(LikeEntity, String, boolean)
+     */
+    public boolean unlikePost(LikeEntity likeEntity, String postOwnerId) {
+        return unlikePost(likeEntity, postOwnerId, true);
     }
 
     /**
      * Unlikes a specific post.
      * <p>
-     * This method removes the like entry from the likes table and decrements the like count of the corresponding post.
+     * This method removes the like entry from the likes table, removes the like from the likes of the user, see
+     * {@link UserLikeEntity}, and atomically decrements the like count of the post, all in a single transaction.
+     * If the user has not liked the post, nothing is changed. If the like count is updated separately, the
+     * transaction only checks that the post exists.
      *
-     * @param likeEntity the like entity to remove
+     * @param likeEntity  the like entity to remove
+     * @param postOwnerId the ID of the user who owns the liked post
+     * @param countLike   whether the like count of the post is decremented in the transaction
+     * @return true if the post was unliked, false if the user had not liked it
+     * @throws NoSuchElementException if the post does not exist
      */
-    public void unlikePost(LikeEntity likeEntity) {
-        likeTable.deleteItem(likeEntity);
+    public boolean unlikePost(LikeEntity likeEntity, String postOwnerId, boolean countLike) {
+        String postId = likeEntity.getPostId();
+        TransactWriteItemsRequest request = TransactWriteItemsRequest.builder()
+            .transactItems(
+                TransactWriteItem.builder().delete(Delete.builder()
+                    .tableName(likeTable.tableName())
+                    .key(likeTable.tableSchema().itemToMap(likeEntity, true))
+                    .conditionExpression("attribute_exists(PK)")
+                    .build()).build(),
+                TransactWriteItem.builder().delete(Delete.builder()
+                    .tableName(userLikeTable.tableName())
+                    .key(userLikeTable.tableSchema().itemToMap(new UserLikeEntity(likeEntity.getUserId(), postId), true))
+                    .build()).build(),
+                likeCountItem(postOwnerId, postId, countLike ? -1 : 0))
+            .build();
 
-        PostEntity postToUnlike = findPostById(likeEntity.getPostId());
-        postToUnlike.setLikeCount(postToUnlike.getLikeCount() - 1);
-        postTable.putItem(postToUnlike);
+        try {
+            dynamoDbClient.transactWriteItems(request);
+            return true;
+        } catch (TransactionCanceledException e) {
+            if (TransactionHelper.isConditionalCheckFailed(e, 2)) {
+                throw new NoSuchElementException("Post with id " + postId + " does not exist");
+            }
+            if (TransactionHelper.isConditionalCheckFailed(e, 0)) {
+                log.debug("User {} has not liked post {}", likeEntity.getUserId(), postId);
+                return false;
+            }
+            throw e;
+        }
     }
 
     /**
-     * Deletes all likes associated with a specific post.
+     * Atomically adds a delta to a counter of a post.
      * <p>
-     * This method queries the likes table to find all like entries for a post and deletes them.
+     * Nothing is written if the post does not exist (anymore).
      *
-     * @param postId the ID of the post whose likes should be deleted
+     * @param postOwnerId the ID of the user who owns the post
+     * @param postId      the ID of the post
+     * @param attribute   the counter attribute, {@link PostEntity#LIKE_COUNT} or {@link PostEntity#COMMENT_COUNT}
+     * @param delta       the value to add, negative to subtract
      */
-    public void deleteLikesForPost(String postId) {
+    public void updateCounter(String postOwnerId, String postId, String attribute, long delta) {
+        Update update = TransactionHelper.counterUpdate(postTable.tableName(), postKey(postOwnerId, postId),
+            attribute, delta, PostEntity.UPDATED_AT);
+        try {
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                .tableName(update.tableName())
+                .key(update.key())
+                .updateExpression(update.updateExpression())
+                .conditionExpression(update.conditionExpression())
+                .expressionAttributeNames(update.expressionAttributeNames())
+                .expressionAttributeValues(update.expressionAttributeValues())
+                .build());
+        } catch (ConditionalCheckFailedException e) {
+            log.debug("Post {} does not exist, {} was not updated", postId, attribute);
+        }
+    }
+
+    /**
+     * Sets the {@value PostEntity#UPDATED_AT} attribute of a post to the current time, so clients syncing their
+     * timeline pick up a change that is not stored on the post itself.
+     * <p>
+     * Nothing is written if the post does not exist (anymore).
+     *
+     * @param postOwnerId the ID of the user who owns the post
+     * @param postId      the ID of the post
+     */
+    public void touchPost(String postOwnerId, String postId) {
+        try {
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                .tableName(postTable.tableName())
+                .key(postKey(postOwnerId, postId))
+                .updateExpression("SET #updatedAt = :updatedAt")
+                .conditionExpression("attribute_exists(PK)")
+                .expressionAttributeNames(Map.of("#updatedAt", PostEntity.UPDATED_AT))
+                .expressionAttributeValues(Map.of(
+                    ":updatedAt", AttributeValue.fromN(String.valueOf(System.currentTimeMillis()))))
+                .build());
+        } catch (ConditionalCheckFailedException e) {
+            log.debug("Post {} does not exist, {} was not updated", postId, PostEntity.UPDATED_AT);
+        }
+    }
+
+    /**
+     * Counts the likes of a specific post from its like entries, which are the durable record of the likes.
+     *
+     * @param postId the ID of the post
+     * @return the number of likes of the post
+     */
+    public long countLikes(String postId) {
+        return dynamoDbClient.queryPaginator(QueryRequest.builder()
+                .tableName(likeTable.tableName())
+                .keyConditionExpression("PK = :pk")
+                .expressionAttributeValues(Map.of(":pk", AttributeValue.fromS(LikeEntity.generatePK(postId))))
+                .select(Select.COUNT)
+                .build())
+            .stream()
+            .mapToLong(QueryResponse::count)
+            .sum();
+    }
+
+    /**
+     * Overwrites the like count of a post, e.g. with the number of its like entries.
+     * <p>
+     * Nothing is written if the post does not exist (anymore) or already has the given like count.
+     *
+     * @param postOwnerId the ID of the user who owns the post
+     * @param postId      the ID of the post
+     * @param likeCount   the new like count
+     * @return true if the like count was changed
+     */
+    public boolean setLikeCount(String postOwnerId, String postId, long likeCount) {
+        try {
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                .tableName(postTable.tableName())
+                .key(postKey(postOwnerId, postId))
+                .updateExpression("SET #likeCount = :likeCount, #updatedAt = :updatedAt")
+                .conditionExpression("attribute_exists(PK) AND (attribute_not_exists(#likeCount) OR #likeCount <> :likeCount)")
+                .expressionAttributeNames(Map.of("#likeCount", PostEntity.LIKE_COUNT, "#updatedAt", PostEntity.UPDATED_AT))
+                .expressionAttributeValues(Map.of(
+                    ":likeCount", AttributeValue.fromN(String.valueOf(likeCount)),
+                    ":updatedAt", AttributeValue.fromN(String.valueOf(System.currentTimeMillis()))))
+                .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Updates the title and content of a post with a single conditional write and returns the updated post.
+     * <p>
+     * Only the title and content are written, so counters changed concurrently by likes and comments are kept.
+     * The version of the post is incremented. If an expected version is given, the update only succeeds if the
+     * post still has this version, so concurrent edits do not silently overwrite each other.
+     *
+     * @param userId          the ID of the user who owns the post
+     * @param postId          the ID of the post
+     * @param title           the new title
+     * @param content         the new content
+     * @param expectedVersion the version the post must have, or null to update any version
+     * @return the updated post
+     * @throws NoSuchElementException          if the post does not exist or is owned by another user
+     * @throws ConcurrentModificationException if the post does not have the expected version
+     */
+    public PostEntity updatePostContent(String userId, String postId, String title, String content, Long expectedVersion) {
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":title", title == null ? AttributeValue.fromNul(true) : AttributeValue.fromS(title));
+        values.put(":content", content == null ? AttributeValue.fromNul(true) : AttributeValue.fromS(content));
+        values.put(":zero", AttributeValue.fromN("0"));
+        values.put(":one", AttributeValue.fromN("1"));
+        values.put(":updatedAt", AttributeValue.fromN(String.valueOf(System.currentTimeMillis())));
+
+        // Posts that have never been edited have no version attribute, which counts as version 0
+        String condition = "attribute_exists(PK)";
+        if (expectedVersion != null) {
+            values.put(":expectedVersion", AttributeValue.fromN(String.valueOf(expectedVersion)));
+            condition += expectedVersion == 0
+                ? " AND (attribute_not_exists(#version) OR #version = :expectedVersion)"
+                : " AND #version = :expectedVersion";
+        }
+
+        try {
+            Map<String, AttributeValue> attributes = dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                .tableName(postTable.tableName())
+                .key(postKey(userId, postId))
+                .updateExpression("SET #title = :title, #content = :content, #updatedAt = :updatedAt, "
+                    + "#likeCount = if_not_exists(#likeCount, :zero), "
+                    + "#commentCount = if_not_exists(#commentCount, :zero) "
+                    + "ADD #version :one")
+                .conditionExpression(condition)
+                .expressionAttributeNames(Map.of(
+                    "#title", PostEntity.POST_TITLE,
+                    "#content", "postContent",
+                    "#updatedAt", PostEntity.UPDATED_AT,
+                    "#likeCount", PostEntity.LIKE_COUNT,
+                    "#commentCount", PostEntity.COMMENT_COUNT,
+                    "#version", PostEntity.VERSION))
+                .expressionAttributeValues(values)
+                .returnValues(ReturnValue.ALL_NEW)
+                .build()).attributes();
+            return postTable.tableSchema().mapToItem(attributes);
+        } catch (ConditionalCheckFailedException e) {
+            // Only a failed update, which is rare, needs a read to tell a missing post from a version conflict
+            if (expectedVersion == null || findPost(userId, postId) == null) {
+                throw new NoSuchElementException("Post with id " + postId + " does not exist");
+            }
+            throw new ConcurrentModificationException("Post with id " + postId + " is not at version " + expectedVersion);
+        }
+    }
+
+    /**
+     * Retrieves the keys of all likes of a specific post.
+     * <p>
+     * For every like, the key of the like entry and the key of the entry in the likes of the user, see
+     * {@link UserLikeEntity}, are returned, so both can be deleted together.
+     *
+     * @param postId the ID of the post
+     * @return the keys of the like entries of the post
+     */
+    public List<Key> findLikeKeysForPost(String postId) {
         QueryConditional queryConditional = QueryConditional
             .keyEqualTo(Key.builder()
-                .partitionValue(PostEntity.POSTFIX + "#" + postId + "LIKELIST")
+                .partitionValue(LikeEntity.generatePK(postId))
                 .build());
 
-        List<PostEntity> likes = postTable.query(queryConditional).items().stream().toList();
-        for (PostEntity like : likes) {
-            postTable.deleteItem(like);
+        List<Key> keys = new ArrayList<>();
+        for (LikeEntity like : likeTable.query(queryConditional).items()) {
+            keys.add(Key.builder()
+                .partitionValue(like.getPk())
+                .sortValue(like.getSk())
+                .build());
+            keys.add(Key.builder()
+                .partitionValue(UserLikeEntity.generatePK(like.getUserId()))
+                .sortValue(UserLikeEntity.generateSK(postId))
+                .build());
         }
+        return keys;
+    }
+
+    /**
+     * Deletes the items with the given keys with batch writes.
+     * <p>
+     * All entities are stored in the same table, so the keys may belong to any entity.
+     *
+     * @param keys the keys of the items to delete
+     */
+    public void deleteItems(List<Key> keys) {
+        batchWriteHelper.deleteItems(postTable, keys);
     }
 
     /**
@@ -148,21 +674,159 @@ public class PostRepository {
     /**
      * Deletes all likes for a specific user.
      * <p>
-     * This method scans the post table for likes and removes them from the DynamoDB table.
+     * This method reads the likes of the user with a single query, see {@link UserLikeEntity}, and removes the likes
+     * with batch writes. Afterwards, the like count of every liked post that still exists is decremented.
      *
      * @param userId the ID of the user whose likes should be deleted
      */
     public void deleteAllLikes(String userId) {
-        List<PostEntity> likes = postTable.scan().items().stream()
-            .filter(item -> item.getPk().endsWith(userId))
+        List<String> likedPostIds = findAllLikedPostIds(userId);
+        if (likedPostIds.isEmpty()) return;
+
+        List<Key> keys = new ArrayList<>();
+        for (String postId : likedPostIds) {
+            keys.add(Key.builder()
+                .partitionValue(LikeEntity.generatePK(postId))
+                .sortValue(LikeEntity.generateSK(userId))
+                .build());
+            keys.add(Key.builder()
+                .partitionValue(UserLikeEntity.generatePK(userId))
+                .sortValue(UserLikeEntity.generateSK(postId))
+                .build());
+        }
+        batchWriteHelper.deleteItems(userLikeTable, keys);
+        log.info("Deleted {} likes of user {}", likedPostIds.size(), userId);
+
+        for (String postId : likedPostIds) {
+            PostEntity likedPost = findPostById(postId);
+            if (likedPost == null) continue;
+            updateCounter(likedPost.getUserId(), postId, PostEntity.LIKE_COUNT, -1);
+        }
+    }
+
+    /**
+     * Retrieves the IDs of all posts a specific user has liked.
+     *
+     * @param userId the ID of the user whose liked posts should be retrieved
+     * @return a list of post IDs the user liked
+     */
+    public List<String> findAllLikedPostIds(String userId) {
+        return findAllLikes(userId).stream()
+            .map(UserLikeEntity::getPostId)
             .toList();
-        for (PostEntity like : likes) {
-            LikeEntity likeEntity = LikeEntity.builder()
-                .pk(LikeEntity.generatePK(like.getPostId()))
-                .sk(LikeEntity.generateSK(userId))
-                .build();
-            unlikePost(likeEntity);
+    }
+
+    /**
+     * Retrieves all likes of a specific user, see {@link UserLikeEntity}.
+     *
+     * @param userId the ID of the user whose likes should be retrieved
+     * @return a list of likes of the user
+     */
+    public List<UserLikeEntity> findAllLikes(String userId) {
+        QueryConditional queryConditional = QueryConditional
+            .keyEqualTo(Key.builder()
+                .partitionValue(UserLikeEntity.generatePK(userId))
+                .build());
+
+        return userLikeTable.query(queryConditional).items().stream().toList();
+    }
+
+    /**
+     * Retrieves several posts whose owners are known, where an owner may own several of the posts.
+     * <p>
+     * The posts are read by their primary key with BatchGetItem, so the lookup costs one request per 100 posts.
+     *
+     * @param ownerIdsByPostId the IDs of the owners by the ID of their post
+     * @return the posts that exist, in no particular order
+     */
+    public List<PostEntity> findPostsByOwner(Map<String, String> ownerIdsByPostId) {
+        List<Key> keys = ownerIdsByPostId.entrySet().stream()
+            .map(entry -> Key.builder()
+                .partitionValue(PostEntity.generatePK(entry.getValue()))
+                .sortValue(PostEntity.generateSK(entry.getKey()))
+                .build())
+            .toList();
+
+        return batchGetHelper.getItems(postTable, keys);
+    }
+
+    /**
+     * Retrieves the liked posts of the given likes with batch gets on their primary keys.
+     * <p>
+     * The posts are returned in the order of the likes. Likes without a post owner and posts that have been deleted
+     * in the meantime are skipped.
+     *
+     * @param likes the likes whose posts should be retrieved
+     * @return a list of liked posts
+     */
+    public List<PostEntity> findLikedPosts(List<UserLikeEntity> likes) {
+        List<Key> keys = likes.stream()
+            .filter(like -> like.getPostOwnerId() != null)
+            .map(like -> Key.builder()
+                .partitionValue(PostEntity.generatePK(like.getPostOwnerId()))
+                .sortValue(PostEntity.generateSK(like.getPostId()))
+                .build())
+            .toList();
+        Map<String, PostEntity> postsById = batchGetHelper.getItems(postTable, keys).stream()
+            .collect(Collectors.toMap(PostEntity::getPostId, Function.identity(), (first, second) -> first));
+
+        return likes.stream()
+            .map(like -> postsById.get(like.getPostId()))
+            .filter(Objects::nonNull)
+            .toList();
+    }
+
+    /**
+     * Retrieves a single page of the posts a specific user has liked.
+     * <p>
+     * The last evaluated key of the returned page is the exclusive start key of the next page.
+     *
+     * @param userId            the ID of the user whose liked posts should be retrieved
+     * @param limit             the maximum number of likes to return
+     * @param exclusiveStartKey the last evaluated key of the previous page, or null for the first page
+     * @return a page of likes of the user
+     */
+    public Page<UserLikeEntity> findLikedPostIds(String userId, int limit, Map<String, AttributeValue> exclusiveStartKey) {
+        QueryEnhancedRequest queryRequest = QueryEnhancedRequest.builder()
+            .queryConditional(QueryConditional.keyEqualTo(Key.builder()
+                .partitionValue(UserLikeEntity.generatePK(userId))
+                .build()))
+            .exclusiveStartKey(exclusiveStartKey)
+            .limit(limit)
+            .build();
+
+        return userLikeTable.query(queryRequest).stream()
+            .findFirst()
+            .orElse(Page.builder(UserLikeEntity.class).items(List.of()).build());
+    }
+
+    /**
+     * Writes the likes of a user, see {@link UserLikeEntity}, for all likes that were created before these items
+     * existed. The owner of each liked post is resolved through the post ID index.
+     * <p>
+     * The method is idempotent and can safely be re-run.
+     *
+     * @return the number of likes that were backfilled
+     */
+    public int backfillUserLikes() {
+        ScanEnhancedRequest scanRequest = ScanEnhancedRequest.builder()
+            .filterExpression(Expression.builder()
+                .expression("begins_with(PK, :pkPrefix) AND begins_with(SK, :skPrefix)")
+                .expressionValues(Map.of(
+                    ":pkPrefix", AttributeValue.fromS(LikeEntity.PK_PREFIX + "#"),
+                    ":skPrefix", AttributeValue.fromS(LikeEntity.SK_PREFIX + "#")))
+                .build())
+            .build();
+
+        int backfilled = 0;
+        for (LikeEntity like : likeTable.scan(scanRequest).items()) {
+            if (!like.getPk().endsWith("#" + LikeEntity.PK_POSTFIX)) continue;
+            PostEntity likedPost = findPostById(like.getPostId());
+            String postOwnerId = likedPost == null ? null : likedPost.getUserId();
+            userLikeTable.putItem(new UserLikeEntity(like.getUserId(), like.getPostId(), postOwnerId));
+            backfilled++;
         }
+        return backfilled;
     }
 
     /**
@@ -183,4 +847,49 @@ public class PostRepository {
             .map(LikeEntity::getUserId)
             .toList();
     }
+
+    /**
+     * Determines which of the given posts have been liked by a user.
+     * <p>
+     * The like items of the user are read with BatchGetItem, so the check costs one request per 100 posts,
+     * independent of how many users liked each post.
+     *
+     * @param userId  the ID of the user
+     * @param postIds the IDs of the posts to check
+     * @return the IDs of the posts the user liked
+     */
+    public Set<String> findPostIdsLikedByUser(String userId, Collection<String> postIds) {
+        List<Key> keys = postIds.stream()
+            .map(postId -> Key.builder()
+                .partitionValue(LikeEntity.generatePK(postId))
+                .sortValue(LikeEntity.generateSK(userId))
+                .build())
+            .toList();
+
+        return batchGetHelper.getItems(likeTable, keys).stream()
+            .map(LikeEntity::getPostId)
+            .collect(Collectors.toSet());
+    }
+
+    private TransactWriteItem likeCountItem(String postOwnerId, String postId, long delta) {
+        // Without a delta, the item only makes the transaction fail if the post does not exist
+        if (delta != 0) {
+            return TransactWriteItem.builder()
+                .update(TransactionHelper.counterUpdate(postTable.tableName(), postKey(postOwnerId, postId),
+                    PostEntity.LIKE_COUNT, delta, PostEntity.UPDATED_AT))
+                .build();
+        }
+        return TransactWriteItem.builder().conditionCheck(ConditionCheck.builder()
+                .tableName(postTable.tableName())
+                .key(postKey(postOwnerId, postId))
+                .conditionExpression("attribute_exists(PK)")
+                .build())
+            .build();
+    }
+
+    private static Map<String, AttributeValue> postKey(String postOwnerId, String postId) {
+        return Map.of(
+            "PK", AttributeValue.fromS(PostEntity.generatePK(postOwnerId)),
+            "SK", AttributeValue.fromS(PostEntity.generateSK(postId)));
+    }
 }
@@ -0,0 +1,138 @@
+package com.uzh.ase.dailygrind.postservice.post.repository;
+
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.TimelineInboxEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.TimelineTombstoneEntity;
+import com.uzh.ase.dailygrind.postservice.post.util.BatchWriteHelper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+
+import java.util.List;
+
+/**
+ * Repository for managing the timeline inboxes of users in DynamoDB.
+ * <p>
+ * Every user has an inbox partition holding one {@link TimelineInboxEntity} per daily post of a friend.
+ * Entries are written and removed in batches, because a single post is delivered to the inboxes of all friends.
+ * <p>
+ * In addition, every user has a partition of {@link TimelineTombstoneEntity} items recording which posts have been
+ * removed from their timeline, which is read when a client syncs its timeline incrementally.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TimelineRepository {
+
+    private final DynamoDbTable<TimelineInboxEntity> timelineInboxTable;
+
+    private final DynamoDbTable<TimelineTombstoneEntity> timelineTombstoneTable;
+
+    private final BatchWriteHelper batchWriteHelper;
+
+    /**
+     * Retrieves all entries in the timeline inbox of a user.
+     *
+     * @param userId the ID of the user owning the inbox
+     * @return a list of timeline inbox entities for the user
+     */
+    public List<TimelineInboxEntity> findEntriesForUser(String userId) {
+        QueryConditional queryConditional = QueryConditional.sortBeginsWith(
+            Key.builder()
+                .partitionValue(TimelineInboxEntity.generatePK(userId))
+                .sortValue(TimelineInboxEntity.SK_PREFIX + "#")
+                .build()
+        );
+
+        return timelineInboxTable.query(queryConditional)
+            .items()
+            .stream()
+            .toList();
+    }
+
+    /**
+     * Saves the given entries to the timeline inboxes they belong to.
+     *
+     * @param entries the timeline inbox entities to save
+     */
+    public void saveEntries(List<TimelineInboxEntity> entries) {
+        batchWriteHelper.putItems(timelineInboxTable, entries);
+    }
+
+    /**
+     * Removes a post from the timeline inboxes of the given users.
+     *
+     * @param userIds  the IDs of the users whose inboxes may contain the post
+     * @param authorId the ID of the user who created the post
+     * @param postId   the ID of the post to remove
+     */
+    public void deleteEntriesForPost(List<String> userIds, String authorId, String postId) {
+        List<Key> keys = userIds.stream()
+            .map(userId -> Key.builder()
+                .partitionValue(TimelineInboxEntity.generatePK(userId))
+                .sortValue(TimelineInboxEntity.generateSK(authorId, postId))
+                .build())
+            .toList();
+        batchWriteHelper.deleteItems(timelineInboxTable, keys);
+    }
+
+    /**
+     * Removes all posts of an author from the timeline inbox of a user.
+     * <p>
+     * Only the entries of the author are read, since their sort keys share the prefix of the author.
+     *
+     * @param userId   the ID of the user owning the inbox
+     * @param authorId the ID of the author whose posts are removed
+     */
+    public void deleteEntriesFromAuthor(String userId, String authorId) {
+        QueryConditional queryConditional = QueryConditional.sortBeginsWith(
+            Key.builder()
+                .partitionValue(TimelineInboxEntity.generatePK(userId))
+                .sortValue(TimelineInboxEntity.generateAuthorSKPrefix(authorId))
+                .build()
+        );
+
+        List<Key> keys = timelineInboxTable.query(queryConditional).items().stream()
+            .map(entry -> Key.builder()
+                .partitionValue(entry.getPk())
+                .sortValue(entry.getSk())
+                .build())
+            .toList();
+        batchWriteHelper.deleteItems(timelineInboxTable, keys);
+    }
+
+    /**
+     * Records that a post has been removed from the timelines of the given users.
+     *
+     * @param userIds the IDs of the users whose timelines showed the post
+     * @param postId  the ID of the removed post
+     */
+    public void saveTombstones(List<String> userIds, String postId) {
+        batchWriteHelper.putItems(timelineTombstoneTable, userIds.stream()
+            .map(userId -> new TimelineTombstoneEntity(userId, postId))
+            .toList());
+    }
+
+    /**
+     * Retrieves the IDs of the posts that have been removed from the timeline of a user after a given time.
+     *
+     * @param userId the ID of the user owning the timeline
+     * @param since  the time in milliseconds after which the posts have been removed
+     * @return the IDs of the removed posts
+     */
+    public List<String> findRemovedPostIds(String userId, long since) {
+        QueryConditional queryConditional = QueryConditional.sortBeginsWith(
+            Key.builder()
+                .partitionValue(TimelineTombstoneEntity.generatePK(userId))
+                .sortValue(TimelineTombstoneEntity.SK_PREFIX + "#")
+                .build()
+        );
+
+        return timelineTombstoneTable.query(queryConditional)
+            .items()
+            .stream()
+            .filter(tombstone -> tombstone.getRemovedAt() > since)
+            .map(TimelineTombstoneEntity::getPostId)
+            .toList();
+    }
+}
@@ -0,0 +1,98 @@
+package com.uzh.ase.dailygrind.postservice.post.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.UserEntity;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-process cache of the user replica, used by {@link UserRepository} to avoid reading the same users from
+ * DynamoDB for every timeline, comment list or friend list.
+ * <p>
+ * The cache holds at most {@code post.user-cache.maximum-size} users, which expire {@code post.user-cache.ttl}
+ * after they were written. The user events consumed by this service update or evict the entries directly, the
+ * TTL only bounds how long an instance may serve a user that was changed through an event consumed by another
+ * instance. Users that do not exist are not cached.
+ * <p>
+ * Hits, misses and evictions are exported as the {@code cache_*} metrics with the tag {@code cache="users"}.
+ */
+@Component
+@Slf4j
+public class UserCache {
+
+    private static final String CACHE_NAME = "users";
+
+    private final Cache<String, UserEntity> cache;
+
+    public UserCache(MeterRegistry meterRegistry,
+                     @Value("${post.user-cache.maximum-size:10000}") long maximumSize,
+                     @Value("${post.user-cache.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        log.info("User cache holds up to {} users for {}", maximumSize, ttl);
+    }
+
+    /**
+     * Returns the cached user or loads it if it is not cached.
+     *
+     * @param userId the ID of the user
+     * @param loader loads the user from DynamoDB, may return null if the user does not exist
+     * @return the user, or null if it does not exist
+     */
+    public UserEntity get(String userId, Function<String, UserEntity> loader) {
+        return cache.get(userId, loader);
+    }
+
+    /**
+     * Returns the cached users and loads all users that are not cached with a single call of the loader.
+     *
+     * @param userIds the IDs of the users
+     * @param loader  loads the missing users from DynamoDB, users that do not exist are skipped
+     * @return the users that exist, by their ID
+     */
+    public Map<String, UserEntity> getAll(Collection<String> userIds,
+                                          Function<Collection<? extends String>, List<UserEntity>> loader) {
+        return cache.getAll(userIds, missingUserIds -> loader.apply(missingUserIds).stream()
+            .collect(Collectors.toMap(UserEntity::getUserId, Function.identity())));
+    }
+
+    /**
+     * Replaces the cached user with the given one.
+     *
+     * @param userEntity the user as it is stored in DynamoDB
+     */
+    public void put(UserEntity userEntity) {
+        cache.put(userEntity.getUserId(), userEntity);
+    }
+
+    /**
+     * Removes a user from the cache.
+     *
+     * @param userId the ID of the user
+     */
+    public void evict(String userId) {
+        cache.invalidate(userId);
+    }
+
+    /**
+     * Removes all users from the cache.
+     */
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+}
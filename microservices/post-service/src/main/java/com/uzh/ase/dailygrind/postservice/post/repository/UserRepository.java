@@ -2,20 +2,31 @@ package com.uzh.ase.dailygrind.postservice.post.repository;
 
 import com.uzh.ase.dailygrind.postservice.post.repository.entity.FriendEntity;
 import com.uzh.ase.dailygrind.postservice.post.repository.entity.UserEntity;
+import com.uzh.ase.dailygrind.postservice.post.util.BatchGetHelper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.IgnoreNullsMode;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Repository for managing user and friend entities in DynamoDB.
  * <p>
  * This class provides methods for performing CRUD operations on user and friend data in the DynamoDB tables,
  * such as adding, updating, deleting users and friends, and retrieving a user's friends.
+ * <p>
+ * Users are read through the {@link UserCache}, which is kept up to date by the write methods of this class. The
+ * IDs of friends are read from the {@link FriendGraph} once it is loaded, which is kept up to date the same way.
  */
 @Repository
 @RequiredArgsConstructor
@@ -25,6 +36,12 @@ public class UserRepository {
 
     private final DynamoDbTable<FriendEntity> friendTable;
 
+    private final BatchGetHelper batchGetHelper;
+
+    private final UserCache userCache;
+
+    private final FriendGraph friendGraph;
+
     /**
      * Adds a new user to the user table.
      * <p>
@@ -34,6 +51,7 @@ public class UserRepository {
      */
     public void addNewUser(UserEntity userEntity) {
         userTable.putItem(userEntity);
+        userCache.put(userEntity);
     }
 
     /**
@@ -44,7 +62,7 @@ public class UserRepository {
      * @param userEntity the user entity to update
      */
     public void updateUser(UserEntity userEntity) {
-        userTable.updateItem(userEntity);
+        userCache.put(userTable.updateItem(userEntity));
     }
 
     /**
@@ -61,6 +79,7 @@ public class UserRepository {
             .sortValue(UserEntity.generateSK())
             .build();
         userTable.deleteItem(key);
+        userCache.evict(userId);
 
         // Delete all friend entries for the user
         List<FriendEntity> friends = getFriends(userId);
@@ -83,6 +102,7 @@ public class UserRepository {
      */
     public void addFriend(FriendEntity friendEntity) {
         friendTable.putItem(friendEntity);
+        friendGraph.addFriend(friendEntity.getUserId(), friendEntity.getFriendId());
     }
 
     /**
@@ -94,6 +114,34 @@ public class UserRepository {
      */
     public void removeFriend(FriendEntity friendEntity) {
         friendTable.deleteItem(friendEntity);
+        friendGraph.removeFriend(friendEntity.getUserId(), friendEntity.getFriendId());
+    }
+
+    /**
+     * Sets whether the posts of a friend are read on demand instead of being delivered to the user's timeline inbox.
+     * <p>
+     * Only the flag of an existing friendship is updated, so a friendship that has been removed in the meantime
+     * is not recreated.
+     *
+     * @param userId       the ID of the user owning the friend entry
+     * @param friendId     the ID of the friend
+     * @param fanOutOnRead whether the friend's posts are read on demand
+     */
+    public void setFanOutOnRead(String userId, String friendId, boolean fanOutOnRead) {
+        FriendEntity friendEntity = FriendEntity.builder()
+            .pk(FriendEntity.generatePK(userId))
+            .sk(FriendEntity.generateSK(friendId))
+            .fanOutOnRead(fanOutOnRead)
+            .build();
+        try {
+            friendTable.updateItem(r -> r.item(friendEntity)
+                .ignoreNullsMode(IgnoreNullsMode.SCALAR_ONLY)
+                .conditionExpression(Expression.builder()
+                    .expression("attribute_exists(PK)")
+                    .build()));
+        } catch (ConditionalCheckFailedException e) {
+            // The friendship no longer exists, nothing to update
+        }
     }
 
     /**
@@ -121,28 +169,88 @@ public class UserRepository {
     }
 
     /**
-     * Retrieves a friend entity for a specific user and friend.
+     * Retrieves the friend entries of several users that point to the same friend.
+     * <p>
+     * The entries are read by their primary key with BatchGetItem, so the lookup costs one request per 100 users.
+     *
+     * @param userIds  the IDs of the users owning the friend entries
+     * @param friendId the ID of the friend the entries point to
+     * @return the friend entities that exist, in no particular order
+     */
+    public List<FriendEntity> getFriendEntriesPointingTo(List<String> userIds, String friendId) {
+        List<Key> keys = userIds.stream()
+            .map(userId -> Key.builder()
+                .partitionValue(FriendEntity.generatePK(userId))
+                .sortValue(FriendEntity.generateSK(friendId))
+                .build())
+            .toList();
+
+        return batchGetHelper.getItems(friendTable, keys);
+    }
+
+    /**
+     * Retrieves the IDs of the friends of a specific user.
      * <p>
-     * This method queries the friend table to find a specific friend for the given user by their partition key and sort key.
+     * This method reads the friends from the {@link FriendGraph} if it is loaded, and otherwise queries the friend
+     * table like {@link #getFriends(String)}.
      *
      * @param userId    the ID of the user
-     * @return the friend entity if found, otherwise null
+     * @return the IDs of the friends of the user
      */
     public List<String> getFriendIds(String userId) {
+        if (friendGraph.isLoaded()) {
+            return friendGraph.getFriendIds(userId);
+        }
         return getFriends(userId).stream()
             .map(FriendEntity::getFriendId)
             .toList();
     }
 
+    /**
+     * Loads all friend entries into the {@link FriendGraph} with a full table scan.
+     * <p>
+     * Friendships that are added or removed during the scan are applied by {@link #addFriend(FriendEntity)} and
+     * {@link #removeFriend(FriendEntity)} and take precedence over the scanned entries.
+     *
+     * @return the number of friend entries that were scanned
+     */
+    public int loadFriendGraph() {
+        ScanEnhancedRequest scanRequest = ScanEnhancedRequest.builder()
+            .filterExpression(Expression.builder()
+                .expression("begins_with(SK, :skPrefix)")
+                .expressionValues(Map.of(":skPrefix", AttributeValue.fromS(FriendEntity.POSTFIX + "#")))
+                .build())
+            .build();
+
+        friendGraph.startLoad();
+        int loaded = 0;
+        try {
+            for (FriendEntity friend : friendTable.scan(scanRequest).items()) {
+                if (!friend.getPk().endsWith("#" + FriendEntity.POSTFIX)) continue;
+                friendGraph.loadFriend(friend.getUserId(), friend.getFriendId());
+                loaded++;
+            }
+        } catch (RuntimeException e) {
+            friendGraph.abortLoad();
+            throw e;
+        }
+        friendGraph.finishLoad();
+        return loaded;
+    }
+
     /**
      * Retrieves the user entity for a specific user.
      * <p>
-     * This method queries the user table to find a user by their unique user ID.
+     * This method returns the cached user or queries the user table to find a user by their unique user ID.
      *
      * @param userId the ID of the user to retrieve
      * @return the user entity for the user if found, otherwise null
      */
     public UserEntity getUser(String userId) {
+        return userCache.get(userId, this::loadUser);
+    }
+
+    private UserEntity loadUser(String userId) {
         Key key = Key.builder()
             .partitionValue(UserEntity.generatePK(userId))
             .sortValue(UserEntity.generateSK())
@@ -150,4 +258,28 @@ public class UserRepository {
 
         return userTable.getItem(key);
     }
+
+    /**
+     * Retrieves the user entities for the given users.
+     * <p>
+     * This method returns the cached users and reads the others with BatchGetItem, so many users are retrieved
+     * with one request per 100 users. Users that do not exist are skipped.
+     *
+     * @param userIds the IDs of the users to retrieve
+     * @return the user entities that were found, in no particular order
+     */
+    public List<UserEntity> getUsers(Collection<String> userIds) {
+        return List.copyOf(userCache.getAll(userIds, this::loadUsers).values());
+    }
+
+    private List<UserEntity> loadUsers(Collection<? extends String> userIds) {
+        List<Key> keys = userIds.stream()
+            .map(userId -> Key.builder()
+                .partitionValue(UserEntity.generatePK(userId))
+                .sortValue(UserEntity.generateSK())
+                .build())
+            .toList();
+
+        return batchGetHelper.getItems(userTable, keys);
+    }
 }
@@ -4,10 +4,10 @@ import lombok.*;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondaryPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondarySortKey;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
 
-import java.util.UUID;
-
 /**
  * Represents a comment entity in the DynamoDB table.
  * <p>
@@ -28,6 +28,11 @@ public class CommentEntity {
     public static final String PK_PREFIX = "USER";
     public static final String PK_SUFFIX = "POST";
 
+    // Global secondary index keyed by the post ID and sorted by creation time, used to read the comments of a post
+    public static final String COMMENT_POST_INDEX = "comment-post-index";
+    public static final String COMMENT_POST_ID = "commentPostId";
+    public static final String COMMENT_SORT_KEY = "commentSortKey";
+
     private String pk;
     private String sk;
 
@@ -78,7 +83,6 @@ public class CommentEntity {
      * @return the generated sort key (SK)
      */
     public static String generateSK(String commentId) {
-        if (commentId == null || commentId.isEmpty()) commentId = UUID.randomUUID().toString();
         return SK_PREFIX + "#" + commentId;
     }
 
@@ -109,4 +113,58 @@ public class CommentEntity {
         return pk.split("#")[1];
     }
 
+    /**
+     * Returns the post ID this comment belongs to, which is the partition key of the
+     * {@value #COMMENT_POST_INDEX} global secondary index.
+     * <p>
+     * The value is derived from the partition key (PK) and is null for items that are not comments.
+     *
+     * @return the post ID of the comment, or null
+     */
+    @DynamoDbSecondaryPartitionKey(indexNames = COMMENT_POST_INDEX)
+    @DynamoDbAttribute(COMMENT_POST_ID)
+    public String getCommentPostId() {
+        if (pk == null || !pk.endsWith("#" + SK_PREFIX)) return null;
+        return getPostId();
+    }
+
+    /**
+     * No-op setter required by the bean mapper. The post ID is always derived from the partition key (PK).
+     *
+     * @param commentPostId ignored
+     */
+    public void setCommentPostId(String commentPostId) {
+        // derived from the partition key
+    }
+
+    /**
+     * Returns the sort key of the {@value #COMMENT_POST_INDEX} global secondary index.
+     * <p>
+     * It has the format {@code <zero padded timestamp>#<commentId>}, so comments of a post are ordered by
+     * creation time. Comments without a timestamp are sorted first.
+     *
+     * @return the index sort key, or null for items that are not comments
+     */
+    @DynamoDbSecondarySortKey(indexNames = COMMENT_POST_INDEX)
+    @DynamoDbAttribute(COMMENT_SORT_KEY)
+    public String getCommentSortKey() {
+        if (getCommentPostId() == null || sk == null) return null;
+        long timestamp;
+        try {
+            timestamp = commentTimestamp == null ? 0 : Long.parseLong(commentTimestamp);
+        } catch (NumberFormatException e) {
+            timestamp = 0;
+        }
+        return String.format("%013d#%s", timestamp, getCommentId());
+    }
+
+    /**
+     * No-op setter required by the bean mapper. The index sort key is always derived from the timestamp and SK.
+     *
+     * @param commentSortKey ignored
+     */
+    public void setCommentSortKey(String commentSortKey) {
+        // derived from the timestamp and the sort key
+    }
+
 }
@@ -0,0 +1,141 @@
+package com.uzh.ase.dailygrind.postservice.post.repository.entity;
+
+import com.uzh.ase.dailygrind.postservice.post.util.TimeToLiveHelper;
+import lombok.*;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
+
+import java.time.LocalDate;
+
+/**
+ * Represents the entry of a daily post in the bucket of the day it was created in the DynamoDB table.
+ * <p>
+ * This class is annotated with {@link DynamoDbBean} to indicate it is a DynamoDB entity,
+ * and uses {@link DynamoDbPartitionKey} and {@link DynamoDbSortKey} to define the partition and sort keys.
+ * The daily posts of a day are spread over a fixed number of shards by the hash of the user ID, so the bucket
+ * does not become a hot partition, and can be read with one query per shard. It expires together with the daily
+ * post.
+ */
+@DynamoDbBean
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyBucketEntity {
+
+    // Constants for partition key (PK) and sort key (SK) prefixes
+    public static final String PK_PREFIX = "DAILY";
+    public static final String SK_PREFIX = "USER";
+
+    public static final String BUCKET_POST_ID = "bucketPostId";
+
+    private String pk;
+    private String sk;
+
+    private String postId;
+
+    // Creation time of the post, not named postTimestamp so the entry is not added to the post owner index
+    private String createdAt;
+
+    private long ttl;
+
+    /**
+     * Returns the partition key (PK) for this daily bucket entity.
+     * The partition key is constructed from the day, the shard and a predefined prefix.
+     *
+     * @return the partition key (PK)
+     */
+    @DynamoDbPartitionKey
+    @DynamoDbAttribute("PK")
+    public String getPk() {
+        return pk;
+    }
+
+    /**
+     * Returns the sort key (SK) for this daily bucket entity.
+     * The sort key is constructed from the ID of the author of the post.
+     *
+     * @return the sort key (SK)
+     */
+    @DynamoDbSortKey
+    @DynamoDbAttribute("SK")
+    public String getSk() {
+        return sk;
+    }
+
+    /**
+     * Returns the ID of the daily post.
+     * Not stored as postId, so the entry is not added to the post ID index.
+     *
+     * @return the post ID
+     */
+    @DynamoDbAttribute(BUCKET_POST_ID)
+    public String getPostId() {
+        return postId;
+    }
+
+    /**
+     * Constructs a DailyBucketEntity for a daily post created on the given day.
+     * The TTL (Time-to-Live) value is set using the {@link TimeToLiveHelper}, like for the daily post itself.
+     *
+     * @param date          the day the post was created on
+     * @param shards        the number of shards of a day
+     * @param userId        the ID of the author of the post
+     * @param postId        the post ID
+     * @param createdAt     the creation time of the post
+     */
+    public DailyBucketEntity(LocalDate date, int shards, String userId, String postId, String createdAt) {
+        this.pk = generatePK(date, shardOf(userId, shards));
+        this.sk = generateSK(userId);
+        this.postId = postId;
+        this.createdAt = createdAt;
+        this.ttl = TimeToLiveHelper.getTimeToLive();
+    }
+
+    /**
+     * Generates the partition key (PK) for a shard of the bucket of a day.
+     * The PK is a combination of a predefined prefix, the day formatted as {@code yyyy-MM-dd} and the shard.
+     *
+     * @param date  the day
+     * @param shard the shard, between 0 (inclusive) and the number of shards (exclusive)
+     * @return the generated partition key (PK)
+     */
+    public static String generatePK(LocalDate date, int shard) {
+        return PK_PREFIX + "#" + date + "#" + shard;
+    }
+
+    /**
+     * Generates the sort key (SK) for a daily bucket entity.
+     * The SK is a combination of the user ID and a predefined prefix.
+     *
+     * @param userId the ID of the author of the post
+     * @return the generated sort key (SK)
+     */
+    public static String generateSK(String userId) {
+        return SK_PREFIX + "#" + userId;
+    }
+
+    /**
+     * Determines the shard the daily posts of a user are written to.
+     *
+     * @param userId the ID of the user
+     * @param shards the number of shards of a day
+     * @return the shard of the user
+     */
+    public static int shardOf(String userId, int shards) {
+        return Math.floorMod(userId.hashCode(), shards);
+    }
+
+    /**
+     * Extracts the ID of the author of the post from the sort key (SK).
+     *
+     * @return the extracted user ID
+     */
+    public String getUserId() {
+        return sk.split("#")[1];
+    }
+
+}
@@ -23,6 +23,8 @@ public class DailyPostEntity {
     public static final String PK_PREFIX = "USER";
     public static final String PK_SUFFIX = "DAILY";
     public static final String SK_PREFIX = "POST";
+    // SK of the lock item that guarantees a single daily post per user
+    public static final String LOCK_SK = "LOCK";
 
     private String pk;
     private String sk;
@@ -67,6 +69,24 @@ public class DailyPostEntity {
         this.ttl = TimeToLiveHelper.getTimeToLive();
     }
 
+    /**
+     * Creates the lock item for the daily post of a user.
+     * <p>
+     * The lock lives in the same partition as the daily post, but has a fixed sort key. Writing it with an
+     * {@code attribute_not_exists} condition guarantees that a user can only create one daily post per day.
+     * It expires together with the daily post.
+     *
+     * @param userId the user ID
+     * @return the lock item for the user's daily post
+     */
+    public static DailyPostEntity lockFor(String userId) {
+        return DailyPostEntity.builder()
+            .pk(generatePK(userId))
+            .sk(LOCK_SK)
+            .ttl(TimeToLiveHelper.getTimeToLive())
+            .build();
+    }
+
     /**
      * Generates the partition key (PK) for a daily post entity.
      * The PK is a combination of the user ID and predefined prefixes and suffixes.
@@ -28,6 +28,12 @@ public class FriendEntity {
     private String pk;
     private String sk;
 
+    // Set when the friend has too many friends to fan out their posts, so their daily post is read on demand
+    private Boolean fanOutOnRead;
+
+    // Time in milliseconds when the friendship was created, used to sync timelines incrementally
+    private Long createdAt;
+
     /**
      * Returns the partition key (PK) for this friend entity.
      * The partition key is constructed from the user ID and predefined prefixes and postfixes.
@@ -17,11 +17,16 @@ import java.time.ZoneOffset;
  * This class is annotated with {@link DynamoDbBean} to indicate it is a DynamoDB entity,
  * and uses {@link DynamoDbPartitionKey} and {@link DynamoDbSortKey} to define the partition and sort keys.
  * It stores a relationship where a user pins a post, identified by the combination of the user ID and post ID.
+ * <p>
+ * It also stores a snapshot of the post, so the pinned posts of a user can be listed with a single query. The
+ * snapshot is kept up to date asynchronously when the post changes, see {@link PostPinEntity}. Pins written before
+ * snapshots were introduced have no snapshot yet.
  */
 @DynamoDbBean
 @Getter
 @Setter
 @NoArgsConstructor
+@AllArgsConstructor
 @Builder
 public class PinnedPostEntity {
 
@@ -30,6 +35,9 @@ public class PinnedPostEntity {
     public static final String PK_SUFFIX = "PINNED";
     public static final String SK_PREFIX = "POST";
 
+    // Name of the attribute holding the update time of the post the snapshot was taken from
+    public static final String SNAPSHOT_AT = "snapshotAt";
+
     private String pk;
     private String sk;
 
@@ -57,6 +65,14 @@ public class PinnedPostEntity {
         return sk;
     }
 
+    // Snapshot of the post, not named like the attributes of the post so the item is not added to its indexes
+    private String authorId;
+    private String title;
+    private String createdAt;
+    private Long likeCount;
+    private Long commentCount;
+    private Long snapshotAt;
+
     /**
      * Constructor to create a new {@link PinnedPostEntity} using user ID and post ID.
      *
@@ -68,6 +84,23 @@ public class PinnedPostEntity {
         this.sk = generateSK(postId);
     }
 
+    /**
+     * Constructor to create a new {@link PinnedPostEntity} with a snapshot of the pinned post.
+     *
+     * @param userId the ID of the user pinning the post
+     * @param post   the pinned post
+     */
+    public PinnedPostEntity(String userId, PostEntity post) {
+        this(userId, post.getPostId());
+        this.authorId = post.getUserId();
+        this.title = post.getPostTitle();
+        this.createdAt = post.getPostTimestamp();
+        this.likeCount = post.getLikeCount();
+        this.commentCount = post.getCommentCount();
+        // Posts created before update times were tracked count as never updated
+        this.snapshotAt = post.getUpdatedAt() == null ? 0L : post.getUpdatedAt();
+    }
+
     /**
      * Generates the partition key (PK) for a pinned post entity.
      * The PK is a combination of the user ID and predefined prefixes and suffixes.
@@ -90,6 +123,15 @@ public class PinnedPostEntity {
         return SK_PREFIX + "#" + postId;
     }
 
+    /**
+     * Extracts the user ID from the partition key (PK).
+     *
+     * @return the extracted user ID
+     */
+    public String getUserId() {
+        return pk.split("#")[1];
+    }
+
     /**
      * Extracts the post ID from the sort key (SK).
      *
@@ -99,4 +141,13 @@ public class PinnedPostEntity {
         return sk.split("#")[1];
     }
 
+    /**
+     * Indicates whether the item contains a snapshot of the pinned post.
+     *
+     * @return true if the snapshot has been written
+     */
+    public boolean hasSnapshot() {
+        return authorId != null;
+    }
+
 }
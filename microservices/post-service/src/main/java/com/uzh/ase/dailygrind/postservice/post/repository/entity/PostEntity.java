@@ -4,9 +4,11 @@ import lombok.*;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondaryPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondarySortKey;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
 
-import java.util.UUID;
+import java.util.List;
 
 /**
  * Represents a post entity in the DynamoDB table.
@@ -27,17 +29,45 @@ public class PostEntity {
     public static String PREFIX = "USER";
     public static String POSTFIX = "POST";
 
+    // Global secondary index keyed by the post ID, used to look up a post without knowing its owner
+    public static final String POST_ID_INDEX = "post-id-index";
+
+    // Global secondary index keyed by the partition key and the post timestamp, used to read the posts of a user by time
+    public static final String POST_OWNER_INDEX = "post-owner-index";
+
+    // Names of the counter attributes, which are updated atomically
+    public static final String LIKE_COUNT = "likeCount";
+    public static final String COMMENT_COUNT = "commentCount";
+    public static final String UPDATED_AT = "updatedAt";
+
+    // Name of the creation time attribute, the sort key of the post owner index
+    public static final String POST_TIMESTAMP = "postTimestamp";
+
+    // Names of the key and title attributes
+    public static final String PK = "PK";
+    public static final String SK = "SK";
+    public static final String POST_TITLE = "postTitle";
+
+    // Name of the version attribute, which is incremented on every edit of the post, see #getVersion()
+    public static final String VERSION = "version";
+
+    // Attributes read for list views, which show posts without their content
+    public static final List<String> SUMMARY_ATTRIBUTES =
+        List.of(PK, SK, POST_TITLE, POST_TIMESTAMP, LIKE_COUNT, COMMENT_COUNT, UPDATED_AT);
+
     private String pk;
     private String sk;
 
     /**
      * Returns the partition key (PK) for this post entity.
      * The partition key is constructed from the user ID and predefined prefixes and suffixes.
+     * It is also the partition key of the {@value #POST_OWNER_INDEX} global secondary index.
      *
      * @return the partition key (PK)
      */
     @DynamoDbPartitionKey
-    @DynamoDbAttribute("PK")
+    @DynamoDbSecondaryPartitionKey(indexNames = POST_OWNER_INDEX)
+    @DynamoDbAttribute(PK)
     public String getPk() {
         return pk;
     }
@@ -49,7 +79,7 @@ public class PostEntity {
      * @return the sort key (SK)
      */
     @DynamoDbSortKey
-    @DynamoDbAttribute("SK")
+    @DynamoDbAttribute(SK)
     public String getSk() {
         return sk;
     }
@@ -61,6 +91,37 @@ public class PostEntity {
     private Long likeCount;
     private Long commentCount;
 
+    /**
+     * Returns the creation time of the post in milliseconds.
+     * <p>
+     * It is the sort key of the {@value #POST_OWNER_INDEX} global secondary index. The index sorts it as a string,
+     * which matches the numeric order since all timestamps have the same number of digits.
+     *
+     * @return the creation time of the post
+     */
+    @DynamoDbSecondarySortKey(indexNames = POST_OWNER_INDEX)
+    public String getPostTimestamp() {
+        return postTimestamp;
+    }
+
+    // Time in milliseconds of the last change of the post or its counters, used to sync timelines incrementally
+    private Long updatedAt;
+
+    private Long version;
+
+    /**
+     * Returns the version of the title and content of the post, used for optimistic concurrency control of edits.
+     * <p>
+     * The version is incremented on every edit, but not when the counters change. Posts that have never been
+     * edited have no version, which counts as version 0.
+     *
+     * @return the version of the post, or null if it has never been edited
+     */
+    @DynamoDbAttribute(VERSION)
+    public Long getVersion() {
+        return version;
+    }
+
     /**
      * Generates the partition key (PK) for a post entity.
      * The PK is a combination of the user ID and predefined prefixes and suffixes.
@@ -80,7 +141,6 @@ public class PostEntity {
      * @return the generated sort key (SK)
      */
     public static String generateSK(String postId) {
-        if (postId == null || postId.isEmpty()) postId = UUID.randomUUID().toString();
         return POSTFIX + "#" + postId;
     }
 
@@ -95,11 +155,25 @@ public class PostEntity {
 
     /**
      * Extracts the post ID from the sort key (SK).
+     * <p>
+     * The post ID is also stored as its own attribute, which is the partition key of the
+     * {@value #POST_ID_INDEX} global secondary index.
      *
      * @return the extracted post ID
      */
+    @DynamoDbSecondaryPartitionKey(indexNames = POST_ID_INDEX)
+    @DynamoDbAttribute("postId")
     public String getPostId() {
-        return sk.split("#")[1];
+        return sk == null ? null : sk.split("#")[1];
+    }
+
+    /**
+     * No-op setter required by the bean mapper. The post ID is always derived from the sort key (SK).
+     *
+     * @param postId ignored
+     */
+    public void setPostId(String postId) {
+        // derived from the sort key
     }
 
 }
@@ -0,0 +1,107 @@
+package com.uzh.ase.dailygrind.postservice.post.repository.entity;
+
+import lombok.*;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
+
+/**
+ * Represents the inverted pinned post relationship of a post in the DynamoDB table.
+ * <p>
+ * This class is annotated with {@link DynamoDbBean} to indicate it is a DynamoDB entity,
+ * and uses {@link DynamoDbPartitionKey} and {@link DynamoDbSortKey} to define the partition and sort keys.
+ * It is written next to every {@link PinnedPostEntity}, so all users who pinned a post can be read with a single
+ * query when the snapshots of the post have to be updated.
+ */
+@DynamoDbBean
+@Getter
+@Setter
+@NoArgsConstructor
+@Builder
+public class PostPinEntity {
+
+    // Constants for partition key (PK) and sort key (SK) prefixes and suffixes
+    public static final String PK_PREFIX = "POST";
+    public static final String PK_SUFFIX = "PINS";
+    public static final String SK_PREFIX = "USER";
+
+    private String pk;
+    private String sk;
+
+    /**
+     * Returns the partition key (PK) for this post pin entity.
+     * The partition key is constructed from the post ID and predefined prefixes and suffixes.
+     *
+     * @return the partition key (PK)
+     */
+    @DynamoDbPartitionKey
+    @DynamoDbAttribute("PK")
+    public String getPk() {
+        return pk;
+    }
+
+    /**
+     * Returns the sort key (SK) for this post pin entity.
+     * The sort key is constructed from the user ID and a predefined prefix.
+     *
+     * @return the sort key (SK)
+     */
+    @DynamoDbSortKey
+    @DynamoDbAttribute("SK")
+    public String getSk() {
+        return sk;
+    }
+
+    /**
+     * Constructor to create a new {@link PostPinEntity} using post ID and user ID.
+     *
+     * @param postId the post ID
+     * @param userId the user ID
+     */
+    public PostPinEntity(String postId, String userId) {
+        this.pk = generatePK(postId);
+        this.sk = generateSK(userId);
+    }
+
+    /**
+     * Generates the partition key (PK) for a post pin entity.
+     * The PK is a combination of the post ID and predefined prefixes and suffixes.
+     *
+     * @param postId the post ID
+     * @return the generated partition key (PK)
+     */
+    public static String generatePK(String postId) {
+        return PK_PREFIX + "#" + postId + "#" + PK_SUFFIX;
+    }
+
+    /**
+     * Generates the sort key (SK) for a post pin entity.
+     * The SK is a combination of the user ID and a predefined prefix.
+     *
+     * @param userId the user ID
+     * @return the generated sort key (SK)
+     */
+    public static String generateSK(String userId) {
+        return SK_PREFIX + "#" + userId;
+    }
+
+    /**
+     * Extracts the post ID from the partition key (PK).
+     *
+     * @return the extracted post ID
+     */
+    public String getPostId() {
+        return pk.split("#")[1];
+    }
+
+    /**
+     * Extracts the user ID from the sort key (SK).
+     *
+     * @return the extracted user ID
+     */
+    public String getUserId() {
+        return sk.split("#")[1];
+    }
+
+}
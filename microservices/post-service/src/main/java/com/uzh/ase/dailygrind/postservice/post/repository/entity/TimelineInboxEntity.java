@@ -0,0 +1,136 @@
+package com.uzh.ase.dailygrind.postservice.post.repository.entity;
+
+import com.uzh.ase.dailygrind.postservice.post.util.TimeToLiveHelper;
+import lombok.*;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
+
+/**
+ * Represents an entry in the timeline inbox of a user in the DynamoDB table.
+ * <p>
+ * This class is annotated with {@link DynamoDbBean} to indicate it is a DynamoDB entity,
+ * and uses {@link DynamoDbPartitionKey} and {@link DynamoDbSortKey} to define the partition and sort keys.
+ * An entry is written to the inbox of every friend when a user creates a daily post, so a timeline can be read
+ * with a single query. It expires together with the daily post. The sort key starts with the author, so all entries
+ * of one author in an inbox can be read without reading the whole inbox.
+ */
+@DynamoDbBean
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TimelineInboxEntity {
+
+    // Constants for partition key (PK) and sort key (SK) prefixes and suffixes
+    public static final String PK_PREFIX = "USER";
+    public static final String PK_SUFFIX = "TIMELINE";
+    public static final String SK_PREFIX = "AUTHOR";
+    public static final String SK_POST_PREFIX = "POST";
+
+    private String pk;
+    private String sk;
+
+    private long ttl;
+
+    /**
+     * Returns the partition key (PK) for this timeline inbox entity.
+     * The partition key is constructed from the ID of the inbox owner and predefined prefixes and suffixes.
+     *
+     * @return the partition key (PK)
+     */
+    @DynamoDbPartitionKey
+    @DynamoDbAttribute("PK")
+    public String getPk() {
+        return pk;
+    }
+
+    /**
+     * Returns the sort key (SK) for this timeline inbox entity.
+     * The sort key is constructed from the author ID, the post ID and predefined prefixes.
+     *
+     * @return the sort key (SK)
+     */
+    @DynamoDbSortKey
+    @DynamoDbAttribute("SK")
+    public String getSk() {
+        return sk;
+    }
+
+    /**
+     * Constructs a TimelineInboxEntity for a post that is delivered to the inbox of a user.
+     * The TTL (Time-to-Live) value is set using the {@link TimeToLiveHelper}, like for the daily post itself.
+     *
+     * @param userId   the ID of the user owning the inbox
+     * @param authorId the ID of the user who created the post
+     * @param postId   the post ID
+     */
+    public TimelineInboxEntity(String userId, String authorId, String postId) {
+        this.pk = generatePK(userId);
+        this.sk = generateSK(authorId, postId);
+        this.ttl = TimeToLiveHelper.getTimeToLive();
+    }
+
+    /**
+     * Generates the partition key (PK) for a timeline inbox entity.
+     * The PK is a combination of the user ID and predefined prefixes and suffixes.
+     *
+     * @param userId the ID of the user owning the inbox
+     * @return the generated partition key (PK)
+     */
+    public static String generatePK(String userId) {
+        return PK_PREFIX + "#" + userId + "#" + PK_SUFFIX;
+    }
+
+    /**
+     * Generates the sort key (SK) for a timeline inbox entity.
+     * The SK is a combination of the author ID, the post ID and predefined prefixes.
+     *
+     * @param authorId the ID of the user who created the post
+     * @param postId   the post ID
+     * @return the generated sort key (SK)
+     */
+    public static String generateSK(String authorId, String postId) {
+        return generateAuthorSKPrefix(authorId) + SK_POST_PREFIX + "#" + postId;
+    }
+
+    /**
+     * Generates the prefix shared by the sort keys (SK) of all entries of an author.
+     *
+     * @param authorId the ID of the user who created the posts
+     * @return the sort key prefix of the author
+     */
+    public static String generateAuthorSKPrefix(String authorId) {
+        return SK_PREFIX + "#" + authorId + "#";
+    }
+
+    /**
+     * Extracts the ID of the inbox owner from the partition key (PK).
+     *
+     * @return the extracted user ID
+     */
+    public String getUserId() {
+        return pk.split("#")[1];
+    }
+
+    /**
+     * Extracts the ID of the author from the sort key (SK).
+     *
+     * @return the extracted author ID
+     */
+    public String getAuthorId() {
+        return sk.split("#")[1];
+    }
+
+    /**
+     * Extracts the post ID from the sort key (SK).
+     *
+     * @return the extracted post ID
+     */
+    public String getPostId() {
+        return sk.split("#")[3];
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.uzh.ase.dailygrind.postservice.post.repository.entity;
+
+import com.uzh.ase.dailygrind.postservice.post.util.TimeToLiveHelper;
+import lombok.*;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
+
+/**
+ * Represents a post that has been removed from the timeline of a user in the DynamoDB table.
+ * <p>
+ * This class is annotated with {@link DynamoDbBean} to indicate it is a DynamoDB entity,
+ * and uses {@link DynamoDbPartitionKey} and {@link DynamoDbSortKey} to define the partition and sort keys.
+ * A tombstone is written for every friend when a daily post is deleted, and for both users when a friendship
+ * is deleted, so clients syncing their timeline incrementally learn which entries to remove. It expires together
+ * with the daily posts, after which clients have to sync their timeline from scratch anyway.
+ */
+@DynamoDbBean
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TimelineTombstoneEntity {
+
+    // Constants for partition key (PK) and sort key (SK) prefixes and suffixes
+    public static final String PK_PREFIX = "USER";
+    public static final String PK_SUFFIX = "TIMELINE_REMOVED";
+    public static final String SK_PREFIX = "POST";
+
+    private String pk;
+    private String sk;
+
+    // Time in milliseconds when the post was removed from the timeline
+    private long removedAt;
+
+    private long ttl;
+
+    /**
+     * Returns the partition key (PK) for this timeline tombstone entity.
+     * The partition key is constructed from the ID of the timeline owner and predefined prefixes and suffixes.
+     *
+     * @return the partition key (PK)
+     */
+    @DynamoDbPartitionKey
+    @DynamoDbAttribute("PK")
+    public String getPk() {
+        return pk;
+    }
+
+    /**
+     * Returns the sort key (SK) for this timeline tombstone entity.
+     * The sort key is constructed from the post ID and a predefined prefix.
+     *
+     * @return the sort key (SK)
+     */
+    @DynamoDbSortKey
+    @DynamoDbAttribute("SK")
+    public String getSk() {
+        return sk;
+    }
+
+    /**
+     * Constructs a TimelineTombstoneEntity for a post that has just been removed from the timeline of a user.
+     * The TTL (Time-to-Live) value is set using the {@link TimeToLiveHelper}, like for the daily posts.
+     *
+     * @param userId the ID of the user owning the timeline
+     * @param postId the post ID
+     */
+    public TimelineTombstoneEntity(String userId, String postId) {
+        this.pk = generatePK(userId);
+        this.sk = generateSK(postId);
+        this.removedAt = System.currentTimeMillis();
+        this.ttl = TimeToLiveHelper.getTimeToLive();
+    }
+
+    /**
+     * Generates the partition key (PK) for a timeline tombstone entity.
+     * The PK is a combination of the user ID and predefined prefixes and suffixes.
+     *
+     * @param userId the ID of the user owning the timeline
+     * @return the generated partition key (PK)
+     */
+    public static String generatePK(String userId) {
+        return PK_PREFIX + "#" + userId + "#" + PK_SUFFIX;
+    }
+
+    /**
+     * Generates the sort key (SK) for a timeline tombstone entity.
+     * The SK is a combination of the post ID and a predefined prefix.
+     *
+     * @param postId the post ID
+     * @return the generated sort key (SK)
+     */
+    public static String generateSK(String postId) {
+        return SK_PREFIX + "#" + postId;
+    }
+
+    /**
+     * Extracts the post ID from the sort key (SK).
+     *
+     * @return the extracted post ID
+     */
+    public String getPostId() {
+        return sk.split("#")[1];
+    }
+
+}
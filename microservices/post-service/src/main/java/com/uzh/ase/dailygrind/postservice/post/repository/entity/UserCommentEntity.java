@@ -0,0 +1,120 @@
+package com.uzh.ase.dailygrind.postservice.post.repository.entity;
+
+import lombok.*;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
+
+/**
+ * Represents the inverted comment relationship of a user in the DynamoDB table.
+ * <p>
+ * This class is annotated with {@link DynamoDbBean} to indicate it is a DynamoDB entity,
+ * and uses {@link DynamoDbPartitionKey} and {@link DynamoDbSortKey} to define the partition and sort keys.
+ * It is written next to every {@link CommentEntity}, so all comments of a user can be read with a single query.
+ */
+@DynamoDbBean
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserCommentEntity {
+
+    // PK has the following format: USER#<userId>#COMMENTS
+    public static final String PK_PREFIX = "USER";
+    public static final String PK_SUFFIX = "COMMENTS";
+    // SK has the following format: POST#<postId>#COMMENT#<commentId>
+    public static final String SK_PREFIX = "POST";
+    public static final String SK_INFIX = "COMMENT";
+
+    private String pk;
+    private String sk;
+
+    /**
+     * Returns the partition key (PK) for this user comment entity.
+     * The partition key is constructed from the user ID and predefined prefixes and suffixes.
+     *
+     * @return the partition key (PK)
+     */
+    @DynamoDbPartitionKey
+    @DynamoDbAttribute("PK")
+    public String getPk() {
+        return pk;
+    }
+
+    /**
+     * Returns the sort key (SK) for this user comment entity.
+     * The sort key is constructed from the post ID and the comment ID.
+     *
+     * @return the sort key (SK)
+     */
+    @DynamoDbSortKey
+    @DynamoDbAttribute("SK")
+    public String getSk() {
+        return sk;
+    }
+
+    /**
+     * Constructor to create a new {@link UserCommentEntity} using user ID, post ID and comment ID.
+     *
+     * @param userId    the user ID
+     * @param postId    the post ID
+     * @param commentId the comment ID
+     */
+    public UserCommentEntity(String userId, String postId, String commentId) {
+        this.pk = generatePK(userId);
+        this.sk = generateSK(postId, commentId);
+    }
+
+    /**
+     * Generates the partition key (PK) for a user comment entity.
+     * The PK is a combination of the user ID and predefined prefixes and suffixes.
+     *
+     * @param userId the user ID
+     * @return the generated partition key (PK)
+     */
+    public static String generatePK(String userId) {
+        return PK_PREFIX + "#" + userId + "#" + PK_SUFFIX;
+    }
+
+    /**
+     * Generates the sort key (SK) for a user comment entity.
+     * The SK is a combination of the post ID, the comment ID and predefined prefixes.
+     *
+     * @param postId    the post ID
+     * @param commentId the comment ID
+     * @return the generated sort key (SK)
+     */
+    public static String generateSK(String postId, String commentId) {
+        return SK_PREFIX + "#" + postId + "#" + SK_INFIX + "#" + commentId;
+    }
+
+    /**
+     * Extracts the user ID from the partition key (PK).
+     *
+     * @return the extracted user ID
+     */
+    public String getUserId() {
+        return pk.split("#")[1];
+    }
+
+    /**
+     * Extracts the post ID from the sort key (SK).
+     *
+     * @return the extracted post ID
+     */
+    public String getPostId() {
+        return sk.split("#")[1];
+    }
+
+    /**
+     * Extracts the comment ID from the sort key (SK).
+     *
+     * @return the extracted comment ID
+     */
+    public String getCommentId() {
+        return sk.split("#")[3];
+    }
+
+}
@@ -57,6 +57,9 @@ public class UserEntity {
     private String lastName;
     private String profilePictureUrl;
 
+    // Time in milliseconds of the last change of the profile, used to sync timelines incrementally
+    private Long updatedAt;
+
     /**
      * Generates the partition key (PK) for a user entity.
      * The PK is a combination of the user ID and predefined prefixes and suffixes.
@@ -0,0 +1,132 @@
+package com.uzh.ase.dailygrind.postservice.post.repository.entity;
+
+import lombok.*;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
+
+/**
+ * Represents the inverted like relationship of a user in the DynamoDB table.
+ * <p>
+ * This class is annotated with {@link DynamoDbBean} to indicate it is a DynamoDB entity,
+ * and uses {@link DynamoDbPartitionKey} and {@link DynamoDbSortKey} to define the partition and sort keys.
+ * It is written next to every {@link LikeEntity}, so all posts a user liked can be read with a single query.
+ * It also stores the owner of the liked post, so the liked posts can be read by their primary keys.
+ */
+@DynamoDbBean
+@Getter
+@Setter
+@NoArgsConstructor
+public class UserLikeEntity {
+
+    // Constants for partition key (PK) and sort key (SK) prefixes and suffixes
+    public static final String PK_PREFIX = "USER";
+    public static final String PK_SUFFIX = "LIKES";
+    public static final String SK_PREFIX = "POST";
+
+    public static final String POST_OWNER_ID = "postOwnerId";
+
+    private String pk;
+    private String sk;
+    private String postOwnerId;
+
+    /**
+     * Returns the partition key (PK) for this user like entity.
+     * The partition key is constructed from the user ID and predefined prefixes and suffixes.
+     *
+     * @return the partition key (PK)
+     */
+    @DynamoDbPartitionKey
+    @DynamoDbAttribute("PK")
+    public String getPk() {
+        return pk;
+    }
+
+    /**
+     * Returns the sort key (SK) for this user like entity.
+     * The sort key is constructed from the post ID and a predefined prefix.
+     *
+     * @return the sort key (SK)
+     */
+    @DynamoDbSortKey
+    @DynamoDbAttribute("SK")
+    public String getSk() {
+        return sk;
+    }
+
+    /**
+     * Returns the ID of the user who owns the liked post.
+     *
+     * @return the post owner ID, or null if the post did not exist when the like was written
+     */
+    @DynamoDbAttribute(POST_OWNER_ID)
+    public String getPostOwnerId() {
+        return postOwnerId;
+    }
+
+    /**
+     * Constructor to create a new {@link UserLikeEntity} using user ID and post ID.
+     * Only the keys are set, which is sufficient to delete the item.
+     *
+     * @param userId the user ID
+     * @param postId the post ID
+     */
+    public UserLikeEntity(String userId, String postId) {
+        this.pk = generatePK(userId);
+        this.sk = generateSK(postId);
+    }
+
+    /**
+     * Constructor to create a new {@link UserLikeEntity} using user ID, post ID and the owner of the post.
+     *
+     * @param userId      the user ID
+     * @param postId      the post ID
+     * @param postOwnerId the ID of the user who owns the post
+     */
+    public UserLikeEntity(String userId, String postId, String postOwnerId) {
+        this(userId, postId);
+        this.postOwnerId = postOwnerId;
+    }
+
+    /**
+     * Generates the partition key (PK) for a user like entity.
+     * The PK is a combination of the user ID and predefined prefixes and suffixes.
+     *
+     * @param userId the user ID
+     * @return the generated partition key (PK)
+     */
+    public static String generatePK(String userId) {
+        return PK_PREFIX + "#" + userId + "#" + PK_SUFFIX;
+    }
+
+    /**
+     * Generates the sort key (SK) for a user like entity.
+     * The SK is a combination of the post ID and a predefined prefix.
+     *
+     * @param postId the post ID
+     * @return the generated sort key (SK)
+     */
+    public static String generateSK(String postId) {
+        return SK_PREFIX + "#" + postId;
+    }
+
+    /**
+     * Extracts the user ID from the partition key (PK).
+     *
+     * @return the extracted user ID
+     */
+    public String getUserId() {
+        return pk.split("#")[1];
+    }
+
+    /**
+     * Extracts the post ID from the sort key (SK).
+     *
+     * @return the extracted post ID
+     */
+    public String getPostId() {
+        return sk.split("#")[1];
+    }
+
+}
@@ -2,18 +2,28 @@ package com.uzh.ase.dailygrind.postservice.post.service;
 
 import com.uzh.ase.dailygrind.postservice.post.controller.dto.CommentDto;
 import com.uzh.ase.dailygrind.postservice.post.controller.dto.CommentEntryDto;
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.CursorPage;
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.UserDto;
 import com.uzh.ase.dailygrind.postservice.post.mapper.CommentMapper;
 import com.uzh.ase.dailygrind.postservice.post.repository.CommentRepository;
 import com.uzh.ase.dailygrind.postservice.post.repository.PostRepository;
 import com.uzh.ase.dailygrind.postservice.post.repository.entity.CommentEntity;
 import com.uzh.ase.dailygrind.postservice.post.repository.entity.PostEntity;
+import com.uzh.ase.dailygrind.postservice.post.util.PageCursor;
+import com.uzh.ase.dailygrind.postservice.post.util.TrendingRanking;
+import com.uzh.ase.dailygrind.postservice.post.util.Ulid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 /**
  * Service for managing comments on posts.
@@ -26,10 +36,18 @@ import java.util.List;
 @RequiredArgsConstructor
 public class CommentService {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final CommentMapper commentMapper;
     private final UserService userService;
+    private final UserResolver userResolver;
     private final CommentRepository commentRepository;
     private final PostRepository postRepository;
+    private final TimelineCache timelineCache;
+    private final TimelineStreamService timelineStreamService;
+    private final PinnedPostSyncService pinnedPostSyncService;
+    private final TrendingRanking trendingRanking;
 
     /**
      * Retrieves all comments for a given post.
@@ -43,47 +61,89 @@ public class CommentService {
      */
     public List<CommentEntryDto> getComments(String postId) {
         log.info("Retrieving comments for post with ID '{}'", postId);
-        PostEntity postEntity = postRepository.findPostById(postId);
-        if (postEntity == null) {
+        findExistingPost(postId);
+
+        List<CommentEntity> commentEntities = commentRepository.findAllCommentsForPost(postId);
+        log.info("Found {} comments for post '{}'", commentEntities.size(), postId);
+
+        return toCommentEntries(commentEntities);
+    }
+
+    /**
+     * Retrieves a single page of comments for a given post.
+     * <p>
+     * The comments are ordered by creation time, oldest first. The returned page contains the cursor of the
+     * next page, which is null if there are no more comments.
+     *
+     * @param postId the ID of the post for which to retrieve comments
+     * @param limit  the maximum number of comments to return, defaults to {@value #DEFAULT_PAGE_SIZE}
+     * @param cursor the cursor of the page to retrieve, or null for the first page
+     * @return a page of {@link CommentEntryDto} objects representing the comments
+     * @throws ResponseStatusException if the post does not exist, or the limit or cursor are invalid
+     */
+    public CursorPage<CommentEntryDto> getComments(String postId, Integer limit, String cursor) {
+        log.info("Retrieving a page of comments for post with ID '{}'", postId);
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            log.warn("Invalid page size {} for comments of post '{}'", pageSize, postId);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        Map<String, AttributeValue> exclusiveStartKey;
+        try {
+            exclusiveStartKey = PageCursor.decode(cursor,
+                Set.of("PK", "SK", CommentEntity.COMMENT_POST_ID, CommentEntity.COMMENT_SORT_KEY),
+                Map.of(CommentEntity.COMMENT_POST_ID, postId));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid cursor for comments of post '{}'", postId);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+
+        if (exclusiveStartKey == null && postRepository.findPostById(postId) == null) {
             log.warn("Post with ID '{}' not found", postId);
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Post not found");
         }
 
-        List<CommentEntity> commentEntities = commentRepository.findAllCommentsForPost(postId);
-        log.info("Found {} comments for post '{}'", commentEntities.size(), postId);
+        Page<CommentEntity> page = commentRepository.findCommentsForPost(postId, pageSize, exclusiveStartKey);
+        log.info("Found {} comments for post '{}'", page.items().size(), postId);
 
-        return commentEntities.stream()
-            .map(commentEntity -> new CommentEntryDto(
-                commentMapper.toCommentDto(commentEntity),
-                userService.getUser(commentEntity.getUserId())
-            ))
-            .toList();
+        return new CursorPage<>(toCommentEntries(page.items()), PageCursor.encode(page.lastEvaluatedKey()));
     }
 
     /**
      * Adds a comment to a specific post.
      * <p>
-     * This method creates a new comment entity, saves it in the comment repository,
-     * and updates the comment count of the associated post. It returns the newly added comment
+     * This method creates a new comment entity and stores it together with the incremented comment count of the
+     * associated post in a single transaction. It returns the newly added comment
      * along with the user information in the form of a {@link CommentEntryDto}.
      *
      * @param postId the ID of the post to comment on
      * @param userId the ID of the user making the comment
      * @param comment the comment data to add
      * @return a {@link CommentEntryDto} representing the newly added comment
+     * @throws ResponseStatusException if the post does not exist
      */
     public CommentEntryDto commentPost(String postId, String userId, CommentDto comment) {
         log.info("User '{}' is commenting on post '{}'", userId, postId);
+        PostEntity postEntity = findExistingPost(postId);
 
+        long now = System.currentTimeMillis();
         CommentEntity commentEntity = commentMapper.toCommentEntity(userId, postId, comment);
-        commentEntity.setCommentTimestamp(String.valueOf(System.currentTimeMillis()));
-        commentRepository.saveComment(commentEntity);
-        log.info("Saved new comment for post '{}'", postId);
-
-        PostEntity postEntity = postRepository.findPostById(postId);
-        postEntity.setCommentCount(postEntity.getCommentCount() + 1);
-        postRepository.savePost(postEntity);
-        log.info("Incremented comment count for post '{}'", postId);
+        // The ID is always generated here, an ID sent by the client is ignored
+        commentEntity.setSk(CommentEntity.generateSK(Ulid.generate(now)));
+        commentEntity.setCommentTimestamp(String.valueOf(now));
+        try {
+            commentRepository.addComment(commentEntity, postEntity.getUserId());
+        } catch (NoSuchElementException e) {
+            log.warn("Post with ID '{}' was deleted before the comment was saved", postId);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Post not found");
+        }
+        log.info("Saved new comment for post '{}' and incremented its comment count", postId);
+        timelineCache.invalidateFriendsOf(postEntity.getUserId());
+        timelineCache.invalidate(userId);
+        timelineStreamService.countersChanged(postEntity, 0, 1);
+        trendingRanking.record(postEntity, TrendingRanking.COMMENT_WEIGHT);
+        pinnedPostSyncService.postChanged(postEntity.getUserId(), postId);
 
         return new CommentEntryDto(comment, userService.getUser(userId));
     }
@@ -91,23 +151,48 @@ public class CommentService {
     /**
      * Deletes a specific comment on a post.
      * <p>
-     * This method deletes the specified comment from the comment repository and updates the
-     * comment count of the associated post.
+     * This method deletes the specified comment and decrements the comment count of the associated post in a
+     * single transaction. The comment count is only decremented if the comment existed.
      *
      * @param postId the ID of the post from which to delete the comment
      * @param commentId the ID of the comment to delete
      * @param userId the ID of the user requesting the deletion
+     * @throws ResponseStatusException if the post does not exist
      */
     public void deleteComment(String postId, String commentId, String userId) {
         log.info("User '{}' is deleting comment '{}' from post '{}'", userId, commentId, postId);
+        PostEntity postEntity = findExistingPost(postId);
 
-        commentRepository.deleteComment(postId, commentId, userId);
-        log.info("Deleted comment '{}' from post '{}'", commentId, postId);
+        if (commentRepository.deleteComment(postId, commentId, userId, postEntity.getUserId())) {
+            log.info("Deleted comment '{}' from post '{}' and decremented its comment count", commentId, postId);
+            timelineCache.invalidateFriendsOf(postEntity.getUserId());
+            timelineCache.invalidate(userId);
+            timelineStreamService.countersChanged(postEntity, 0, -1);
+            trendingRanking.record(postEntity, -TrendingRanking.COMMENT_WEIGHT);
+            pinnedPostSyncService.postChanged(postEntity.getUserId(), postId);
+        } else {
+            log.info("Comment '{}' of user '{}' does not exist on post '{}'", commentId, userId, postId);
+        }
+    }
 
+    private PostEntity findExistingPost(String postId) {
         PostEntity postEntity = postRepository.findPostById(postId);
-        postEntity.setCommentCount(postEntity.getCommentCount() - 1);
-        postRepository.savePost(postEntity);
-        log.info("Decremented comment count for post '{}'", postId);
+        if (postEntity == null) {
+            log.warn("Post with ID '{}' not found", postId);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Post not found");
+        }
+        return postEntity;
+    }
+
+    private List<CommentEntryDto> toCommentEntries(List<CommentEntity> commentEntities) {
+        // Resolve all comment authors at once, most authors write several comments
+        Map<String, UserDto> users = userResolver.resolve(commentEntities.stream().map(CommentEntity::getUserId).toList());
+        return commentEntities.stream()
+            .map(commentEntity -> new CommentEntryDto(
+                commentMapper.toCommentDto(commentEntity),
+                users.get(commentEntity.getUserId())
+            ))
+            .toList();
     }
 
 }
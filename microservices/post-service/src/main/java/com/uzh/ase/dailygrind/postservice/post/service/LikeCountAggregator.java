@@ -0,0 +1,143 @@
+package com.uzh.ase.dailygrind.postservice.post.service;
+
+import com.uzh.ase.dailygrind.postservice.post.repository.PostRepository;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.PostEntity;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Service layer responsible for aggregating like count changes in memory and writing them behind.
+ * <p>
+ * When many users like the same post within seconds, updating its like count with every like makes all of them
+ * contend for the same item. Instead, the changes are summed up per post in a {@link LongAdder}, which spreads
+ * concurrent updates over several cells, and written with a single {@code ADD} per post every
+ * {@code post.likes.write-behind.flush-interval}. The like entries remain the durable record of the likes; changes
+ * that are lost when the service stops unexpectedly are repaired by {@link #reconcile(String, String)}.
+ * <p>
+ * Write-behind is only used if {@code post.likes.write-behind.enabled} is {@code true}. Otherwise, the like count
+ * is updated in the transaction that writes the like entry.
+ */
+@Service
+@Slf4j
+public class LikeCountAggregator {
+
+    /**
+     * Identifies a post by its owner, who is part of its key, and its ID.
+     *
+     * @param ownerId the ID of the user who owns the post
+     * @param postId  the ID of the post
+     */
+    private record PostKey(String ownerId, String postId) {
+    }
+
+    private final PostRepository postRepository;
+    private final TimelineCache timelineCache;
+    private final PinnedPostSyncService pinnedPostSyncService;
+    private final boolean enabled;
+    private final Map<PostKey, LongAdder> pendingDeltas = new ConcurrentHashMap<>();
+
+    public LikeCountAggregator(PostRepository postRepository,
+                               TimelineCache timelineCache,
+                               PinnedPostSyncService pinnedPostSyncService,
+                               @Value("${post.likes.write-behind.enabled:false}") boolean enabled) {
+        this.postRepository = postRepository;
+        this.timelineCache = timelineCache;
+        this.pinnedPostSyncService = pinnedPostSyncService;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Indicates whether like counts are written behind.
+     *
+     * @return true if write-behind is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Adds a change of the like count of a post, which is written with the next flush.
+     *
+     * @param ownerId the ID of the user who owns the post
+     * @param postId  the ID of the post
+     * @param delta   the change of the like count
+     */
+    public void add(String ownerId, String postId, long delta) {
+        PostKey key = new PostKey(ownerId, postId);
+        LongAdder adder = pendingDeltas.computeIfAbsent(key, k -> new LongAdder());
+        adder.add(delta);
+        // The adder may have been removed as idle by a flush in the meantime; a delta it has not seen is moved over
+        if (pendingDeltas.get(key) != adder) {
+            long orphaned = adder.sumThenReset();
+            if (orphaned != 0) add(ownerId, postId, orphaned);
+        }
+    }
+
+    /**
+     * Writes the pending like count changes, with a single update per post.
+     * <p>
+     * Changes that cannot be written are kept for the next flush. After the like count of a post has been written,
+     * the cached timelines and pinned post snapshots containing it are refreshed.
+     */
+    @Scheduled(fixedDelayString = "${post.likes.write-behind.flush-interval:1s}")
+    public synchronized void flush() {
+        for (Map.Entry<PostKey, LongAdder> entry : pendingDeltas.entrySet()) {
+            PostKey key = entry.getKey();
+            LongAdder adder = entry.getValue();
+            long delta = adder.sumThenReset();
+            if (delta == 0) {
+                // Idle adders are removed; a delta added concurrently is either taken here or moved over by add
+                pendingDeltas.remove(key, adder);
+                delta = adder.sumThenReset();
+                if (delta == 0) continue;
+            }
+            try {
+                postRepository.updateCounter(key.ownerId(), key.postId(), PostEntity.LIKE_COUNT, delta);
+            } catch (Exception e) {
+                log.warn("Like count of post {} could not be written, retrying with the next flush: {}", key.postId(), e.getMessage());
+                add(key.ownerId(), key.postId(), delta);
+                continue;
+            }
+            timelineCache.invalidateFriendsOf(key.ownerId());
+            pinnedPostSyncService.postChanged(key.ownerId(), key.postId());
+        }
+    }
+
+    /**
+     * Sets the like count of a post to the number of its like entries.
+     * <p>
+     * Meant to run before the service accepts likes, see
+     * {@link com.uzh.ase.dailygrind.postservice.post.util.LikeCountReconciler}.
+     * Pending changes of the post are kept and, since no flush runs meanwhile, written on top of the reconciled count
+     * with the next flush.
+     *
+     * @param ownerId the ID of the user who owns the post
+     * @param postId  the ID of the post
+     * @return true if the like count had to be corrected
+     */
+    public synchronized boolean reconcile(String ownerId, String postId) {
+        long likeCount = postRepository.countLikes(postId);
+        boolean corrected = postRepository.setLikeCount(ownerId, postId, likeCount);
+        if (corrected) {
+            log.info("Corrected the like count of post {} to {}", postId, likeCount);
+            timelineCache.invalidateFriendsOf(ownerId);
+            pinnedPostSyncService.postChanged(ownerId, postId);
+        }
+        return corrected;
+    }
+
+    /**
+     * Writes the pending like count changes before the service stops.
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        if (!pendingDeltas.isEmpty()) flush();
+    }
+}
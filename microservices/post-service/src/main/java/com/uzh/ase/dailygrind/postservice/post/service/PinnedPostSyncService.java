@@ -0,0 +1,71 @@
+package com.uzh.ase.dailygrind.postservice.post.service;
+
+import com.uzh.ase.dailygrind.postservice.post.repository.PinnedPostRepository;
+import com.uzh.ase.dailygrind.postservice.post.repository.PostRepository;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.PostEntity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Service layer responsible for keeping the post snapshots stored on pinned posts up to date.
+ * <p>
+ * Every update reads the current state of the post with a consistent read and writes it to all pins of the post,
+ * so updates that run out of order still leave the latest state behind. The pins of deleted posts are removed.
+ * All updates run asynchronously on the pinned post sync executor; posts nobody pinned only cost a single query.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PinnedPostSyncService {
+
+    private final PinnedPostRepository pinnedPostRepository;
+    private final PostRepository postRepository;
+    private final ThreadPoolTaskExecutor pinnedPostSyncExecutor;
+
+    /**
+     * Updates the snapshots of a post after its content or counters changed.
+     *
+     * @param authorId the ID of the user who created the post
+     * @param postId   the ID of the post
+     */
+    public void postChanged(String authorId, String postId) {
+        runAsync("post changed", () -> {
+            List<String> userIds = pinnedPostRepository.findUserIdsWhoPinnedPost(postId);
+            if (userIds.isEmpty()) return;
+
+            PostEntity post = postRepository.findPost(authorId, postId, true);
+            if (post == null) {
+                pinnedPostRepository.deletePinsForPost(postId);
+                return;
+            }
+            userIds.forEach(userId -> pinnedPostRepository.updateSnapshot(userId, post));
+            log.debug("Updated the snapshots of post {} pinned by {} users", postId, userIds.size());
+        });
+    }
+
+    /**
+     * Removes the pins of a deleted post.
+     *
+     * @param postId the ID of the deleted post
+     */
+    public void postDeleted(String postId) {
+        runAsync("post deleted", () -> {
+            List<String> userIds = pinnedPostRepository.deletePinsForPost(postId);
+            log.debug("Removed the pins of deleted post {} by {} users", postId, userIds.size());
+        });
+    }
+
+    private void runAsync(String operation, Runnable task) {
+        pinnedPostSyncExecutor.execute(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                log.error("Pinned post sync after {} failed: {}", operation, e.getMessage(), e);
+            }
+        });
+    }
+}
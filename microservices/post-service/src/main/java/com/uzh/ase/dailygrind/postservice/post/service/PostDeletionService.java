@@ -0,0 +1,83 @@
+package com.uzh.ase.dailygrind.postservice.post.service;
+
+import com.uzh.ase.dailygrind.postservice.post.repository.CommentRepository;
+import com.uzh.ase.dailygrind.postservice.post.repository.PinnedPostRepository;
+import com.uzh.ase.dailygrind.postservice.post.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Service layer responsible for deleting the items that depend on a deleted post.
+ * <p>
+ * The likes, comments and pins of a post are collected with one query each, run in parallel on the post deletion
+ * executor, and deleted together with batch writes. Deleting a post therefore only waits for the post itself to be
+ * deleted. The cleanup has no deadline; if a query or a delete fails, the whole cleanup is scheduled again with an
+ * exponential backoff, which is safe because deleting an item twice has no effect.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PostDeletionService {
+
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long BASE_BACKOFF_MILLIS = 1000;
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final PinnedPostRepository pinnedPostRepository;
+    private final ThreadPoolTaskExecutor postDeletionExecutor;
+
+    /**
+     * Deletes the likes, comments and pins of a deleted post, including their entries in the lists of the users.
+     *
+     * @param postId the ID of the deleted post
+     */
+    public void postDeleted(String postId) {
+        deleteDependentItems(postId, 1);
+    }
+
+    private void deleteDependentItems(String postId, int attempt) {
+        // Every query is a task of its own, so no pool thread is blocked waiting for the others
+        List<CompletableFuture<List<Key>>> lookups = Stream.<Supplier<List<Key>>>of(
+                () -> postRepository.findLikeKeysForPost(postId),
+                () -> commentRepository.findCommentKeysForPost(postId),
+                () -> pinnedPostRepository.findPinKeysForPost(postId))
+            .map(lookup -> CompletableFuture.supplyAsync(lookup, postDeletionExecutor))
+            .toList();
+
+        CompletableFuture.allOf(lookups.toArray(CompletableFuture[]::new))
+            .thenRunAsync(() -> {
+                List<Key> keys = lookups.stream()
+                    .flatMap(lookup -> lookup.join().stream())
+                    .toList();
+                postRepository.deleteItems(keys);
+                log.info("Deleted {} items of deleted post {}", keys.size(), postId);
+            }, postDeletionExecutor)
+            .exceptionally(e -> {
+                retry(postId, attempt, e);
+                return null;
+            });
+    }
+
+    private void retry(String postId, int attempt, Throwable error) {
+        if (attempt == MAX_ATTEMPTS) {
+            log.error("Deleting the items of deleted post {} failed {} times, some may remain: {}",
+                postId, attempt, error.getMessage(), error);
+            return;
+        }
+        long backoffMillis = BASE_BACKOFF_MILLIS << (attempt - 1);
+        log.warn("Deleting the items of deleted post {} failed, retrying in {} ms: {}",
+            postId, backoffMillis, error.getMessage());
+        CompletableFuture.delayedExecutor(backoffMillis, TimeUnit.MILLISECONDS, postDeletionExecutor)
+            .execute(() -> deleteDependentItems(postId, attempt + 1));
+    }
+}
@@ -1,20 +1,40 @@
 package com.uzh.ase.dailygrind.postservice.post.service;
 
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.CursorPage;
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.PartialResult;
 import com.uzh.ase.dailygrind.postservice.post.controller.dto.PostDto;
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.UserDto;
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.VersionedResult;
 import com.uzh.ase.dailygrind.postservice.post.mapper.PostMapper;
-import com.uzh.ase.dailygrind.postservice.post.repository.CommentRepository;
 import com.uzh.ase.dailygrind.postservice.post.repository.DailyPostRepository;
 import com.uzh.ase.dailygrind.postservice.post.repository.PinnedPostRepository;
 import com.uzh.ase.dailygrind.postservice.post.repository.PostRepository;
+import com.uzh.ase.dailygrind.postservice.post.repository.TimelineRepository;
+import com.uzh.ase.dailygrind.postservice.post.repository.UserRepository;
 import com.uzh.ase.dailygrind.postservice.post.repository.entity.*;
+import com.uzh.ase.dailygrind.postservice.post.util.PageCursor;
+import com.uzh.ase.dailygrind.postservice.post.util.ParallelLookupExecutor;
+import com.uzh.ase.dailygrind.postservice.post.util.TrendingRanking;
+import com.uzh.ase.dailygrind.postservice.post.util.Ulid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Service layer responsible for handling business logic related to posts.
@@ -25,11 +45,27 @@ import java.util.NoSuchElementException;
 @RequiredArgsConstructor
 public class PostService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // Key attributes of the cursors of the posts of a user, read from the table and from the owner index
+    private static final Set<String> TABLE_KEY = Set.of("PK", "SK");
+    private static final Set<String> OWNER_INDEX_KEY = Set.of("PK", "SK", PostEntity.POST_TIMESTAMP);
+
     private final PostRepository postRepository;
     private final DailyPostRepository dailyPostRepository;
     private final PinnedPostRepository pinnedPostRepository;
     private final PostMapper postMapper;
-    private final CommentRepository commentRepository;
+    private final TimelineFanOutService timelineFanOutService;
+    private final UserResolver userResolver;
+    private final TimelineCache timelineCache;
+    private final UserRepository userRepository;
+    private final TimelineRepository timelineRepository;
+    private final TimelineStreamService timelineStreamService;
+    private final ParallelLookupExecutor parallelLookupExecutor;
+    private final PinnedPostSyncService pinnedPostSyncService;
+    private final PostDeletionService postDeletionService;
+    private final LikeCountAggregator likeCountAggregator;
+    private final TrendingRanking trendingRanking;
 
     /**
      * Creates a new post for a user.
@@ -41,22 +77,37 @@ public class PostService {
      */
     public PostDto createPost(PostDto postDto, String userId) {
         log.info("Creating a new post for user {}", userId);
+        // The ID is always generated here, so the posts of a user are ordered by creation time, see Ulid
+        long now = System.currentTimeMillis();
         PostEntity postEntity = postMapper.toPostEntity(userId, postDto);
-        postEntity.setPostTimestamp(String.valueOf(System.currentTimeMillis()));
+        postEntity.setSk(PostEntity.generateSK(Ulid.generate(now)));
+        postEntity.setPostTimestamp(String.valueOf(now));
+        postEntity.setUpdatedAt(now);
 
-        String postId = dailyPostRepository.findDailyPostForUser(userId);
-        if (postId != null) {
+        DailyPostEntity dailyPostEntity = new DailyPostEntity(userId, postEntity.getPostId());
+        if (!dailyPostRepository.createDailyPost(postEntity, dailyPostEntity)) {
             log.error("User {} already has a daily post", userId);
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "User already has a daily post");
         }
-
-        postRepository.savePost(postEntity);
-        DailyPostEntity dailyPostEntity = new DailyPostEntity(userId, postEntity.getPostId());
-        dailyPostRepository.saveDailyPost(dailyPostEntity);
+        timelineFanOutService.postCreated(userId, postEntity.getPostId());
+        timelineCache.invalidateFriendsOf(userId);
+        timelineStreamService.postCreated(postEntity);
         log.info("Successfully created post with ID {} for user {}", postEntity.getPostId(), userId);
         return postMapper.toPostDto(postEntity, false, false);
     }
 
+    /**
+     * Creates the context of a user viewing posts during a request.
+     * <p>
+     * The pinned posts of the user are loaded once, so the context should be reused for all posts of a response.
+     *
+     * @param userId  The ID of the user viewing the posts.
+     * @return        The ViewerContext of the user.
+     */
+    public ViewerContext createViewerContext(String userId) {
+        return new ViewerContext(userId, new LinkedHashSet<>(pinnedPostRepository.findPinnedPostIdsForUser(userId)));
+    }
+
     /**
      * Adds information about whether a post is liked or pinned by a user.
      *
@@ -66,76 +117,235 @@ public class PostService {
      */
     public PostDto addIsLikedAndIsPinnedToPostDto(PostEntity postEntity, String userId) {
         if (postEntity == null) return null;
-        List<String> pinnedPostIds = pinnedPostRepository.findPinnedPostIdsForUser(userId);
-        return postMapper.toPostDto(
-            postEntity,
-            postRepository.findAllUsersWhoLikedPost(postEntity.getPostId()).contains(userId),
-            pinnedPostIds.contains(postEntity.getPostId()));
+        return addIsLikedAndIsPinnedToPostDtos(List.of(postEntity), createViewerContext(userId)).get(0);
     }
 
     /**
-     * Retrieves all posts for a given user.
+     * Adds information about whether posts are liked or pinned by the viewer.
+     * <p>
+     * Whether the viewer liked the posts is looked up with a single batch read for all posts that are not known
+     * to the viewer context yet.
      *
-     * @param userId  The ID of the user whose posts are to be retrieved.
-     * @return        A list of PostDto objects representing the user's posts.
+     * @param postEntities   The post entities to be transformed.
+     * @param viewerContext  The context of the user viewing the posts.
+     * @return               A list of PostDto objects containing post details with like and pin status.
      */
-    public List<PostDto> getPostsForUser(String userId) {
-        log.info("Retrieving all posts for user {}", userId);
-        List<PostEntity> postEntities = postRepository.findAllPostsForUser(userId);
+    public List<PostDto> addIsLikedAndIsPinnedToPostDtos(List<PostEntity> postEntities, ViewerContext viewerContext) {
+        List<String> unknownLikes = viewerContext.unknownLikes(postEntities.stream().map(PostEntity::getPostId).toList());
+        if (!unknownLikes.isEmpty()) {
+            viewerContext.rememberLikes(unknownLikes,
+                postRepository.findPostIdsLikedByUser(viewerContext.getViewerId(), unknownLikes));
+        }
         return postEntities.stream()
-            .map(postEntity -> addIsLikedAndIsPinnedToPostDto(postEntity, userId))
+            .map(postEntity -> postMapper.toPostDto(
+                postEntity,
+                viewerContext.isLiked(postEntity.getPostId()),
+                viewerContext.isPinned(postEntity.getPostId())))
+            .toList();
+    }
+
+    /**
+     * Retrieves the posts of a given user.
+     * <p>
+     * Without a limit and cursor, all posts are returned. Otherwise a single page is returned, newest first,
+     * together with the cursor of the next page. Posts with time-ordered IDs are read with key-range queries; posts
+     * created before these IDs were introduced are older than all of them, follow after the last of them and are
+     * read page by page from the {@value PostEntity#POST_OWNER_INDEX} index.
+     * <p>
+     * List views only show titles and counters, so in summary mode the posts are read without their content.
+     *
+     * @param userId  The ID of the user whose posts are to be retrieved.
+     * @param limit   The maximum number of posts to return, or null.
+     * @param cursor  The cursor of the page to retrieve, or null for the first page.
+     * @param summary Whether the posts should be returned without their content.
+     * @return        A page of PostDto objects representing the user's posts.
+     * @throws ResponseStatusException if the limit or cursor are invalid.
+     */
+    public CursorPage<PostDto> getPostsForUser(String userId, Integer limit, String cursor, boolean summary) {
+        log.info("Retrieving posts for user {}", userId);
+        if (limit == null && cursor == null) {
+            List<PostEntity> postEntities = postRepository.findAllPostsForUser(userId, summary);
+            return new CursorPage<>(addIsLikedAndIsPinnedToPostDtos(postEntities, createViewerContext(userId)), null);
+        }
+
+        int pageSize = limit == null ? MAX_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            log.error("Invalid page size {} for posts of user {}", pageSize, userId);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        String pk = PostEntity.generatePK(userId);
+        Map<String, AttributeValue> position;
+        try {
+            // Cursors within the legacy posts are keys of the owner index, which include the post timestamp
+            position = PageCursor.decode(cursor);
+            boolean legacy = position != null && position.containsKey(PostEntity.POST_TIMESTAMP);
+            position = PageCursor.decode(cursor, legacy ? OWNER_INDEX_KEY : TABLE_KEY, Map.of("PK", pk));
+            if (legacy) Long.parseLong(position.get(PostEntity.POST_TIMESTAMP).s());
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid cursor for posts of user {}", userId);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+
+        List<PostEntity> posts = new ArrayList<>();
+        if (position == null || !position.containsKey(PostEntity.POST_TIMESTAMP)) {
+            // Skipped legacy IDs can leave a page short, so reading continues until it is full or the range is done
+            Map<String, AttributeValue> startKey = position;
+            do {
+                Page<PostEntity> page = postRepository.findPostsOfUserByIdRange(
+                    userId, 0, Ulid.MAX_TIMESTAMP, pageSize - posts.size(), summary, startKey);
+                posts.addAll(page.items());
+                startKey = page.lastEvaluatedKey();
+            } while (posts.size() < pageSize && startKey != null);
+
+            if (startKey != null) {
+                return toPostPage(userId, posts, PageCursor.encode(startKey));
+            }
+            // The legacy posts are older than the oldest post with a time-ordered ID, so they follow after it
+            if (!posts.isEmpty()) {
+                position = toOwnerIndexKey(posts.get(posts.size() - 1));
+            } else if (position != null) {
+                String sk = position.get("SK").s();
+                String postId = sk.substring(sk.indexOf('#') + 1);
+                position = Ulid.isValid(postId) ? toOwnerIndexKey(pk, postId, Ulid.getTimestamp(postId)) : null;
+            }
+            if (posts.size() == pageSize) {
+                return toPostPage(userId, posts, position == null ? null : PageCursor.encode(position));
+            }
+        }
+
+        long to = position == null ? Ulid.MAX_TIMESTAMP : Long.parseLong(position.get(PostEntity.POST_TIMESTAMP).s());
+        Map<String, AttributeValue> startKey = position;
+        do {
+            Page<PostEntity> page = postRepository.findPostsOfUserBetween(
+                userId, 0, to, pageSize - posts.size(), summary, startKey);
+            page.items().stream()
+                .filter(post -> !Ulid.isValid(post.getPostId()))
+                .forEach(posts::add);
+            startKey = page.lastEvaluatedKey();
+        } while (posts.size() < pageSize && startKey != null);
+        return toPostPage(userId, posts, startKey == null ? null : PageCursor.encode(startKey));
+    }
+
+    private CursorPage<PostDto> toPostPage(String userId, List<PostEntity> posts, String nextCursor) {
+        return new CursorPage<>(addIsLikedAndIsPinnedToPostDtos(posts, createViewerContext(userId)), nextCursor);
+    }
+
+    private static Map<String, AttributeValue> toOwnerIndexKey(PostEntity post) {
+        return toOwnerIndexKey(post.getPk(), post.getPostId(), Long.parseLong(post.getPostTimestamp()));
+    }
+
+    private static Map<String, AttributeValue> toOwnerIndexKey(String pk, String postId, long timestamp) {
+        return Map.of(
+            "PK", AttributeValue.fromS(pk),
+            "SK", AttributeValue.fromS(PostEntity.generateSK(postId)),
+            PostEntity.POST_TIMESTAMP, AttributeValue.fromS(String.valueOf(timestamp)));
+    }
+
+    /**
+     * Retrieves several posts by their IDs for a given user.
+     * <p>
+     * The posts are looked up in parallel and returned in the requested order; unknown IDs and duplicates are
+     * skipped. Whether the user liked or pinned the posts is determined for all of them at once.
+     *
+     * @param postIds  The IDs of the posts.
+     * @param userId   The ID of the user requesting the posts.
+     * @return         The PostDto objects of the posts that were found, incomplete if some lookups failed.
+     * @throws ResponseStatusException if no or more than the maximum number of IDs are given.
+     */
+    public PartialResult<PostDto> getPostsByIds(List<String> postIds, String userId) {
+        List<String> distinctPostIds = postIds == null ? List.of() : postIds.stream()
+            .filter(postId -> postId != null && !postId.isBlank())
+            .distinct()
             .toList();
+        log.info("Retrieving {} posts by ID for user {}", distinctPostIds.size(), userId);
+        if (distinctPostIds.isEmpty() || distinctPostIds.size() > MAX_PAGE_SIZE) {
+            log.error("Invalid number of post IDs {} requested by user {}", distinctPostIds.size(), userId);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Between 1 and " + MAX_PAGE_SIZE + " post IDs must be given");
+        }
+
+        ParallelLookupExecutor.Results<PostEntity> results = parallelLookupExecutor.run(distinctPostIds.stream()
+            .<Supplier<PostEntity>>map(postId -> () -> postRepository.findPostById(postId))
+            .toList());
+        Map<String, PostEntity> postsById = results.results().stream()
+            .collect(Collectors.toMap(PostEntity::getPostId, Function.identity(), (first, second) -> first));
+        List<PostEntity> posts = distinctPostIds.stream()
+            .map(postsById::get)
+            .filter(Objects::nonNull)
+            .toList();
+        return new PartialResult<>(addIsLikedAndIsPinnedToPostDtos(posts, createViewerContext(userId)),
+            results.complete());
     }
 
     /**
-     * Retrieves a post by its ID for a given user.
+     * Retrieves a post by its ID for a given user, together with its version.
      *
      * @param postId   The ID of the post.
      * @param userId   The ID of the user requesting the post.
-     * @return         A PostDto containing the post's details.
-     * @throws ResponseStatusException if the post is not found.
+     * @return         A PostDto containing the post's details, or null if the post is not found, and its version.
      */
-    public PostDto getPostById(String postId, String userId) {
+    public VersionedResult<PostDto> getPostById(String postId, String userId) {
         log.info("Retrieving post with ID {} for user {}", postId, userId);
         PostEntity postEntity = postRepository.findPostById(postId);
-        return addIsLikedAndIsPinnedToPostDto(postEntity, userId);
+        return new VersionedResult<>(addIsLikedAndIsPinnedToPostDto(postEntity, userId), versionOf(postEntity));
     }
 
     /**
-     * Updates a post's details.
+     * Updates the title and content of a post with a single conditional write.
+     * <p>
+     * The counters of the post are not written, so likes and comments added concurrently are kept. If an expected
+     * version is given, the post is only updated if it has not been edited since.
      *
-     * @param postId   The ID of the post to be updated.
-     * @param userId   The ID of the user requesting the update.
-     * @param postDto  The data transfer object containing the updated post information.
-     * @return         A PostDto containing the updated post's details.
-     * @throws ResponseStatusException if the post is not found.
+     * @param postId          The ID of the post to be updated.
+     * @param userId          The ID of the user requesting the update.
+     * @param postDto         The data transfer object containing the updated post information.
+     * @param expectedVersion The version the post must have, or null to update any version.
+     * @return                A PostDto containing the updated post's details, and its new version.
+     * @throws ResponseStatusException if the post is not found or does not have the expected version.
      */
-    public PostDto updatePost(String postId, String userId, PostDto postDto) {
+    public VersionedResult<PostDto> updatePost(String postId, String userId, PostDto postDto, Long expectedVersion) {
         log.info("Updating post with ID {} for user {}", postId, userId);
-        PostEntity postEntity = postRepository.findPostById(postId);
-        if (postEntity == null) {
+        PostEntity postEntity;
+        try {
+            postEntity = postRepository.updatePostContent(userId, postId, postDto.title(), postDto.content(), expectedVersion);
+        } catch (NoSuchElementException e) {
             log.error("Post with ID {} not found for user {}", postId, userId);
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Post not found");
+        } catch (ConcurrentModificationException e) {
+            log.info("Post with ID {} was edited concurrently, expected version {}", postId, expectedVersion);
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Post has been edited in the meantime");
         }
-        postEntity = postMapper.toPostEntity(userId, postDto);
-        postRepository.savePost(postEntity);
+        timelineCache.invalidateFriendsOf(userId);
+        pinnedPostSyncService.postChanged(userId, postId);
         log.info("Successfully updated post with ID {} for user {}", postId, userId);
-        return addIsLikedAndIsPinnedToPostDto(postEntity, userId);
+        return new VersionedResult<>(addIsLikedAndIsPinnedToPostDto(postEntity, userId), versionOf(postEntity));
     }
 
     /**
      * Deletes a post by its ID for a given user.
+     * <p>
+     * Only the owner can delete a post. If the user has no post with this ID, nothing else is deleted, since the
+     * likes, comments and pins of a post are deleted for all users.
      *
      * @param postId   The ID of the post to be deleted.
      * @param userId   The ID of the user requesting the deletion.
      */
     public void deletePost(String postId, String userId) {
         log.info("Deleting post with ID {} for user {}", postId, userId);
+        if (postRepository.deletePostById(postId, userId) == null) {
+            log.info("User {} has no post with ID {}, nothing to delete", userId, postId);
+            return;
+        }
         unpinPost(postId, userId);
-        postRepository.deletePostById(postId, userId);
-        postRepository.deleteLikesForPost(postId);
         dailyPostRepository.deleteDailyPostById(postId, userId);
-        commentRepository.deleteAllCommentsForPost(postId, userId);
+        postDeletionService.postDeleted(postId);
+        trendingRanking.remove(postId);
+        timelineFanOutService.postDeleted(userId, postId);
+
+        // Let the friends syncing their timeline know that the post is gone
+        List<String> friendIds = userRepository.getFriendIds(userId);
+        timelineRepository.saveTombstones(friendIds, postId);
+        timelineCache.invalidateFriends(friendIds);
         log.info("Successfully deleted post with ID {} for user {}", postId, userId);
     }
 
@@ -150,6 +360,69 @@ public class PostService {
         return postRepository.findAllUsersWhoLikedPost(postId);
     }
 
+    /**
+     * Retrieves the users who liked a specific post.
+     * <p>
+     * Users that have been deleted in the meantime are skipped.
+     *
+     * @param postId  The ID of the post.
+     * @return        A list of UserDto objects representing the users who liked the post.
+     */
+    public List<UserDto> getLikers(String postId) {
+        log.info("Retrieving users who liked post with ID {}", postId);
+        List<String> likerIds = postRepository.findAllUsersWhoLikedPost(postId);
+        Map<String, UserDto> users = userResolver.resolve(likerIds);
+        return likerIds.stream()
+            .map(users::get)
+            .filter(Objects::nonNull)
+            .toList();
+    }
+
+    /**
+     * Retrieves the posts a user has liked.
+     * <p>
+     * Without a limit and cursor, all liked posts are returned. Otherwise a single page is returned together with
+     * the cursor of the next page. Liked posts that have been deleted in the meantime are skipped.
+     *
+     * @param userId  The ID of the user whose liked posts are to be retrieved.
+     * @param limit   The maximum number of liked posts to return, or null.
+     * @param cursor  The cursor of the page to retrieve, or null for the first page.
+     * @return        A page of PostDto objects representing the liked posts.
+     * @throws ResponseStatusException if the limit or cursor are invalid.
+     */
+    public CursorPage<PostDto> getLikedPosts(String userId, Integer limit, String cursor) {
+        log.info("Retrieving liked posts for user {}", userId);
+        List<UserLikeEntity> likes;
+        String nextCursor = null;
+        if (limit == null && cursor == null) {
+            likes = postRepository.findAllLikes(userId);
+        } else {
+            int pageSize = limit == null ? MAX_PAGE_SIZE : limit;
+            if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+                log.error("Invalid page size {} for liked posts of user {}", pageSize, userId);
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + MAX_PAGE_SIZE);
+            }
+            Map<String, AttributeValue> exclusiveStartKey;
+            try {
+                exclusiveStartKey = PageCursor.decode(cursor, Set.of("PK", "SK"),
+                    Map.of("PK", UserLikeEntity.generatePK(userId)));
+            } catch (IllegalArgumentException e) {
+                log.error("Invalid cursor for liked posts of user {}", userId);
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+            Page<UserLikeEntity> page = postRepository.findLikedPostIds(userId, pageSize, exclusiveStartKey);
+            likes = page.items();
+            nextCursor = PageCursor.encode(page.lastEvaluatedKey());
+        }
+
+        // All posts are known to be liked, so only the pinned posts have to be looked up
+        List<String> likedPostIds = likes.stream().map(UserLikeEntity::getPostId).toList();
+        ViewerContext viewerContext = createViewerContext(userId);
+        viewerContext.rememberLikes(likedPostIds, Set.copyOf(likedPostIds));
+        List<PostEntity> likedPosts = postRepository.findLikedPosts(likes);
+        return new CursorPage<>(addIsLikedAndIsPinnedToPostDtos(likedPosts, viewerContext), nextCursor);
+    }
+
     /**
      * Likes a post for a given user.
      *
@@ -165,7 +438,25 @@ public class PostService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Post not found");
         }
         LikeEntity likeEntity = postMapper.toLikeEntity(postId, userId);
-        postRepository.likePost(likeEntity);
+        try {
+            if (!postRepository.likePost(likeEntity, postEntity.getUserId(), !likeCountAggregator.isEnabled())) {
+                log.info("User {} has already liked post with ID {}", userId, postId);
+                return;
+            }
+        } catch (NoSuchElementException e) {
+            log.error("Post with ID {} was deleted before user {} could like it", postId, userId);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Post not found");
+        }
+        if (likeCountAggregator.isEnabled()) {
+            // The timelines and pinned posts are refreshed when the aggregated like count is written
+            likeCountAggregator.add(postEntity.getUserId(), postId, 1);
+        } else {
+            timelineCache.invalidateFriendsOf(postEntity.getUserId());
+            pinnedPostSyncService.postChanged(postEntity.getUserId(), postId);
+        }
+        timelineCache.invalidate(userId);
+        trendingRanking.record(postEntity, TrendingRanking.LIKE_WEIGHT);
+        timelineStreamService.countersChanged(postEntity, 1, 0);
         log.info("Successfully liked post with ID {} for user {}", postId, userId);
     }
 
@@ -184,7 +475,25 @@ public class PostService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Post not found");
         }
         LikeEntity likeEntity = postMapper.toLikeEntity(postId, userId);
-        postRepository.unlikePost(likeEntity);
+        try {
+            if (!postRepository.unlikePost(likeEntity, postEntity.getUserId(), !likeCountAggregator.isEnabled())) {
+                log.info("User {} has not liked post with ID {}", userId, postId);
+                return;
+            }
+        } catch (NoSuchElementException e) {
+            log.error("Post with ID {} was deleted before user {} could unlike it", postId, userId);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Post not found");
+        }
+        if (likeCountAggregator.isEnabled()) {
+            // The timelines and pinned posts are refreshed when the aggregated like count is written
+            likeCountAggregator.add(postEntity.getUserId(), postId, -1);
+        } else {
+            timelineCache.invalidateFriendsOf(postEntity.getUserId());
+            pinnedPostSyncService.postChanged(postEntity.getUserId(), postId);
+        }
+        timelineCache.invalidate(userId);
+        trendingRanking.record(postEntity, -TrendingRanking.LIKE_WEIGHT);
+        timelineStreamService.countersChanged(postEntity, -1, 0);
         log.info("Successfully unliked post with ID {} for user {}", postId, userId);
     }
 
@@ -205,16 +514,35 @@ public class PostService {
 
     /**
      * Retrieves all pinned posts for a user.
+     * <p>
+     * The pinned posts are served from the snapshots stored on the pins, which are read with a single query and
+     * returned without content. Pins written before snapshots were introduced are looked up once and get their
+     * snapshot written.
      *
      * @param userId  The ID of the user whose pinned posts are to be retrieved.
      * @return        A list of PostDto objects representing the pinned posts.
      */
     public List<PostDto> getPinnedPostsByUserId(String userId) {
         log.info("Retrieving pinned posts for user {}", userId);
-        List<String> pinnedPostEntities = pinnedPostRepository.findPinnedPostIdsForUser(userId);
-        return pinnedPostEntities.stream()
-            .map(postRepository::findPostById)
-            .map(postEntity -> addIsLikedAndIsPinnedToPostDto(postEntity, userId))
+        List<PinnedPostEntity> pinnedPosts = new ArrayList<>();
+        for (PinnedPostEntity pinnedPost : pinnedPostRepository.findPinnedPostsForUser(userId)) {
+            if (pinnedPost.hasSnapshot()) {
+                pinnedPosts.add(pinnedPost);
+                continue;
+            }
+            PostEntity postEntity = postRepository.findPostById(pinnedPost.getId());
+            // Skip pinned posts that have been deleted in the meantime
+            if (postEntity == null) continue;
+            PinnedPostEntity snapshot = new PinnedPostEntity(userId, postEntity);
+            // Conditional, so a pin removed since the query is not written again
+            pinnedPostRepository.backfillSnapshot(snapshot);
+            pinnedPosts.add(snapshot);
+        }
+
+        List<String> postIds = pinnedPosts.stream().map(PinnedPostEntity::getId).toList();
+        Set<String> likedPostIds = postIds.isEmpty() ? Set.of() : postRepository.findPostIdsLikedByUser(userId, postIds);
+        return pinnedPosts.stream()
+            .map(pinnedPost -> postMapper.toPostDto(pinnedPost, likedPostIds.contains(pinnedPost.getId())))
             .toList();
     }
 
@@ -233,8 +561,11 @@ public class PostService {
             log.error("Post with ID {} does not exist", postId);
             throw new NoSuchElementException("Post with id " + postId + " does not exist");
         }
-        PinnedPostEntity pinnedPostEntity = new PinnedPostEntity(userId, postEntity.getPostId());
+        PinnedPostEntity pinnedPostEntity = new PinnedPostEntity(userId, postEntity);
         pinnedPostRepository.savePinnedPost(pinnedPostEntity);
+        // The pin status is shown on the post, so the next timeline sync of the user has to return it again
+        postRepository.touchPost(postEntity.getUserId(), postEntity.getPostId());
+        timelineCache.invalidate(userId);
         log.info("Successfully pinned post with ID {} for user {}", postId, userId);
         return addIsLikedAndIsPinnedToPostDto(postEntity, userId);
     }
@@ -248,7 +579,16 @@ public class PostService {
     public void unpinPost(String postId, String userId) {
         log.info("User {} unpins post with ID {}", userId, postId);
         PinnedPostEntity pinnedPostEntity = new PinnedPostEntity(userId, postId);
-        pinnedPostRepository.deleteDailyPostById(pinnedPostEntity);
+        pinnedPostRepository.deletePinnedPost(pinnedPostEntity);
+        PostEntity postEntity = postRepository.findPostById(postId);
+        if (postEntity != null) {
+            postRepository.touchPost(postEntity.getUserId(), postId);
+        }
+        timelineCache.invalidate(userId);
         log.info("Successfully unpinned post with ID {} for user {}", postId, userId);
     }
+
+    private static long versionOf(PostEntity postEntity) {
+        return postEntity == null || postEntity.getVersion() == null ? 0 : postEntity.getVersion();
+    }
 }
@@ -0,0 +1,209 @@
+package com.uzh.ase.dailygrind.postservice.post.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.PartialResult;
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.TimelineEntryDto;
+import com.uzh.ase.dailygrind.postservice.post.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Per-user cache of the timelines built by {@link TimelineService}.
+ * <p>
+ * A cached timeline is invalidated whenever something it shows changes: a daily post of a friend is created,
+ * updated or deleted, its like or comment count changes, the user pins or unpins a post, a friend changes their
+ * profile or a friendship is created or deleted. Entries also expire {@code post.timeline.cache.ttl} after they
+ * were built, which bounds how long changes made through another instance may go unnoticed.
+ * <p>
+ * If {@code post.timeline.cache.stale-while-revalidate} is {@code true}, a timeline that is invalidated by a
+ * change of a friend is not dropped but marked as stale. Reading a stale timeline returns it immediately and rebuilds it on the timeline refresh
+ * executor, with at most one rebuild per user at a time. This way, a burst of requests after a change is served
+ * from the cache instead of rebuilding the same timeline for every request. The timeline of the user who made a
+ * change is always dropped, so users see their own likes, comments and pins right away. Otherwise, the first
+ * read after an invalidation rebuilds the timeline on the calling thread.
+ * <p>
+ * Incomplete timelines are never cached. The cache is only used if {@code post.timeline.cache.enabled} is set to
+ * {@code true}.
+ */
+@Component
+@Slf4j
+public class TimelineCache {
+
+    private static final String CACHE_NAME = "timelines";
+
+    /**
+     * A cached timeline.
+     *
+     * @param timeline the timeline
+     * @param stale    true if the timeline has been invalidated and must be rebuilt
+     */
+    private record Entry(PartialResult<TimelineEntryDto> timeline, boolean stale) {
+    }
+
+    private final UserRepository userRepository;
+    private final ThreadPoolTaskExecutor timelineRefreshExecutor;
+    private final boolean enabled;
+    private final boolean staleWhileRevalidate;
+    private final Cache<String, Entry> cache;
+
+    /**
+     * When the timelines were last invalidated, as a value of {@link #clock}. Invalidations that arrive while a
+     * timeline is being rebuilt are detected with it, so the rebuilt timeline is stored as stale instead of
+     * overwriting the invalidation with data that may already be outdated.
+     */
+    private final Cache<String, Long> invalidations;
+    private final AtomicLong clock = new AtomicLong();
+    private final Set<String> rebuildsInBackground = ConcurrentHashMap.newKeySet();
+
+    public TimelineCache(UserRepository userRepository,
+                         ThreadPoolTaskExecutor timelineRefreshExecutor,
+                         MeterRegistry meterRegistry,
+                         @Value("${post.timeline.cache.enabled:false}") boolean enabled,
+                         @Value("${post.timeline.cache.stale-while-revalidate:true}") boolean staleWhileRevalidate,
+                         @Value("${post.timeline.cache.maximum-size:10000}") long maximumSize,
+                         @Value("${post.timeline.cache.ttl:5m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.timelineRefreshExecutor = timelineRefreshExecutor;
+        this.enabled = enabled;
+        this.staleWhileRevalidate = staleWhileRevalidate;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        this.invalidations = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl)
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Indicates whether timelines are cached.
+     *
+     * @return true if the cache is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the cached timeline of a user or builds it if it is not cached or has been invalidated.
+     *
+     * @param userId  the ID of the user owning the timeline
+     * @param builder builds the timeline of the user
+     * @return the timeline of the user
+     */
+    public PartialResult<TimelineEntryDto> get(String userId, Supplier<PartialResult<TimelineEntryDto>> builder) {
+        if (!enabled) return builder.get();
+
+        Entry entry = cache.getIfPresent(userId);
+        if (entry != null && !entry.stale()) {
+            return entry.timeline();
+        }
+        if (entry != null && staleWhileRevalidate) {
+            rebuildInBackground(userId, builder);
+            return entry.timeline();
+        }
+        return rebuild(userId, builder);
+    }
+
+    /**
+     * Invalidates the cached timeline of the user who made a change, e.g. by liking, commenting or pinning a post.
+     * <p>
+     * The timeline is dropped even if stale-while-revalidate is enabled, so the next read of the user rebuilds it
+     * and shows their own change.
+     *
+     * @param userId the ID of the user owning the timeline
+     */
+    public void invalidate(String userId) {
+        if (!enabled) return;
+
+        invalidations.put(userId, clock.incrementAndGet());
+        cache.invalidate(userId);
+    }
+
+    /**
+     * Invalidates the cached timelines of users who are affected by a change of someone else, e.g. the friends of
+     * a user who created a post.
+     * <p>
+     * If stale-while-revalidate is enabled, the timelines are only marked as stale and rebuilt on their next read.
+     *
+     * @param userIds the IDs of the users owning the timelines
+     */
+    public void invalidateFriends(Collection<String> userIds) {
+        if (!enabled) return;
+
+        for (String userId : userIds) {
+            invalidations.put(userId, clock.incrementAndGet());
+            if (staleWhileRevalidate) {
+                cache.asMap().computeIfPresent(userId, (id, entry) -> new Entry(entry.timeline(), true));
+            } else {
+                cache.invalidate(userId);
+            }
+        }
+    }
+
+    /**
+     * Invalidates the cached timelines of all friends of a user, i.e. all timelines that show the daily post or
+     * the profile of the user.
+     *
+     * @param userId the ID of the user whose friends' timelines are invalidated
+     */
+    public void invalidateFriendsOf(String userId) {
+        if (!enabled) return;
+        invalidateFriends(userRepository.getFriendIds(userId));
+    }
+
+    /**
+     * Removes all timelines from the cache.
+     */
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    private void rebuildInBackground(String userId, Supplier<PartialResult<TimelineEntryDto>> builder) {
+        if (!rebuildsInBackground.add(userId)) {
+            // The timeline is already being rebuilt
+            return;
+        }
+        try {
+            timelineRefreshExecutor.execute(() -> {
+                try {
+                    rebuild(userId, builder);
+                } catch (Exception e) {
+                    log.error("Rebuilding the timeline of user {} failed: {}", userId, e.getMessage(), e);
+                } finally {
+                    rebuildsInBackground.remove(userId);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            // The stale timeline is served until a later read manages to schedule the rebuild
+            rebuildsInBackground.remove(userId);
+            log.warn("Timeline refresh executor is saturated, serving stale timeline of user {}", userId);
+        }
+    }
+
+    private PartialResult<TimelineEntryDto> rebuild(String userId, Supplier<PartialResult<TimelineEntryDto>> builder) {
+        long startedAt = clock.incrementAndGet();
+        PartialResult<TimelineEntryDto> timeline = builder.get();
+        if (timeline.complete()) {
+            Long invalidatedAt = invalidations.getIfPresent(userId);
+            cache.put(userId, new Entry(timeline, invalidatedAt != null && invalidatedAt > startedAt));
+        }
+        return timeline;
+    }
+}
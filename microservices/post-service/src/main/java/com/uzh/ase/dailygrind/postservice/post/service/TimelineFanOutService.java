@@ -0,0 +1,188 @@
+package com.uzh.ase.dailygrind.postservice.post.service;
+
+import com.uzh.ase.dailygrind.postservice.post.repository.DailyPostRepository;
+import com.uzh.ase.dailygrind.postservice.post.repository.TimelineRepository;
+import com.uzh.ase.dailygrind.postservice.post.repository.UserRepository;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.FriendEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.TimelineInboxEntity;
+import com.uzh.ase.dailygrind.postservice.post.sqs.events.FriendshipEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Service layer responsible for keeping the timeline inboxes of users up to date (fan-out-on-write).
+ * <p>
+ * When a user creates a daily post, an entry is written to the inbox of every friend, so a timeline can be read
+ * with a single query. Users with more than {@code post.timeline.fan-out-on-write.max-friends} friends are not
+ * fanned out to keep the write volume bounded. Instead, their friends read their daily post on demand
+ * (fan-out-on-read), which is recorded on the friend entries pointing to them.
+ * <p>
+ * All updates run asynchronously on the timeline fan-out executor and only happen when
+ * {@code post.timeline.fan-out-on-write.enabled} is set to {@code true}. The cached timelines of the users whose
+ * inboxes changed are invalidated once the inboxes have been written, so they are not rebuilt from outdated inboxes.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class TimelineFanOutService {
+
+    private final UserRepository userRepository;
+    private final DailyPostRepository dailyPostRepository;
+    private final TimelineRepository timelineRepository;
+    private final ThreadPoolTaskExecutor timelineFanOutExecutor;
+    private final TimelineCache timelineCache;
+
+    @Value("${post.timeline.fan-out-on-write.enabled:false}")
+    private boolean enabled;
+
+    @Value("${post.timeline.fan-out-on-write.max-friends:500}")
+    private int maxFriends;
+
+    /**
+     * Indicates whether timelines are read from the inboxes maintained by this service.
+     *
+     * @return true if fan-out-on-write is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Indicates whether a user has too many friends to fan out their posts.
+     *
+     * @param friendCount the number of friends of the user
+     * @return true if the posts of the user are read on demand by their friends
+     */
+    public boolean isFanOutOnRead(int friendCount) {
+        return friendCount > maxFriends;
+    }
+
+    /**
+     * Delivers a newly created post to the timeline inboxes of the author's friends.
+     *
+     * @param authorId the ID of the user who created the post
+     * @param postId   the ID of the created post
+     */
+    public void postCreated(String authorId, String postId) {
+        runAsync("post created", () -> {
+            List<String> friendIds = userRepository.getFriendIds(authorId);
+            if (isFanOutOnRead(friendIds.size())) {
+                log.debug("User {} has {} friends, post {} is read on demand", authorId, friendIds.size(), postId);
+                return;
+            }
+            timelineRepository.saveEntries(friendIds.stream()
+                .map(friendId -> new TimelineInboxEntity(friendId, authorId, postId))
+                .toList());
+            timelineCache.invalidateFriends(friendIds);
+            log.debug("Delivered post {} to the timelines of {} friends", postId, friendIds.size());
+        });
+    }
+
+    /**
+     * Removes a deleted post from the timeline inboxes of the author's friends.
+     * <p>
+     * Entries that are left behind, e.g. because the author got too many friends in the meantime, are skipped when
+     * the timeline is read and expire together with the daily post.
+     *
+     * @param authorId the ID of the user who created the post
+     * @param postId   the ID of the deleted post
+     */
+    public void postDeleted(String authorId, String postId) {
+        runAsync("post deleted", () -> {
+            List<String> friendIds = userRepository.getFriendIds(authorId);
+            if (isFanOutOnRead(friendIds.size())) return;
+            timelineRepository.deleteEntriesForPost(friendIds, authorId, postId);
+            timelineCache.invalidateFriends(friendIds);
+        });
+    }
+
+    /**
+     * Delivers the current daily posts of two new friends to each other's inboxes and updates how their posts
+     * are distributed if one of them now has too many friends.
+     *
+     * @param friendshipEvent the event containing the IDs of the new friends
+     */
+    public void friendshipCreated(FriendshipEvent friendshipEvent) {
+        runAsync("friendship created", () -> {
+            connect(friendshipEvent.userAId(), friendshipEvent.userBId());
+            connect(friendshipEvent.userBId(), friendshipEvent.userAId());
+        });
+    }
+
+    /**
+     * Removes the posts of two former friends from each other's inboxes and updates how their posts are
+     * distributed if one of them no longer has too many friends.
+     *
+     * @param friendshipEvent the event containing the IDs of the former friends
+     */
+    public void friendshipDeleted(FriendshipEvent friendshipEvent) {
+        runAsync("friendship deleted", () -> {
+            disconnect(friendshipEvent.userAId(), friendshipEvent.userBId());
+            disconnect(friendshipEvent.userBId(), friendshipEvent.userAId());
+        });
+    }
+
+    private void connect(String authorId, String friendId) {
+        List<String> friendIds = userRepository.getFriendIds(authorId);
+        if (isFanOutOnRead(friendIds.size())) {
+            // All friends read the posts of the author on demand. Every friend that is not marked yet is marked, so
+            // friendships that were created concurrently while the author crossed the limit are covered as well.
+            List<String> fanOutOnWriteFriendIds = findFriendsByFanOutOnRead(friendIds, authorId, false);
+            if (fanOutOnWriteFriendIds.size() > 1) {
+                log.info("User {} exceeded {} friends, switching to fan-out-on-read", authorId, maxFriends);
+            }
+            fanOutOnWriteFriendIds.forEach(id -> userRepository.setFanOutOnRead(id, authorId, true));
+            return;
+        }
+        String postId = dailyPostRepository.findDailyPostForUser(authorId);
+        if (postId != null) {
+            timelineRepository.saveEntries(List.of(new TimelineInboxEntity(friendId, authorId, postId)));
+            timelineCache.invalidateFriends(List.of(friendId));
+        }
+    }
+
+    private void disconnect(String authorId, String friendId) {
+        timelineRepository.deleteEntriesFromAuthor(friendId, authorId);
+        timelineCache.invalidateFriends(List.of(friendId));
+        List<String> friendIds = userRepository.getFriendIds(authorId);
+        if (isFanOutOnRead(friendIds.size())) return;
+
+        // The author is within the limit, so friends that still read the posts of the author on demand get them
+        // delivered to their inboxes again
+        List<String> fanOutOnReadFriendIds = findFriendsByFanOutOnRead(friendIds, authorId, true);
+        if (fanOutOnReadFriendIds.isEmpty()) return;
+
+        log.info("User {} dropped to {} friends, switching to fan-out-on-write", authorId, friendIds.size());
+        String postId = dailyPostRepository.findDailyPostForUser(authorId);
+        if (postId != null) {
+            timelineRepository.saveEntries(fanOutOnReadFriendIds.stream()
+                .map(id -> new TimelineInboxEntity(id, authorId, postId))
+                .toList());
+        }
+        fanOutOnReadFriendIds.forEach(id -> userRepository.setFanOutOnRead(id, authorId, false));
+        timelineCache.invalidateFriends(fanOutOnReadFriendIds);
+    }
+
+    private List<String> findFriendsByFanOutOnRead(List<String> friendIds, String authorId, boolean fanOutOnRead) {
+        return userRepository.getFriendEntriesPointingTo(friendIds, authorId).stream()
+            .filter(friend -> Boolean.TRUE.equals(friend.getFanOutOnRead()) == fanOutOnRead)
+            .map(FriendEntity::getUserId)
+            .toList();
+    }
+
+    private void runAsync(String operation, Runnable task) {
+        if (!enabled) return;
+        timelineFanOutExecutor.execute(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                log.error("Timeline fan-out after {} failed: {}", operation, e.getMessage(), e);
+            }
+        });
+    }
+}
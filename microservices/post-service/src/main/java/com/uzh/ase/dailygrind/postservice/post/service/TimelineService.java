@@ -1,59 +1,575 @@
 package com.uzh.ase.dailygrind.postservice.post.service;
 
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.CursorPage;
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.PartialResult;
 import com.uzh.ase.dailygrind.postservice.post.controller.dto.PostDto;
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.TimelineChangesDto;
 import com.uzh.ase.dailygrind.postservice.post.controller.dto.TimelineEntryDto;
 import com.uzh.ase.dailygrind.postservice.post.controller.dto.UserDto;
+import com.uzh.ase.dailygrind.postservice.post.repository.DailyPostRepository;
+import com.uzh.ase.dailygrind.postservice.post.repository.PostRepository;
+import com.uzh.ase.dailygrind.postservice.post.repository.TimelineRepository;
+import com.uzh.ase.dailygrind.postservice.post.repository.UserRepository;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.DailyBucketEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.FriendEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.PostEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.TimelineInboxEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.UserEntity;
+import com.uzh.ase.dailygrind.postservice.post.util.PageCursor;
+import com.uzh.ase.dailygrind.postservice.post.util.ParallelLookupExecutor;
+import com.uzh.ase.dailygrind.postservice.post.util.TimeToLiveHelper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * Service layer responsible for handling timeline-related business logic.
  * It retrieves timeline entries for a user, which include the posts of their friends.
+ * <p>
+ * If fan-out-on-write is enabled, the posts are read from the timeline inbox of the user, which is maintained by the
+ * {@link TimelineFanOutService}. Only the daily posts of friends with too many friends to fan out are read on demand.
+ * Otherwise, if {@code post.timeline.daily-bucket-read.enabled} is {@code true} and the user has at least
+ * {@code post.timeline.daily-bucket-read.min-friends} friends, all daily posts that have not expired are read from
+ * the daily buckets and intersected with the friends, instead of looking up the daily post of every friend.
+ * <p>
+ * Built timelines are kept in the {@link TimelineCache} until something they show changes.
  */
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class TimelineService {
 
-    private final UserService userService;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final String SYNC_TOKEN_ATTRIBUTE = "syncedAt";
+
+    /**
+     * Tolerance for clock differences between the instances writing the update times, changes within it are
+     * returned by two consecutive syncs.
+     */
+    private static final long SYNC_CLOCK_SKEW_MILLIS = 5_000;
+
+    private final UserResolver userResolver;
     private final PostService postService;
+    private final TimelineFanOutService timelineFanOutService;
+    private final UserRepository userRepository;
+    private final PostRepository postRepository;
+    private final DailyPostRepository dailyPostRepository;
+    private final TimelineRepository timelineRepository;
+    private final ParallelLookupExecutor parallelLookupExecutor;
+    private final TimelineCache timelineCache;
+
+    @Value("${post.timeline.history.days:7}")
+    private int historyDays;
+
+    @Value("${post.timeline.daily-bucket-read.enabled:false}")
+    private boolean dailyBucketReadEnabled;
+
+    @Value("${post.timeline.daily-bucket-read.min-friends:50}")
+    private int dailyBucketReadMinFriends;
+
+    /**
+     * A post of a friend that has been looked up for the timeline, before the friend and the like and pin status
+     * of the post are resolved.
+     *
+     * @param friendId the ID of the friend who created the post
+     * @param post     the post
+     */
+    private record FriendPost(String friendId, PostEntity post) {
+
+        TimelinePosition position() {
+            return TimelinePosition.of(post.getPostTimestamp(), post.getPostId());
+        }
+    }
+
+    /**
+     * The position of a post in a timeline. Timelines are ordered by descending position, i.e. newest first, with
+     * the post ID breaking ties between posts created at the same time.
+     *
+     * @param timestamp the creation time of the post in milliseconds
+     * @param postId    the ID of the post
+     */
+    private record TimelinePosition(long timestamp, String postId) implements Comparable<TimelinePosition> {
+
+        private static final String TIMESTAMP_ATTRIBUTE = "postTimestamp";
+        private static final String POST_ID_ATTRIBUTE = "postId";
+
+        static TimelinePosition of(String timestamp, String postId) {
+            // Posts without a timestamp are treated as the oldest posts
+            return new TimelinePosition(timestamp == null ? 0 : Long.parseLong(timestamp), postId);
+        }
+
+        static TimelinePosition fromCursor(String cursor) {
+            Map<String, AttributeValue> values = PageCursor.decode(cursor);
+            if (values == null) return null;
+            AttributeValue timestamp = values.get(TIMESTAMP_ATTRIBUTE);
+            AttributeValue postId = values.get(POST_ID_ATTRIBUTE);
+            if (timestamp == null || timestamp.n() == null || postId == null || postId.s() == null) {
+                throw new IllegalArgumentException("Invalid page cursor");
+            }
+            try {
+                return new TimelinePosition(Long.parseLong(timestamp.n()), postId.s());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid page cursor", e);
+            }
+        }
+
+        String toCursor() {
+            return PageCursor.encode(Map.of(
+                TIMESTAMP_ATTRIBUTE, AttributeValue.fromN(String.valueOf(timestamp)),
+                POST_ID_ATTRIBUTE, AttributeValue.fromS(postId)));
+        }
+
+        @Override
+        public int compareTo(TimelinePosition other) {
+            int result = Long.compare(timestamp, other.timestamp);
+            return result != 0 ? result : postId.compareTo(other.postId);
+        }
+    }
 
     /**
      * Retrieves the timeline entries for a specific user.
      * A timeline entry consists of a friend's post (if they have a daily post) along with their details.
      * The timeline is sorted by the timestamp of the posts in descending order.
+     * <p>
+     * The posts of the friends are looked up in parallel. If not all lookups finish before the deadline, the
+     * entries found so far are returned and the result is flagged as incomplete.
      *
      * @param userId  The ID of the user for whom the timeline is being retrieved.
-     * @return        A list of TimelineEntryDto objects representing the user's timeline.
+     * @return        The TimelineEntryDto objects representing the user's timeline.
      */
-    public List<TimelineEntryDto> getTimelineEntries(String userId) {
+    public PartialResult<TimelineEntryDto> getTimelineEntries(String userId) {
         log.info("Retrieving timeline entries for user: {}", userId);
+        return timelineCache.get(userId, () -> buildTimeline(userId));
+    }
+
+    /**
+     * Retrieves a single page of the timeline entries for a specific user, sorted like the full timeline.
+     * <p>
+     * Only the entries of the requested page are resolved and decorated. The newest posts after the cursor are
+     * selected with a heap bounded by the page size instead of sorting all posts of the friends. If the timeline
+     * cache is enabled, the page is taken from the cached timeline instead.
+     *
+     * @param userId  The ID of the user for whom the timeline is being retrieved.
+     * @param limit   The maximum number of entries to return, or null.
+     * @param cursor  The cursor of the page to retrieve, or null for the first page.
+     * @return        A page of TimelineEntryDto objects representing the user's timeline.
+     * @throws ResponseStatusException if the limit or cursor are invalid.
+     */
+    public CursorPage<TimelineEntryDto> getTimelinePage(String userId, Integer limit, String cursor) {
+        log.info("Retrieving timeline page for user: {}", userId);
+        int pageSize = toPageSize(userId, limit);
+        TimelinePosition after = toPosition(userId, cursor);
+
+        if (timelineCache.isEnabled()) {
+            return toTimelinePage(getTimelineEntries(userId), pageSize, after);
+        }
+
+        ParallelLookupExecutor.Results<FriendPost> results = findFriendPosts(userId);
+
+        // Keep the newest posts after the cursor, plus one to know whether there is a next page
+        PriorityQueue<FriendPost> newestPosts = new PriorityQueue<>(Comparator.comparing(FriendPost::position));
+        for (FriendPost friendPost : results.results()) {
+            if (after != null && friendPost.position().compareTo(after) >= 0) continue;
+            newestPosts.offer(friendPost);
+            if (newestPosts.size() > pageSize + 1) {
+                newestPosts.poll();
+            }
+        }
+        boolean hasNextPage = newestPosts.size() > pageSize;
+        if (hasNextPage) {
+            newestPosts.poll();
+        }
+
+        PartialResult<TimelineEntryDto> page = toTimeline(userId,
+            new ParallelLookupExecutor.Results<>(List.copyOf(newestPosts), results.complete()));
+        String nextCursor = hasNextPage ? position(page.items().get(page.items().size() - 1)).toCursor() : null;
+        return new CursorPage<>(page.items(), nextCursor, page.complete());
+    }
+
+    /**
+     * Retrieves a single page of the posts of the friends of a specific user from the last
+     * {@code post.timeline.history.days} days, newest first.
+     * <p>
+     * The posts of every friend are read as a stream in descending time order from the
+     * {@value PostEntity#POST_OWNER_INDEX} index, and the streams are merged with a heap. The first page of every
+     * stream is read in parallel and only holds a share of the requested page, further pages of a stream are only
+     * read when the merge reaches its end. Friends whose first page could not be read in time are missing and the
+     * page is flagged as incomplete.
+     *
+     * @param userId  The ID of the user for whom the history is being retrieved.
+     * @param limit   The maximum number of entries to return, or null.
+     * @param cursor  The cursor of the page to retrieve, or null for the first page.
+     * @return        A page of TimelineEntryDto objects representing the posts of the user's friends.
+     * @throws ResponseStatusException if the limit or cursor are invalid.
+     */
+    public CursorPage<TimelineEntryDto> getHistoryPage(String userId, Integer limit, String cursor) {
+        log.info("Retrieving timeline history page for user: {}", userId);
+        int pageSize = toPageSize(userId, limit);
+        TimelinePosition after = toPosition(userId, cursor);
+
+        List<String> friendIds = userRepository.getFriendIds(userId);
+        long now = System.currentTimeMillis();
+        long from = now - Duration.ofDays(historyDays).toMillis();
+        long to = after != null ? after.timestamp() : now;
+
+        // Read one more post than requested to know whether there is a next page
+        int needed = pageSize + 1;
+        int initialLimit = friendIds.isEmpty() ? needed : Math.min(needed, needed / friendIds.size() + 1);
+        ParallelLookupExecutor.Results<FriendHistory> histories = parallelLookupExecutor.run(friendIds.stream()
+            .<Supplier<FriendHistory>>map(friendId -> () -> {
+                FriendHistory history = new FriendHistory(friendId, from, to, after);
+                history.fill(initialLimit);
+                return history;
+            })
+            .toList());
+
+        // Merge the streams, the heap holds every stream with its newest remaining post on top
+        PriorityQueue<FriendHistory> heap = new PriorityQueue<>(
+            Comparator.comparing(FriendHistory::head, Comparator.comparing(FriendPost::position).reversed()));
+        histories.results().stream().filter(history -> !history.isEmpty()).forEach(heap::offer);
+        List<FriendPost> friendPosts = new ArrayList<>();
+        boolean complete = histories.complete();
+        while (friendPosts.size() < needed && !heap.isEmpty()) {
+            FriendHistory history = heap.poll();
+            friendPosts.add(history.next());
+            try {
+                history.fill(needed - friendPosts.size());
+            } catch (RuntimeException e) {
+                log.error("Reading the posts of friend {} failed: {}", history.friendId, e.getMessage(), e);
+                complete = false;
+                continue;
+            }
+            if (!history.isEmpty()) {
+                heap.offer(history);
+            }
+        }
+        boolean hasNextPage = friendPosts.size() > pageSize;
+        if (hasNextPage) {
+            friendPosts.remove(friendPosts.size() - 1);
+        }
+
+        PartialResult<TimelineEntryDto> page = toTimeline(userId,
+            new ParallelLookupExecutor.Results<>(friendPosts, complete));
+        String nextCursor = hasNextPage ? position(page.items().get(page.items().size() - 1)).toCursor() : null;
+        return new CursorPage<>(page.items(), nextCursor, page.complete());
+    }
+
+    /**
+     * Retrieves the changes of the timeline of a specific user since the last sync of a client.
+     * <p>
+     * Only entries whose post or counters changed, whose author changed their profile or whose author became a
+     * friend after the sync are returned, together with the IDs of the posts removed from the timeline. If there is
+     * no previous sync, or the daily posts expired since then, the timeline is reset and all entries are returned.
+     * If not all posts could be looked up in time, the token of the previous sync is returned again, so the next
+     * sync does not miss the changes that could not be retrieved.
+     *
+     * @param userId  The ID of the user for whom the timeline is being retrieved.
+     * @param since   The token returned by the previous sync, or null for the first sync.
+     * @return        The TimelineChangesDto describing the changes of the user's timeline.
+     * @throws ResponseStatusException if the token is invalid.
+     */
+    public TimelineChangesDto getTimelineChanges(String userId, String since) {
+        log.info("Retrieving timeline changes for user: {}", userId);
+        long syncedAt = System.currentTimeMillis() - SYNC_CLOCK_SKEW_MILLIS;
+        Long lastSyncedAt;
+        try {
+            lastSyncedAt = decodeSyncToken(since);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid sync token for timeline of user {}", userId);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid sync token");
+        }
+        boolean reset = lastSyncedAt == null || lastSyncedAt < TimeToLiveHelper.getLastExpiry();
+
+        ParallelLookupExecutor.Results<FriendPost> results = findFriendPosts(userId);
+        List<FriendPost> changedPosts = results.results();
+        List<String> removedPostIds = List.of();
+        if (!reset) {
+            changedPosts = findChangedPosts(userId, changedPosts, lastSyncedAt);
+            Set<String> changedPostIds = changedPosts.stream()
+                .map(friendPost -> friendPost.post().getPostId())
+                .collect(Collectors.toSet());
+            removedPostIds = timelineRepository.findRemovedPostIds(userId, lastSyncedAt).stream()
+                // A post that has been removed and added again, e.g. by unfriending and befriending, is only updated
+                .filter(postId -> !changedPostIds.contains(postId))
+                .distinct()
+                .toList();
+        }
+
+        PartialResult<TimelineEntryDto> entries = toTimeline(userId,
+            new ParallelLookupExecutor.Results<>(changedPosts, results.complete()));
+        String nextToken = entries.complete() ? encodeSyncToken(syncedAt) : since;
+        log.info("Retrieved {} changed and {} removed timeline entries for user: {}",
+            entries.items().size(), removedPostIds.size(), userId);
+        return new TimelineChangesDto(entries.items(), removedPostIds, reset, nextToken, entries.complete());
+    }
+
+    private List<FriendPost> findChangedPosts(String userId, List<FriendPost> friendPosts, long since) {
+        Map<String, Long> friendsSince = userRepository.getFriends(userId).stream()
+            .filter(friend -> friend.getCreatedAt() != null)
+            .collect(Collectors.toMap(FriendEntity::getFriendId, FriendEntity::getCreatedAt));
+        Map<String, Long> profilesUpdatedAt = userRepository.getUsers(
+                friendPosts.stream().map(FriendPost::friendId).toList()).stream()
+            .filter(user -> user.getUpdatedAt() != null)
+            .collect(Collectors.toMap(UserEntity::getUserId, UserEntity::getUpdatedAt));
+
+        return friendPosts.stream()
+            .filter(friendPost -> isAfter(friendPost.post().getUpdatedAt(), since)
+                || isAfter(friendsSince.get(friendPost.friendId()), since)
+                || isAfter(profilesUpdatedAt.get(friendPost.friendId()), since))
+            .toList();
+    }
 
-        // Retrieve the user's friends from the user service
-        List<UserDto> friends = userService.getFriends(userId);
-        log.debug("Found {} friends for user {}", friends.size(), userId);
-
-        // Process the timeline entries
-        List<TimelineEntryDto> timelineEntries = friends.stream()
-            // For each friend, retrieve their daily post
-            .map(friend -> {
-                log.debug("Retrieving daily post for friend: {}", friend.userId());
-                PostDto post = postService.getDailyPostForUser(friend.userId(), userId);
-                // Create a TimelineEntryDto only if the friend has a daily post
-                return post != null ? new TimelineEntryDto(post, friend) : null;
+    private static boolean isAfter(Long time, long since) {
+        // Items written before the update times were introduced never count as changed
+        return time != null && time > since;
+    }
+
+    private static Long decodeSyncToken(String token) {
+        Map<String, AttributeValue> values = PageCursor.decode(token);
+        if (values == null) return null;
+        AttributeValue syncedAt = values.get(SYNC_TOKEN_ATTRIBUTE);
+        if (syncedAt == null || syncedAt.n() == null) {
+            throw new IllegalArgumentException("Invalid sync token");
+        }
+        try {
+            return Long.parseLong(syncedAt.n());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid sync token", e);
+        }
+    }
+
+    private static String encodeSyncToken(long syncedAt) {
+        return PageCursor.encode(Map.of(SYNC_TOKEN_ATTRIBUTE, AttributeValue.fromN(String.valueOf(syncedAt))));
+    }
+
+    private CursorPage<TimelineEntryDto> toTimelinePage(PartialResult<TimelineEntryDto> timeline, int pageSize,
+                                                        TimelinePosition after) {
+        List<TimelineEntryDto> remainingEntries = timeline.items().stream()
+            .filter(entry -> after == null || position(entry).compareTo(after) < 0)
+            .toList();
+        List<TimelineEntryDto> entries = remainingEntries.subList(0, Math.min(pageSize, remainingEntries.size()));
+        String nextCursor = remainingEntries.size() > pageSize ? position(entries.get(pageSize - 1)).toCursor() : null;
+        return new CursorPage<>(entries, nextCursor, timeline.complete());
+    }
+
+    private static int toPageSize(String userId, Integer limit) {
+        int pageSize = limit == null ? MAX_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            log.error("Invalid page size {} for timeline of user {}", pageSize, userId);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return pageSize;
+    }
+
+    private static TimelinePosition toPosition(String userId, String cursor) {
+        try {
+            return TimelinePosition.fromCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid cursor for timeline of user {}", userId);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    private static TimelinePosition position(TimelineEntryDto entry) {
+        return TimelinePosition.of(entry.post().timestamp(), entry.post().postId());
+    }
+
+    private PartialResult<TimelineEntryDto> buildTimeline(String userId) {
+        return toTimeline(userId, findFriendPosts(userId));
+    }
+
+    private ParallelLookupExecutor.Results<FriendPost> findFriendPosts(String userId) {
+        if (timelineFanOutService.isEnabled()) {
+            return findFriendPostsFromInbox(userId);
+        }
+
+        // Retrieve the user's friends
+        List<String> friendIds = userRepository.getFriendIds(userId);
+        log.debug("Found {} friends for user {}", friendIds.size(), userId);
+        if (dailyBucketReadEnabled && friendIds.size() >= dailyBucketReadMinFriends) {
+            return findFriendPostsFromBuckets(new HashSet<>(friendIds));
+        }
+
+        // For each friend, retrieve their daily post
+        List<Supplier<FriendPost>> lookups = friendIds.stream()
+            .<Supplier<FriendPost>>map(friendId -> () -> {
+                log.debug("Retrieving daily post for friend: {}", friendId);
+                return findDailyPost(friendId);
             })
-            // Filter out null entries (friends who don't have a daily post)
-            .filter(Objects::nonNull)
-            // Sort the timeline entries by post timestamp in descending order
-            .sorted(Comparator.comparing((TimelineEntryDto entry) -> entry.post().timestamp(), Comparator.reverseOrder()))
             .toList();
 
+        return parallelLookupExecutor.run(lookups);
+    }
+
+    /**
+     * Retrieves the posts for the timeline of a specific user from their timeline inbox.
+     * <p>
+     * Entries of users who are no longer friends, of deleted posts and of expired daily posts are skipped. The posts
+     * of the inbox entries are read with batch requests, while the daily posts of friends marked for fan-out-on-read
+     * are looked up individually.
+     *
+     * @param userId  The ID of the user for whom the timeline is being retrieved.
+     * @return        The posts of the user's timeline.
+     */
+    private ParallelLookupExecutor.Results<FriendPost> findFriendPostsFromInbox(String userId) {
+        List<FriendEntity> friends = userRepository.getFriends(userId);
+        Set<String> fanOutOnWriteFriendIds = friends.stream()
+            .filter(friend -> !Boolean.TRUE.equals(friend.getFanOutOnRead()))
+            .map(FriendEntity::getFriendId)
+            .collect(Collectors.toSet());
+        long now = Instant.now().getEpochSecond();
+
+        // Posts delivered to the inbox by fan-out-on-write, read by their keys since the authors are known
+        Map<String, String> authorIdsByPostId = timelineRepository.findEntriesForUser(userId).stream()
+            .filter(entry -> fanOutOnWriteFriendIds.contains(entry.getAuthorId()) && entry.getTtl() > now)
+            .collect(Collectors.toMap(TimelineInboxEntity::getPostId, TimelineInboxEntity::getAuthorId, (first, second) -> first));
+        Stream<Supplier<FriendPost>> inboxLookups = postRepository.findPostsByOwner(authorIdsByPostId).stream()
+            .map(post -> () -> toFriendPost(post.getUserId(), post));
+
+        // Daily posts of friends with too many friends to fan out
+        Stream<Supplier<FriendPost>> fanOutOnReadLookups = friends.stream()
+            .filter(friend -> Boolean.TRUE.equals(friend.getFanOutOnRead()))
+            .map(friend -> () -> findDailyPost(friend.getFriendId()));
+
+        return parallelLookupExecutor.run(Stream.concat(inboxLookups, fanOutOnReadLookups).toList());
+    }
+
+    /**
+     * Retrieves the posts for the timeline of a specific user from the daily buckets.
+     * <p>
+     * The shards of the buckets of all days with daily posts that have not expired are queried in parallel. The
+     * posts of the friends are then read with batch requests.
+     *
+     * @param friendIds The IDs of the friends of the user.
+     * @return          The posts of the user's timeline.
+     */
+    private ParallelLookupExecutor.Results<FriendPost> findFriendPostsFromBuckets(Set<String> friendIds) {
+        List<Supplier<List<DailyBucketEntity>>> bucketQueries = TimeToLiveHelper.getLivePostDates().stream()
+            .flatMap(date -> IntStream.range(0, dailyPostRepository.getShards())
+                .<Supplier<List<DailyBucketEntity>>>mapToObj(shard -> () -> dailyPostRepository.findDailyPostsInBucket(date, shard)))
+            .toList();
+        ParallelLookupExecutor.Results<List<DailyBucketEntity>> buckets = parallelLookupExecutor.run(bucketQueries);
+
+        // Keep the newest daily post per friend, in case a post of yesterday has not expired yet
+        Map<String, DailyBucketEntity> dailyPosts = buckets.results().stream()
+            .flatMap(List::stream)
+            .filter(entry -> friendIds.contains(entry.getUserId()))
+            .collect(Collectors.toMap(DailyBucketEntity::getUserId, entry -> entry, BinaryOperator.maxBy(
+                Comparator.comparing(entry -> TimelinePosition.of(entry.getCreatedAt(), entry.getPostId())))));
+        log.debug("Found {} daily posts of friends in the daily buckets", dailyPosts.size());
+
+        Map<String, String> postIdsByFriend = dailyPosts.values().stream()
+            .collect(Collectors.toMap(DailyBucketEntity::getUserId, DailyBucketEntity::getPostId));
+        List<FriendPost> friendPosts = postRepository.findPosts(postIdsByFriend).stream()
+            .map(post -> new FriendPost(post.getUserId(), post))
+            .toList();
+        return new ParallelLookupExecutor.Results<>(friendPosts, buckets.complete());
+    }
+
+    private FriendPost findDailyPost(String friendId) {
+        String postId = dailyPostRepository.findDailyPostForUser(friendId);
+        return postId != null ? toFriendPost(friendId, postRepository.findPost(friendId, postId)) : null;
+    }
+
+    private FriendPost toFriendPost(String friendId, PostEntity post) {
+        // Create a FriendPost only if the friend has a daily post
+        return post != null ? new FriendPost(friendId, post) : null;
+    }
+
+    private PartialResult<TimelineEntryDto> toTimeline(String userId, ParallelLookupExecutor.Results<FriendPost> results) {
+        List<FriendPost> friendPosts = results.results();
+
+        // Resolve all friends and decorate all posts with their like and pin status at once
+        Map<String, UserDto> friends = userResolver.resolve(friendPosts.stream().map(FriendPost::friendId).toList());
+        List<PostDto> posts = postService.addIsLikedAndIsPinnedToPostDtos(
+            friendPosts.stream().map(FriendPost::post).toList(),
+            postService.createViewerContext(userId));
+
+        // Sort the timeline entries by post timestamp in descending order
+        List<TimelineEntryDto> timelineEntries = IntStream.range(0, friendPosts.size())
+            .mapToObj(i -> new TimelineEntryDto(posts.get(i), friends.get(friendPosts.get(i).friendId())))
+            .sorted(Comparator.comparing(TimelineService::position, Comparator.reverseOrder()))
+            .toList();
+
+        if (!results.complete()) {
+            log.warn("Timeline of user {} is incomplete", userId);
+        }
         log.info("Retrieved {} timeline entries for user: {}", timelineEntries.size(), userId);
-        return timelineEntries;
+        return new PartialResult<>(timelineEntries, results.complete());
+    }
+
+    /**
+     * The posts of a friend in a time range as a stream in descending time order, which is read page by page.
+     */
+    private final class FriendHistory {
+
+        private final String friendId;
+        private final long from;
+        private final long to;
+        private final TimelinePosition before;
+        private final Deque<FriendPost> buffer = new ArrayDeque<>();
+        private Map<String, AttributeValue> lastEvaluatedKey;
+        private boolean exhausted;
+
+        private FriendHistory(String friendId, long from, long to, TimelinePosition before) {
+            this.friendId = friendId;
+            this.from = from;
+            this.to = to;
+            this.before = before;
+        }
+
+        /**
+         * Reads the next pages of the stream until a post is buffered or the stream has ended.
+         *
+         * @param limit the maximum number of posts to read per page
+         */
+        private void fill(int limit) {
+            while (buffer.isEmpty() && !exhausted && limit > 0) {
+                Page<PostEntity> page = postRepository.findPostsOfUserBetween(friendId, from, to, limit, false,
+                    lastEvaluatedKey);
+                page.items().stream()
+                    .map(post -> new FriendPost(friendId, post))
+                    // Posts with the same timestamp as the cursor may already have been returned
+                    .filter(friendPost -> before == null || friendPost.position().compareTo(before) < 0)
+                    .forEach(buffer::add);
+                lastEvaluatedKey = page.lastEvaluatedKey();
+                exhausted = lastEvaluatedKey == null;
+            }
+        }
+
+        private boolean isEmpty() {
+            return buffer.isEmpty();
+        }
+
+        private FriendPost head() {
+            return buffer.peekFirst();
+        }
+
+        private FriendPost next() {
+            return buffer.pollFirst();
+        }
     }
 }
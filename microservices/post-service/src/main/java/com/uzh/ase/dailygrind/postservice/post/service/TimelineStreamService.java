@@ -0,0 +1,132 @@
+package com.uzh.ase.dailygrind.postservice.post.service;
+
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.CounterDeltaDto;
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.TimelineEntryDto;
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.UserDto;
+import com.uzh.ase.dailygrind.postservice.post.mapper.PostMapper;
+import com.uzh.ase.dailygrind.postservice.post.repository.DailyPostRepository;
+import com.uzh.ase.dailygrind.postservice.post.repository.PostRepository;
+import com.uzh.ase.dailygrind.postservice.post.repository.UserRepository;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.PostEntity;
+import com.uzh.ase.dailygrind.postservice.post.sqs.events.FriendshipEvent;
+import com.uzh.ase.dailygrind.postservice.post.util.SseSubscriberRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service layer responsible for pushing timeline changes to the clients connected to the timeline stream.
+ * <p>
+ * A {@value #POST_EVENT} event with a {@link TimelineEntryDto} is sent when a friend creates their daily post or a
+ * new friend already has one. A {@value #COUNTER_EVENT} event with a {@link CounterDeltaDto} is sent to the author
+ * and their friends when a post is liked, unliked, commented or a comment is deleted. The events are only prepared
+ * if someone is connected, so writes do not pay for the stream while it is not used.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class TimelineStreamService {
+
+    /**
+     * Name of the event sent for a new post in the timeline.
+     */
+    public static final String POST_EVENT = "post";
+
+    /**
+     * Name of the event sent for a change of the like or comment count of a post.
+     */
+    public static final String COUNTER_EVENT = "counter";
+
+    private final SseSubscriberRegistry sseSubscriberRegistry;
+    private final UserRepository userRepository;
+    private final PostRepository postRepository;
+    private final DailyPostRepository dailyPostRepository;
+    private final PostMapper postMapper;
+    private final UserResolver userResolver;
+
+    /**
+     * Opens the timeline stream of a user.
+     *
+     * @param userId the ID of the user
+     * @return the emitter of the stream
+     */
+    public SseEmitter subscribe(String userId) {
+        log.info("Opening timeline stream for user {}", userId);
+        return sseSubscriberRegistry.subscribe(userId);
+    }
+
+    /**
+     * Pushes a newly created daily post to the friends of its author.
+     *
+     * @param postEntity the created post
+     */
+    public void postCreated(PostEntity postEntity) {
+        if (sseSubscriberRegistry.isEmpty()) return;
+
+        List<String> receivers = connectedFriendsOf(postEntity.getUserId());
+        if (receivers.isEmpty()) return;
+        TimelineEntryDto entry = toTimelineEntry(postEntity);
+        if (entry != null) {
+            sseSubscriberRegistry.publish(receivers, POST_EVENT, entry);
+        }
+    }
+
+    /**
+     * Pushes a change of the like or comment count of a post to its author and the author's friends.
+     *
+     * @param postEntity        the post whose counts changed
+     * @param likeCountDelta    the change of the like count
+     * @param commentCountDelta the change of the comment count
+     */
+    public void countersChanged(PostEntity postEntity, long likeCountDelta, long commentCountDelta) {
+        if (sseSubscriberRegistry.isEmpty()) return;
+
+        List<String> receivers = new ArrayList<>(connectedFriendsOf(postEntity.getUserId()));
+        receivers.add(postEntity.getUserId());
+        CounterDeltaDto delta = new CounterDeltaDto(postEntity.getPostId(), likeCountDelta, commentCountDelta);
+        sseSubscriberRegistry.publish(receivers, COUNTER_EVENT, delta);
+    }
+
+    /**
+     * Pushes the daily posts of two new friends to each other.
+     *
+     * @param friendshipEvent the event containing the IDs of the new friends
+     */
+    public void friendshipCreated(FriendshipEvent friendshipEvent) {
+        pushDailyPost(friendshipEvent.userAId(), friendshipEvent.userBId());
+        pushDailyPost(friendshipEvent.userBId(), friendshipEvent.userAId());
+    }
+
+    private void pushDailyPost(String authorId, String userId) {
+        if (!sseSubscriberRegistry.isSubscribed(userId)) return;
+
+        String postId = dailyPostRepository.findDailyPostForUser(authorId);
+        PostEntity postEntity = postId != null ? postRepository.findPost(authorId, postId) : null;
+        TimelineEntryDto entry = postEntity != null ? toTimelineEntry(postEntity) : null;
+        if (entry != null) {
+            sseSubscriberRegistry.publish(userId, POST_EVENT, entry);
+        }
+    }
+
+    private List<String> connectedFriendsOf(String userId) {
+        return userRepository.getFriendIds(userId).stream()
+            .filter(sseSubscriberRegistry::isSubscribed)
+            .toList();
+    }
+
+    private TimelineEntryDto toTimelineEntry(PostEntity postEntity) {
+        Map<String, UserDto> users = userResolver.resolve(List.of(postEntity.getUserId()));
+        UserDto author = users.get(postEntity.getUserId());
+        if (author == null) {
+            log.warn("Author {} of post {} not found, not pushing it", postEntity.getUserId(), postEntity.getPostId());
+            return null;
+        }
+        // A post that has just entered the timeline of a friend can neither be liked nor pinned by them yet
+        return new TimelineEntryDto(postMapper.toPostDto(postEntity, false, false), author);
+    }
+}
@@ -0,0 +1,127 @@
+package com.uzh.ase.dailygrind.postservice.post.service;
+
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.PostDto;
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.TimelineEntryDto;
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.UserDto;
+import com.uzh.ase.dailygrind.postservice.post.repository.DailyPostRepository;
+import com.uzh.ase.dailygrind.postservice.post.repository.PostRepository;
+import com.uzh.ase.dailygrind.postservice.post.repository.UserRepository;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.DailyBucketEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.PostEntity;
+import com.uzh.ase.dailygrind.postservice.post.util.TimeToLiveHelper;
+import com.uzh.ase.dailygrind.postservice.post.util.TrendingRanking;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Service layer responsible for the trending posts, i.e. the posts that currently receive the most likes and
+ * comments, globally or among the friends of a user.
+ * <p>
+ * The ranking is kept in memory by {@link TrendingRanking}, which is fed with every like and comment, so reading
+ * the trending posts only reads the top posts themselves instead of scanning all posts.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class TrendingService {
+
+    private static final int MAX_LIMIT = 100;
+
+    private final TrendingRanking trendingRanking;
+    private final PostRepository postRepository;
+    private final DailyPostRepository dailyPostRepository;
+    private final UserRepository userRepository;
+    private final UserResolver userResolver;
+    private final PostService postService;
+
+    /**
+     * Retrieves the trending posts, highest score first.
+     *
+     * @param userId      the ID of the user requesting the posts
+     * @param limit       the maximum number of posts to return, at most {@value #MAX_LIMIT}
+     * @param friendsOnly whether only posts of friends of the user are returned
+     * @return the trending posts together with their authors
+     * @throws ResponseStatusException if the limit is out of range
+     */
+    public List<TimelineEntryDto> getTrendingPosts(String userId, int limit, boolean friendsOnly) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + MAX_LIMIT);
+        }
+        Predicate<String> filter = ownerId -> true;
+        if (friendsOnly) {
+            Set<String> friendIds = new HashSet<>(userRepository.getFriendIds(userId));
+            filter = friendIds::contains;
+        }
+        List<TrendingRanking.RankedPost> rankedPosts = trendingRanking.top(limit, filter);
+        if (rankedPosts.isEmpty()) return List.of();
+
+        // The owners of the ranked posts are known, so the posts are read by their primary key in one batch
+        Map<String, PostEntity> postsById = postRepository.findPostsByOwner(rankedPosts.stream()
+                .collect(Collectors.toMap(TrendingRanking.RankedPost::postId, TrendingRanking.RankedPost::ownerId)))
+            .stream()
+            .collect(Collectors.toMap(PostEntity::getPostId, Function.identity()));
+        rankedPosts.stream()
+            .filter(rankedPost -> !postsById.containsKey(rankedPost.postId()))
+            .forEach(rankedPost -> trendingRanking.remove(rankedPost.postId()));
+
+        List<PostEntity> posts = rankedPosts.stream()
+            .map(rankedPost -> postsById.get(rankedPost.postId()))
+            .filter(Objects::nonNull)
+            .toList();
+        Map<String, UserDto> authors = userResolver.resolve(posts.stream().map(PostEntity::getUserId).distinct().toList());
+        List<PostDto> postDtos = postService.addIsLikedAndIsPinnedToPostDtos(posts, postService.createViewerContext(userId));
+
+        log.info("Retrieved {} trending posts for user {}", posts.size(), userId);
+        return IntStream.range(0, posts.size())
+            .mapToObj(i -> new TimelineEntryDto(postDtos.get(i), authors.get(posts.get(i).getUserId())))
+            .toList();
+    }
+
+    /**
+     * Rebuilds the ranking from the stored like and comment counts of the live daily posts.
+     * <p>
+     * When the engagement happened is not stored, so it is counted as if it had happened when the post was created,
+     * which ranks the posts by their counts and age until new engagement arrives.
+     *
+     * @return the number of posts that were ranked
+     */
+    public int rebuild() {
+        int ranked = 0;
+        for (LocalDate date : TimeToLiveHelper.getLivePostDates()) {
+            for (int shard = 0; shard < dailyPostRepository.getShards(); shard++) {
+                List<DailyBucketEntity> dailyPosts = dailyPostRepository.findDailyPostsInBucket(date, shard);
+                if (dailyPosts.isEmpty()) continue;
+
+                List<PostEntity> posts = postRepository.findPostsByOwner(dailyPosts.stream()
+                    .collect(Collectors.toMap(DailyBucketEntity::getPostId, DailyBucketEntity::getUserId, (first, second) -> first)));
+                for (PostEntity post : posts) {
+                    double weight = count(post.getLikeCount()) * TrendingRanking.LIKE_WEIGHT
+                        + count(post.getCommentCount()) * TrendingRanking.COMMENT_WEIGHT;
+                    if (weight > 0) {
+                        trendingRanking.seed(post, weight);
+                        ranked++;
+                    }
+                }
+            }
+        }
+        return ranked;
+    }
+
+    private static long count(Long count) {
+        return count == null ? 0 : count;
+    }
+}
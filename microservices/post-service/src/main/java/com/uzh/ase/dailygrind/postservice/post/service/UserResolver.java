@@ -0,0 +1,46 @@
+package com.uzh.ase.dailygrind.postservice.post.service;
+
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.UserDto;
+import com.uzh.ase.dailygrind.postservice.post.mapper.UserMapper;
+import com.uzh.ase.dailygrind.postservice.post.repository.UserRepository;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.UserEntity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Service responsible for resolving user IDs to user details in bulk.
+ * <p>
+ * Responses like timelines, comments or likers usually reference the same users several times. The resolver
+ * removes duplicate IDs and reads all users of a response with BatchGetItem, instead of one request per reference.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class UserResolver {
+
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+
+    /**
+     * Resolves the given user IDs to user details.
+     *
+     * @param userIds  The IDs of the users to resolve, may contain duplicates.
+     * @return         The resolved users by their ID. Users that do not exist are missing from the map.
+     */
+    public Map<String, UserDto> resolve(Collection<String> userIds) {
+        Set<String> distinctUserIds = new LinkedHashSet<>(userIds);
+        if (distinctUserIds.isEmpty()) return Map.of();
+
+        Map<String, UserDto> users = userRepository.getUsers(distinctUserIds).stream()
+            .collect(Collectors.toMap(UserEntity::getUserId, userMapper::toUserDto));
+        log.debug("Resolved {} of {} users", users.size(), distinctUserIds.size());
+        return users;
+    }
+}
@@ -3,9 +3,13 @@ package com.uzh.ase.dailygrind.postservice.post.service;
 import com.uzh.ase.dailygrind.postservice.post.controller.dto.UserDto;
 import com.uzh.ase.dailygrind.postservice.post.mapper.UserMapper;
 import com.uzh.ase.dailygrind.postservice.post.repository.CommentRepository;
+import com.uzh.ase.dailygrind.postservice.post.repository.DailyPostRepository;
+import com.uzh.ase.dailygrind.postservice.post.repository.PinnedPostRepository;
 import com.uzh.ase.dailygrind.postservice.post.repository.PostRepository;
+import com.uzh.ase.dailygrind.postservice.post.repository.TimelineRepository;
 import com.uzh.ase.dailygrind.postservice.post.repository.UserRepository;
 import com.uzh.ase.dailygrind.postservice.post.repository.entity.FriendEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.PostEntity;
 import com.uzh.ase.dailygrind.postservice.post.repository.entity.UserEntity;
 import com.uzh.ase.dailygrind.postservice.post.sqs.events.FriendshipEvent;
 import com.uzh.ase.dailygrind.postservice.post.sqs.events.UserDataEvent;
@@ -14,6 +18,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service layer responsible for handling user-related business logic.
@@ -28,6 +33,12 @@ public class UserService {
     private final UserRepository userRepository;
     private final PostRepository postRepository;
     private final CommentRepository commentRepository;
+    private final DailyPostRepository dailyPostRepository;
+    private final TimelineRepository timelineRepository;
+    private final UserResolver userResolver;
+    private final TimelineCache timelineCache;
+    private final PinnedPostRepository pinnedPostRepository;
+    private final PinnedPostSyncService pinnedPostSyncService;
 
     /**
      * Retrieves a user by their user ID.
@@ -55,6 +66,7 @@ public class UserService {
     public void addNewUser(UserDataEvent userDataEvent) {
         log.info("Adding new user with ID: {}", userDataEvent.userId());
         UserEntity userEntity = userMapper.toUserEntity(userDataEvent);
+        userEntity.setUpdatedAt(System.currentTimeMillis());
         userRepository.addNewUser(userEntity);
         log.debug("User added: {}", userEntity);
     }
@@ -67,6 +79,7 @@ public class UserService {
     public void updateUser(UserDataEvent userDataEvent) {
         log.info("Updating user with ID: {}", userDataEvent.userId());
         UserEntity userEntity = userMapper.toUserEntity(userDataEvent);
+        userEntity.setUpdatedAt(System.currentTimeMillis());
         userRepository.updateUser(userEntity);
         log.debug("User updated: {}", userEntity);
     }
@@ -78,10 +91,23 @@ public class UserService {
      */
     public void deleteUser(String userId) {
         log.info("Deleting user with ID: {}", userId);
+        // The friendships are deleted together with the user, but the timelines of the friends show the user's post
+        List<String> friendIds = userRepository.getFriendIds(userId);
+        String dailyPostId = dailyPostRepository.findDailyPostForUser(userId);
+        if (dailyPostId != null) {
+            timelineRepository.saveTombstones(friendIds, dailyPostId);
+        }
         userRepository.deleteUser(userId);
+        List<String> postIds = postRepository.findAllPostsForUser(userId).stream()
+            .map(PostEntity::getPostId)
+            .toList();
         postRepository.deleteAllPosts(userId);
+        postIds.forEach(pinnedPostSyncService::postDeleted);
+        pinnedPostRepository.deleteAllPinnedPosts(userId);
         postRepository.deleteAllLikes(userId);
         commentRepository.deleteAllCommentsForUser(userId);
+        timelineCache.invalidateFriends(friendIds);
+        timelineCache.invalidate(userId);
         log.debug("User and related data (posts, likes, comments) deleted for user ID: {}", userId);
     }
 
@@ -92,12 +118,15 @@ public class UserService {
      */
     public void addFriend(FriendshipEvent friendshipEvent) {
         log.info("Adding friend for user: {} with friend: {}", friendshipEvent.userAId(), friendshipEvent.userBId());
+        long createdAt = System.currentTimeMillis();
         FriendEntity friendEntity = userMapper.toFriendEntity(friendshipEvent);
+        friendEntity.setCreatedAt(createdAt);
         userRepository.addFriend(friendEntity);
 
         // Add also the inverse direction (userB -> userA as a friend)
         friendshipEvent = new FriendshipEvent(friendshipEvent.userBId(), friendshipEvent.userAId());
         friendEntity = userMapper.toFriendEntity(friendshipEvent);
+        friendEntity.setCreatedAt(createdAt);
         userRepository.addFriend(friendEntity);
 
         log.debug("Friendship established between user: {} and user: {}", friendshipEvent.userAId(), friendshipEvent.userBId());
@@ -118,6 +147,10 @@ public class UserService {
         friendEntity = userMapper.toFriendEntity(friendshipEvent);
         userRepository.removeFriend(friendEntity);
 
+        // The daily posts of the former friends are no longer part of each other's timelines
+        removeFromTimeline(friendshipEvent.userAId(), friendshipEvent.userBId());
+        removeFromTimeline(friendshipEvent.userBId(), friendshipEvent.userAId());
+
         log.debug("Friendship removed between user: {} and user: {}", friendshipEvent.userAId(), friendshipEvent.userBId());
     }
 
@@ -132,12 +165,21 @@ public class UserService {
         List<FriendEntity> friendEntities = userRepository.getFriends(userId);
         log.debug("Found {} friends for user: {}", friendEntities.size(), userId);
 
-        List<UserDto> friends = friendEntities.stream()
-            // Map each friendEntity to a UserDto
-            .map(friendEntity -> userMapper.toUserDto(userRepository.getUser(friendEntity.getFriendId())))
+        // Resolve all friends at once
+        List<String> friendIds = friendEntities.stream().map(FriendEntity::getFriendId).toList();
+        Map<String, UserDto> users = userResolver.resolve(friendIds);
+        List<UserDto> friends = friendIds.stream()
+            .map(users::get)
             .toList();
 
         log.info("Retrieved {} friends for user with ID: {}", friends.size(), userId);
         return friends;
     }
+
+    private void removeFromTimeline(String authorId, String userId) {
+        String postId = dailyPostRepository.findDailyPostForUser(authorId);
+        if (postId != null) {
+            timelineRepository.saveTombstones(List.of(userId), postId);
+        }
+    }
 }
@@ -0,0 +1,90 @@
+package com.uzh.ase.dailygrind.postservice.post.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Holds what is known about the user viewing posts during a single request.
+ * <p>
+ * The pinned posts of the viewer are loaded once when the context is created, and whether the viewer liked a
+ * post is remembered after it has been looked up. This way, decorating many posts of one response with their
+ * like and pin status does not query DynamoDB again for every post.
+ * <p>
+ * A context is created with {@link PostService#createViewerContext(String)} and must not outlive the request,
+ * since later likes and pins are not reflected in it.
+ */
+public class ViewerContext {
+
+    private final String viewerId;
+    private final Set<String> pinnedPostIds;
+    private final Map<String, Boolean> likedPostIds = new HashMap<>();
+
+    ViewerContext(String viewerId, Set<String> pinnedPostIds) {
+        this.viewerId = viewerId;
+        this.pinnedPostIds = pinnedPostIds;
+    }
+
+    /**
+     * Returns the ID of the user viewing the posts.
+     *
+     * @return the ID of the viewer
+     */
+    public String getViewerId() {
+        return viewerId;
+    }
+
+    /**
+     * Returns the IDs of the posts the viewer pinned.
+     *
+     * @return the IDs of the pinned posts
+     */
+    public Set<String> getPinnedPostIds() {
+        return pinnedPostIds;
+    }
+
+    /**
+     * Indicates whether the viewer pinned a post.
+     *
+     * @param postId the ID of the post
+     * @return true if the viewer pinned the post
+     */
+    public boolean isPinned(String postId) {
+        return pinnedPostIds.contains(postId);
+    }
+
+    /**
+     * Indicates whether the viewer liked a post.
+     *
+     * @param postId the ID of the post, which must have been looked up before
+     * @return true if the viewer liked the post
+     */
+    public boolean isLiked(String postId) {
+        return likedPostIds.getOrDefault(postId, false);
+    }
+
+    /**
+     * Returns the posts for which it is not known yet whether the viewer liked them.
+     *
+     * @param postIds the IDs of the posts
+     * @return the IDs of the posts that still need to be looked up
+     */
+    List<String> unknownLikes(Collection<String> postIds) {
+        return postIds.stream()
+            .filter(postId -> !likedPostIds.containsKey(postId))
+            .distinct()
+            .toList();
+    }
+
+    /**
+     * Remembers for the looked up posts whether the viewer liked them.
+     *
+     * @param lookedUpPostIds the IDs of the posts that were looked up
+     * @param likedPostIds    the IDs of the looked up posts the viewer liked
+     */
+    void rememberLikes(Collection<String> lookedUpPostIds, Set<String> likedPostIds) {
+        lookedUpPostIds.forEach(postId -> this.likedPostIds.put(postId, likedPostIds.contains(postId)));
+    }
+}
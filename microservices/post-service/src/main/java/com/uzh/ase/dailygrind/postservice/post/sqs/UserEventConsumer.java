@@ -2,6 +2,9 @@ package com.uzh.ase.dailygrind.postservice.post.sqs;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uzh.ase.dailygrind.postservice.post.service.TimelineCache;
+import com.uzh.ase.dailygrind.postservice.post.service.TimelineFanOutService;
+import com.uzh.ase.dailygrind.postservice.post.service.TimelineStreamService;
 import com.uzh.ase.dailygrind.postservice.post.service.UserService;
 import com.uzh.ase.dailygrind.postservice.post.sqs.events.FriendshipEvent;
 import com.uzh.ase.dailygrind.postservice.post.sqs.events.UserDataEvent;
@@ -41,6 +44,12 @@ public class UserEventConsumer {
 
     private final UserService userService;
 
+    private final TimelineFanOutService timelineFanOutService;
+
+    private final TimelineCache timelineCache;
+
+    private final TimelineStreamService timelineStreamService;
+
     /**
      * Initializes a polling thread that continuously checks for messages in the SQS queue.
      * The thread processes the messages and deletes them after successful handling.
@@ -135,6 +144,8 @@ public class UserEventConsumer {
             UserDataEvent event = objectMapper.readValue(payload, UserDataEvent.class);
             // Update the user data using the UserService
             userService.updateUser(event);
+            // The timelines of the user's friends show the updated profile
+            timelineCache.invalidateFriendsOf(event.userId());
         } catch (JsonProcessingException e) {
             log.error("Failed to parse UserDataEvent", e);
         }
@@ -169,6 +180,10 @@ public class UserEventConsumer {
             FriendshipEvent event = objectMapper.readValue(payload, FriendshipEvent.class);
             // Add the new friendship using the UserService
             userService.addFriend(event);
+            // Deliver the daily posts of the new friends to each other's timelines
+            timelineFanOutService.friendshipCreated(event);
+            timelineCache.invalidateFriends(List.of(event.userAId(), event.userBId()));
+            timelineStreamService.friendshipCreated(event);
         } catch (JsonProcessingException e) {
             log.error("Failed to parse FriendshipEvent", e);
         }
@@ -186,6 +201,9 @@ public class UserEventConsumer {
             FriendshipEvent event = objectMapper.readValue(payload, FriendshipEvent.class);
             // Remove the friendship using the UserService
             userService.removeFriend(event);
+            // Remove the posts of the former friends from each other's timelines
+            timelineFanOutService.friendshipDeleted(event);
+            timelineCache.invalidateFriends(List.of(event.userAId(), event.userBId()));
         } catch (JsonProcessingException e) {
             log.error("Failed to parse FriendshipEvent", e);
         }
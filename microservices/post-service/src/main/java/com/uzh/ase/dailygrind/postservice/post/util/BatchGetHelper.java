@@ -0,0 +1,89 @@
+package com.uzh.ase.dailygrind.postservice.post.util;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchGetItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchGetResultPage;
+import software.amazon.awssdk.enhanced.dynamodb.model.ReadBatch;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Helper for reading many items from DynamoDB with as few requests as possible.
+ * <p>
+ * Items are read with BatchGetItem in chunks of {@value #MAX_BATCH_SIZE}, which is the maximum DynamoDB accepts
+ * in one request. Unprocessed keys are retried with an exponential backoff.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class BatchGetHelper {
+
+    private static final int MAX_BATCH_SIZE = 100;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long BASE_BACKOFF_MILLIS = 50;
+
+    private final DynamoDbEnhancedClient dynamoDbEnhancedClient;
+
+    /**
+     * Reads all items with the given keys.
+     * <p>
+     * Duplicate keys are removed before the items are read. Keys without an item are skipped, so the result may
+     * contain fewer items than keys. The order of the items is not defined.
+     *
+     * @param table the table the items are stored in
+     * @param keys  the keys of the items to read
+     * @return the items that exist
+     * @throws IllegalStateException if some items could still not be read after all retries
+     */
+    public <T> List<T> getItems(DynamoDbTable<T> table, List<Key> keys) {
+        List<Key> distinctKeys = new ArrayList<>(new LinkedHashSet<>(keys));
+        List<T> items = new ArrayList<>();
+        for (int from = 0; from < distinctKeys.size(); from += MAX_BATCH_SIZE) {
+            List<Key> chunk = distinctKeys.subList(from, Math.min(from + MAX_BATCH_SIZE, distinctKeys.size()));
+            for (int attempt = 0; !chunk.isEmpty(); attempt++) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw new IllegalStateException(chunk.size() + " items could not be read from " + table.tableName());
+                }
+                backoff(attempt);
+                chunk = getChunk(table, chunk, items);
+            }
+        }
+        return items;
+    }
+
+    private <T> List<Key> getChunk(DynamoDbTable<T> table, List<Key> chunk, List<T> items) {
+        ReadBatch.Builder<T> readBatch = ReadBatch.builder(table.tableSchema().itemType().rawClass())
+            .mappedTableResource(table);
+        chunk.forEach(readBatch::addGetItem);
+
+        // Only the first page is read, unprocessed keys are retried with a backoff instead of immediately
+        BatchGetResultPage page = dynamoDbEnhancedClient.batchGetItem(BatchGetItemEnhancedRequest.builder()
+                .readBatches(readBatch.build())
+                .build())
+            .iterator()
+            .next();
+        items.addAll(page.resultsForTable(table));
+        List<Key> unprocessed = page.unprocessedKeysForTable(table);
+        if (!unprocessed.isEmpty()) {
+            log.debug("{} of {} reads were not processed, retrying", unprocessed.size(), chunk.size());
+        }
+        return unprocessed;
+    }
+
+    private void backoff(int attempt) {
+        if (attempt == 0) return;
+        try {
+            Thread.sleep(BASE_BACKOFF_MILLIS << (attempt - 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying a batch read", e);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.uzh.ase.dailygrind.postservice.post.util;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteResult;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Helper for writing many items to DynamoDB with as few requests as possible.
+ * <p>
+ * Items are written with BatchWriteItem in chunks of {@value #MAX_BATCH_SIZE}, which is the maximum DynamoDB accepts
+ * in one request. Unprocessed items are retried with an exponential backoff.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class BatchWriteHelper {
+
+    private static final int MAX_BATCH_SIZE = 25;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long BASE_BACKOFF_MILLIS = 50;
+
+    private final DynamoDbEnhancedClient dynamoDbEnhancedClient;
+
+    /**
+     * Deletes all items with the given keys.
+     * <p>
+     * The table is only used to address the items, so keys of any entity stored in the same physical table can be
+     * deleted together. Duplicate keys are removed before the items are deleted.
+     *
+     * @param table the table the items are stored in
+     * @param keys  the keys of the items to delete
+     * @throws IllegalStateException if some items could still not be deleted after all retries
+     */
+    public <T> void deleteItems(DynamoDbTable<T> table, List<Key> keys) {
+        List<Key> distinctKeys = new ArrayList<>(new LinkedHashSet<>(keys));
+        for (int from = 0; from < distinctKeys.size(); from += MAX_BATCH_SIZE) {
+            List<Key> chunk = distinctKeys.subList(from, Math.min(from + MAX_BATCH_SIZE, distinctKeys.size()));
+            for (int attempt = 0; !chunk.isEmpty(); attempt++) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw new IllegalStateException(chunk.size() + " items could not be deleted from " + table.tableName());
+                }
+                backoff(attempt);
+                chunk = deleteChunk(table, chunk);
+            }
+        }
+    }
+
+    /**
+     * Puts all given items, replacing existing items with the same keys.
+     *
+     * @param table the table the items are stored in
+     * @param items the items to put
+     * @throws IllegalStateException if some items could still not be written after all retries
+     */
+    public <T> void putItems(DynamoDbTable<T> table, List<T> items) {
+        for (int from = 0; from < items.size(); from += MAX_BATCH_SIZE) {
+            List<T> chunk = items.subList(from, Math.min(from + MAX_BATCH_SIZE, items.size()));
+            for (int attempt = 0; !chunk.isEmpty(); attempt++) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw new IllegalStateException(chunk.size() + " items could not be written to " + table.tableName());
+                }
+                backoff(attempt);
+                chunk = putChunk(table, chunk);
+            }
+        }
+    }
+
+    private <T> List<T> putChunk(DynamoDbTable<T> table, List<T> chunk) {
+        WriteBatch.Builder<T> writeBatch = WriteBatch.builder(table.tableSchema().itemType().rawClass())
+            .mappedTableResource(table);
+        chunk.forEach(writeBatch::addPutItem);
+
+        BatchWriteResult result = dynamoDbEnhancedClient.batchWriteItem(BatchWriteItemEnhancedRequest.builder()
+            .writeBatches(writeBatch.build())
+            .build());
+        List<T> unprocessed = result.unprocessedPutItemsForTable(table);
+        if (!unprocessed.isEmpty()) {
+            log.debug("{} of {} puts were not processed, retrying", unprocessed.size(), chunk.size());
+        }
+        return unprocessed;
+    }
+
+    private <T> List<Key> deleteChunk(DynamoDbTable<T> table, List<Key> chunk) {
+        WriteBatch.Builder<T> writeBatch = WriteBatch.builder(table.tableSchema().itemType().rawClass())
+            .mappedTableResource(table);
+        chunk.forEach(writeBatch::addDeleteItem);
+
+        BatchWriteResult result = dynamoDbEnhancedClient.batchWriteItem(BatchWriteItemEnhancedRequest.builder()
+            .writeBatches(writeBatch.build())
+            .build());
+        List<Key> unprocessed = result.unprocessedDeleteItemsForTable(table);
+        if (!unprocessed.isEmpty()) {
+            log.debug("{} of {} deletes were not processed, retrying", unprocessed.size(), chunk.size());
+        }
+        return unprocessed;
+    }
+
+    private void backoff(int attempt) {
+        if (attempt == 0) return;
+        try {
+            Thread.sleep(BASE_BACKOFF_MILLIS << (attempt - 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying a batch write", e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.uzh.ase.dailygrind.postservice.post.util;
+
+import com.uzh.ase.dailygrind.postservice.post.repository.FriendGraph;
+import com.uzh.ase.dailygrind.postservice.post.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loads the {@link FriendGraph} from the friend entries when the service starts.
+ * <p>
+ * The load only runs when {@code post.friend-graph.enabled} is {@code true}, on a background thread so that the
+ * service keeps serving requests meanwhile. Until the graph is loaded, friends are queried from DynamoDB.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "post.friend-graph.enabled", havingValue = "true")
+public class FriendGraphLoader implements ApplicationRunner {
+
+    private final UserRepository userRepository;
+
+    /**
+     * Starts the load of the friend graph on a daemon thread.
+     *
+     * @param args the application arguments (unused)
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        Thread loadThread = new Thread(this::load, "friend-graph-load");
+        // Set the thread to daemon mode so it doesn't block application shutdown
+        loadThread.setDaemon(true);
+        loadThread.start();
+    }
+
+    private void load() {
+        log.info("Starting load of the friend graph");
+        try {
+            int loaded = userRepository.loadFriendGraph();
+            log.info("Finished load of the friend graph, {} friend entries were loaded", loaded);
+        } catch (Exception e) {
+            log.error("Load of the friend graph failed, friends are queried from DynamoDB: {}", e.getMessage(), e);
+        }
+    }
+}
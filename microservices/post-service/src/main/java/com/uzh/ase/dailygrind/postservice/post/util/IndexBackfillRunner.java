@@ -0,0 +1,66 @@
+package com.uzh.ase.dailygrind.postservice.post.util;
+
+import com.uzh.ase.dailygrind.postservice.post.repository.CommentRepository;
+import com.uzh.ase.dailygrind.postservice.post.repository.DailyPostRepository;
+import com.uzh.ase.dailygrind.postservice.post.repository.PostRepository;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.CommentEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.DailyPostEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.PostEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.UserCommentEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.UserLikeEntity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.IntSupplier;
+
+/**
+ * Backfills the global secondary indexes, the daily locks ({@link DailyPostEntity#LOCK_SK}) and the inverted per-user
+ * items ({@link UserLikeEntity}, {@link UserCommentEntity}) for items that were created before they existed.
+ * <p>
+ * The backfill only runs when {@code post.index-backfill} is set to {@code true}. It runs on a background
+ * thread so that the service keeps serving requests while existing items are being indexed. During the rollout,
+ * {@code post.post-id-index.scan-fallback} can be enabled so that posts which are not indexed yet are still found.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "post.index-backfill", havingValue = "true")
+public class IndexBackfillRunner implements ApplicationRunner {
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final DailyPostRepository dailyPostRepository;
+
+    /**
+     * Starts the backfill of all indexes on a daemon thread.
+     *
+     * @param args the application arguments (unused)
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        Thread backfillThread = new Thread(() -> {
+            backfill(PostEntity.POST_ID_INDEX, postRepository::backfillPostIdIndex);
+            backfill(CommentEntity.COMMENT_POST_INDEX, commentRepository::backfillCommentPostIndex);
+            backfill(DailyPostEntity.LOCK_SK, dailyPostRepository::backfillDailyLocks);
+            backfill(UserLikeEntity.PK_SUFFIX, postRepository::backfillUserLikes);
+            backfill(UserCommentEntity.PK_SUFFIX, commentRepository::backfillUserComments);
+        }, "index-backfill");
+        // Set the thread to daemon mode so it doesn't block application shutdown
+        backfillThread.setDaemon(true);
+        backfillThread.start();
+    }
+
+    private void backfill(String name, IntSupplier backfill) {
+        log.info("Starting backfill of {}", name);
+        try {
+            int backfilled = backfill.getAsInt();
+            log.info("Finished backfill of {}, {} items were backfilled", name, backfilled);
+        } catch (Exception e) {
+            log.error("Backfill of {} failed: {}", name, e.getMessage(), e);
+        }
+    }
+}
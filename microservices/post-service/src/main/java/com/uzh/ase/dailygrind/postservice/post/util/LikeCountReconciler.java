@@ -0,0 +1,59 @@
+package com.uzh.ase.dailygrind.postservice.post.util;
+
+import com.uzh.ase.dailygrind.postservice.post.repository.DailyPostRepository;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.DailyBucketEntity;
+import com.uzh.ase.dailygrind.postservice.post.service.LikeCountAggregator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Reconciles the like counts of the live daily posts with their like entries when the service starts.
+ * <p>
+ * With write-behind of like counts, see {@link LikeCountAggregator}, changes that were not flushed when the service
+ * stopped are lost. Likes almost exclusively target the daily posts that are still live, so only these posts are
+ * recounted. The reconciliation only runs when {@code post.likes.write-behind.enabled} is {@code true}.
+ * <p>
+ * The reconciliation runs before the service reports that it is ready to accept traffic, see
+ * {@code /actuator/health/readiness}. A like arriving while its post is recounted would otherwise either be counted
+ * in the like entries and written again by the next flush, or be missing from both.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "post.likes.write-behind.enabled", havingValue = "true")
+public class LikeCountReconciler implements ApplicationRunner {
+
+    private final DailyPostRepository dailyPostRepository;
+    private final LikeCountAggregator likeCountAggregator;
+
+    /**
+     * Reconciles the like counts of the live daily posts.
+     *
+     * @param args the application arguments (unused)
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("Starting reconciliation of like counts");
+        int posts = 0;
+        int corrected = 0;
+        for (LocalDate date : TimeToLiveHelper.getLivePostDates()) {
+            for (int shard = 0; shard < dailyPostRepository.getShards(); shard++) {
+                for (DailyBucketEntity dailyPost : dailyPostRepository.findDailyPostsInBucket(date, shard)) {
+                    try {
+                        if (likeCountAggregator.reconcile(dailyPost.getUserId(), dailyPost.getPostId())) corrected++;
+                        posts++;
+                    } catch (Exception e) {
+                        log.error("Reconciliation of the like count of post {} failed: {}", dailyPost.getPostId(), e.getMessage(), e);
+                    }
+                }
+            }
+        }
+        log.info("Finished reconciliation of like counts, {} of {} posts were corrected", corrected, posts);
+    }
+}
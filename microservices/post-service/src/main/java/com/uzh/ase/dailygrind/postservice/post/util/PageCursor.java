@@ -0,0 +1,108 @@
+package com.uzh.ase.dailygrind.postservice.post.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Encodes and decodes the opaque cursors used for paginated endpoints.
+ * <p>
+ * A cursor is the URL-safe Base64 encoding of the last evaluated key of a DynamoDB query. Clients must treat it
+ * as an opaque value and pass it back unchanged to fetch the next page.
+ */
+public final class PageCursor {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final String STRING_TYPE = "S";
+    private static final String NUMBER_TYPE = "N";
+
+    private PageCursor() {
+    }
+
+    /**
+     * Encodes the last evaluated key of a query into a cursor.
+     *
+     * @param lastEvaluatedKey the last evaluated key, may be null
+     * @return the cursor, or null if there are no more pages
+     */
+    public static String encode(Map<String, AttributeValue> lastEvaluatedKey) {
+        if (lastEvaluatedKey == null || lastEvaluatedKey.isEmpty()) return null;
+
+        Map<String, Map<String, String>> values = new HashMap<>();
+        lastEvaluatedKey.forEach((name, value) -> values.put(name, value.n() != null
+            ? Map.of(NUMBER_TYPE, value.n())
+            : Map.of(STRING_TYPE, value.s())));
+        try {
+            return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(OBJECT_MAPPER.writeValueAsBytes(values));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode page cursor", e);
+        }
+    }
+
+    /**
+     * Decodes a cursor into the exclusive start key of the next query.
+     *
+     * @param cursor the cursor, may be null
+     * @return the exclusive start key, or null if the cursor is null or empty
+     * @throws IllegalArgumentException if the cursor is not valid
+     */
+    public static Map<String, AttributeValue> decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) return null;
+
+        try {
+            Map<String, Map<String, String>> values = OBJECT_MAPPER.readValue(
+                new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8),
+                new TypeReference<>() {
+                });
+            Map<String, AttributeValue> exclusiveStartKey = new HashMap<>();
+            values.forEach((name, value) -> {
+                if (value.containsKey(NUMBER_TYPE)) {
+                    exclusiveStartKey.put(name, AttributeValue.fromN(value.get(NUMBER_TYPE)));
+                } else if (value.containsKey(STRING_TYPE)) {
+                    exclusiveStartKey.put(name, AttributeValue.fromS(value.get(STRING_TYPE)));
+                } else {
+                    throw new IllegalArgumentException("Invalid page cursor");
+                }
+            });
+            return exclusiveStartKey;
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid page cursor", e);
+        }
+    }
+
+    /**
+     * Decodes a cursor into the exclusive start key of a query and checks that the key belongs to that query.
+     * <p>
+     * Cursors are passed in by clients, so a cursor of another query or a crafted one must be rejected before it
+     * reaches DynamoDB, which would fail the query. The key must consist of exactly the given string attributes,
+     * and the attributes the query is restricted to, e.g. its partition key, must have the expected values.
+     *
+     * @param cursor         the cursor, may be null
+     * @param keyAttributes  the names of all key attributes of the queried table or index
+     * @param expectedValues the values of the key attributes the query is restricted to
+     * @return the exclusive start key, or null if the cursor is null or empty
+     * @throws IllegalArgumentException if the cursor is not valid or does not belong to the query
+     */
+    public static Map<String, AttributeValue> decode(String cursor, Set<String> keyAttributes,
+                                                     Map<String, String> expectedValues) {
+        Map<String, AttributeValue> exclusiveStartKey = decode(cursor);
+        if (exclusiveStartKey == null) return null;
+
+        if (!exclusiveStartKey.keySet().equals(keyAttributes)
+            || exclusiveStartKey.values().stream().anyMatch(value -> value.s() == null)
+            || expectedValues.entrySet().stream()
+                .anyMatch(expected -> !expected.getValue().equals(exclusiveStartKey.get(expected.getKey()).s()))) {
+            throw new IllegalArgumentException("Page cursor does not belong to the query");
+        }
+        return exclusiveStartKey;
+    }
+}
@@ -0,0 +1,129 @@
+package com.uzh.ase.dailygrind.postservice.post.util;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent lookups, e.g. one per friend, in parallel with a bounded concurrency and an overall deadline.
+ * <p>
+ * At most {@code post.parallel-lookup.max-concurrency} lookups of a single call run at the same time on the shared
+ * lookup executor. Lookups that have not finished when {@code post.parallel-lookup.deadline} has passed are
+ * cancelled and the results collected so far are returned as incomplete, so a slow dependency does not block the
+ * request thread. If {@code post.parallel-lookup.enabled} is {@code false}, the lookups run sequentially on the
+ * calling thread.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ParallelLookupExecutor {
+
+    private final AsyncTaskExecutor parallelLookupTaskExecutor;
+
+    @Value("${post.parallel-lookup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${post.parallel-lookup.max-concurrency:16}")
+    private int maxConcurrency;
+
+    @Value("${post.parallel-lookup.deadline:2s}")
+    private Duration deadline;
+
+    /**
+     * The results of a set of lookups.
+     *
+     * @param results  the results of the finished lookups in completion order, null results are skipped
+     * @param complete false if some lookups failed or did not finish before the deadline
+     * @param <R>      the type of the results
+     */
+    public record Results<R>(List<R> results, boolean complete) {
+    }
+
+    /**
+     * Runs all lookups and collects their results.
+     * <p>
+     * A failing lookup is logged and marks the results as incomplete instead of failing the whole call.
+     *
+     * @param lookups the lookups to run
+     * @return the results of the lookups that finished in time
+     */
+    public <R> Results<R> run(List<Supplier<R>> lookups) {
+        if (!enabled) {
+            List<R> results = new ArrayList<>();
+            for (Supplier<R> lookup : lookups) {
+                R result = lookup.get();
+                if (result != null) results.add(result);
+            }
+            return new Results<>(results, true);
+        }
+
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+        CompletionService<R> completionService = new ExecutorCompletionService<>(parallelLookupTaskExecutor);
+        List<Future<R>> futures = new ArrayList<>();
+        List<R> results = new ArrayList<>();
+        Iterator<Supplier<R>> pending = lookups.iterator();
+        boolean complete = true;
+        int running = 0;
+        try {
+            while (pending.hasNext() && running < maxConcurrency) {
+                if (!submit(completionService, pending.next(), futures)) break;
+                running++;
+            }
+            while (running > 0) {
+                long remainingNanos = deadlineNanos - System.nanoTime();
+                Future<R> finished = remainingNanos > 0 ? completionService.poll(remainingNanos, TimeUnit.NANOSECONDS) : null;
+                if (finished == null) {
+                    log.warn("{} of {} lookups did not finish within {}", running, lookups.size(), deadline);
+                    complete = false;
+                    break;
+                }
+                running--;
+                try {
+                    R result = finished.get();
+                    if (result != null) results.add(result);
+                } catch (ExecutionException e) {
+                    log.error("Lookup failed: {}", e.getCause().getMessage(), e.getCause());
+                    complete = false;
+                }
+                if (pending.hasNext() && submit(completionService, pending.next(), futures)) {
+                    running++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            complete = false;
+        } finally {
+            // Cancel lookups that are still running or waiting for a thread
+            futures.forEach(future -> future.cancel(true));
+        }
+        if (futures.size() < lookups.size()) {
+            // Lookups were skipped because the executor was saturated
+            complete = false;
+        }
+        return new Results<>(results, complete);
+    }
+
+    private <R> boolean submit(CompletionService<R> completionService, Supplier<R> lookup, List<Future<R>> futures) {
+        try {
+            futures.add(completionService.submit(lookup::get));
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.warn("Lookup executor is saturated, skipping remaining lookups");
+            return false;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.uzh.ase.dailygrind.postservice.post.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registry of the open Server-Sent Events connections, grouped by user.
+ * <p>
+ * Events are published without waiting for the clients. Every connection has its own queue of at most
+ * {@code post.timeline.stream.queue-capacity} events, which is drained by the timeline stream executor with at most
+ * one task per connection at a time. A client that does not keep up and lets its queue overflow is disconnected
+ * instead of buffering events without bound; it is expected to reconnect and sync its timeline. Idle connections
+ * do not hold a thread, so a single instance can keep up to {@code post.timeline.stream.max-connections} of them
+ * open. A comment is sent to every connection each {@code post.timeline.stream.heartbeat-interval}, which keeps
+ * proxies from closing idle connections and detects clients that are gone.
+ */
+@Component
+@Slf4j
+public class SseSubscriberRegistry {
+
+    private static final String METRIC_PREFIX = "timeline.stream.";
+
+    private final ThreadPoolTaskExecutor timelineStreamExecutor;
+    private final int queueCapacity;
+    private final int maxConnections;
+    private final Duration timeout;
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Counter droppedConnections;
+
+    public SseSubscriberRegistry(ThreadPoolTaskExecutor timelineStreamExecutor,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${post.timeline.stream.queue-capacity:32}") int queueCapacity,
+                                 @Value("${post.timeline.stream.max-connections:20000}") int maxConnections,
+                                 @Value("${post.timeline.stream.timeout:30m}") Duration timeout) {
+        this.timelineStreamExecutor = timelineStreamExecutor;
+        this.queueCapacity = queueCapacity;
+        this.maxConnections = maxConnections;
+        this.timeout = timeout;
+        Gauge.builder(METRIC_PREFIX + "connections", connections, AtomicInteger::get)
+            .description("Open timeline stream connections")
+            .register(meterRegistry);
+        this.droppedConnections = Counter.builder(METRIC_PREFIX + "dropped")
+            .description("Timeline stream connections closed because the client did not keep up")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Opens a new connection for a user.
+     *
+     * @param userId the ID of the user
+     * @return the emitter of the connection
+     * @throws ResponseStatusException if the maximum number of connections is reached
+     */
+    public SseEmitter subscribe(String userId) {
+        return subscribe(userId, new SseEmitter(timeout.toMillis()));
+    }
+
+    SseEmitter subscribe(String userId, SseEmitter emitter) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            log.warn("Rejecting timeline stream of user {}, {} connections are open", userId, maxConnections);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many open connections");
+        }
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        subscribers.compute(userId, (id, connectionsOfUser) -> {
+            Set<Subscriber> updated = connectionsOfUser != null ? connectionsOfUser : ConcurrentHashMap.newKeySet();
+            updated.add(subscriber);
+            return updated;
+        });
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        log.debug("Opened timeline stream of user {}", userId);
+        return emitter;
+    }
+
+    /**
+     * Publishes an event to all connections of a user. Users without connections are skipped.
+     *
+     * @param userId the ID of the user
+     * @param name   the name of the event
+     * @param data   the data of the event, serialized as JSON
+     */
+    public void publish(String userId, String name, Object data) {
+        Set<Subscriber> connectionsOfUser = subscribers.get(userId);
+        if (connectionsOfUser == null) return;
+        connectionsOfUser.forEach(subscriber -> subscriber.offer(SseEmitter.event().name(name).data(data)));
+    }
+
+    /**
+     * Publishes an event to all connections of several users.
+     *
+     * @param userIds the IDs of the users
+     * @param name    the name of the event
+     * @param data    the data of the event, serialized as JSON
+     */
+    public void publish(Collection<String> userIds, String name, Object data) {
+        userIds.forEach(userId -> publish(userId, name, data));
+    }
+
+    /**
+     * Indicates whether a user has at least one open connection.
+     *
+     * @param userId the ID of the user
+     * @return true if the user has an open connection
+     */
+    public boolean isSubscribed(String userId) {
+        return subscribers.containsKey(userId);
+    }
+
+    /**
+     * Indicates whether any connection is open, so publishers can skip preparing events nobody receives.
+     *
+     * @return true if no connection is open
+     */
+    public boolean isEmpty() {
+        return subscribers.isEmpty();
+    }
+
+    /**
+     * Returns the number of open connections.
+     *
+     * @return the number of open connections
+     */
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    /**
+     * Sends a comment to every open connection.
+     */
+    @Scheduled(fixedDelayString = "${post.timeline.stream.heartbeat-interval:30s}")
+    public void sendHeartbeats() {
+        subscribers.values().forEach(connectionsOfUser ->
+            connectionsOfUser.forEach(subscriber -> subscriber.offer(SseEmitter.event().comment("heartbeat"))));
+    }
+
+    /**
+     * An open connection with its queue of events that have not been sent yet.
+     */
+    private final class Subscriber {
+
+        private final String userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(String userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        private void offer(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) return;
+            if (!queue.offer(event)) {
+                log.info("Timeline stream of user {} does not keep up, closing it", userId);
+                droppedConnections.increment();
+                close();
+                emitter.complete();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (!draining.compareAndSet(false, true)) return;
+            try {
+                timelineStreamExecutor.execute(this::drain);
+            } catch (TaskRejectedException e) {
+                // The events stay queued until the next event schedules the drain again
+                draining.set(false);
+                log.warn("Timeline stream executor is saturated, delaying events of user {}", userId);
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed.get() && (event = queue.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client is gone or the emitter has already been completed
+                log.debug("Sending to timeline stream of user {} failed: {}", userId, e.getMessage());
+                close();
+            } finally {
+                draining.set(false);
+            }
+            if (!closed.get() && !queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private void close() {
+            if (!closed.compareAndSet(false, true)) return;
+            queue.clear();
+            connections.decrementAndGet();
+            subscribers.computeIfPresent(userId, (id, connectionsOfUser) -> {
+                connectionsOfUser.remove(this);
+                return connectionsOfUser.isEmpty() ? null : connectionsOfUser;
+            });
+            log.debug("Closed timeline stream of user {}", userId);
+        }
+    }
+}
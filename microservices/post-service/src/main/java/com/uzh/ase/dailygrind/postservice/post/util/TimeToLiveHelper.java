@@ -5,12 +5,20 @@ import org.springframework.stereotype.Service;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.ZoneOffset;
+import java.util.List;
 
 @Service
 public class TimeToLiveHelper {
 
+    /**
+     * The time of day at which the daily posts expire, in UTC.
+     */
+    private static final LocalTime DAILY_EXPIRY = LocalTime.of(13, 0);
+
     /**
      * Determines whether the TTL is in minutes or until tomorrow at 1 PM UTC.
      * This value is injected from the application properties.
@@ -18,6 +26,33 @@ public class TimeToLiveHelper {
     @Value("${post.ttlMinutes:false}")
     private static boolean ttlMinutes;
 
+    /**
+     * Returns the time at which the daily posts expired most recently, i.e. today or yesterday at 1 PM UTC.
+     *
+     * @return the time of the most recent expiry in milliseconds
+     */
+    public static long getLastExpiry() {
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        LocalDateTime expiry = now.with(DAILY_EXPIRY);
+        if (expiry.isAfter(now)) {
+            expiry = expiry.minusDays(1);
+        }
+        return expiry.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    /**
+     * Returns the days on which the daily posts that have not expired yet were created, most recent day first.
+     * A daily post expires at 1 PM UTC on the day after it was created, so the posts of yesterday are only
+     * included before 1 PM UTC.
+     *
+     * @return today and, before 1 PM UTC, yesterday
+     */
+    public static List<LocalDate> getLivePostDates() {
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        LocalDate today = now.toLocalDate();
+        return now.toLocalTime().isBefore(DAILY_EXPIRY) ? List.of(today, today.minusDays(1)) : List.of(today);
+    }
+
     public static long getTimeToLive() {
         if (ttlMinutes) {
             // Return TTL as 1 minute from the current time
@@ -28,10 +63,7 @@ public class TimeToLiveHelper {
             // Set TTL to tomorrow at 1 PM UTC
             return LocalDateTime.now(ZoneOffset.UTC)
                 .plusDays(1)
-                .withHour(13)
-                .withMinute(0)
-                .withSecond(0)
-                .withNano(0)
+                .with(DAILY_EXPIRY)
                 .toEpochSecond(ZoneOffset.UTC);
         }
     }
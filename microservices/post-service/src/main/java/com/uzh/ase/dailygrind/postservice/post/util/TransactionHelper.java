@@ -0,0 +1,63 @@
+package com.uzh.ase.dailygrind.postservice.post.util;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Helper for building and interpreting DynamoDB transactions.
+ * <p>
+ * DynamoDB reports one cancellation reason per item of a transaction, in the order the items were added. This
+ * allows telling apart which condition of a transaction failed.
+ */
+public final class TransactionHelper {
+
+    private static final String CONDITIONAL_CHECK_FAILED = "ConditionalCheckFailed";
+
+    private TransactionHelper() {
+    }
+
+    /**
+     * Checks whether the condition of a specific item of a cancelled transaction failed.
+     *
+     * @param exception the exception the transaction was cancelled with
+     * @param index     the index of the item in the transaction
+     * @return true if the condition of the item failed
+     */
+    public static boolean isConditionalCheckFailed(TransactionCanceledException exception, int index) {
+        List<CancellationReason> reasons = exception.cancellationReasons();
+        return reasons.size() > index && CONDITIONAL_CHECK_FAILED.equals(reasons.get(index).code());
+    }
+
+    /**
+     * Creates an update that atomically adds a delta to a numeric attribute of an existing item.
+     * <p>
+     * The update uses {@code ADD}, so concurrent updates never overwrite each other, and is conditioned on the
+     * item existing, so a counter is never written for an item that has been deleted. The timestamp attribute of
+     * the item is set to the current time in the same write, so clients syncing their timeline pick up the new count.
+     *
+     * @param tableName          the name of the table
+     * @param key                the key of the item to update
+     * @param attribute          the name of the numeric attribute
+     * @param delta              the value to add, negative to subtract
+     * @param timestampAttribute the name of the attribute holding the time the item was last updated
+     * @return the update, to be used as an item of a transaction
+     */
+    public static Update counterUpdate(String tableName, Map<String, AttributeValue> key, String attribute, long delta,
+                                       String timestampAttribute) {
+        return Update.builder()
+            .tableName(tableName)
+            .key(key)
+            .updateExpression("ADD #counter :delta SET #updatedAt = :updatedAt")
+            .conditionExpression("attribute_exists(PK)")
+            .expressionAttributeNames(Map.of("#counter", attribute, "#updatedAt", timestampAttribute))
+            .expressionAttributeValues(Map.of(
+                ":delta", AttributeValue.fromN(String.valueOf(delta)),
+                ":updatedAt", AttributeValue.fromN(String.valueOf(System.currentTimeMillis()))))
+            .build();
+    }
+}
@@ -0,0 +1,221 @@
+package com.uzh.ase.dailygrind.postservice.post.util;
+
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.PostEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * In-memory ranking of the posts that currently receive the most likes and comments.
+ * <p>
+ * Every post has a time-decayed score: each like or comment adds its weight, and the score halves every
+ * {@code post.trending.half-life}, so recent engagement counts more than old engagement. A score only needs to be
+ * decayed when it changes or is read, so recording engagement is O(1). The top posts are selected with a min-heap
+ * of the requested size, without sorting all posts. At most {@code post.trending.capacity} posts are tracked; when
+ * more are added, the posts with the lowest scores are dropped. Posts created more than
+ * {@code post.trending.max-age} ago are no longer ranked.
+ * <p>
+ * The ranking only contains the engagement seen by this instance since it was started, and is rebuilt from the
+ * stored counts of recent posts on startup.
+ */
+@Component
+@Slf4j
+public class TrendingRanking {
+
+    public static final double LIKE_WEIGHT = 1;
+    public static final double COMMENT_WEIGHT = 2;
+
+    /**
+     * A ranked post.
+     *
+     * @param postId  the ID of the post
+     * @param ownerId the ID of the user who created the post
+     * @param score   the current score of the post
+     */
+    public record RankedPost(String postId, String ownerId, double score) {
+    }
+
+    private static final class Candidate {
+        private final String ownerId;
+        private final long createdAt;
+        private double score;
+        private long scoredAt;
+
+        private Candidate(String ownerId, long createdAt, long now) {
+            this.ownerId = ownerId;
+            this.createdAt = createdAt;
+            this.scoredAt = now;
+        }
+    }
+
+    private final Clock clock;
+    private final double halfLifeMillis;
+    private final long maxAgeMillis;
+    private final int capacity;
+    private final Map<String, Candidate> candidates = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TrendingRanking(@Value("${post.trending.half-life:6h}") Duration halfLife,
+                           @Value("${post.trending.max-age:24h}") Duration maxAge,
+                           @Value("${post.trending.capacity:10000}") int capacity) {
+        this(Clock.systemUTC(), halfLife, maxAge, capacity);
+    }
+
+    TrendingRanking(Clock clock, Duration halfLife, Duration maxAge, int capacity) {
+        this.clock = clock;
+        this.halfLifeMillis = halfLife.toMillis();
+        this.maxAgeMillis = maxAge.toMillis();
+        this.capacity = capacity;
+    }
+
+    /**
+     * Records engagement with a post, e.g. {@link #LIKE_WEIGHT} for a like or its negative for an unlike.
+     *
+     * @param post   the post
+     * @param weight the weight of the engagement, negative to take back engagement
+     */
+    public void record(PostEntity post, double weight) {
+        record(post.getPostId(), post.getUserId(), createdAtOf(post), weight);
+    }
+
+    /**
+     * Records engagement with a post.
+     * <p>
+     * Posts that are too old to be ranked are ignored. The score of a post never drops below zero.
+     *
+     * @param postId    the ID of the post
+     * @param ownerId   the ID of the user who created the post
+     * @param createdAt the creation time of the post in milliseconds
+     * @param weight    the weight of the engagement, negative to take back engagement
+     */
+    public void record(String postId, String ownerId, long createdAt, double weight) {
+        long now = clock.millis();
+        if (isExpired(createdAt, now)) return;
+
+        Candidate candidate = candidates.computeIfAbsent(postId, id -> new Candidate(ownerId, createdAt, now));
+        synchronized (candidate) {
+            candidate.score = Math.max(0, decay(candidate, now) + weight);
+            candidate.scoredAt = now;
+        }
+        if (candidates.size() > capacity + capacity / 10) {
+            prune();
+        }
+    }
+
+    /**
+     * Records engagement with a post as if it had happened when the post was created, e.g. the stored counts of a
+     * post when the ranking is rebuilt.
+     *
+     * @param post   the post
+     * @param weight the weight of the engagement
+     */
+    public void seed(PostEntity post, double weight) {
+        long createdAt = createdAtOf(post);
+        long age = Math.max(0, clock.millis() - createdAt);
+        record(post.getPostId(), post.getUserId(), createdAt, weight * Math.pow(0.5, age / halfLifeMillis));
+    }
+
+    /**
+     * Stops ranking a post, e.g. because it has been deleted.
+     *
+     * @param postId the ID of the post
+     */
+    public void remove(String postId) {
+        candidates.remove(postId);
+    }
+
+    /**
+     * Returns the posts with the highest current scores, highest first.
+     *
+     * @param limit  the maximum number of posts to return
+     * @param filter selects the posts that may be returned by the ID of their owner, e.g. the friends of a user
+     * @return the top posts matching the filter
+     */
+    public List<RankedPost> top(int limit, Predicate<String> filter) {
+        long now = clock.millis();
+        PriorityQueue<RankedPost> heap = new PriorityQueue<>(Comparator.comparingDouble(RankedPost::score));
+        candidates.forEach((postId, candidate) -> {
+            if (isExpired(candidate.createdAt, now) || !filter.test(candidate.ownerId)) return;
+            double score;
+            synchronized (candidate) {
+                score = decay(candidate, now);
+            }
+            if (score <= 0) return;
+            if (heap.size() < limit) {
+                heap.add(new RankedPost(postId, candidate.ownerId, score));
+            } else if (score > heap.peek().score()) {
+                heap.poll();
+                heap.add(new RankedPost(postId, candidate.ownerId, score));
+            }
+        });
+
+        List<RankedPost> top = new ArrayList<>(heap);
+        top.sort(Comparator.comparingDouble(RankedPost::score).reversed());
+        return top;
+    }
+
+    /**
+     * Removes the posts that are too old to be ranked and, if more than the capacity are tracked, the posts with
+     * the lowest scores.
+     */
+    @Scheduled(fixedDelayString = "${post.trending.prune-interval:1m}")
+    public synchronized void prune() {
+        long now = clock.millis();
+        candidates.entrySet().removeIf(entry -> isExpired(entry.getValue().createdAt, now));
+
+        int excess = candidates.size() - capacity;
+        if (excess <= 0) return;
+        List<RankedPost> lowest = candidates.entrySet().stream()
+            .map(entry -> {
+                synchronized (entry.getValue()) {
+                    return new RankedPost(entry.getKey(), entry.getValue().ownerId, decay(entry.getValue(), now));
+                }
+            })
+            .sorted(Comparator.comparingDouble(RankedPost::score))
+            .limit(excess)
+            .toList();
+        lowest.forEach(post -> candidates.remove(post.postId()));
+        log.debug("Dropped {} posts with the lowest scores from the trending ranking", lowest.size());
+    }
+
+    /**
+     * Returns the number of posts that are currently tracked.
+     *
+     * @return the number of tracked posts
+     */
+    public int size() {
+        return candidates.size();
+    }
+
+    private double decay(Candidate candidate, long now) {
+        return candidate.score * Math.pow(0.5, (now - candidate.scoredAt) / halfLifeMillis);
+    }
+
+    private boolean isExpired(long createdAt, long now) {
+        return createdAt < now - maxAgeMillis;
+    }
+
+    private long createdAtOf(PostEntity post) {
+        // Posts without a timestamp fall back to the time encoded in their ID, or count as just created
+        if (post.getPostTimestamp() != null) {
+            try {
+                return Long.parseLong(post.getPostTimestamp());
+            } catch (NumberFormatException e) {
+                log.debug("Post {} has no numeric timestamp", post.getPostId());
+            }
+        }
+        return Ulid.isValid(post.getPostId()) ? Ulid.getTimestamp(post.getPostId()) : clock.millis();
+    }
+}
@@ -0,0 +1,48 @@
+package com.uzh.ase.dailygrind.postservice.post.util;
+
+import com.uzh.ase.dailygrind.postservice.post.service.TrendingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the trending ranking, see {@link TrendingRanking}, from the stored like and comment counts of the live
+ * daily posts when the service starts.
+ * <p>
+ * The rebuild runs unless {@code post.trending.rebuild} is set to {@code false}, on a background thread so that
+ * the service keeps serving requests meanwhile. Engagement recorded during the rebuild is kept.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "post.trending.rebuild", havingValue = "true", matchIfMissing = true)
+public class TrendingRebuildRunner implements ApplicationRunner {
+
+    private final TrendingService trendingService;
+
+    /**
+     * Starts the rebuild of the trending ranking on a daemon thread.
+     *
+     * @param args the application arguments (unused)
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        Thread rebuildThread = new Thread(this::rebuild, "trending-rebuild");
+        // Set the thread to daemon mode so it doesn't block application shutdown
+        rebuildThread.setDaemon(true);
+        rebuildThread.start();
+    }
+
+    private void rebuild() {
+        log.info("Starting rebuild of the trending ranking");
+        try {
+            int ranked = trendingService.rebuild();
+            log.info("Finished rebuild of the trending ranking, {} posts were ranked", ranked);
+        } catch (Exception e) {
+            log.error("Rebuild of the trending ranking failed: {}", e.getMessage(), e);
+        }
+    }
+}
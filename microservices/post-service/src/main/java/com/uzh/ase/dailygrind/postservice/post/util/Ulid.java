@@ -0,0 +1,132 @@
+package com.uzh.ase.dailygrind.postservice.post.util;
+
+import java.security.SecureRandom;
+
+/**
+ * Generates time-ordered, lexicographically sortable identifiers (ULIDs).
+ * <p>
+ * A ULID consists of 26 Crockford Base32 characters: 10 characters encoding the creation time in milliseconds,
+ * followed by 16 characters of randomness. Sorting ULIDs as strings therefore sorts them by creation time, which
+ * turns "newest N" and "created between T1 and T2" into key-range queries on sort keys that end with a ULID.
+ * IDs generated within the same millisecond increment the random part, so they are strictly increasing.
+ */
+public final class Ulid {
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int LENGTH = 26;
+    private static final int TIME_LENGTH = 10;
+    public static final long MAX_TIMESTAMP = (1L << 48) - 1;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // State of the last generated ID, guarded by the class lock; the random part is split into 16 + 64 bits
+    private static long lastTimestamp = -1;
+    private static long randomHigh;
+    private static long randomLow;
+
+    private Ulid() {
+    }
+
+    /**
+     * Generates a new ULID for the current time.
+     *
+     * @return the generated ULID
+     */
+    public static String generate() {
+        return generate(System.currentTimeMillis());
+    }
+
+    /**
+     * Generates a new ULID for the given time, e.g. to match a timestamp stored next to the ID.
+     *
+     * @param timestamp the time in milliseconds since the epoch
+     * @return the generated ULID
+     */
+    public static synchronized String generate(long timestamp) {
+        if (timestamp == lastTimestamp) {
+            randomLow++;
+            if (randomLow == 0) randomHigh = (randomHigh + 1) & 0xFFFF;
+        } else {
+            lastTimestamp = timestamp;
+            randomHigh = RANDOM.nextInt(1 << 16);
+            randomLow = RANDOM.nextLong();
+        }
+        return encode(timestamp, randomHigh, randomLow);
+    }
+
+    /**
+     * Returns the smallest ULID that can be generated at a given time.
+     *
+     * @param timestamp the time in milliseconds
+     * @return the smallest ULID of the time
+     */
+    public static String lowerBound(long timestamp) {
+        return encode(timestamp, 0, 0);
+    }
+
+    /**
+     * Returns the largest ULID that can be generated at a given time.
+     *
+     * @param timestamp the time in milliseconds
+     * @return the largest ULID of the time
+     */
+    public static String upperBound(long timestamp) {
+        return encode(timestamp, 0xFFFF, -1);
+    }
+
+    /**
+     * Indicates whether an ID is a ULID. IDs created before ULIDs were introduced are random UUIDs, which are
+     * not time-ordered.
+     *
+     * @param id the ID to check
+     * @return true if the ID is a ULID
+     */
+    public static boolean isValid(String id) {
+        if (id == null || id.length() != LENGTH || id.charAt(0) > '7') return false;
+        for (int i = 0; i < LENGTH; i++) {
+            if (decode(id.charAt(i)) < 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Extracts the creation time of a ULID.
+     *
+     * @param ulid the ULID
+     * @return the creation time in milliseconds
+     * @throws IllegalArgumentException if the ID is not a ULID
+     */
+    public static long getTimestamp(String ulid) {
+        if (!isValid(ulid)) throw new IllegalArgumentException("Not a ULID: " + ulid);
+        long timestamp = 0;
+        for (int i = 0; i < TIME_LENGTH; i++) {
+            timestamp = (timestamp << 5) | decode(ulid.charAt(i));
+        }
+        return timestamp;
+    }
+
+    private static String encode(long timestamp, long high, long low) {
+        if (timestamp < 0 || timestamp > MAX_TIMESTAMP) {
+            throw new IllegalArgumentException("Timestamp out of range: " + timestamp);
+        }
+        char[] chars = new char[LENGTH];
+        for (int i = TIME_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (timestamp & 31)];
+            timestamp >>>= 5;
+        }
+        // The 80 random bits are shifted out five at a time, from the least significant end
+        for (int i = LENGTH - 1; i >= TIME_LENGTH; i--) {
+            chars[i] = ALPHABET[(int) (low & 31)];
+            low = (low >>> 5) | ((high & 31) << 59);
+            high >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    private static int decode(char c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        for (int i = 10; i < ALPHABET.length; i++) {
+            if (ALPHABET[i] == c) return i;
+        }
+        return -1;
+    }
+}
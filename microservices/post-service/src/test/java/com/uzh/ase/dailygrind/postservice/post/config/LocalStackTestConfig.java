@@ -1,5 +1,7 @@
 package com.uzh.ase.dailygrind.postservice.post.config;
 
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.CommentEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.PostEntity;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.ApplicationContext;
@@ -12,9 +14,9 @@ import org.testcontainers.utility.DockerImageName;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
-import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
 import software.amazon.awssdk.services.sqs.SqsClient;
 import software.amazon.awssdk.services.sqs.model.CreateQueueRequest;
 import software.amazon.awssdk.services.sqs.model.GetQueueUrlRequest;
@@ -29,6 +31,7 @@ import static org.testcontainers.containers.localstack.LocalStackContainer.Servi
 public class LocalStackTestConfig {
 
     private static final String QUEUE_NAME = "user-events-consumer-queue";
+    private static final String TABLE_NAME = "posts";
 
     @Bean
     public LocalStackContainer localstackContainer() throws IOException, InterruptedException {
@@ -61,10 +64,43 @@ public class LocalStackTestConfig {
     }
 
     @EventListener
-    @SuppressWarnings("unchecked")
     public void onApplicationReady(ApplicationReadyEvent applicationReadyEvent) {
         ApplicationContext applicationContext = applicationReadyEvent.getApplicationContext();
-        applicationContext.getBean("postTable", DynamoDbTable.class).createTable();
+        // The table is shared by all entities, so the indexes of all entities are created here
+        applicationContext.getBean(DynamoDbClient.class).createTable(CreateTableRequest.builder()
+            .tableName(TABLE_NAME)
+            .billingMode(BillingMode.PAY_PER_REQUEST)
+            .attributeDefinitions(
+                stringAttribute("PK"),
+                stringAttribute("SK"),
+                stringAttribute("postId"),
+                stringAttribute("postTimestamp"),
+                stringAttribute("commentPostId"),
+                stringAttribute("commentSortKey"))
+            .keySchema(keyElement("PK", KeyType.HASH), keyElement("SK", KeyType.RANGE))
+            .globalSecondaryIndexes(
+                globalSecondaryIndex(PostEntity.POST_ID_INDEX, keyElement("postId", KeyType.HASH)),
+                globalSecondaryIndex(PostEntity.POST_OWNER_INDEX,
+                    keyElement("PK", KeyType.HASH), keyElement("postTimestamp", KeyType.RANGE)),
+                globalSecondaryIndex(CommentEntity.COMMENT_POST_INDEX,
+                    keyElement("commentPostId", KeyType.HASH), keyElement("commentSortKey", KeyType.RANGE)))
+            .build());
+    }
+
+    private static AttributeDefinition stringAttribute(String name) {
+        return AttributeDefinition.builder().attributeName(name).attributeType(ScalarAttributeType.S).build();
+    }
+
+    private static KeySchemaElement keyElement(String name, KeyType keyType) {
+        return KeySchemaElement.builder().attributeName(name).keyType(keyType).build();
+    }
+
+    private static GlobalSecondaryIndex globalSecondaryIndex(String indexName, KeySchemaElement... keySchema) {
+        return GlobalSecondaryIndex.builder()
+            .indexName(indexName)
+            .keySchema(keySchema)
+            .projection(Projection.builder().projectionType(ProjectionType.ALL).build())
+            .build();
     }
 
     @Bean
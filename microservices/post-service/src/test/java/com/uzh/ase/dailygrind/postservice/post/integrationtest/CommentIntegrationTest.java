@@ -3,10 +3,14 @@ package com.uzh.ase.dailygrind.postservice.post.integrationtest;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.uzh.ase.dailygrind.postservice.config.DynamoDBConfig;
 import com.uzh.ase.dailygrind.postservice.post.config.LocalStackTestConfig;
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.CursorPage;
+import com.uzh.ase.dailygrind.postservice.post.repository.UserCache;
 import com.uzh.ase.dailygrind.postservice.post.repository.entity.CommentEntity;
 import com.uzh.ase.dailygrind.postservice.post.repository.entity.PostEntity;
 import com.uzh.ase.dailygrind.postservice.post.repository.entity.UserEntity;
 import com.uzh.ase.dailygrind.postservice.post.sqs.UserEventConsumer;
+import com.uzh.ase.dailygrind.postservice.post.util.PageCursor;
+import com.uzh.ase.dailygrind.postservice.post.util.Ulid;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -21,8 +25,13 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -52,6 +61,9 @@ public class CommentIntegrationTest {
     @Autowired
     private DynamoDbTable<UserEntity> userTable;
 
+    @Autowired
+    private UserCache userCache;
+
     @Autowired
     private DynamoDbTable<CommentEntity> commentTable;
 
@@ -60,6 +72,7 @@ public class CommentIntegrationTest {
         postTable.scan().items().forEach(postTable::deleteItem);
         commentTable.scan().items().forEach(commentTable::deleteItem);
         userTable.scan().items().forEach(userTable::deleteItem);
+        userCache.evictAll();
     }
 
     @Test
@@ -93,6 +106,80 @@ public class CommentIntegrationTest {
                 .andExpect(jsonPath("$.[0].user.userId").value("12345"));
     }
 
+    @Test
+    @WithMockUser("12345")
+    void testGetCommentsForPost_paginated() throws Exception {
+        // Given
+        UserEntity user = UserEntity.builder()
+            .pk(UserEntity.generatePK("12345"))
+            .sk(UserEntity.generateSK())
+            .build();
+        userTable.putItem(user);
+
+        PostEntity post = PostEntity.builder()
+            .pk(PostEntity.generatePK("12345"))
+            .sk(PostEntity.generateSK("1"))
+            .postTitle("Post Title")
+            .build();
+        postTable.putItem(post);
+
+        for (int i = 1; i <= 3; i++) {
+            commentTable.putItem(CommentEntity.builder()
+                .pk(CommentEntity.generatePK("12345", "1"))
+                .sk(CommentEntity.generateSK("c" + i))
+                .commentTimestamp(String.valueOf(1000L * i))
+                .build());
+        }
+
+        // When
+        String nextCursor = mockMvc.perform(get("/posts/1/comments")
+                .param("limit", "2")
+                .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[0].comment.commentId").value("c1"))
+            .andExpect(jsonPath("$.[1].comment.commentId").value("c2"))
+            .andExpect(header().exists(CursorPage.NEXT_CURSOR_HEADER))
+            .andReturn().getResponse().getHeader(CursorPage.NEXT_CURSOR_HEADER);
+
+        // Then
+        mockMvc.perform(get("/posts/1/comments")
+                .param("limit", "2")
+                .param("cursor", nextCursor)
+                .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].comment.commentId").value("c3"))
+            .andExpect(header().doesNotExist(CursorPage.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    @WithMockUser("12345")
+    void testGetCommentsForPost_invalidCursor() throws Exception {
+        // When + Then
+        mockMvc.perform(get("/posts/1/comments")
+                .param("cursor", "not-a-cursor")
+                .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser("12345")
+    void testGetCommentsForPost_cursorOfOtherPost() throws Exception {
+        // Given
+        String cursor = PageCursor.encode(Map.of(
+            "PK", AttributeValue.fromS(CommentEntity.generatePK("12345", "2")),
+            "SK", AttributeValue.fromS(CommentEntity.generateSK("c1")),
+            CommentEntity.COMMENT_POST_ID, AttributeValue.fromS("2"),
+            CommentEntity.COMMENT_SORT_KEY, AttributeValue.fromS("0000000001000#c1")));
+
+        // When + Then
+        mockMvc.perform(get("/posts/1/comments")
+                .param("cursor", cursor)
+                .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser("12345")
     void testCommentPost() throws Exception {
@@ -117,15 +204,20 @@ public class CommentIntegrationTest {
             .build();
 
         // When
-        mockMvc.perform(post("/posts/1/comments")
+        String response = mockMvc.perform(post("/posts/1/comments")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(comment)))
-                .andExpect(status().isCreated());
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
 
         // Then
+        // The ID sent by the client is ignored, comment IDs are always generated by the server
+        String commentId = objectMapper.readTree(response).get("comment").get("commentId").asText();
+        assertThat(commentId).isNotEqualTo("12");
+        assertThat(Ulid.isValid(commentId)).isTrue();
         mockMvc.perform(get("/posts/1/comments")
             .contentType(MediaType.APPLICATION_JSON))
-            .andExpect(jsonPath("$.[0].comment.commentId").value("12"))
+            .andExpect(jsonPath("$.[0].comment.commentId").value(commentId))
             .andExpect(jsonPath("$.[0].user.userId").value("12345"));
 
         mockMvc.perform(get("/posts/1"))
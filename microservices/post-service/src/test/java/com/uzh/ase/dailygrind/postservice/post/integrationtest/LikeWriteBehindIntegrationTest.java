@@ -0,0 +1,157 @@
+package com.uzh.ase.dailygrind.postservice.post.integrationtest;
+
+import com.uzh.ase.dailygrind.postservice.config.DynamoDBConfig;
+import com.uzh.ase.dailygrind.postservice.post.config.LocalStackTestConfig;
+import com.uzh.ase.dailygrind.postservice.post.repository.UserCache;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.LikeEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.PostEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.UserEntity;
+import com.uzh.ase.dailygrind.postservice.post.service.LikeCountAggregator;
+import com.uzh.ase.dailygrind.postservice.post.sqs.UserEventConsumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.testcontainers.shaded.org.awaitility.Awaitility.await;
+
+@SpringBootTest(properties = {
+    "post.likes.write-behind.enabled=true",
+    "post.likes.write-behind.flush-interval=200ms"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@Import({LocalStackTestConfig.class, DynamoDBConfig.class})
+public class LikeWriteBehindIntegrationTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @TestConfiguration
+    static class MockConfig {
+        @Bean
+        public UserEventConsumer userEventPublisher() {
+            return Mockito.mock(UserEventConsumer.class);
+        }
+    }
+
+    @Autowired
+    private DynamoDbTable<PostEntity> postTable;
+
+    @Autowired
+    private DynamoDbTable<UserEntity> userTable;
+
+    @Autowired
+    private DynamoDbTable<LikeEntity> likeTable;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private LikeCountAggregator likeCountAggregator;
+
+    @BeforeEach
+    void setUp() {
+        postTable.putItem(PostEntity.builder()
+            .pk(PostEntity.generatePK("11111"))
+            .sk(PostEntity.generateSK("1"))
+            .postTitle("Post Title")
+            .likeCount(0L)
+            .commentCount(0L)
+            .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        postTable.scan().items().forEach(postTable::deleteItem);
+        userTable.scan().items().forEach(userTable::deleteItem);
+        userCache.evictAll();
+    }
+
+    @Test
+    void likePost_countsAreWrittenBehind() {
+        // When
+        IntStream.range(0, 20).parallel().forEach(i -> {
+            try {
+                mockMvc.perform(post("/posts/1/likes").with(user("user" + i)))
+                    .andExpect(status().isCreated());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // Then
+        await()
+            .atMost(Duration.ofSeconds(5))
+            .pollInterval(Duration.ofMillis(100))
+            .untilAsserted(() -> mockMvc.perform(get("/posts/1").with(user("user0")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.likeCount").value(20))
+                .andExpect(jsonPath("$.isLiked").value(true)));
+    }
+
+    @Test
+    void unlikePost_countsAreWrittenBehind() throws Exception {
+        // Given
+        mockMvc.perform(post("/posts/1/likes").with(user("12345")))
+            .andExpect(status().isCreated());
+
+        // When
+        mockMvc.perform(delete("/posts/1/likes").with(user("12345")))
+            .andExpect(status().is2xxSuccessful());
+        mockMvc.perform(post("/posts/1/likes").with(user("54321")))
+            .andExpect(status().isCreated());
+
+        // Then
+        await()
+            .atMost(Duration.ofSeconds(5))
+            .pollInterval(Duration.ofMillis(100))
+            .untilAsserted(() -> mockMvc.perform(get("/posts/1").with(user("12345")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.likeCount").value(1))
+                .andExpect(jsonPath("$.isLiked").value(false)));
+    }
+
+    @Test
+    void reconcile_correctsLikeCountFromLikes() {
+        // Given
+        likeTable.putItem(LikeEntity.builder()
+            .pk(LikeEntity.generatePK("1"))
+            .sk(LikeEntity.generateSK("12345"))
+            .build());
+        likeTable.putItem(LikeEntity.builder()
+            .pk(LikeEntity.generatePK("1"))
+            .sk(LikeEntity.generateSK("54321"))
+            .build());
+
+        // When
+        boolean corrected = likeCountAggregator.reconcile("11111", "1");
+
+        // Then
+        assertThat(corrected).isTrue();
+        assertThat(postTable.getItem(PostEntity.builder()
+            .pk(PostEntity.generatePK("11111"))
+            .sk(PostEntity.generateSK("1"))
+            .build()).getLikeCount()).isEqualTo(2);
+        assertThat(likeCountAggregator.reconcile("11111", "1")).isFalse();
+    }
+}
@@ -3,6 +3,8 @@ package com.uzh.ase.dailygrind.postservice.post.integrationtest;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.uzh.ase.dailygrind.postservice.config.DynamoDBConfig;
 import com.uzh.ase.dailygrind.postservice.post.config.LocalStackTestConfig;
+import com.uzh.ase.dailygrind.postservice.post.repository.PinnedPostRepository;
+import com.uzh.ase.dailygrind.postservice.post.repository.UserCache;
 import com.uzh.ase.dailygrind.postservice.post.repository.entity.PinnedPostEntity;
 import com.uzh.ase.dailygrind.postservice.post.repository.entity.PostEntity;
 import com.uzh.ase.dailygrind.postservice.post.repository.entity.UserEntity;
@@ -22,10 +24,15 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.testcontainers.shaded.org.awaitility.Awaitility.await;
 
 @SpringBootTest
 @ActiveProfiles("test")
@@ -53,13 +60,20 @@ public class PinnedPostIntegrationTest {
     @Autowired
     private DynamoDbTable<UserEntity> userTable;
 
+    @Autowired
+    private UserCache userCache;
+
     @Autowired
     private DynamoDbTable<PinnedPostEntity> pinnedPostTable;
 
+    @Autowired
+    private PinnedPostRepository pinnedPostRepository;
+
     @AfterEach
     void tearDown() {
         postTable.scan().items().forEach(postTable::deleteItem);
         userTable.scan().items().forEach(userTable::deleteItem);
+        userCache.evictAll();
         pinnedPostTable.scan().items().forEach(pinnedPostTable::deleteItem);
     }
 
@@ -160,4 +174,104 @@ public class PinnedPostIntegrationTest {
                 .andExpect(jsonPath("$[0].postId").value("11111"));
     }
 
+    @Test
+    @WithMockUser(username = "12345")
+    void testGetPinnedPosts_snapshotFollowsPost() throws Exception {
+        // Given
+        PostEntity post = PostEntity.builder()
+            .pk(PostEntity.generatePK("12344"))
+            .sk(PostEntity.generateSK("11111"))
+            .postTitle("Post Title")
+            .likeCount(0L)
+            .commentCount(0L)
+            .build();
+        postTable.putItem(post);
+        mockMvc.perform(post("/posts/users/me/pinned-posts/11111"))
+                .andExpect(status().isOk());
+
+        // When
+        mockMvc.perform(post("/posts/11111/likes"))
+                .andExpect(status().isCreated());
+
+        // Then
+        await()
+            .atMost(Duration.ofSeconds(5))
+            .pollInterval(Duration.ofMillis(100))
+            .untilAsserted(() -> mockMvc.perform(get("/posts/users/me/pinned-posts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("Post Title"))
+                .andExpect(jsonPath("$[0].likeCount").value(1))
+                .andExpect(jsonPath("$[0].isLiked").value(true)));
+    }
+
+    @Test
+    @WithMockUser(username = "12345")
+    void testGetPinnedPosts_deletedPostIsUnpinned() throws Exception {
+        // Given
+        PostEntity post = PostEntity.builder()
+            .pk(PostEntity.generatePK("12345"))
+            .sk(PostEntity.generateSK("11111"))
+            .postTitle("Post Title")
+            .build();
+        postTable.putItem(post);
+        mockMvc.perform(post("/posts/users/me/pinned-posts/11111"))
+                .andExpect(status().isOk());
+
+        // When
+        mockMvc.perform(delete("/posts/11111"))
+                .andExpect(status().is2xxSuccessful());
+
+        // Then
+        await()
+            .atMost(Duration.ofSeconds(5))
+            .pollInterval(Duration.ofMillis(100))
+            .untilAsserted(() -> mockMvc.perform(get("/posts/users/me/pinned-posts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty()));
+    }
+
+    @Test
+    void testUpdateSnapshot_olderStateDoesNotOverwriteNewerSnapshot() {
+        // Given
+        PostEntity post = PostEntity.builder()
+            .pk(PostEntity.generatePK("12344"))
+            .sk(PostEntity.generateSK("11111"))
+            .postTitle("New Title")
+            .updatedAt(2000L)
+            .build();
+        pinnedPostRepository.savePinnedPost(new PinnedPostEntity("12345", post));
+
+        // When
+        post.setPostTitle("Old Title");
+        post.setUpdatedAt(1000L);
+        boolean olderUpdated = pinnedPostRepository.updateSnapshot("12345", post);
+        post.setPostTitle("Newest Title");
+        post.setUpdatedAt(3000L);
+        boolean newerUpdated = pinnedPostRepository.updateSnapshot("12345", post);
+
+        // Then
+        assertThat(olderUpdated).isFalse();
+        assertThat(newerUpdated).isTrue();
+        assertThat(pinnedPostRepository.findPinnedPostsForUser("12345"))
+            .extracting(PinnedPostEntity::getTitle)
+            .containsExactly("Newest Title");
+    }
+
+    @Test
+    void testBackfillSnapshot_removedPinIsNotWrittenAgain() {
+        // Given
+        PostEntity post = PostEntity.builder()
+            .pk(PostEntity.generatePK("12344"))
+            .sk(PostEntity.generateSK("11111"))
+            .postTitle("Post Title")
+            .build();
+
+        // When
+        boolean backfilled = pinnedPostRepository.backfillSnapshot(new PinnedPostEntity("12345", post));
+
+        // Then
+        assertThat(backfilled).isFalse();
+        assertThat(pinnedPostRepository.findPinnedPostsForUser("12345")).isEmpty();
+    }
+
 }
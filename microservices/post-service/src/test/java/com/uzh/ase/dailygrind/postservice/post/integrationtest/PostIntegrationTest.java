@@ -3,9 +3,15 @@ package com.uzh.ase.dailygrind.postservice.post.integrationtest;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.uzh.ase.dailygrind.postservice.config.DynamoDBConfig;
 import com.uzh.ase.dailygrind.postservice.post.config.LocalStackTestConfig;
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.CursorPage;
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.PartialResult;
 import com.uzh.ase.dailygrind.postservice.post.controller.dto.PostDto;
+import com.uzh.ase.dailygrind.postservice.post.repository.DailyPostRepository;
+import com.uzh.ase.dailygrind.postservice.post.repository.UserCache;
 import com.uzh.ase.dailygrind.postservice.post.repository.entity.*;
 import com.uzh.ase.dailygrind.postservice.post.sqs.UserEventConsumer;
+import com.uzh.ase.dailygrind.postservice.post.util.PageCursor;
+import com.uzh.ase.dailygrind.postservice.post.util.Ulid;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -16,14 +22,24 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.testcontainers.shaded.org.awaitility.Awaitility.await;
 
 
 @SpringBootTest
@@ -64,6 +80,21 @@ public class PostIntegrationTest {
     @Autowired
     private DynamoDbTable<UserEntity> userTable;
 
+    @Autowired
+    private DailyPostRepository dailyPostRepository;
+
+    @Autowired
+    private DynamoDbTable<UserLikeEntity> userLikeTable;
+
+    @Autowired
+    private DynamoDbTable<UserCommentEntity> userCommentTable;
+
+    @Autowired
+    private DynamoDbTable<PostPinEntity> postPinTable;
+
+    @Autowired
+    private UserCache userCache;
+
     @AfterEach
     void tearDown() {
         postTable.scan().items().forEach(postTable::deleteItem);
@@ -72,6 +103,7 @@ public class PostIntegrationTest {
         likeTable.scan().items().forEach(likeTable::deleteItem);
         commentTable.scan().items().forEach(commentTable::deleteItem);
         userTable.scan().items().forEach(userTable::deleteItem);
+        userCache.evictAll();
     }
 
     @Nested
@@ -186,6 +218,45 @@ public class PostIntegrationTest {
                 .andExpect(jsonPath("$[0].commentCount").value(0));
         }
 
+        @Test
+        @WithMockUser(username = "12345")
+        void testGetPosts_likedAndPinned() throws Exception {
+            // Given
+            for (String postId : List.of("1", "2", "3")) {
+                postTable.putItem(PostEntity.builder()
+                    .pk(PostEntity.generatePK("12345"))
+                    .sk(PostEntity.generateSK(postId))
+                    .postTitle("Test Post " + postId)
+                    .commentCount(0L)
+                    .likeCount(0L)
+                    .build());
+            }
+            likeTable.putItem(LikeEntity.builder()
+                .pk(LikeEntity.generatePK("1"))
+                .sk(LikeEntity.generateSK("12345"))
+                .build());
+            likeTable.putItem(LikeEntity.builder()
+                .pk(LikeEntity.generatePK("2"))
+                .sk(LikeEntity.generateSK("77777"))
+                .build());
+            pinnedPostTable.putItem(new PinnedPostEntity("12345", "3"));
+
+            // When
+            mockMvc.perform(get("/posts/users/me/posts")
+                    .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].postId").value("1"))
+                .andExpect(jsonPath("$[0].isLiked").value(true))
+                .andExpect(jsonPath("$[0].isPinned").value(false))
+                .andExpect(jsonPath("$[1].postId").value("2"))
+                .andExpect(jsonPath("$[1].isLiked").value(false))
+                .andExpect(jsonPath("$[1].isPinned").value(false))
+                .andExpect(jsonPath("$[2].postId").value("3"))
+                .andExpect(jsonPath("$[2].isLiked").value(false))
+                .andExpect(jsonPath("$[2].isPinned").value(true));
+        }
+
         @Test
         @WithMockUser(username = "12345")
         void testGetPosts_noPosts() throws Exception {
@@ -220,6 +291,172 @@ public class PostIntegrationTest {
                 .andExpect(jsonPath("$[0].commentCount").value(0));
         }
 
+        @Test
+        @WithMockUser(username = "12345")
+        void testGetPosts_paginatedNewestFirst() throws Exception {
+            // Given
+            List<String> postIds = List.of(Ulid.generate(), Ulid.generate(), Ulid.generate());
+            for (String postId : postIds) {
+                putPost("12345", postId, String.valueOf(Ulid.getTimestamp(postId)));
+            }
+            // Posts created before the IDs became time-ordered
+            String olderLegacyPostId = UUID.randomUUID().toString();
+            String newerLegacyPostId = UUID.randomUUID().toString();
+            long oldestTimestamp = Ulid.getTimestamp(postIds.get(0));
+            putPost("12345", olderLegacyPostId, String.valueOf(oldestTimestamp - 2000));
+            putPost("12345", newerLegacyPostId, String.valueOf(oldestTimestamp - 1000));
+
+            // When + Then
+            String cursor = mockMvc.perform(get("/posts/users/me/posts").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].postId").value(postIds.get(2)))
+                .andExpect(jsonPath("$[1].postId").value(postIds.get(1)))
+                .andReturn().getResponse().getHeader(CursorPage.NEXT_CURSOR_HEADER);
+
+            cursor = mockMvc.perform(get("/posts/users/me/posts").param("limit", "2").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].postId").value(postIds.get(0)))
+                .andExpect(jsonPath("$[1].postId").value(newerLegacyPostId))
+                .andExpect(header().exists(CursorPage.NEXT_CURSOR_HEADER))
+                .andReturn().getResponse().getHeader(CursorPage.NEXT_CURSOR_HEADER);
+
+            mockMvc.perform(get("/posts/users/me/posts").param("limit", "2").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].postId").value(olderLegacyPostId))
+                .andExpect(header().doesNotExist(CursorPage.NEXT_CURSOR_HEADER));
+        }
+
+        @Test
+        @WithMockUser(username = "12345")
+        void testGetPosts_summary() throws Exception {
+            // Given
+            String postId = Ulid.generate();
+            postTable.putItem(PostEntity.builder()
+                .pk(PostEntity.generatePK("77777"))
+                .sk(PostEntity.generateSK(postId))
+                .postTitle("Test Post")
+                .postContent("Long content")
+                .postTimestamp(String.valueOf(Ulid.getTimestamp(postId)))
+                .commentCount(2L)
+                .likeCount(1L)
+                .build());
+            // A post created before the IDs became time-ordered, which is read from the owner index
+            String legacyPostId = UUID.randomUUID().toString();
+            postTable.putItem(PostEntity.builder()
+                .pk(PostEntity.generatePK("77777"))
+                .sk(PostEntity.generateSK(legacyPostId))
+                .postTitle("Legacy Post")
+                .postContent("Legacy content")
+                .postTimestamp(String.valueOf(Ulid.getTimestamp(postId) - 1000))
+                .commentCount(0L)
+                .likeCount(0L)
+                .build());
+
+            // When + Then
+            mockMvc.perform(get("/posts/users/77777/posts").param("summary", "true").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].postId").value(postId))
+                .andExpect(jsonPath("$[0].title").value("Test Post"))
+                .andExpect(jsonPath("$[0].content").isEmpty())
+                .andExpect(jsonPath("$[0].likeCount").value(1))
+                .andExpect(jsonPath("$[0].commentCount").value(2))
+                .andExpect(jsonPath("$[1].postId").value(legacyPostId))
+                .andExpect(jsonPath("$[1].title").value("Legacy Post"))
+                .andExpect(jsonPath("$[1].content").isEmpty());
+            mockMvc.perform(get("/posts/users/77777/posts").param("summary", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].postId").value(postId))
+                .andExpect(jsonPath("$[0].content").isEmpty());
+
+            mockMvc.perform(get("/posts/" + postId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").value("Long content"));
+        }
+
+        @Test
+        @WithMockUser(username = "12345")
+        void testGetPosts_invalidLimitOrCursor() throws Exception {
+            // When + Then
+            mockMvc.perform(get("/posts/users/77777/posts").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+            mockMvc.perform(get("/posts/users/77777/posts").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+
+            // A cursor of the posts of another user
+            String cursor = PageCursor.encode(Map.of(
+                "PK", AttributeValue.fromS(PostEntity.generatePK("12345")),
+                "SK", AttributeValue.fromS(PostEntity.generateSK(Ulid.generate()))));
+            mockMvc.perform(get("/posts/users/77777/posts").param("cursor", cursor))
+                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @WithMockUser(username = "12345")
+        void testGetPostsByIds() throws Exception {
+            // Given
+            putPost("12345", "1", "1000");
+            putPost("77777", "2", "2000");
+            putPost("88888", "3", "3000");
+            likeTable.putItem(LikeEntity.builder()
+                .pk(LikeEntity.generatePK("2"))
+                .sk(LikeEntity.generateSK("12345"))
+                .build());
+            pinnedPostTable.putItem(new PinnedPostEntity("12345", "3"));
+
+            // When + Then
+            mockMvc.perform(get("/posts").param("ids", "3,unknown,1,2,3"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(PartialResult.INCOMPLETE_HEADER))
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].postId").value("3"))
+                .andExpect(jsonPath("$[0].isPinned").value(true))
+                .andExpect(jsonPath("$[0].isLiked").value(false))
+                .andExpect(jsonPath("$[1].postId").value("1"))
+                .andExpect(jsonPath("$[1].isPinned").value(false))
+                .andExpect(jsonPath("$[2].postId").value("2"))
+                .andExpect(jsonPath("$[2].isLiked").value(true));
+
+            mockMvc.perform(post("/posts/batch-get")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(List.of("2", "1"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].postId").value("2"))
+                .andExpect(jsonPath("$[1].postId").value("1"));
+        }
+
+        @Test
+        @WithMockUser(username = "12345")
+        void testGetPostsByIds_invalidNumberOfIds() throws Exception {
+            // When + Then
+            mockMvc.perform(get("/posts"))
+                .andExpect(status().isBadRequest());
+            mockMvc.perform(post("/posts/batch-get")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("[]"))
+                .andExpect(status().isBadRequest());
+            List<String> tooManyIds = IntStream.rangeClosed(1, 101).mapToObj(String::valueOf).toList();
+            mockMvc.perform(post("/posts/batch-get")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(tooManyIds)))
+                .andExpect(status().isBadRequest());
+        }
+
+        private void putPost(String userId, String postId, String postTimestamp) {
+            postTable.putItem(PostEntity.builder()
+                .pk(PostEntity.generatePK(userId))
+                .sk(PostEntity.generateSK(postId))
+                .postTitle("Test Post " + postId)
+                .postTimestamp(postTimestamp)
+                .commentCount(0L)
+                .likeCount(0L)
+                .build());
+        }
+
         @Test
         @WithMockUser(username = "12345")
         void testGetPostById() throws Exception {
@@ -314,7 +551,7 @@ public class PostIntegrationTest {
             PostDto postDto = new PostDto("1", "Test Post", "Test Content", null, 0L, 0L, false, false);
 
             // When
-            mockMvc.perform(post("/posts")
+            String response = mockMvc.perform(post("/posts")
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(objectMapper.writeValueAsString(postDto)))
                 .andExpect(status().isCreated())
@@ -322,19 +559,108 @@ public class PostIntegrationTest {
                 .andExpect(jsonPath("$.title").value("Test Post"))
                 .andExpect(jsonPath("$.content").value("Test Content"))
                 .andExpect(jsonPath("$.likeCount").value(0))
-                .andExpect(jsonPath("$.commentCount").value(0));
+                .andExpect(jsonPath("$.commentCount").value(0))
+                .andReturn().getResponse().getContentAsString();
+            String postId = objectMapper.readTree(response).get("postId").asText();
 
             // Then
-            mockMvc.perform(get("/posts/1")
+            assertThat(postId).isNotEqualTo("1");
+            assertThat(Ulid.isValid(postId)).isTrue();
+            mockMvc.perform(get("/posts/" + postId)
                     .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.postId").value("1"))
+                .andExpect(jsonPath("$.postId").value(postId))
                 .andExpect(jsonPath("$.title").value("Test Post"))
                 .andExpect(jsonPath("$.content").value("Test Content"))
                 .andExpect(jsonPath("$.likeCount").value(0))
                 .andExpect(jsonPath("$.commentCount").value(0));
         }
 
+        @Test
+        @WithMockUser(username = "12345")
+        void testCreatePost_alreadyHasDailyPost() throws Exception {
+            // Given
+            PostDto firstPost = new PostDto("1", "Test Post", "Test Content", null, 0L, 0L, false, false);
+            String response = mockMvc.perform(post("/posts")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(firstPost)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+            String firstPostId = objectMapper.readTree(response).get("postId").asText();
+
+            PostDto secondPost = new PostDto("2", "Second Post", "Second Content", null, 0L, 0L, false, false);
+
+            // When
+            mockMvc.perform(post("/posts")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(secondPost)))
+                .andExpect(status().isBadRequest());
+
+            // Then
+            assertThat(postTable.scan().items().stream()
+                .filter(item -> item.getPk().equals(PostEntity.generatePK("12345")))
+                .map(PostEntity::getPostId))
+                .containsExactly(firstPostId);
+            mockMvc.perform(get("/posts/users/me/daily-post")
+                    .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.postId").value(firstPostId));
+        }
+
+        @Test
+        @WithMockUser(username = "12345")
+        void testCreatePost_dailyPostWithoutLock() throws Exception {
+            // Given: a daily post created before the daily lock existed
+            postTable.putItem(PostEntity.builder()
+                .pk(PostEntity.generatePK("12345"))
+                .sk(PostEntity.generateSK("1"))
+                .postTitle("Test Post")
+                .build());
+            dailyPostTable.putItem(new DailyPostEntity("12345", "1"));
+            assertThat(dailyPostRepository.backfillDailyLocks()).isEqualTo(1);
+            assertThat(dailyPostRepository.backfillDailyLocks()).isZero();
+
+            PostDto postDto = new PostDto(null, "Second Post", "Second Content", null, 0L, 0L, false, false);
+
+            // When
+            mockMvc.perform(post("/posts")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(postDto)))
+                .andExpect(status().isBadRequest());
+
+            // Then
+            mockMvc.perform(get("/posts/users/me/daily-post"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.postId").value("1"));
+        }
+
+        @Test
+        @WithMockUser(username = "12345")
+        void testCreatePost_thenLike() throws Exception {
+            // Given
+            PostDto postDto = new PostDto(null, "Test Post", "Test Content", null, 0L, 0L, false, false);
+            String response = mockMvc.perform(post("/posts")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(postDto)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+            String postId = objectMapper.readTree(response).get("postId").asText();
+
+            // When
+            mockMvc.perform(post("/posts/" + postId + "/likes"))
+                .andExpect(status().isCreated());
+
+            // Then
+            mockMvc.perform(get("/posts/" + postId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.postId").value(postId))
+                .andExpect(jsonPath("$.likeCount").value(1))
+                .andExpect(jsonPath("$.isLiked").value(true));
+            mockMvc.perform(get("/posts/users/me/daily-post"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.postId").value(postId));
+        }
+
     }
 
     @Nested
@@ -387,6 +713,85 @@ public class PostIntegrationTest {
                 .andExpect(status().isBadRequest());
         }
 
+        @Test
+        @WithMockUser(username = "12345")
+        void testUpdatePost_keepsCounters() throws Exception {
+            // Given
+            PostEntity postEntity = PostEntity.builder()
+                .pk(PostEntity.generatePK("12345"))
+                .sk(PostEntity.generateSK("1"))
+                .postTitle("Old Title")
+                .postTimestamp("1700000000000")
+                .likeCount(5L)
+                .commentCount(2L)
+                .build();
+            postTable.putItem(postEntity);
+
+            PostDto postDto = new PostDto("1", "New Title", "New Content", null, 0L, 0L, false, false);
+
+            // When + Then
+            mockMvc.perform(put("/posts/1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(postDto)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.title").value("New Title"))
+                .andExpect(jsonPath("$.timestamp").value("1700000000000"))
+                .andExpect(jsonPath("$.likeCount").value(5))
+                .andExpect(jsonPath("$.commentCount").value(2));
+        }
+
+        @Test
+        @WithMockUser(username = "12345")
+        void testUpdatePost_ifMatch() throws Exception {
+            // Given
+            PostEntity postEntity = PostEntity.builder()
+                .pk(PostEntity.generatePK("12345"))
+                .sk(PostEntity.generateSK("1"))
+                .build();
+            postTable.putItem(postEntity);
+
+            PostDto postDto = new PostDto("1", "Test Post", "Test Content", null, 0L, 0L, false, false);
+
+            mockMvc.perform(get("/posts/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+
+            // When + Then
+            mockMvc.perform(put("/posts/1")
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(postDto)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+            mockMvc.perform(put("/posts/1")
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(postDto)))
+                .andExpect(status().isPreconditionFailed());
+        }
+
+        @Test
+        @WithMockUser(username = "12345")
+        void testUpdatePost_postOfOtherUser() throws Exception {
+            // Given
+            PostEntity postEntity = PostEntity.builder()
+                .pk(PostEntity.generatePK("54321"))
+                .sk(PostEntity.generateSK("1"))
+                .postTitle("Title")
+                .build();
+            postTable.putItem(postEntity);
+
+            PostDto postDto = new PostDto("1", "Test Post", "Test Content", null, 0L, 0L, false, false);
+
+            // When + Then
+            mockMvc.perform(put("/posts/1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(postDto)))
+                .andExpect(status().isBadRequest());
+        }
+
     }
 
     @Nested
@@ -514,6 +919,95 @@ public class PostIntegrationTest {
                 .andExpect(status().isBadRequest());
         }
 
+        @Test
+        @WithMockUser(username = "12345")
+        void testDeletePost_deletesItemsOfOtherUsers() throws Exception {
+            // Given
+            PostEntity postEntity = PostEntity.builder()
+                .pk(PostEntity.generatePK("12345"))
+                .sk(PostEntity.generateSK("1"))
+                .build();
+            postTable.putItem(postEntity);
+
+            LikeEntity likeEntity = LikeEntity.builder()
+                .pk(LikeEntity.generatePK("1"))
+                .sk(LikeEntity.generateSK("99999"))
+                .build();
+            UserLikeEntity userLikeEntity = new UserLikeEntity("99999", "1");
+            likeTable.putItem(likeEntity);
+            userLikeTable.putItem(userLikeEntity);
+
+            CommentEntity commentEntity = CommentEntity.builder()
+                .pk(CommentEntity.generatePK("99999", "1"))
+                .sk(CommentEntity.generateSK("99"))
+                .commentContent("Test Comment")
+                .build();
+            UserCommentEntity userCommentEntity = new UserCommentEntity("99999", "1", "99");
+            commentTable.putItem(commentEntity);
+            userCommentTable.putItem(userCommentEntity);
+
+            PinnedPostEntity pinnedPostEntity = new PinnedPostEntity("99999", "1");
+            PostPinEntity postPinEntity = new PostPinEntity("1", "99999");
+            pinnedPostTable.putItem(pinnedPostEntity);
+            postPinTable.putItem(postPinEntity);
+
+            // When
+            mockMvc.perform(delete("/posts/1")
+                    .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNoContent());
+
+            // Then
+            await()
+                .atMost(Duration.ofSeconds(5))
+                .pollInterval(Duration.ofMillis(100))
+                .untilAsserted(() -> {
+                    assertThat(likeTable.getItem(likeEntity)).isNull();
+                    assertThat(userLikeTable.getItem(userLikeEntity)).isNull();
+                    assertThat(commentTable.getItem(commentEntity)).isNull();
+                    assertThat(userCommentTable.getItem(userCommentEntity)).isNull();
+                    assertThat(pinnedPostTable.getItem(pinnedPostEntity)).isNull();
+                    assertThat(postPinTable.getItem(postPinEntity)).isNull();
+                });
+        }
+
+        @Test
+        @WithMockUser(username = "54321")
+        void testDeletePost_postOfOtherUser() throws Exception {
+            // Given
+            PostEntity postEntity = PostEntity.builder()
+                .pk(PostEntity.generatePK("12345"))
+                .sk(PostEntity.generateSK("1"))
+                .build();
+            postTable.putItem(postEntity);
+
+            LikeEntity likeEntity = LikeEntity.builder()
+                .pk(LikeEntity.generatePK("1"))
+                .sk(LikeEntity.generateSK("99999"))
+                .build();
+            likeTable.putItem(likeEntity);
+
+            CommentEntity commentEntity = CommentEntity.builder()
+                .pk(CommentEntity.generatePK("99999", "1"))
+                .sk(CommentEntity.generateSK("99"))
+                .commentContent("Test Comment")
+                .build();
+            commentTable.putItem(commentEntity);
+
+            PostPinEntity postPinEntity = new PostPinEntity("1", "99999");
+            postPinTable.putItem(postPinEntity);
+
+            // When
+            mockMvc.perform(delete("/posts/1")
+                    .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNoContent());
+
+            // Then
+            assertThat(postTable.getItem(postEntity)).isNotNull();
+            assertThat(likeTable.getItem(likeEntity)).isNotNull();
+            assertThat(commentTable.getItem(commentEntity)).isNotNull();
+            assertThat(postPinTable.getItem(postPinEntity)).isNotNull();
+        }
+
     }
 
     @Nested
@@ -560,6 +1054,55 @@ public class PostIntegrationTest {
                 .andExpect(jsonPath("$.isLiked").value(true));
         }
 
+        @Test
+        @WithMockUser(username = "12345")
+        void testLikePost_twice() throws Exception {
+            // Given
+            PostEntity postEntity = PostEntity.builder()
+                .pk(PostEntity.generatePK("77777"))
+                .sk(PostEntity.generateSK("1"))
+                .likeCount(0L)
+                .build();
+            postTable.putItem(postEntity);
+
+            // When
+            mockMvc.perform(post("/posts/1/likes")
+                    .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated());
+            mockMvc.perform(post("/posts/1/likes")
+                    .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated());
+
+            // Then
+            mockMvc.perform(get("/posts/1")
+                    .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.likeCount").value(1))
+                .andExpect(jsonPath("$.isLiked").value(true));
+        }
+
+        @Test
+        @WithMockUser(username = "12345")
+        void testUnlikePost_notLiked() throws Exception {
+            // Given
+            PostEntity postEntity = PostEntity.builder()
+                .pk(PostEntity.generatePK("77777"))
+                .sk(PostEntity.generateSK("1"))
+                .likeCount(0L)
+                .build();
+            postTable.putItem(postEntity);
+
+            // When
+            mockMvc.perform(delete("/posts/1/likes")
+                    .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNoContent());
+
+            // Then
+            mockMvc.perform(get("/posts/1")
+                    .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.likeCount").value(0))
+                .andExpect(jsonPath("$.isLiked").value(false));
+        }
+
         @Test
         @WithMockUser(username = "12345")
         void testUnlikePost() throws Exception {
@@ -587,6 +1130,92 @@ public class PostIntegrationTest {
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.isLiked").value(false))
                 .andExpect(jsonPath("$.likeCount").value(0));
+
+            mockMvc.perform(get("/posts/users/me/liked-posts")
+                    .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().string("[]"));
+        }
+
+        @Test
+        @WithMockUser(username = "12345")
+        void testGetLikedPosts() throws Exception {
+            // Given
+            PostEntity postEntity = PostEntity.builder()
+                .pk(PostEntity.generatePK("77777"))
+                .sk(PostEntity.generateSK("1"))
+                .postTitle("Test Post")
+                .likeCount(0L)
+                .build();
+            postTable.putItem(postEntity);
+
+            mockMvc.perform(post("/posts/1/likes")
+                    .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated());
+
+            // When + Then
+            mockMvc.perform(get("/posts/users/me/liked-posts")
+                    .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].postId").value("1"))
+                .andExpect(jsonPath("$[0].isLiked").value(true))
+                .andExpect(jsonPath("$[0].likeCount").value(1));
+        }
+
+        @Test
+        @WithMockUser(username = "12345")
+        void testGetLikedPosts_cursorOfOtherUser() throws Exception {
+            // Given
+            String cursor = PageCursor.encode(Map.of(
+                "PK", AttributeValue.fromS(UserLikeEntity.generatePK("77777")),
+                "SK", AttributeValue.fromS(UserLikeEntity.generateSK("1"))));
+
+            // When + Then
+            mockMvc.perform(get("/posts/users/me/liked-posts")
+                    .param("cursor", cursor)
+                    .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @WithMockUser(username = "12345")
+        void testGetLikers() throws Exception {
+            // Given
+            userTable.putItem(UserEntity.builder()
+                .pk(UserEntity.generatePK("12345"))
+                .sk(UserEntity.generateSK())
+                .firstName("Jane")
+                .build());
+            userTable.putItem(UserEntity.builder()
+                .pk(UserEntity.generatePK("77777"))
+                .sk(UserEntity.generateSK())
+                .firstName("John")
+                .build());
+
+            likeTable.putItem(LikeEntity.builder()
+                .pk(LikeEntity.generatePK("1"))
+                .sk(LikeEntity.generateSK("12345"))
+                .build());
+            likeTable.putItem(LikeEntity.builder()
+                .pk(LikeEntity.generatePK("1"))
+                .sk(LikeEntity.generateSK("77777"))
+                .build());
+            // The liker has been deleted in the meantime
+            likeTable.putItem(LikeEntity.builder()
+                .pk(LikeEntity.generatePK("1"))
+                .sk(LikeEntity.generateSK("99999"))
+                .build());
+
+            // When + Then
+            mockMvc.perform(get("/posts/1/likes")
+                    .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].userId").value("12345"))
+                .andExpect(jsonPath("$[0].firstName").value("Jane"))
+                .andExpect(jsonPath("$[1].userId").value("77777"))
+                .andExpect(jsonPath("$[1].firstName").value("John"));
         }
 
     }
@@ -0,0 +1,205 @@
+package com.uzh.ase.dailygrind.postservice.post.integrationtest;
+
+import com.uzh.ase.dailygrind.postservice.config.DynamoDBConfig;
+import com.uzh.ase.dailygrind.postservice.post.config.LocalStackTestConfig;
+import com.uzh.ase.dailygrind.postservice.post.repository.UserCache;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.DailyPostEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.FriendEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.LikeEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.PinnedPostEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.PostEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.UserEntity;
+import com.uzh.ase.dailygrind.postservice.post.service.TimelineCache;
+import com.uzh.ase.dailygrind.postservice.post.sqs.UserEventConsumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+
+import java.time.Duration;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.testcontainers.shaded.org.awaitility.Awaitility.await;
+
+@SpringBootTest(properties = {
+    "post.timeline.cache.enabled=true",
+    "post.timeline.cache.stale-while-revalidate=true"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@Import({LocalStackTestConfig.class, DynamoDBConfig.class})
+public class TimelineCacheIntegrationTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @TestConfiguration
+    static class MockConfig {
+        @Bean
+        public UserEventConsumer userEventPublisher() {
+            return Mockito.mock(UserEventConsumer.class);
+        }
+    }
+
+    @Autowired
+    private DynamoDbTable<PostEntity> postTable;
+
+    @Autowired
+    private DynamoDbTable<UserEntity> userTable;
+
+    @Autowired
+    private DynamoDbTable<FriendEntity> friendTable;
+
+    @Autowired
+    private DynamoDbTable<DailyPostEntity> dailyPostTable;
+
+    @Autowired
+    private DynamoDbTable<LikeEntity> likeTable;
+
+    @Autowired
+    private DynamoDbTable<PinnedPostEntity> pinnedPostTable;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private TimelineCache timelineCache;
+
+    @BeforeEach
+    void setUp() {
+        userTable.putItem(UserEntity.builder()
+            .pk(UserEntity.generatePK("12345"))
+            .sk(UserEntity.generateSK())
+            .build());
+        userTable.putItem(UserEntity.builder()
+            .pk(UserEntity.generatePK("11111"))
+            .sk(UserEntity.generateSK())
+            .build());
+        postTable.putItem(PostEntity.builder()
+            .pk(PostEntity.generatePK("11111"))
+            .sk(PostEntity.generateSK("1"))
+            .postTitle("Post Title")
+            .likeCount(0L)
+            .commentCount(0L)
+            .build());
+        dailyPostTable.putItem(new DailyPostEntity("11111", "1"));
+        friendTable.putItem(FriendEntity.builder()
+            .pk(FriendEntity.generatePK("12345"))
+            .sk(FriendEntity.generateSK("11111"))
+            .build());
+        friendTable.putItem(FriendEntity.builder()
+            .pk(FriendEntity.generatePK("11111"))
+            .sk(FriendEntity.generateSK("12345"))
+            .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        postTable.scan().items().forEach(postTable::deleteItem);
+        userTable.scan().items().forEach(userTable::deleteItem);
+        userCache.evictAll();
+        friendTable.scan().items().forEach(friendTable::deleteItem);
+        dailyPostTable.scan().items().forEach(dailyPostTable::deleteItem);
+        likeTable.scan().items().forEach(likeTable::deleteItem);
+        pinnedPostTable.scan().items().forEach(pinnedPostTable::deleteItem);
+        timelineCache.evictAll();
+    }
+
+    @Test
+    void getMyTimeline_servedFromCache() throws Exception {
+        // Given
+        mockMvc.perform(get("/posts/users/me/timeline").with(user("12345")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].post.title").value("Post Title"));
+
+        // The post is changed without going through the service, so the cached timeline is not invalidated
+        postTable.updateItem(r -> r.item(PostEntity.builder()
+                .pk(PostEntity.generatePK("11111"))
+                .sk(PostEntity.generateSK("1"))
+                .postTitle("Changed Title")
+                .build())
+            .ignoreNulls(true));
+
+        // When + Then
+        mockMvc.perform(get("/posts/users/me/timeline").with(user("12345")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].post.title").value("Post Title"));
+    }
+
+    @Test
+    void getMyTimeline_ownLikeShowsFreshTimeline() throws Exception {
+        // Given
+        mockMvc.perform(get("/posts/users/me/timeline").with(user("12345")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].post.likeCount").value(0));
+
+        // When
+        mockMvc.perform(post("/posts/1/likes").with(user("12345")))
+            .andExpect(status().isCreated());
+
+        // Then
+        // The timeline of the user who liked the post is dropped, so the first read already shows the like
+        mockMvc.perform(get("/posts/users/me/timeline").with(user("12345")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].post.likeCount").value(1))
+            .andExpect(jsonPath("$[0].post.isLiked").value(true));
+    }
+
+    @Test
+    void getMyTimeline_likeOfOtherUserServesStaleTimelineWhileRevalidating() throws Exception {
+        // Given
+        mockMvc.perform(get("/posts/users/me/timeline").with(user("12345")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].post.likeCount").value(0));
+
+        // When
+        mockMvc.perform(post("/posts/1/likes").with(user("22222")))
+            .andExpect(status().isCreated());
+
+        // Then
+        // The first read after the like returns the stale timeline and triggers the rebuild
+        mockMvc.perform(get("/posts/users/me/timeline").with(user("12345")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].post.likeCount").value(0));
+        await()
+            .atMost(Duration.ofSeconds(5))
+            .pollInterval(Duration.ofMillis(100))
+            .untilAsserted(() -> mockMvc.perform(get("/posts/users/me/timeline").with(user("12345")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].post.likeCount").value(1))
+                .andExpect(jsonPath("$[0].post.isLiked").value(false)));
+    }
+
+    @Test
+    void getMyTimeline_pinInvalidatesTimeline() throws Exception {
+        // Given
+        mockMvc.perform(get("/posts/users/me/timeline").with(user("12345")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].post.isPinned").value(false));
+
+        // When
+        mockMvc.perform(post("/posts/users/me/pinned-posts/1").with(user("12345")))
+            .andExpect(status().isOk());
+
+        // Then
+        await()
+            .atMost(Duration.ofSeconds(5))
+            .pollInterval(Duration.ofMillis(100))
+            .untilAsserted(() -> mockMvc.perform(get("/posts/users/me/timeline").with(user("12345")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].post.isPinned").value(true)));
+    }
+}
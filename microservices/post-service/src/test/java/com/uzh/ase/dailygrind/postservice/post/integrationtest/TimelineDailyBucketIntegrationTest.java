@@ -0,0 +1,139 @@
+package com.uzh.ase.dailygrind.postservice.post.integrationtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uzh.ase.dailygrind.postservice.config.DynamoDBConfig;
+import com.uzh.ase.dailygrind.postservice.post.config.LocalStackTestConfig;
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.PostDto;
+import com.uzh.ase.dailygrind.postservice.post.repository.UserCache;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.DailyBucketEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.FriendEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.PostEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.UserEntity;
+import com.uzh.ase.dailygrind.postservice.post.sqs.UserEventConsumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+
+import java.util.List;
+
+import static com.uzh.ase.dailygrind.postservice.post.integrationtest.UserFixtures.putFriendship;
+import static com.uzh.ase.dailygrind.postservice.post.integrationtest.UserFixtures.putUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+    "post.timeline.daily-bucket-read.enabled=true",
+    "post.timeline.daily-bucket-read.min-friends=1"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@Import({LocalStackTestConfig.class, DynamoDBConfig.class})
+public class TimelineDailyBucketIntegrationTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @TestConfiguration
+    static class MockConfig {
+        @Bean
+        public UserEventConsumer userEventPublisher() {
+            return Mockito.mock(UserEventConsumer.class);
+        }
+    }
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DynamoDbTable<PostEntity> postTable;
+
+    @Autowired
+    private DynamoDbTable<UserEntity> userTable;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private DynamoDbTable<FriendEntity> friendTable;
+
+    @Autowired
+    private DynamoDbTable<DailyBucketEntity> dailyBucketTable;
+
+    @AfterEach
+    void tearDown() {
+        // All entities share one table, so this also removes the daily posts and their bucket entries
+        postTable.scan().items().forEach(postTable::deleteItem);
+        userCache.evictAll();
+    }
+
+    @Test
+    void getMyTimeline_readsFriendPostsFromBucket() throws Exception {
+        // Given
+        putUser(userTable, "12345");
+        putUser(userTable, "11111");
+        putUser(userTable, "22222");
+        putFriendship(friendTable, "12345", "11111");
+        String friendPostId = createPost("11111");
+        String otherPostId = createPost("22222");
+
+        // When & Then
+        mockMvc.perform(get("/posts/users/me/timeline").with(user("12345")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].post.postId").value(friendPostId))
+            .andExpect(jsonPath("$[0].user.userId").value("11111"));
+        assertThat(bucketEntries()).extracting(DailyBucketEntity::getPostId)
+            .containsExactlyInAnyOrder(friendPostId, otherPostId);
+    }
+
+    @Test
+    void getMyTimeline_deletedPostRemovedFromBucket() throws Exception {
+        // Given
+        putUser(userTable, "12345");
+        putUser(userTable, "11111");
+        putFriendship(friendTable, "12345", "11111");
+        String postId = createPost("11111");
+
+        // When
+        mockMvc.perform(delete("/posts/" + postId).with(user("11111")))
+            .andExpect(status().isNoContent());
+
+        // Then
+        mockMvc.perform(get("/posts/users/me/timeline").with(user("12345")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0));
+        assertThat(bucketEntries()).isEmpty();
+    }
+
+    private String createPost(String userId) throws Exception {
+        PostDto postDto = new PostDto(null, "Test Post", "Test Content", null, 0L, 0L, false, false);
+        String response = mockMvc.perform(post("/posts")
+                .with(user(userId))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(postDto)))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("postId").asText();
+    }
+
+    private List<DailyBucketEntity> bucketEntries() {
+        return dailyBucketTable.scan().items().stream()
+            .filter(entry -> entry.getPk().startsWith(DailyBucketEntity.PK_PREFIX + "#"))
+            .toList();
+    }
+}
@@ -0,0 +1,245 @@
+package com.uzh.ase.dailygrind.postservice.post.integrationtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uzh.ase.dailygrind.postservice.config.DynamoDBConfig;
+import com.uzh.ase.dailygrind.postservice.post.config.LocalStackTestConfig;
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.PostDto;
+import com.uzh.ase.dailygrind.postservice.post.repository.UserCache;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.DailyPostEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.FriendEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.PostEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.TimelineInboxEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.UserEntity;
+import com.uzh.ase.dailygrind.postservice.post.service.TimelineFanOutService;
+import com.uzh.ase.dailygrind.postservice.post.sqs.UserEventConsumer;
+import com.uzh.ase.dailygrind.postservice.post.sqs.events.FriendshipEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+
+import java.time.Duration;
+import java.util.List;
+
+import static com.uzh.ase.dailygrind.postservice.post.integrationtest.UserFixtures.putFriendship;
+import static com.uzh.ase.dailygrind.postservice.post.integrationtest.UserFixtures.putUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.testcontainers.shaded.org.awaitility.Awaitility.await;
+
+@SpringBootTest(properties = {
+    "post.timeline.fan-out-on-write.enabled=true",
+    "post.timeline.fan-out-on-write.max-friends=1"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@Import({LocalStackTestConfig.class, DynamoDBConfig.class})
+public class TimelineFanOutIntegrationTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @TestConfiguration
+    static class MockConfig {
+        @Bean
+        public UserEventConsumer userEventPublisher() {
+            return Mockito.mock(UserEventConsumer.class);
+        }
+    }
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TimelineFanOutService timelineFanOutService;
+
+    @Autowired
+    private DynamoDbTable<PostEntity> postTable;
+
+    @Autowired
+    private DynamoDbTable<UserEntity> userTable;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private DynamoDbTable<FriendEntity> friendTable;
+
+    @Autowired
+    private DynamoDbTable<DailyPostEntity> dailyPostTable;
+
+    @Autowired
+    private DynamoDbTable<TimelineInboxEntity> timelineInboxTable;
+
+    @AfterEach
+    void tearDown() {
+        postTable.scan().items().forEach(postTable::deleteItem);
+        userTable.scan().items().forEach(userTable::deleteItem);
+        userCache.evictAll();
+        friendTable.scan().items().forEach(friendTable::deleteItem);
+        dailyPostTable.scan().items().forEach(dailyPostTable::deleteItem);
+        timelineInboxTable.scan().items().forEach(timelineInboxTable::deleteItem);
+    }
+
+    @Test
+    void getMyTimeline_postDeliveredToInbox() throws Exception {
+        // Given
+        putUser(userTable, "12345");
+        putUser(userTable, "11111");
+        putFriendship(friendTable, "12345", "11111");
+
+        PostDto postDto = new PostDto("1", "Test Post", "Test Content", null, 0L, 0L, false, false);
+
+        // When
+        String response = mockMvc.perform(post("/posts")
+                .with(user("11111"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(postDto)))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+        String postId = objectMapper.readTree(response).get("postId").asText();
+
+        // Then
+        awaitTimelineSize("12345", 1);
+        mockMvc.perform(get("/posts/users/me/timeline").with(user("12345")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].post.postId").value(postId))
+            .andExpect(jsonPath("$[0].user.userId").value("11111"));
+        assertThat(inboxEntries()).hasSize(1);
+    }
+
+    @Test
+    void getMyTimeline_postRemovedFromInboxAfterDelete() throws Exception {
+        // Given
+        putUser(userTable, "12345");
+        putUser(userTable, "11111");
+        putFriendship(friendTable, "12345", "11111");
+        putDailyPost("11111", "1");
+        timelineInboxTable.putItem(new TimelineInboxEntity("12345", "11111", "1"));
+
+        // When
+        mockMvc.perform(delete("/posts/1")
+                .with(user("11111")))
+            .andExpect(status().isNoContent());
+
+        // Then
+        awaitTimelineSize("12345", 0);
+        awaitInboxSize(0);
+    }
+
+    @Test
+    void getMyTimeline_fanOutOnReadFriend() throws Exception {
+        // Given
+        putUser(userTable, "12345");
+        putUser(userTable, "11111");
+        putUser(userTable, "22222");
+        putFriendship(friendTable, "12345", "11111");
+        putFriendship(friendTable, "22222", "11111");
+        putDailyPost("11111", "1");
+
+        // When
+        timelineFanOutService.friendshipCreated(new FriendshipEvent("22222", "11111"));
+
+        // Then
+        awaitTimelineSize("12345", 1);
+        mockMvc.perform(get("/posts/users/me/timeline").with(user("12345")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].post.postId").value("1"))
+            .andExpect(jsonPath("$[0].user.userId").value("11111"));
+        assertThat(inboxEntries()).isEmpty();
+    }
+
+    @Test
+    void getMyTimeline_friendshipDeleted() throws Exception {
+        // Given
+        putUser(userTable, "12345");
+        putUser(userTable, "11111");
+        putDailyPost("11111", "1");
+        timelineInboxTable.putItem(new TimelineInboxEntity("12345", "11111", "1"));
+
+        // When
+        timelineFanOutService.friendshipDeleted(new FriendshipEvent("12345", "11111"));
+
+        // Then
+        awaitInboxSize(0);
+        mockMvc.perform(get("/posts/users/me/timeline").with(user("12345")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void getMyTimeline_friendBackWithinLimit() throws Exception {
+        // Given
+        putUser(userTable, "12345");
+        putUser(userTable, "11111");
+        putFriendship(friendTable, "12345", "11111");
+        friendTable.putItem(FriendEntity.builder()
+            .pk(FriendEntity.generatePK("12345"))
+            .sk(FriendEntity.generateSK("11111"))
+            .fanOutOnRead(true)
+            .build());
+        putDailyPost("11111", "1");
+
+        // When
+        timelineFanOutService.friendshipDeleted(new FriendshipEvent("22222", "11111"));
+
+        // Then
+        awaitInboxSize(1);
+        assertThat(inboxEntries().get(0).getAuthorId()).isEqualTo("11111");
+        await()
+            .atMost(Duration.ofSeconds(5))
+            .pollInterval(Duration.ofMillis(100))
+            .untilAsserted(() -> assertThat(friendTable.getItem(FriendEntity.builder()
+                .pk(FriendEntity.generatePK("12345"))
+                .sk(FriendEntity.generateSK("11111"))
+                .build()).getFanOutOnRead()).isFalse());
+        mockMvc.perform(get("/posts/users/me/timeline").with(user("12345")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].post.postId").value("1"));
+    }
+
+    private void putDailyPost(String userId, String postId) {
+        postTable.putItem(PostEntity.builder()
+            .pk(PostEntity.generatePK(userId))
+            .sk(PostEntity.generateSK(postId))
+            .postTitle("Post Title")
+            .build());
+        dailyPostTable.putItem(new DailyPostEntity(userId, postId));
+    }
+
+    private List<TimelineInboxEntity> inboxEntries() {
+        // All entities share one table, so the scan also returns the other items
+        return timelineInboxTable.scan().items().stream()
+            .filter(entry -> entry.getPk().endsWith("#" + TimelineInboxEntity.PK_SUFFIX))
+            .toList();
+    }
+
+    private void awaitTimelineSize(String userId, int size) {
+        await()
+            .atMost(Duration.ofSeconds(5))
+            .pollInterval(Duration.ofMillis(100))
+            .untilAsserted(() -> mockMvc.perform(get("/posts/users/me/timeline").with(user(userId)))
+                .andExpect(jsonPath("$.length()").value(size)));
+    }
+
+    private void awaitInboxSize(int size) {
+        await()
+            .atMost(Duration.ofSeconds(5))
+            .pollInterval(Duration.ofMillis(100))
+            .untilAsserted(() -> assertThat(inboxEntries()).hasSize(size));
+    }
+}
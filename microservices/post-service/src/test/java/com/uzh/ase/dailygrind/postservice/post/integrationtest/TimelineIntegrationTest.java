@@ -1,10 +1,16 @@
 package com.uzh.ase.dailygrind.postservice.post.integrationtest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.uzh.ase.dailygrind.postservice.config.DynamoDBConfig;
 import com.uzh.ase.dailygrind.postservice.post.config.LocalStackTestConfig;
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.CursorPage;
+import com.uzh.ase.dailygrind.postservice.post.repository.UserCache;
 import com.uzh.ase.dailygrind.postservice.post.repository.entity.DailyPostEntity;
 import com.uzh.ase.dailygrind.postservice.post.repository.entity.FriendEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.LikeEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.PinnedPostEntity;
 import com.uzh.ase.dailygrind.postservice.post.repository.entity.PostEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.TimelineTombstoneEntity;
 import com.uzh.ase.dailygrind.postservice.post.repository.entity.UserEntity;
 import com.uzh.ase.dailygrind.postservice.post.sqs.UserEventConsumer;
 import org.junit.jupiter.api.AfterEach;
@@ -21,7 +27,14 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 
+import java.time.Duration;
+import java.util.List;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -48,18 +61,37 @@ public class TimelineIntegrationTest {
     @Autowired
     private DynamoDbTable<UserEntity> userTable;
 
+    @Autowired
+    private UserCache userCache;
+
     @Autowired
     private DynamoDbTable<FriendEntity> friendTable;
 
     @Autowired
     private DynamoDbTable<DailyPostEntity> dailyPostTable;
 
+    @Autowired
+    private DynamoDbTable<LikeEntity> likeTable;
+
+    @Autowired
+    private DynamoDbTable<PinnedPostEntity> pinnedPostTable;
+
+    @Autowired
+    private DynamoDbTable<TimelineTombstoneEntity> timelineTombstoneTable;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @AfterEach
     void tearDown() {
         postTable.scan().items().forEach(postTable::deleteItem);
         userTable.scan().items().forEach(userTable::deleteItem);
+        userCache.evictAll();
         friendTable.scan().items().forEach(friendTable::deleteItem);
         dailyPostTable.scan().items().forEach(dailyPostTable::deleteItem);
+        likeTable.scan().items().forEach(likeTable::deleteItem);
+        pinnedPostTable.scan().items().forEach(pinnedPostTable::deleteItem);
+        timelineTombstoneTable.scan().items().forEach(timelineTombstoneTable::deleteItem);
     }
 
     @Test
@@ -145,4 +177,241 @@ public class TimelineIntegrationTest {
             .andExpect(jsonPath("$.length()").value(0));
     }
 
+    @Test
+    @WithMockUser(username = "12345")
+    void getMyTimeline_paginated() throws Exception {
+        // Given
+        userTable.putItem(UserEntity.builder()
+            .pk(UserEntity.generatePK("12345"))
+            .sk(UserEntity.generateSK())
+            .build());
+        for (String friendId : List.of("11111", "22222", "33333")) {
+            userTable.putItem(UserEntity.builder()
+                .pk(UserEntity.generatePK(friendId))
+                .sk(UserEntity.generateSK())
+                .build());
+            // The posts of later friends are newer
+            postTable.putItem(PostEntity.builder()
+                .pk(PostEntity.generatePK(friendId))
+                .sk(PostEntity.generateSK("post-" + friendId))
+                .postTitle("Post Title")
+                .postTimestamp(String.valueOf(Long.parseLong(friendId) * 1000))
+                .build());
+            dailyPostTable.putItem(new DailyPostEntity(friendId, "post-" + friendId));
+            friendTable.putItem(FriendEntity.builder()
+                .pk(FriendEntity.generatePK("12345"))
+                .sk(FriendEntity.generateSK(friendId))
+                .build());
+        }
+
+        // When + Then
+        String cursor = mockMvc.perform(get("/posts/users/me/timeline").param("limit", "2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].post.postId").value("post-33333"))
+            .andExpect(jsonPath("$[1].post.postId").value("post-22222"))
+            .andExpect(header().exists(CursorPage.NEXT_CURSOR_HEADER))
+            .andReturn().getResponse().getHeader(CursorPage.NEXT_CURSOR_HEADER);
+
+        mockMvc.perform(get("/posts/users/me/timeline").param("limit", "2").param("cursor", cursor))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].post.postId").value("post-11111"))
+            .andExpect(jsonPath("$[0].user.userId").value("11111"))
+            .andExpect(header().doesNotExist(CursorPage.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    @WithMockUser(username = "12345")
+    void getMyTimeline_invalidLimitOrCursor() throws Exception {
+        // When + Then
+        mockMvc.perform(get("/posts/users/me/timeline").param("limit", "0"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/posts/users/me/timeline").param("cursor", "not-a-cursor"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "12345")
+    void getMyTimelineHistory() throws Exception {
+        // Given
+        long now = System.currentTimeMillis();
+        for (String userId : List.of("12345", "11111", "22222", "33333")) {
+            userTable.putItem(UserEntity.builder()
+                .pk(UserEntity.generatePK(userId))
+                .sk(UserEntity.generateSK())
+                .build());
+        }
+        for (String friendId : List.of("11111", "22222")) {
+            friendTable.putItem(FriendEntity.builder()
+                .pk(FriendEntity.generatePK("12345"))
+                .sk(FriendEntity.generateSK(friendId))
+                .build());
+        }
+        putPost("11111", "1", now - Duration.ofHours(1).toMillis());
+        putPost("11111", "2", now - Duration.ofHours(3).toMillis());
+        putPost("11111", "3", now - Duration.ofDays(8).toMillis());
+        putPost("22222", "4", now - Duration.ofHours(2).toMillis());
+        putPost("33333", "5", now - Duration.ofMinutes(10).toMillis());
+
+        // When + Then
+        String cursor = mockMvc.perform(get("/posts/users/me/timeline/history").param("limit", "2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].post.postId").value("1"))
+            .andExpect(jsonPath("$[0].user.userId").value("11111"))
+            .andExpect(jsonPath("$[1].post.postId").value("4"))
+            .andExpect(jsonPath("$[1].user.userId").value("22222"))
+            .andExpect(header().exists(CursorPage.NEXT_CURSOR_HEADER))
+            .andReturn().getResponse().getHeader(CursorPage.NEXT_CURSOR_HEADER);
+
+        mockMvc.perform(get("/posts/users/me/timeline/history").param("limit", "2").param("cursor", cursor))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].post.postId").value("2"))
+            .andExpect(header().doesNotExist(CursorPage.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    @WithMockUser(username = "12345")
+    void getMyTimelineHistory_invalidLimitOrCursor() throws Exception {
+        // When + Then
+        mockMvc.perform(get("/posts/users/me/timeline/history").param("limit", "101"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/posts/users/me/timeline/history").param("cursor", "not-a-cursor"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "12345")
+    void getMyTimelineChanges() throws Exception {
+        // Given
+        long createdAt = System.currentTimeMillis() - 60_000;
+        userTable.putItem(UserEntity.builder()
+            .pk(UserEntity.generatePK("12345"))
+            .sk(UserEntity.generateSK())
+            .build());
+        for (String friendId : List.of("11111", "22222")) {
+            userTable.putItem(UserEntity.builder()
+                .pk(UserEntity.generatePK(friendId))
+                .sk(UserEntity.generateSK())
+                .updatedAt(createdAt)
+                .build());
+            postTable.putItem(PostEntity.builder()
+                .pk(PostEntity.generatePK(friendId))
+                .sk(PostEntity.generateSK("post-" + friendId))
+                .postTitle("Post Title")
+                .postTimestamp(String.valueOf(createdAt))
+                .likeCount(0L)
+                .commentCount(0L)
+                .updatedAt(createdAt)
+                .build());
+            dailyPostTable.putItem(new DailyPostEntity(friendId, "post-" + friendId));
+            friendTable.putItem(FriendEntity.builder()
+                .pk(FriendEntity.generatePK("12345"))
+                .sk(FriendEntity.generateSK(friendId))
+                .createdAt(createdAt)
+                .build());
+            friendTable.putItem(FriendEntity.builder()
+                .pk(FriendEntity.generatePK(friendId))
+                .sk(FriendEntity.generateSK("12345"))
+                .createdAt(createdAt)
+                .build());
+        }
+
+        // When + Then
+        // The first sync returns the whole timeline
+        String body = mockMvc.perform(get("/posts/users/me/timeline/changes"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.reset").value(true))
+            .andExpect(jsonPath("$.entries.length()").value(2))
+            .andExpect(jsonPath("$.removedPostIds.length()").value(0))
+            .andReturn().getResponse().getContentAsString();
+        String token = objectMapper.readTree(body).get("nextToken").asText();
+
+        // Nothing changed since the first sync
+        mockMvc.perform(get("/posts/users/me/timeline/changes").param("since", token))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.reset").value(false))
+            .andExpect(jsonPath("$.entries.length()").value(0))
+            .andExpect(jsonPath("$.removedPostIds.length()").value(0));
+
+        // One post is liked, the other one is deleted
+        mockMvc.perform(post("/posts/post-11111/likes").with(user("12345")))
+            .andExpect(status().isCreated());
+        mockMvc.perform(delete("/posts/post-22222").with(user("22222")))
+            .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/posts/users/me/timeline/changes").param("since", token))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.reset").value(false))
+            .andExpect(jsonPath("$.entries.length()").value(1))
+            .andExpect(jsonPath("$.entries[0].post.postId").value("post-11111"))
+            .andExpect(jsonPath("$.entries[0].post.likeCount").value(1))
+            .andExpect(jsonPath("$.removedPostIds[0]").value("post-22222"));
+    }
+
+    @Test
+    @WithMockUser(username = "12345")
+    void getMyTimelineChanges_pinAndUnpin() throws Exception {
+        // Given
+        long createdAt = System.currentTimeMillis() - 60_000;
+        userTable.putItem(UserEntity.builder()
+            .pk(UserEntity.generatePK("11111"))
+            .sk(UserEntity.generateSK())
+            .updatedAt(createdAt)
+            .build());
+        postTable.putItem(PostEntity.builder()
+            .pk(PostEntity.generatePK("11111"))
+            .sk(PostEntity.generateSK("post-11111"))
+            .postTitle("Post Title")
+            .postTimestamp(String.valueOf(createdAt))
+            .likeCount(0L)
+            .commentCount(0L)
+            .updatedAt(createdAt)
+            .build());
+        dailyPostTable.putItem(new DailyPostEntity("11111", "post-11111"));
+        friendTable.putItem(FriendEntity.builder()
+            .pk(FriendEntity.generatePK("12345"))
+            .sk(FriendEntity.generateSK("11111"))
+            .createdAt(createdAt)
+            .build());
+
+        String body = mockMvc.perform(get("/posts/users/me/timeline/changes"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        String token = objectMapper.readTree(body).get("nextToken").asText();
+
+        // When + Then
+        mockMvc.perform(post("/posts/users/me/pinned-posts/post-11111").with(user("12345")))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/posts/users/me/timeline/changes").param("since", token))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.entries.length()").value(1))
+            .andExpect(jsonPath("$.entries[0].post.isPinned").value(true));
+
+        mockMvc.perform(delete("/posts/users/me/pinned-posts/post-11111").with(user("12345")))
+            .andExpect(status().isNoContent());
+        mockMvc.perform(get("/posts/users/me/timeline/changes").param("since", token))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.entries.length()").value(1))
+            .andExpect(jsonPath("$.entries[0].post.isPinned").value(false));
+    }
+
+    @Test
+    @WithMockUser(username = "12345")
+    void getMyTimelineChanges_invalidToken() throws Exception {
+        // When + Then
+        mockMvc.perform(get("/posts/users/me/timeline/changes").param("since", "not-a-token"))
+            .andExpect(status().isBadRequest());
+    }
+
+    private void putPost(String userId, String postId, long timestamp) {
+        postTable.putItem(PostEntity.builder()
+            .pk(PostEntity.generatePK(userId))
+            .sk(PostEntity.generateSK(postId))
+            .postTitle("Post Title")
+            .postTimestamp(String.valueOf(timestamp))
+            .build());
+    }
 }
@@ -0,0 +1,188 @@
+package com.uzh.ase.dailygrind.postservice.post.integrationtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uzh.ase.dailygrind.postservice.config.DynamoDBConfig;
+import com.uzh.ase.dailygrind.postservice.post.config.LocalStackTestConfig;
+import com.uzh.ase.dailygrind.postservice.post.controller.dto.CommentDto;
+import com.uzh.ase.dailygrind.postservice.post.repository.UserCache;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.FriendEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.PostEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.UserEntity;
+import com.uzh.ase.dailygrind.postservice.post.sqs.UserEventConsumer;
+import com.uzh.ase.dailygrind.postservice.post.util.TrendingRanking;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+
+import java.util.List;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "post.trending.rebuild=false")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@Import({LocalStackTestConfig.class, DynamoDBConfig.class})
+public class TrendingIntegrationTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @TestConfiguration
+    static class MockConfig {
+        @Bean
+        public UserEventConsumer userEventPublisher() {
+            return Mockito.mock(UserEventConsumer.class);
+        }
+    }
+
+    @Autowired
+    private DynamoDbTable<PostEntity> postTable;
+
+    @Autowired
+    private DynamoDbTable<UserEntity> userTable;
+
+    @Autowired
+    private DynamoDbTable<FriendEntity> friendTable;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private TrendingRanking trendingRanking;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        for (String userId : List.of("12345", "11111", "22222")) {
+            userTable.putItem(UserEntity.builder()
+                .pk(UserEntity.generatePK(userId))
+                .sk(UserEntity.generateSK())
+                .build());
+        }
+        postTable.putItem(PostEntity.builder()
+            .pk(PostEntity.generatePK("11111"))
+            .sk(PostEntity.generateSK("1"))
+            .postTitle("Post Title")
+            .likeCount(0L)
+            .commentCount(0L)
+            .build());
+        postTable.putItem(PostEntity.builder()
+            .pk(PostEntity.generatePK("22222"))
+            .sk(PostEntity.generateSK("2"))
+            .postTitle("Post Title")
+            .likeCount(0L)
+            .commentCount(0L)
+            .build());
+        friendTable.putItem(FriendEntity.builder()
+            .pk(FriendEntity.generatePK("12345"))
+            .sk(FriendEntity.generateSK("11111"))
+            .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        postTable.scan().items().forEach(postTable::deleteItem);
+        userTable.scan().items().forEach(userTable::deleteItem);
+        friendTable.scan().items().forEach(friendTable::deleteItem);
+        userCache.evictAll();
+        trendingRanking.remove("1");
+        trendingRanking.remove("2");
+    }
+
+    @Test
+    void getTrendingPosts_rankedByLikesAndComments() throws Exception {
+        // Given
+        mockMvc.perform(post("/posts/1/likes").with(user("12345")))
+            .andExpect(status().isCreated());
+        mockMvc.perform(post("/posts/1/likes").with(user("54321")))
+            .andExpect(status().isCreated());
+        mockMvc.perform(post("/posts/2/comments").with(user("12345"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new CommentDto("12", null, "Nice", null))))
+            .andExpect(status().isCreated());
+        mockMvc.perform(post("/posts/2/likes").with(user("54321")))
+            .andExpect(status().isCreated());
+
+        // When / Then
+        mockMvc.perform(get("/posts/trending").with(user("12345")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].post.postId").value("2"))
+            .andExpect(jsonPath("$[0].post.isLiked").value(false))
+            .andExpect(jsonPath("$[0].user.userId").value("22222"))
+            .andExpect(jsonPath("$[1].post.postId").value("1"))
+            .andExpect(jsonPath("$[1].post.isLiked").value(true));
+    }
+
+    @Test
+    void getTrendingPosts_limit() throws Exception {
+        // Given
+        mockMvc.perform(post("/posts/1/likes").with(user("12345")))
+            .andExpect(status().isCreated());
+        mockMvc.perform(post("/posts/2/likes").with(user("12345")))
+            .andExpect(status().isCreated());
+
+        // When / Then
+        mockMvc.perform(get("/posts/trending").param("limit", "1").with(user("12345")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1));
+        mockMvc.perform(get("/posts/trending").param("limit", "0").with(user("12345")))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getTrendingFriendPosts_onlyPostsOfFriends() throws Exception {
+        // Given
+        mockMvc.perform(post("/posts/1/likes").with(user("54321")))
+            .andExpect(status().isCreated());
+        mockMvc.perform(post("/posts/2/likes").with(user("54321")))
+            .andExpect(status().isCreated());
+        mockMvc.perform(post("/posts/2/likes").with(user("12345")))
+            .andExpect(status().isCreated());
+
+        // When / Then
+        mockMvc.perform(get("/posts/trending/friends").with(user("12345")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].post.postId").value("1"))
+            .andExpect(jsonPath("$[0].user.userId").value("11111"));
+    }
+
+    @Test
+    void getTrendingPosts_unlikedAndDeletedPostsAreNotTrending() throws Exception {
+        // Given
+        mockMvc.perform(post("/posts/1/likes").with(user("12345")))
+            .andExpect(status().isCreated());
+        mockMvc.perform(post("/posts/2/likes").with(user("12345")))
+            .andExpect(status().isCreated());
+
+        // When
+        mockMvc.perform(delete("/posts/1/likes").with(user("12345")))
+            .andExpect(status().is2xxSuccessful());
+        mockMvc.perform(delete("/posts/2").with(user("22222")))
+            .andExpect(status().is2xxSuccessful());
+
+        // Then
+        mockMvc.perform(get("/posts/trending").with(user("12345")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0));
+    }
+}
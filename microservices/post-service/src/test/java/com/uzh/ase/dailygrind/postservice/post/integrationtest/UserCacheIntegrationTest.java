@@ -0,0 +1,81 @@
+package com.uzh.ase.dailygrind.postservice.post.integrationtest;
+
+import com.uzh.ase.dailygrind.postservice.config.DynamoDBConfig;
+import com.uzh.ase.dailygrind.postservice.post.config.LocalStackTestConfig;
+import com.uzh.ase.dailygrind.postservice.post.repository.UserCache;
+import com.uzh.ase.dailygrind.postservice.post.repository.UserRepository;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.UserEntity;
+import com.uzh.ase.dailygrind.postservice.post.sqs.UserEventConsumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@Import({LocalStackTestConfig.class, DynamoDBConfig.class})
+public class UserCacheIntegrationTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @TestConfiguration
+    static class MockConfig {
+        @Bean
+        public UserEventConsumer userEventPublisher() {
+            return Mockito.mock(UserEventConsumer.class);
+        }
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private DynamoDbTable<UserEntity> userTable;
+
+    @AfterEach
+    void tearDown() {
+        userTable.scan().items().forEach(userTable::deleteItem);
+        userCache.evictAll();
+    }
+
+    @Test
+    void getUser_exportsCacheMetrics() throws Exception {
+        userTable.putItem(UserEntity.builder()
+            .pk(UserEntity.generatePK("user-1"))
+            .sk(UserEntity.generateSK())
+            .firstName("Alice")
+            .lastName("Alter Name")
+            .build());
+
+        // The first read misses and loads the user, the second one is served from the cache
+        userRepository.getUser("user-1");
+        userRepository.getUser("user-1");
+
+        mockMvc.perform(get("/actuator/prometheus"))
+            .andExpect(status().isOk())
+            .andExpect(content().string(matchesPattern(
+                "(?s).*cache_gets_total\\{cache=\"users\",[^}]*result=\"hit\",?}\\s+[1-9][0-9.E]*\\n.*")))
+            .andExpect(content().string(matchesPattern(
+                "(?s).*cache_gets_total\\{cache=\"users\",[^}]*result=\"miss\",?}\\s+[1-9][0-9.E]*\\n.*")));
+    }
+}
@@ -5,9 +5,11 @@ import com.uzh.ase.dailygrind.postservice.config.DynamoDBConfig;
 import com.uzh.ase.dailygrind.postservice.post.config.LocalStackTestConfig;
 import com.uzh.ase.dailygrind.postservice.post.repository.CommentRepository;
 import com.uzh.ase.dailygrind.postservice.post.repository.PostRepository;
+import com.uzh.ase.dailygrind.postservice.post.repository.UserCache;
 import com.uzh.ase.dailygrind.postservice.post.repository.UserRepository;
 import com.uzh.ase.dailygrind.postservice.post.repository.entity.CommentEntity;
 import com.uzh.ase.dailygrind.postservice.post.repository.entity.FriendEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.LikeEntity;
 import com.uzh.ase.dailygrind.postservice.post.repository.entity.PostEntity;
 import com.uzh.ase.dailygrind.postservice.post.repository.entity.UserEntity;
 import com.uzh.ase.dailygrind.postservice.post.sqs.events.FriendshipEvent;
@@ -20,6 +22,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
 import software.amazon.awssdk.services.sqs.SqsClient;
 import software.amazon.awssdk.services.sqs.model.*;
 
@@ -55,6 +58,9 @@ public class UserEventConsumerTest {
     @Autowired
     private DynamoDbTable<UserEntity> userTable;
 
+    @Autowired
+    private UserCache userCache;
+
     @Autowired
     private DynamoDbTable<FriendEntity> friendTable;
 
@@ -67,6 +73,7 @@ public class UserEventConsumerTest {
     @AfterEach
     void tearDown() {
         userTable.scan().items().forEach(userTable::deleteItem);
+        userCache.evictAll();
         friendTable.scan().items().forEach(friendTable::deleteItem);
         postTable.scan().items().forEach(postTable::deleteItem);
         commentTable.scan().items().forEach(commentTable::deleteItem);
@@ -139,6 +146,50 @@ public class UserEventConsumerTest {
             });
     }
 
+    @Test
+    void testUserCreatedEventPutsUserIntoCache() throws Exception {
+        // Given
+        UserDataEvent event = new UserDataEvent(
+            "user-123",
+            "alice@example.com",
+            "Alice",
+            "Im Wundererland",
+            "url"
+        );
+
+        String body = objectMapper.writeValueAsString(event);
+
+        SendMessageRequest sendRequest = SendMessageRequest.builder()
+            .queueUrl(queueUrl)
+            .messageBody(body)
+            .messageAttributes(Map.of(
+                "eventType", MessageAttributeValue.builder()
+                    .dataType("String")
+                    .stringValue("USER_CREATED")
+                    .build()
+            ))
+            .build();
+
+        // When
+        sqsClient.sendMessage(sendRequest);
+
+        // Then
+        Key key = Key.builder()
+            .partitionValue(UserEntity.generatePK("user-123"))
+            .sortValue(UserEntity.generateSK())
+            .build();
+        await()
+            .atMost(Duration.ofSeconds(10))
+            .pollInterval(Duration.ofMillis(250))
+            .untilAsserted(() -> assertThat(userTable.getItem(key)).isNotNull());
+
+        // The user has never been read, so it can only be served from the entry written by the event
+        userTable.deleteItem(key);
+        assertThat(userRepository.getUser("user-123"))
+            .isNotNull()
+            .satisfies(u -> assertThat(u.getLastName()).isEqualTo("Im Wundererland"));
+    }
+
     @Test
     void testUserUpdatedEventHandledFromSqsQueue() throws Exception {
         // Given
@@ -204,6 +255,8 @@ public class UserEventConsumerTest {
             .lastName("Alter Name")
             .build();
         userRepository.addNewUser(userEntity);
+        // Adding the user caches it, so the user is only gone once the event evicted the entry
+        assertThat(userRepository.getUser("user-123")).isNotNull();
 
         UserDataEvent event = new UserDataEvent(
             "user-123",
@@ -397,9 +450,17 @@ public class UserEventConsumerTest {
                 .pk(PostEntity.generatePK("other-user"))
                 .sk(PostEntity.generateSK("post-2"))
                 .postContent("My second post")
+                .likeCount(0L)
+                .commentCount(1L)
                 .build();
         postRepository.savePost(post2);
 
+        // Save like
+        postRepository.likePost(LikeEntity.builder()
+                .pk(LikeEntity.generatePK("post-2"))
+                .sk(LikeEntity.generateSK(userId))
+                .build(), "other-user");
+
         // Save comment
         CommentEntity comment1 = CommentEntity.builder()
                 .pk(CommentEntity.generatePK(userId, "post-1"))
@@ -451,6 +512,10 @@ public class UserEventConsumerTest {
                     assertThat(commentRepository.findCommentById("comment-2")).isNull();
                     assertThat(commentRepository.findAllCommentsForPost("post-2")).isEmpty();
                     assertThat(postRepository.findPostById("post-2")).isNotNull();
+                    assertThat(postRepository.findAllUsersWhoLikedPost("post-2")).isEmpty();
+                    assertThat(postRepository.findAllLikedPostIds(userId)).isEmpty();
+                    assertThat(postRepository.findPostById("post-2").getLikeCount()).isZero();
+                    assertThat(postRepository.findPostById("post-2").getCommentCount()).isZero();
                     assertThat(userRepository.getUser("other-user")).isNotNull();
                     assertThat(userRepository.getFriendIds("other-user")).doesNotContain(userId);
                 });
@@ -0,0 +1,32 @@
+package com.uzh.ase.dailygrind.postservice.post.integrationtest;
+
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.FriendEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.UserEntity;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+
+/**
+ * Writes users and friendships directly to DynamoDB for integration tests that do not go through the user events.
+ */
+final class UserFixtures {
+
+    private UserFixtures() {
+    }
+
+    static void putUser(DynamoDbTable<UserEntity> userTable, String userId) {
+        userTable.putItem(UserEntity.builder()
+            .pk(UserEntity.generatePK(userId))
+            .sk(UserEntity.generateSK())
+            .build());
+    }
+
+    static void putFriendship(DynamoDbTable<FriendEntity> friendTable, String userAId, String userBId) {
+        friendTable.putItem(FriendEntity.builder()
+            .pk(FriendEntity.generatePK(userAId))
+            .sk(FriendEntity.generateSK(userBId))
+            .build());
+        friendTable.putItem(FriendEntity.builder()
+            .pk(FriendEntity.generatePK(userBId))
+            .sk(FriendEntity.generateSK(userAId))
+            .build());
+    }
+}
@@ -27,6 +27,16 @@ public class CommentMapperTest {
         assertThat(entity.getCommentTimestamp()).isEqualTo(Instant.parse("2025-05-11T12:00:00Z").toString());
     }
 
+    @Test
+    void toCommentEntity_shouldDeriveCommentPostIndexKeys() {
+        CommentDto dto = new CommentDto("comment789", "user123", "Nice post!", "1746964800000");
+
+        CommentEntity entity = commentMapper.toCommentEntity("user123", "post456", dto);
+
+        assertThat(entity.getCommentPostId()).isEqualTo("post456");
+        assertThat(entity.getCommentSortKey()).isEqualTo("1746964800000#comment789");
+    }
+
     @Test
     void toCommentEntity_shouldMapCorrectlyWithCommentId() {
         String userId = "user123";
@@ -2,6 +2,7 @@ package com.uzh.ase.dailygrind.postservice.post.mapper;
 
 import com.uzh.ase.dailygrind.postservice.post.controller.dto.PostDto;
 import com.uzh.ase.dailygrind.postservice.post.repository.entity.LikeEntity;
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.PinnedPostEntity;
 import com.uzh.ase.dailygrind.postservice.post.repository.entity.PostEntity;
 import org.junit.jupiter.api.Test;
 import org.mapstruct.factory.Mappers;
@@ -76,4 +77,30 @@ class PostMapperTest {
         assertThat(dto.isLiked()).isTrue();
         assertThat(dto.isPinned()).isTrue();
     }
+
+    @Test
+    void toPostDto_fromPinnedPost_shouldMapSnapshot() {
+        PostEntity post = new PostEntity();
+        post.setPk("USER#author1#POST");
+        post.setSk("POST#post789");
+        post.setPostTitle("Pinned Title");
+        post.setPostContent("Pinned Content");
+        post.setPostTimestamp(Instant.parse("2025-05-11T12:00:00Z").toString());
+        post.setLikeCount(4L);
+        post.setCommentCount(2L);
+
+        PinnedPostEntity pinnedPost = new PinnedPostEntity("user123", post);
+        PostDto dto = postMapper.toPostDto(pinnedPost, false);
+
+        assertThat(pinnedPost.hasSnapshot()).isTrue();
+        assertThat(pinnedPost.getAuthorId()).isEqualTo("author1");
+        assertThat(dto.postId()).isEqualTo("post789");
+        assertThat(dto.title()).isEqualTo("Pinned Title");
+        assertThat(dto.content()).isNull();
+        assertThat(dto.timestamp()).isEqualTo(Instant.parse("2025-05-11T12:00:00Z").toString());
+        assertThat(dto.likeCount()).isEqualTo(4);
+        assertThat(dto.commentCount()).isEqualTo(2);
+        assertThat(dto.isLiked()).isFalse();
+        assertThat(dto.isPinned()).isTrue();
+    }
 }
@@ -0,0 +1,89 @@
+package com.uzh.ase.dailygrind.postservice.post.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class FriendGraphTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private FriendGraph friendGraph;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        friendGraph = new FriendGraph(meterRegistry, true);
+    }
+
+    @Test
+    void getFriendIds_shouldRequireLoad() {
+        friendGraph.addFriend("12345", "11111");
+
+        assertThat(friendGraph.isLoaded()).isFalse();
+        assertThatThrownBy(() -> friendGraph.getFriendIds("12345")).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void addFriend_shouldKeepFriendsOfEachUser() {
+        load();
+        friendGraph.addFriend("12345", "22222");
+        friendGraph.addFriend("12345", "11111");
+        friendGraph.addFriend("12345", "11111");
+        friendGraph.addFriend("11111", "12345");
+
+        assertThat(friendGraph.getFriendIds("12345")).containsExactlyInAnyOrder("11111", "22222");
+        assertThat(friendGraph.getFriendIds("11111")).containsExactly("12345");
+        assertThat(friendGraph.getFriendIds("22222")).isEmpty();
+        assertThat(friendGraph.getFriendIds("99999")).isEmpty();
+        assertThat(friendGraph.isFriend("12345", "22222")).isTrue();
+        assertThat(friendGraph.isFriend("22222", "12345")).isFalse();
+        assertThat(meterRegistry.get("friend_graph.edges").gauge().value()).isEqualTo(3);
+    }
+
+    @Test
+    void removeFriend_shouldOnlyRemoveThatEntry() {
+        load();
+        IntStream.range(0, 100).forEach(i -> friendGraph.addFriend("12345", "user" + i));
+
+        friendGraph.removeFriend("12345", "user50");
+        friendGraph.removeFriend("12345", "unknown");
+
+        assertThat(friendGraph.getFriendIds("12345")).hasSize(99).doesNotContain("user50");
+        assertThat(meterRegistry.get("friend_graph.edges").gauge().value()).isEqualTo(99);
+    }
+
+    @Test
+    void loadFriend_shouldNotRestoreFriendsRemovedDuringLoad() {
+        friendGraph.startLoad();
+        friendGraph.loadFriend("12345", "11111");
+        friendGraph.removeFriend("12345", "11111");
+        friendGraph.removeFriend("12345", "22222");
+        friendGraph.loadFriend("12345", "22222");
+        friendGraph.removeFriend("12345", "33333");
+        friendGraph.addFriend("12345", "33333");
+        friendGraph.loadFriend("12345", "33333");
+        friendGraph.finishLoad();
+
+        assertThat(friendGraph.getFriendIds("12345")).containsExactly("33333");
+    }
+
+    @Test
+    void addFriend_shouldBeIgnoredWhenDisabled() {
+        FriendGraph disabled = new FriendGraph(new SimpleMeterRegistry(), false);
+        disabled.addFriend("12345", "11111");
+        disabled.startLoad();
+        disabled.finishLoad();
+
+        assertThat(disabled.getFriendIds("12345")).isEmpty();
+    }
+
+    private void load() {
+        friendGraph.startLoad();
+        friendGraph.finishLoad();
+    }
+}
@@ -0,0 +1,122 @@
+package com.uzh.ase.dailygrind.postservice.post.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ParallelLookupExecutorTest {
+
+    private ThreadPoolTaskExecutor taskExecutor;
+    private ParallelLookupExecutor parallelLookupExecutor;
+
+    @BeforeEach
+    void setUp() {
+        taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(8);
+        taskExecutor.setMaxPoolSize(8);
+        taskExecutor.initialize();
+
+        parallelLookupExecutor = new ParallelLookupExecutor(taskExecutor);
+        ReflectionTestUtils.setField(parallelLookupExecutor, "enabled", true);
+        ReflectionTestUtils.setField(parallelLookupExecutor, "maxConcurrency", 2);
+        ReflectionTestUtils.setField(parallelLookupExecutor, "deadline", Duration.ofMillis(500));
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskExecutor.shutdown();
+    }
+
+    @Test
+    void run_shouldReturnAllResults() {
+        List<Supplier<Integer>> lookups = IntStream.range(0, 10)
+            .<Supplier<Integer>>mapToObj(i -> () -> i % 2 == 0 ? i : null)
+            .toList();
+
+        ParallelLookupExecutor.Results<Integer> results = parallelLookupExecutor.run(lookups);
+
+        assertThat(results.complete()).isTrue();
+        assertThat(results.results()).containsExactlyInAnyOrder(0, 2, 4, 6, 8);
+    }
+
+    @Test
+    void run_shouldNotExceedMaxConcurrency() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Supplier<Integer>> lookups = IntStream.range(0, 8)
+            .<Supplier<Integer>>mapToObj(i -> () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(20);
+                running.decrementAndGet();
+                return i;
+            })
+            .toList();
+
+        ParallelLookupExecutor.Results<Integer> results = parallelLookupExecutor.run(lookups);
+
+        assertThat(results.complete()).isTrue();
+        assertThat(results.results()).hasSize(8);
+        assertThat(maxRunning.get()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void run_shouldReturnPartialResultsAfterDeadline() {
+        List<Supplier<Integer>> lookups = List.of(
+            () -> 1,
+            () -> {
+                sleep(5_000);
+                return 2;
+            });
+
+        long start = System.nanoTime();
+        ParallelLookupExecutor.Results<Integer> results = parallelLookupExecutor.run(lookups);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+        assertThat(results.complete()).isFalse();
+        assertThat(results.results()).containsExactly(1);
+    }
+
+    @Test
+    void run_shouldMarkFailedLookupsAsIncomplete() {
+        List<Supplier<Integer>> lookups = List.of(
+            () -> 1,
+            () -> {
+                throw new IllegalStateException("lookup failed");
+            });
+
+        ParallelLookupExecutor.Results<Integer> results = parallelLookupExecutor.run(lookups);
+
+        assertThat(results.complete()).isFalse();
+        assertThat(results.results()).containsExactly(1);
+    }
+
+    @Test
+    void run_shouldRunSequentiallyWhenDisabled() {
+        ReflectionTestUtils.setField(parallelLookupExecutor, "enabled", false);
+        String callerThread = Thread.currentThread().getName();
+        List<Supplier<String>> lookups = List.of(() -> Thread.currentThread().getName());
+
+        ParallelLookupExecutor.Results<String> results = parallelLookupExecutor.run(lookups);
+
+        assertThat(results.complete()).isTrue();
+        assertThat(results.results()).containsExactly(callerThread);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
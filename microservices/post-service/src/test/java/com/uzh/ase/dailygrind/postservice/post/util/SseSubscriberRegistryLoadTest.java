@@ -0,0 +1,169 @@
+package com.uzh.ase.dailygrind.postservice.post.util;
+
+import com.sun.management.UnixOperatingSystemMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.embedded.EmbeddedWebServerFactoryCustomizerAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.testcontainers.shaded.org.awaitility.Awaitility.await;
+
+/**
+ * Opens more idle timeline streams over real sockets than Tomcat accepts with its default
+ * {@code max-connections} of 8192, using the connector settings of {@code application.yaml}.
+ * <p>
+ * Client and server run in the same process, so every stream needs two file descriptors. The test is skipped if
+ * the open file limit of the process does not allow that many.
+ */
+@SpringBootTest(classes = SseSubscriberRegistryLoadTest.StreamConfig.class,
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class SseSubscriberRegistryLoadTest {
+
+    private static final int CONNECTIONS = 9_000;
+    private static final long RESERVED_FILE_DESCRIPTORS = 1_000;
+
+    @Configuration
+    @ImportAutoConfiguration({
+        ServletWebServerFactoryAutoConfiguration.class,
+        EmbeddedWebServerFactoryCustomizerAutoConfiguration.class,
+        DispatcherServletAutoConfiguration.class,
+        WebMvcAutoConfiguration.class,
+        HttpMessageConvertersAutoConfiguration.class,
+        JacksonAutoConfiguration.class
+    })
+    @Import(SseSubscriberRegistry.class)
+    static class StreamConfig {
+
+        @Bean
+        public MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        public ThreadPoolTaskExecutor timelineStreamExecutor() {
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setCorePoolSize(4);
+            executor.setMaxPoolSize(4);
+            executor.setQueueCapacity(CONNECTIONS);
+            return executor;
+        }
+
+        @Bean
+        public StreamController streamController(SseSubscriberRegistry registry) {
+            return new StreamController(registry);
+        }
+    }
+
+    @RestController
+    static class StreamController {
+
+        private final SseSubscriberRegistry registry;
+
+        StreamController(SseSubscriberRegistry registry) {
+            this.registry = registry;
+        }
+
+        @GetMapping("/stream/{userId}")
+        public SseEmitter stream(@PathVariable String userId) {
+            return registry.subscribe(userId);
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private SseSubscriberRegistry registry;
+
+    private final List<Socket> sockets = new ArrayList<>();
+
+    @BeforeAll
+    static void checkFileDescriptorLimit() {
+        long maxFileDescriptors = ManagementFactory.getOperatingSystemMXBean() instanceof UnixOperatingSystemMXBean os
+            ? os.getMaxFileDescriptorCount() : 0;
+        assumeTrue(maxFileDescriptors >= 2L * CONNECTIONS + RESERVED_FILE_DESCRIPTORS,
+            "Open file limit of " + maxFileDescriptors + " is too low for " + CONNECTIONS + " connections");
+    }
+
+    @AfterEach
+    void tearDown() {
+        sockets.forEach(socket -> {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // The connection is gone anyway
+            }
+        });
+    }
+
+    @Test
+    void idleStreams_shouldStayOpenAndReceiveHeartbeats() throws Exception {
+        for (int i = 0; i < CONNECTIONS; i++) {
+            Socket socket = new Socket();
+            sockets.add(socket);
+            socket.connect(new InetSocketAddress("localhost", port), 10_000);
+            socket.setSoTimeout(30_000);
+            socket.getOutputStream().write(("GET /stream/user-" + i + " HTTP/1.1\r\n"
+                + "Host: localhost\r\n"
+                + "Accept: text/event-stream\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        }
+
+        // Every request has to be accepted by Tomcat to reach the registry
+        await()
+            .atMost(Duration.ofSeconds(60))
+            .pollInterval(Duration.ofMillis(250))
+            .untilAsserted(() -> assertThat(registry.getConnectionCount()).isEqualTo(CONNECTIONS));
+
+        registry.sendHeartbeats();
+        registry.publish("user-42", "counter", "a");
+
+        for (int i = 0; i < CONNECTIONS; i++) {
+            readUntil(sockets.get(i), i == 42 ? "event:counter" : ":heartbeat");
+        }
+        assertThat(registry.getConnectionCount()).isEqualTo(CONNECTIONS);
+    }
+
+    private static void readUntil(Socket socket, String expected) throws IOException {
+        InputStream in = socket.getInputStream();
+        StringBuilder received = new StringBuilder();
+        byte[] buffer = new byte[1024];
+        while (!received.toString().contains(expected)) {
+            int read = in.read(buffer);
+            if (read < 0) {
+                throw new AssertionError("Stream closed before receiving " + expected + ": " + received);
+            }
+            received.append(new String(buffer, 0, read, StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.uzh.ase.dailygrind.postservice.post.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.testcontainers.shaded.org.awaitility.Awaitility.await;
+
+public class SseSubscriberRegistryTest {
+
+    private static final int QUEUE_CAPACITY = 4;
+    private static final int MAX_CONNECTIONS = 100;
+
+    private ThreadPoolTaskExecutor taskExecutor;
+    private SseSubscriberRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(4);
+        taskExecutor.setMaxPoolSize(4);
+        taskExecutor.setQueueCapacity(MAX_CONNECTIONS);
+        taskExecutor.initialize();
+
+        registry = new SseSubscriberRegistry(taskExecutor, new SimpleMeterRegistry(), QUEUE_CAPACITY,
+            MAX_CONNECTIONS, Duration.ofMinutes(30));
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskExecutor.shutdown();
+    }
+
+    @Test
+    void publish_shouldDeliverEventsInOrderToAllConnectionsOfUser() {
+        RecordingEmitter first = new RecordingEmitter();
+        RecordingEmitter second = new RecordingEmitter();
+        RecordingEmitter other = new RecordingEmitter();
+        registry.subscribe("12345", first);
+        registry.subscribe("12345", second);
+        registry.subscribe("11111", other);
+
+        registry.publish("12345", "counter", "a");
+        registry.publish(List.of("12345", "99999"), "counter", "b");
+
+        awaitEvents(first, 2);
+        awaitEvents(second, 2);
+        assertThat(first.events).hasSize(2);
+        assertThat(first.events.get(0)).contains("event:counter").contains("data:a");
+        assertThat(first.events.get(1)).contains("data:b");
+        assertThat(other.events).isEmpty();
+    }
+
+    @Test
+    void publish_shouldDropConnectionThatDoesNotKeepUp() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(blocked);
+        RecordingEmitter fast = new RecordingEmitter();
+        registry.subscribe("12345", slow);
+        registry.subscribe("11111", fast);
+
+        // The first event blocks the slow client, the following ones fill its queue
+        registry.publish("12345", "counter", 0);
+        awaitSendStarted(slow);
+        for (int i = 1; i <= QUEUE_CAPACITY + 1; i++) {
+            registry.publish("12345", "counter", i);
+        }
+        registry.publish("11111", "counter", 0);
+        blocked.countDown();
+
+        assertThat(slow.completed).isTrue();
+        assertThat(registry.isSubscribed("12345")).isFalse();
+        awaitEvents(fast, 1);
+        assertThat(registry.isSubscribed("11111")).isTrue();
+        assertThat(registry.getConnectionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void subscribe_shouldRejectConnectionsAboveMaximum() {
+        SseSubscriberRegistry limited = new SseSubscriberRegistry(taskExecutor, new SimpleMeterRegistry(),
+            QUEUE_CAPACITY, 1, Duration.ofMinutes(30));
+        limited.subscribe("12345", new RecordingEmitter());
+
+        assertThatThrownBy(() -> limited.subscribe("11111", new RecordingEmitter()))
+            .isInstanceOf(ResponseStatusException.class);
+        assertThat(limited.getConnectionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void sendHeartbeats_shouldReachAllConnections() {
+        RecordingEmitter first = new RecordingEmitter();
+        RecordingEmitter second = new RecordingEmitter();
+        registry.subscribe("12345", first);
+        registry.subscribe("11111", second);
+
+        registry.sendHeartbeats();
+
+        awaitEvents(first, 1);
+        awaitEvents(second, 1);
+        assertThat(first.events).containsExactly(":heartbeat\n\n");
+        assertThat(second.events).containsExactly(":heartbeat\n\n");
+        assertThat(registry.getConnectionCount()).isEqualTo(2);
+    }
+
+    private static void awaitEvents(RecordingEmitter emitter, int count) {
+        await()
+            .atMost(Duration.ofSeconds(10))
+            .pollInterval(Duration.ofMillis(10))
+            .untilAsserted(() -> assertThat(emitter.events).hasSizeGreaterThanOrEqualTo(count));
+    }
+
+    private static void awaitSendStarted(RecordingEmitter emitter) throws InterruptedException {
+        assertThat(emitter.sendStarted.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    /**
+     * Emitter that records the sent events instead of writing them to a response.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch sendStarted = new CountDownLatch(1);
+        private final CountDownLatch blocked;
+        private volatile boolean completed;
+
+        RecordingEmitter() {
+            this(new CountDownLatch(0));
+        }
+
+        RecordingEmitter(CountDownLatch blocked) {
+            this.blocked = blocked;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sendStarted.countDown();
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            StringBuilder event = new StringBuilder();
+            builder.build().forEach(part -> event.append(part.getData()));
+            events.add(event.toString());
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.uzh.ase.dailygrind.postservice.post.util;
+
+import com.uzh.ase.dailygrind.postservice.post.repository.entity.PostEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class TrendingRankingTest {
+
+    private static final Duration HALF_LIFE = Duration.ofHours(6);
+    private static final Duration MAX_AGE = Duration.ofHours(24);
+    private static final int CAPACITY = 10;
+
+    private MutableClock clock;
+    private TrendingRanking ranking;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2025-05-01T12:00:00Z"));
+        ranking = new TrendingRanking(clock, HALF_LIFE, MAX_AGE, CAPACITY);
+    }
+
+    @Test
+    void top_shouldReturnPostsWithHighestScoresFirst() {
+        long now = clock.millis();
+        ranking.record("1", "11111", now, 1);
+        ranking.record("2", "22222", now, 3);
+        ranking.record("3", "33333", now, 2);
+        ranking.record("1", "11111", now, TrendingRanking.COMMENT_WEIGHT);
+
+        assertThat(ranking.top(2, ownerId -> true))
+            .extracting(TrendingRanking.RankedPost::postId)
+            .containsExactly("1", "2");
+    }
+
+    @Test
+    void top_shouldDecayOlderEngagement() {
+        long now = clock.millis();
+        ranking.record("1", "11111", now, 3);
+        clock.advance(HALF_LIFE);
+        ranking.record("2", "22222", now, 2);
+
+        assertThat(ranking.top(2, ownerId -> true))
+            .extracting(TrendingRanking.RankedPost::postId)
+            .containsExactly("2", "1");
+        assertThat(ranking.top(2, ownerId -> true).get(1).score()).isCloseTo(1.5, within(1e-9));
+    }
+
+    @Test
+    void top_shouldOnlyReturnPostsOfFilteredOwners() {
+        long now = clock.millis();
+        ranking.record("1", "11111", now, 5);
+        ranking.record("2", "22222", now, 1);
+        ranking.record("3", "33333", now, 3);
+
+        Set<String> friendIds = Set.of("22222", "33333");
+        assertThat(ranking.top(10, friendIds::contains))
+            .extracting(TrendingRanking.RankedPost::postId)
+            .containsExactly("3", "2");
+    }
+
+    @Test
+    void record_shouldNotRankPostsWithoutEngagement() {
+        long now = clock.millis();
+        ranking.record("1", "11111", now, TrendingRanking.LIKE_WEIGHT);
+        ranking.record("1", "11111", now, -TrendingRanking.LIKE_WEIGHT);
+        ranking.record("1", "11111", now, -TrendingRanking.LIKE_WEIGHT);
+
+        assertThat(ranking.top(10, ownerId -> true)).isEmpty();
+    }
+
+    @Test
+    void record_shouldIgnoreExpiredPosts() {
+        ranking.record("1", "11111", clock.millis() - MAX_AGE.toMillis() - 1, 5);
+
+        assertThat(ranking.size()).isZero();
+    }
+
+    @Test
+    void prune_shouldRemoveExpiredPosts() {
+        ranking.record("1", "11111", clock.millis(), 5);
+        clock.advance(MAX_AGE.plusMillis(1));
+
+        assertThat(ranking.top(10, ownerId -> true)).isEmpty();
+        ranking.prune();
+        assertThat(ranking.size()).isZero();
+    }
+
+    @Test
+    void record_shouldDropPostsWithLowestScoresAboveCapacity() {
+        long now = clock.millis();
+        for (int i = 0; i < 2 * CAPACITY; i++) {
+            ranking.record(String.valueOf(i), "11111", now, i + 1);
+        }
+        ranking.prune();
+
+        assertThat(ranking.size()).isEqualTo(CAPACITY);
+        assertThat(ranking.top(CAPACITY, ownerId -> true))
+            .extracting(TrendingRanking.RankedPost::postId)
+            .doesNotContain("0", "9")
+            .contains("10", "19");
+    }
+
+    @Test
+    void seed_shouldDecayEngagementSinceCreation() {
+        PostEntity post = PostEntity.builder()
+            .pk(PostEntity.generatePK("11111"))
+            .sk(PostEntity.generateSK("1"))
+            .postTimestamp(String.valueOf(clock.millis() - HALF_LIFE.toMillis()))
+            .build();
+
+        ranking.seed(post, 4);
+
+        assertThat(ranking.top(1, ownerId -> true).get(0).score()).isCloseTo(2, within(1e-9));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        private void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.uzh.ase.dailygrind.postservice.post.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class UlidTest {
+
+    @Test
+    void generate_shouldSortByCreationTime() {
+        String earlier = Ulid.generate(1_700_000_000_000L);
+        String later = Ulid.generate(1_700_000_000_001L);
+
+        assertThat(earlier).hasSize(26);
+        assertThat(earlier).isLessThan(later);
+        assertThat(Ulid.getTimestamp(earlier)).isEqualTo(1_700_000_000_000L);
+        assertThat(Ulid.getTimestamp(later)).isEqualTo(1_700_000_000_001L);
+    }
+
+    @Test
+    void generate_shouldBeStrictlyIncreasingWithinSameMillisecond() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            ids.add(Ulid.generate());
+        }
+
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+        assertThat(ids).allMatch(Ulid::isValid);
+    }
+
+    @Test
+    void bounds_shouldEncloseAllIdsOfTime() {
+        long timestamp = 1_800_000_000_000L;
+        String id = Ulid.generate(timestamp);
+
+        assertThat(Ulid.lowerBound(timestamp)).isLessThanOrEqualTo(id);
+        assertThat(Ulid.upperBound(timestamp)).isGreaterThanOrEqualTo(id);
+        assertThat(Ulid.upperBound(timestamp - 1)).isLessThan(Ulid.lowerBound(timestamp));
+        assertThat(Ulid.lowerBound(timestamp)).endsWith("0000000000000000");
+        assertThat(Ulid.upperBound(timestamp)).endsWith("ZZZZZZZZZZZZZZZZ");
+    }
+
+    @Test
+    void isValid_shouldRejectOtherIds() {
+        assertThat(Ulid.isValid(UUID.randomUUID().toString())).isFalse();
+        assertThat(Ulid.isValid("post789")).isFalse();
+        assertThat(Ulid.isValid(null)).isFalse();
+        assertThat(Ulid.isValid("8ZZZZZZZZZZZZZZZZZZZZZZZZZ")).isFalse();
+        assertThatThrownBy(() -> Ulid.getTimestamp("post789")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -35,6 +35,42 @@ resource "aws_dynamodb_table" "posts" {
     name = "SK"
     type = "S"
   }
+  attribute {
+    name = "postId"
+    type = "S"
+  }
+  attribute {
+    name = "postTimestamp"
+    type = "S"
+  }
+  attribute {
+    name = "commentPostId"
+    type = "S"
+  }
+  attribute {
+    name = "commentSortKey"
+    type = "S"
+  }
+
+  global_secondary_index {
+    name            = "post-id-index"
+    hash_key        = "postId"
+    projection_type = "ALL"
+  }
+
+  global_secondary_index {
+    name            = "post-owner-index"
+    hash_key        = "PK"
+    range_key       = "postTimestamp"
+    projection_type = "ALL"
+  }
+
+  global_secondary_index {
+    name            = "comment-post-index"
+    hash_key        = "commentPostId"
+    range_key       = "commentSortKey"
+    projection_type = "ALL"
+  }
 
   ttl {
     attribute_name = "ttl"